@@ -2,51 +2,129 @@ package edu.ccrm.cli;
 
 import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
+import edu.ccrm.event.DomainEvent;
+import edu.ccrm.event.EventBus;
+import edu.ccrm.event.RecentActivity;
 import edu.ccrm.service.StudentService;
 import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseSort;
+import edu.ccrm.service.DepartmentAggregates;
+import edu.ccrm.service.DataDomain;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.PrerequisiteGraph;
+import edu.ccrm.service.GradeStatistics;
+import edu.ccrm.service.InactiveStudentTier;
+import edu.ccrm.service.QueryResultCache;
+import edu.ccrm.service.StatisticsService;
+import edu.ccrm.service.StudentSort;
 import edu.ccrm.io.ImportExportService;
+import edu.ccrm.io.BackupRetention;
+import edu.ccrm.io.BackupScheduler;
 import edu.ccrm.io.BackupService;
+import edu.ccrm.io.DataLoad;
+import edu.ccrm.io.DataDirectoryWatcher;
+import edu.ccrm.io.ImportMode;
+import edu.ccrm.io.MarksImportResult;
+import edu.ccrm.io.RestoreService;
+import edu.ccrm.io.RestoredData;
 import edu.ccrm.exceptions.DuplicateEnrollmentException;
 import edu.ccrm.exceptions.MaxCreditLimitExceededException;
+import edu.ccrm.exceptions.PrerequisiteNotMetException;
+import edu.ccrm.exceptions.ScheduleConflictException;
+import edu.ccrm.query.CourseField;
+import edu.ccrm.query.Criterion;
+import edu.ccrm.store.MappedStudentArchive;
+import edu.ccrm.util.Page;
 
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.io.IOException;
 
 public class CLIMenu {
+    private static final Duration BACKUP_CLOSE_TIMEOUT = Duration.ofSeconds(60);
     private final Scanner scanner;
-    private final StudentService studentService;
-    private final CourseService courseService;
-    private final ImportExportService importExportService;
-    private final BackupService backupService;
+    // Replaced together, from the menu thread, when a backup is restored
+    private EventBus events;
+    private StudentService studentService;
+    private CourseService courseService;
+    private ImportExportService importExportService;
+    private BackupService backupService;
+    private BackupScheduler backupScheduler;
+    private StatisticsService statisticsService;
+    private DataDirectoryWatcher watcher;
+    private RecentActivity recentActivity;
+    private DataLoad dataLoad;
     private boolean running;
     
     public CLIMenu() {
         this.scanner = new Scanner(System.in);
-        this.studentService = new StudentService();
-        this.courseService = new CourseService();
-        this.importExportService = new ImportExportService(studentService, courseService);
-        this.backupService = new BackupService(importExportService);
+        EventBus events = new EventBus();
+        CourseService courseService = new CourseService(events);
+        StudentService studentService = new StudentService(events, courseService);
+        AppConfig config = AppConfig.getInstance();
+        enableInactiveTier(studentService, courseService);
+        studentService.enableResultCache(config.getResultCacheSize());
+        useServices(events, courseService, studentService, new ImportExportService(studentService, courseService));
         this.running = true;
         
-        loadInitialData();
+        // Load in the background so the menu appears at once; the watcher follows from where the load ends
+        this.dataLoad = importExportService.loadInitialDataAsync();
+        importExportService.attachArchiveIfPresent();
+        if (config.isWatchEnabled()) {
+            dataLoad.getAllLoaded().thenRun(this::toggleWatcher);
+        }
+        // Scheduled only once loaded, so no backup captures a partial load
+        if (config.getBackupIntervalMinutes() > 0) {
+            dataLoad.getAllLoaded().thenRun(() ->
+                backupScheduler.start(Duration.ofMinutes(config.getBackupIntervalMinutes())));
+        }
+    }
+    
+    // Points the menu at a set of services and builds what hangs off them
+    private void useServices(EventBus events, CourseService courseService, StudentService studentService,
+                             ImportExportService importExportService) {
+        AppConfig config = AppConfig.getInstance();
+        this.events = events;
+        this.recentActivity = new RecentActivity(events, 20);
+        this.courseService = courseService;
+        this.studentService = studentService;
+        this.importExportService = importExportService;
+        this.backupService = new BackupService(importExportService);
+        this.backupScheduler = new BackupScheduler(backupService,
+            new BackupRetention(config.getBackupKeepHourly(), config.getBackupKeepDaily()));
+        this.statisticsService = new StatisticsService(studentService);
+        this.watcher = importExportService.createWatcher();
     }
     
-    private void loadInitialData() {
+    // Runs the action once the data it needs has finished loading
+    private void whenLoaded(CompletableFuture<Void> loaded, String what, Runnable action) {
+        if (!loaded.isDone()) {
+            System.out.println("Waiting for " + what + " to finish loading...");
+        }
         try {
-            AppConfig config = AppConfig.getInstance();
-            Path studentsFile = config.getStudentDataFile();
-            Path coursesFile = config.getCourseDataFile();
-            
-            if (java.nio.file.Files.exists(studentsFile)) {
-                importExportService.importStudentsFromCSV(studentsFile);
-            }
-            if (java.nio.file.Files.exists(coursesFile)) {
-                importExportService.importCoursesFromCSV(coursesFile);
-            }
-        } catch (IOException e) {
-            System.out.println("Note: Could not load initial data: " + e.getMessage());
+            loaded.join();
+        } catch (CompletionException e) {
+            System.out.println("Continuing without complete data: " + e.getCause().getMessage());
+        }
+        action.run();
+    }
+    
+    // Read-only listings are safe on partial data; say so while loading
+    private void noteIfLoading(CompletableFuture<Void> loaded, String what) {
+        if (!loaded.isDone()) {
+            System.out.println("(" + what + " still loading; showing records loaded so far)");
         }
     }
     
@@ -63,17 +141,27 @@ public class CLIMenu {
             switch (choice) {
                 case "1" -> manageStudents(); 
                 case "2" -> manageCourses();
-                case "3" -> manageEnrollments();
-                case "4" -> manageGrades();
-                case "5" -> importExportData();
-                case "6" -> backupOperations();
-                case "7" -> generateReports();
+                case "3" -> whenLoaded(dataLoad.getAllLoaded(), "data", this::manageEnrollments);
+                case "4" -> whenLoaded(dataLoad.getAllLoaded(), "data", this::manageGrades);
+                case "5" -> whenLoaded(dataLoad.getAllLoaded(), "data", this::importExportData);
+                case "6" -> whenLoaded(dataLoad.getAllLoaded(), "data", this::backupOperations);
+                case "7" -> whenLoaded(dataLoad.getAllLoaded(), "data", this::generateReports);
                 case "8" -> {
+                    int unsaved = importExportService.getStore().getDirtyCount();
+                    if (unsaved > 0 && dataLoad.isDone() && importExportService.getStore().exists()) {
+                        System.out.println("Note: " + unsaved + " shard(s) have unsaved changes "
+                            + "(Import/Export > Save Students to Shards).");
+                    }
+                    if (backupScheduler.isBusy()) {
+                        System.out.println("Waiting for the background backup to finish...");
+                    }
+                    backupScheduler.close(BACKUP_CLOSE_TIMEOUT);
+                    closeInactiveTier();
                     System.out.println("Exiting CCRM.");
                     break mainLoop; 
                 }
                 case "debug" -> { 
-                    debugMenu();
+                    whenLoaded(dataLoad.getAllLoaded(), "data", this::debugMenu);
                     continue mainLoop; 
                 }
                 default -> {
@@ -105,7 +193,9 @@ public class CLIMenu {
             System.out.println("2. Add New Student");
             System.out.println("3. Find Student by ID");
             System.out.println("4. View Student Profile");
-            System.out.println("5. Back to Main Menu");
+            System.out.println("5. Search Students by Name/Email");
+            System.out.println("6. Activate/Deactivate Student");
+            System.out.println("7. Back to Main Menu");
             System.out.print("Enter choice: ");
             
             String choice = scanner.nextLine();
@@ -115,15 +205,21 @@ public class CLIMenu {
                     listAllStudents();
                     break;
                 case "2":
-                    addNewStudent();
+                    whenLoaded(dataLoad.getStudentsLoaded(), "students", this::addNewStudent);
                     break;
                 case "3":
-                    findStudentById();
+                    whenLoaded(dataLoad.getStudentsLoaded(), "students", this::findStudentById);
                     break;
                 case "4":
-                    viewStudentProfile();
+                    whenLoaded(dataLoad.getStudentsLoaded(), "students", this::viewStudentProfile);
                     break;
                 case "5":
+                    whenLoaded(dataLoad.getStudentsLoaded(), "students", this::searchStudentsByName);
+                    break;
+                case "6":
+                    whenLoaded(dataLoad.getAllLoaded(), "data", this::toggleStudentActive);
+                    break;
+                case "7":
                     break studentLoop; 
                 default:
                     System.out.println("Invalid choice!");
@@ -131,18 +227,94 @@ public class CLIMenu {
         }
     }
     
-    private void listAllStudents() {
-        System.out.println("\n=== ALL STUDENTS ===");
-        if (studentService.getAllStudents().isEmpty()) {
-            System.out.println("No students found.");
+    // Deactivated students leave memory at once; activating one brings it back
+    private void toggleStudentActive() {
+        Optional<Student> found = promptStudent();
+        if (found.isEmpty()) {
             return;
         }
+        Student student = found.get();
+        if (studentService.isArchived(student)) {
+            System.out.println(student.getFullName() + " is in the read-only archive and cannot be changed.");
+            return;
+        }
+        student.setActive(!student.isActive());
+        System.out.println(student.getFullName() + " is now " + (student.isActive() ? "active" : "inactive") + ".");
+        if (!student.isActive()) {
+            importExportService.retireInactiveStudents();
+        }
+    }
+    
+    private void listAllStudents() {
+        System.out.println("\n=== ALL STUDENTS ===");
+        noteIfLoading(dataLoad.getStudentsLoaded(), "Students");
+        StudentSort sort = promptStudentSort();
         
-        studentService.getAllStudents().forEach(student -> {
-            double gpa = studentService.calculateGPA(student);
-            System.out.printf("%s - %s (GPA: %.2f, Credits: %d)%n",
-                student.getRegNo(), student.getFullName(), gpa, student.getTotalCredits());
-        });
+        pageThrough(cursor -> studentService.pageStudents(sort, cursor, pageSize()),
+            student -> {
+                double gpa = studentService.calculateGPA(student);
+                System.out.printf("%s - %s (GPA: %.2f, Credits: %d)%n",
+                    student.getRegNo(), student.getFullName(), gpa, student.getTotalCredits());
+            },
+            "No students found.");
+    }
+    
+    private StudentSort promptStudentSort() {
+        StudentSort[] sorts = StudentSort.values();
+        for (int i = 0; i < sorts.length; i++) {
+            System.out.printf("%d. Sort by %s%n", i + 1, sorts[i].getDisplayName());
+        }
+        System.out.print("Enter choice [1]: ");
+        String input = scanner.nextLine().trim();
+        try {
+            int index = input.isEmpty() ? 0 : Integer.parseInt(input) - 1;
+            return (index >= 0 && index < sorts.length) ? sorts[index] : StudentSort.ID;
+        } catch (NumberFormatException e) {
+            return StudentSort.ID;
+        }
+    }
+    
+    private CourseSort promptCourseSort() {
+        CourseSort[] sorts = CourseSort.values();
+        for (int i = 0; i < sorts.length; i++) {
+            System.out.printf("%d. Sort by %s%n", i + 1, sorts[i].getDisplayName());
+        }
+        System.out.print("Enter choice [1]: ");
+        String input = scanner.nextLine().trim();
+        try {
+            int index = input.isEmpty() ? 0 : Integer.parseInt(input) - 1;
+            return (index >= 0 && index < sorts.length) ? sorts[index] : CourseSort.CODE;
+        } catch (NumberFormatException e) {
+            return CourseSort.CODE;
+        }
+    }
+    
+    // Fetches one page at a time; only the current page is ever held in memory
+    private <T> void pageThrough(Function<String, Page<T>> fetch, Consumer<T> printer, String emptyMessage) {
+        String cursor = null;
+        boolean first = true;
+        while (true) {
+            Page<T> page = fetch.apply(cursor);
+            if (first && page.getItems().isEmpty()) {
+                System.out.println(emptyMessage);
+                return;
+            }
+            first = false;
+            page.getItems().forEach(printer);
+            
+            if (!page.hasNext()) {
+                return;
+            }
+            System.out.print("-- Press Enter for next page, 'q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            cursor = page.getNextCursor();
+        }
+    }
+    
+    private int pageSize() {
+        return AppConfig.getInstance().getPageSize();
     }
     
     private void addNewStudent() {
@@ -173,6 +345,21 @@ public class CLIMenu {
         }
     }
     
+    private void searchStudentsByName() {
+        System.out.print("Enter name or email (typos allowed): ");
+        String query = scanner.nextLine().trim();
+        
+        List<Student> matches = studentService.searchByName(query, 10);
+        if (matches.isEmpty()) {
+            System.out.println("No matching students.");
+            return;
+        }
+        for (Student student : matches) {
+            System.out.printf("%s - %s (%s) <%s>%n",
+                student.getId(), student.getFullName(), student.getRegNo(), student.getEmail());
+        }
+    }
+    
     private void viewStudentProfile() {
         System.out.print("Enter Student ID: ");
         String id = scanner.nextLine();
@@ -192,26 +379,46 @@ public class CLIMenu {
                         System.out.printf("- %s: %s - %s%n", 
                             course.getCode(), course.getTitle(), gradeInfo);
                     }
+                    showTimetables(student);
                 }
             },
             () -> System.out.println("Student not found.")
         );
     }
     
+    private void showTimetables(Student student) {
+        for (Semester semester : Semester.values()) {
+            List<Map.Entry<TimeSlot, Course>> timetable = studentService.getTimetable(student, semester);
+            int credits = studentService.getCredits(student, semester);
+            if (credits == 0 && timetable.isEmpty()) {
+                continue;
+            }
+            System.out.printf("%n%s: %d/%d credits%n", semester.getDisplayName(), credits,
+                StudentService.MAX_CREDITS_PER_SEMESTER);
+            for (Map.Entry<TimeSlot, Course> meeting : timetable) {
+                System.out.printf("  %s  %s%n", meeting.getKey(), meeting.getValue().getCode());
+            }
+        }
+    }
+    
     private void manageCourses() {
         while (true) {
             System.out.println("\n=== COURSE MANAGEMENT ===");
             System.out.println("1. List All Courses");
             System.out.println("2. Search Courses");
             System.out.println("3. Add New Course");
-            System.out.println("4. Back to Main Menu");
+            System.out.println("4. Prerequisites and Corequisites");
+            System.out.println("5. Instructors");
+            System.out.println("6. Back to Main Menu");
             System.out.print("Enter choice: ");
             
             switch (scanner.nextLine()) {
                 case "1" -> listAllCourses();
                 case "2" -> searchCourses();
-                case "3" -> addNewCourse();
-                case "4" -> { return; }
+                case "3" -> whenLoaded(dataLoad.getCoursesLoaded(), "courses", this::addNewCourse);
+                case "4" -> whenLoaded(dataLoad.getCoursesLoaded(), "courses", this::manageRequirements);
+                case "5" -> whenLoaded(dataLoad.getCoursesLoaded(), "courses", this::manageInstructors);
+                case "6" -> { return; }
                 default -> System.out.println("Invalid choice!");
             }
         }
@@ -219,9 +426,13 @@ public class CLIMenu {
     
     private void listAllCourses() {
         System.out.println("\n=== ALL COURSES ===");
-        courseService.getAllCourses().forEach(course -> 
-            System.out.printf("%s: %s (%d credits) - %s%n",
-                course.getCode(), course.getTitle(), course.getCredits(), course.getInstructor()));
+        noteIfLoading(dataLoad.getCoursesLoaded(), "Courses");
+        CourseSort sort = promptCourseSort();
+        
+        pageThrough(cursor -> courseService.pageCourses(sort, cursor, pageSize()),
+            course -> System.out.printf("%s: %s (%d credits) - %s%n",
+                course.getCode(), course.getTitle(), course.getCredits(), course.getInstructor()),
+            "No courses found.");
     }
     
     private void searchCourses() {
@@ -229,31 +440,202 @@ public class CLIMenu {
         System.out.println("1. Search by Keyword");
         System.out.println("2. Search by Instructor");
         System.out.println("3. Search by Department");
+        System.out.println("4. Advanced Search (combined filters)");
         System.out.print("Enter choice: ");
         
         String choice = scanner.nextLine();
+        if (choice.equals("4")) {
+            advancedCourseSearch();
+            return;
+        }
         System.out.print("Enter search term: ");
         String term = scanner.nextLine();
+        noteIfLoading(dataLoad.getCoursesLoaded(), "Courses");
         
-        Runnable searchAction = () -> {
-            var results = switch (choice) {
-                case "1" -> courseService.search(term);
-                case "2" -> courseService.searchByInstructor(term);
-                case "3" -> courseService.searchByDepartment(term);
-                default -> { 
-                    System.out.println("Invalid choice!");
-                    yield java.util.Collections.<Course>emptyList();
-                }
-            };
-            
-            if (results.isEmpty()) {
-                System.out.println("No courses found.");
+        Function<String, Page<Course>> fetch = switch (choice) {
+            case "1" -> cursor -> courseService.searchPage(term, CourseSort.CODE, cursor, pageSize());
+            case "2" -> cursor -> courseService.pageCourses(
+                courseService.searchByInstructor(term).stream(), CourseSort.CODE, cursor, pageSize());
+            case "3" -> cursor -> courseService.pageCourses(
+                courseService.searchByDepartment(term).stream(), CourseSort.CODE, cursor, pageSize());
+            default -> null;
+        };
+        
+        if (fetch == null) {
+            System.out.println("Invalid choice!");
+            return;
+        }
+        pageThrough(fetch, course -> System.out.println("- " + course), "No courses found.");
+    }
+    
+    // Each filter left blank is skipped; the rest are combined with AND
+    private void advancedCourseSearch() {
+        List<Criterion<Course>> filters = new ArrayList<>();
+        System.out.print("Department (blank for any): ");
+        String department = scanner.nextLine().trim();
+        if (!department.isEmpty()) {
+            filters.add(Criterion.eq(CourseField.DEPARTMENT, department));
+        }
+        System.out.print("Semester (INTERIM/SUMMER/FALL, blank for any): ");
+        String semester = scanner.nextLine().trim();
+        if (!semester.isEmpty()) {
+            try {
+                filters.add(Criterion.eq(CourseField.SEMESTER, Semester.valueOf(semester.toUpperCase())));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown semester: " + semester);
+                return;
+            }
+        }
+        System.out.print("Minimum credits (blank for any): ");
+        String minCredits = scanner.nextLine().trim();
+        if (!minCredits.isEmpty()) {
+            try {
+                filters.add(Criterion.atLeast(CourseField.CREDITS, Integer.parseInt(minCredits)));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number: " + minCredits);
+                return;
+            }
+        }
+        System.out.print("Instructor (blank for any): ");
+        String instructor = scanner.nextLine().trim();
+        if (!instructor.isEmpty()) {
+            filters.add(Criterion.eq(CourseField.INSTRUCTOR, instructor));
+        }
+        System.out.print("Title contains (blank for any): ");
+        String title = scanner.nextLine().trim();
+        if (!title.isEmpty()) {
+            filters.add(Criterion.contains(CourseField.TITLE, title));
+        }
+        
+        if (filters.isEmpty()) {
+            System.out.println("No filters given.");
+            return;
+        }
+        Criterion<Course> query = filters.size() == 1 ? filters.get(0) : Criterion.and(filters);
+        System.out.println("\n" + courseService.explain(query) + "\n");
+        pageThrough(cursor -> courseService.pageCourses(courseService.queryStream(query), CourseSort.CODE, cursor, pageSize()),
+            course -> System.out.println("- " + course), "No courses found.");
+    }
+    
+    private void manageRequirements() {
+        System.out.println("\n=== PREREQUISITES AND COREQUISITES ===");
+        System.out.println("1. Show Requirements of a Course");
+        System.out.println("2. Add Prerequisite");
+        System.out.println("3. Add Corequisite");
+        System.out.println("4. Remove Prerequisite");
+        System.out.println("5. Remove Corequisite");
+        System.out.println("6. Back");
+        System.out.print("Enter choice: ");
+        
+        String choice = scanner.nextLine();
+        if (choice.equals("6")) {
+            return;
+        }
+        if (!List.of("1", "2", "3", "4", "5").contains(choice)) {
+            System.out.println("Invalid choice!");
+            return;
+        }
+        Optional<Course> course = promptCourse();
+        if (course.isEmpty()) {
+            return;
+        }
+        PrerequisiteGraph graph = courseService.getPrerequisites();
+        String code = course.get().getCode();
+        if (choice.equals("1")) {
+            System.out.println("Prerequisites: " + graph.getPrerequisites(code));
+            System.out.println("All prerequisites (transitive): " + graph.getAllPrerequisites(code));
+            System.out.println("Corequisites: " + graph.getCorequisites(code));
+            return;
+        }
+        
+        System.out.println("Required course:");
+        Optional<Course> required = promptCourse();
+        if (required.isEmpty()) {
+            return;
+        }
+        RequirementType type = choice.equals("2") || choice.equals("4")
+            ? RequirementType.PREREQUISITE : RequirementType.COREQUISITE;
+        String requiredCode = required.get().getCode();
+        try {
+            if (choice.equals("2") || choice.equals("3")) {
+                courseService.addRequirement(code, requiredCode, type);
+                System.out.println(type.getDisplayName() + " added: " + code + " requires " + requiredCode);
+            } else if (graph.remove(code, requiredCode, type)) {
+                System.out.println(type.getDisplayName() + " removed.");
             } else {
-                results.forEach(course -> System.out.println("- " + course));
+                System.out.println(requiredCode + " is not a " + type.getDisplayName().toLowerCase() + " of " + code);
             }
-        };
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+    
+    private void manageInstructors() {
+        System.out.println("\n=== INSTRUCTORS ===");
+        System.out.println("1. List Instructors and Workload");
+        System.out.println("2. Add Instructor");
+        System.out.println("3. Assign Instructor to Course");
+        System.out.println("4. Courses Taught by Instructor");
+        System.out.println("5. Back");
+        System.out.print("Enter choice: ");
         
-        searchAction.run(); 
+        InstructorService instructors = courseService.getInstructors();
+        switch (scanner.nextLine()) {
+            case "1" -> {
+                List<Instructor> all = instructors.getAllInstructors();
+                if (all.isEmpty()) {
+                    System.out.println("No instructors found.");
+                }
+                for (Instructor instructor : all) {
+                    System.out.printf("%s: %s (%s)%n", instructor.getId(), instructor.getFullName(),
+                        instructor.getDepartment());
+                    instructors.getWorkload(instructor.getId()).forEach((semester, workload) ->
+                        System.out.printf("  %s: %s%n", semester.getDisplayName(), workload));
+                }
+            }
+            case "2" -> {
+                System.out.print("Instructor ID: ");
+                String id = scanner.nextLine().trim();
+                System.out.print("Full Name: ");
+                String name = scanner.nextLine().trim();
+                System.out.print("Email: ");
+                String email = scanner.nextLine().trim();
+                System.out.print("Department: ");
+                String department = scanner.nextLine().trim();
+                try {
+                    instructors.addInstructor(new Instructor(id, name, email, department));
+                    System.out.println("Instructor added successfully!");
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Error: " + e.getMessage());
+                }
+            }
+            case "3" -> {
+                Optional<Course> course = promptCourse();
+                if (course.isEmpty()) {
+                    return;
+                }
+                System.out.print("Instructor ID: ");
+                String id = scanner.nextLine().trim();
+                instructors.findInstructorById(id).ifPresentOrElse(
+                    instructor -> {
+                        instructors.assign(course.get(), instructor);
+                        System.out.println(course.get().getCode() + " is now taught by " + instructor.getFullName());
+                    },
+                    () -> System.out.println("Instructor not found."));
+            }
+            case "4" -> {
+                System.out.print("Instructor ID: ");
+                String id = scanner.nextLine().trim();
+                List<Course> taught = instructors.getCoursesTaughtBy(id);
+                if (taught.isEmpty()) {
+                    System.out.println("No courses found.");
+                }
+                taught.forEach(course -> System.out.printf("%s: %s (%d credits) - %s%n",
+                    course.getCode(), course.getTitle(), course.getCredits(), course.getSemester()));
+            }
+            case "5" -> { }
+            default -> System.out.println("Invalid choice!");
+        }
     }
     
     private void addNewCourse() {
@@ -264,16 +646,29 @@ public class CLIMenu {
         String title = scanner.nextLine();
         System.out.print("Credits: ");
         int credits = Integer.parseInt(scanner.nextLine());
-        System.out.print("Instructor: ");
-        String instructor = scanner.nextLine();
+        System.out.print("Instructor (ID or name): ");
+        String instructor = scanner.nextLine().trim();
+        InstructorService instructors = courseService.getInstructors();
+        Instructor known = instructors.findInstructorById(instructor)
+            .orElseGet(() -> instructors.resolve(null, instructor));
         System.out.print("Department: ");
         String department = scanner.nextLine();
+        System.out.print("Meeting times (e.g. MON 09:00-10:30;WED 09:00-10:30, blank for none): ");
+        List<TimeSlot> meetingTimes;
+        try {
+            meetingTimes = TimeSlot.parseList(scanner.nextLine());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid meeting times: " + e.getMessage());
+            return;
+        }
         
         Course course = new Course.Builder(code, title)
             .credits(credits)
-            .instructor(instructor)
+            .instructor(known != null ? known.getFullName() : instructor)
+            .instructorId(known != null ? known.getId() : null)
             .semester(Semester.INTERIM) 
             .department(department)
+            .meetingTimes(meetingTimes)
             .build();
             
         courseService.addCourse(course);
@@ -282,16 +677,20 @@ public class CLIMenu {
     
     private void manageEnrollments() {
         System.out.println("\n=== ENROLLMENT MANAGEMENT ===");
-        System.out.print("Student ID: ");
-        String studentId = scanner.nextLine();
-        System.out.print("Course Code: ");
-        String courseCode = scanner.nextLine();
-        
-        Optional<Student> student = studentService.findStudentById(studentId);
-        Optional<Course> course = courseService.getCourseByCode(courseCode);
-        
-        if (student.isEmpty() || course.isEmpty()) {
-            System.out.println("Student or course not found.");
+        Optional<Student> student = promptStudent();
+        if (student.isEmpty()) {
+            return;
+        }
+        if (studentService.isRetired(student.get())) {
+            System.out.println(student.get().getFullName() + " is inactive; activate the student before enrolling.");
+            return;
+        }
+        if (studentService.isArchived(student.get())) {
+            System.out.println(student.get().getFullName() + " is in the read-only archive and cannot be enrolled.");
+            return;
+        }
+        Optional<Course> course = promptCourse();
+        if (course.isEmpty()) {
             return;
         }
         
@@ -300,6 +699,10 @@ public class CLIMenu {
             System.out.println("Enrollment successful!");
         } catch (DuplicateEnrollmentException e) {
             System.out.println("Enrollment failed: " + e.getMessage());
+        } catch (PrerequisiteNotMetException e) {
+            System.out.println("Enrollment failed: " + e.getMessage());
+        } catch (ScheduleConflictException e) {
+            System.out.println("Enrollment failed: " + e.getMessage());
         } catch (MaxCreditLimitExceededException e) {
             System.out.println("Enrollment failed: " + e.getMessage());
         }
@@ -307,10 +710,37 @@ public class CLIMenu {
     
     private void manageGrades() {
         System.out.println("\n=== GRADE MANAGEMENT ===");
-        System.out.print("Student ID: ");
-        String studentId = scanner.nextLine();
+        System.out.println("1. Record Marks for a Student");
+        System.out.println("2. Import Marks from CSV");
+        System.out.println("3. Back to Main Menu");
+        System.out.print("Enter choice: ");
         
-        studentService.findStudentById(studentId).ifPresentOrElse(
+        switch (scanner.nextLine().trim()) {
+            case "1" -> recordMarks();
+            case "2" -> importMarks();
+            case "3" -> { }
+            default -> System.out.println("Invalid choice!");
+        }
+    }
+    
+    // End-of-term entry: studentId,courseCode,marks rows; rejected rows go to a report beside the file
+    private void importMarks() {
+        Path file = promptImportFile(AppConfig.getInstance().getMarksDataFile());
+        try {
+            MarksImportResult result = importExportService.importMarksFromCSV(file);
+            if (result.getRejected() > 0) {
+                String name = file.getFileName().toString().replaceFirst("\\.csv$", "");
+                Path rejects = file.resolveSibling(name + "-rejects.csv");
+                result.writeRejects(rejects);
+                System.out.println("Reject report written to " + rejects);
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+    
+    private void recordMarks() {
+        promptStudent().ifPresent(
             student -> {
                 System.out.println("Courses enrolled by " + student.getFullName() + ":");
                 int i = 0;
@@ -335,17 +765,79 @@ public class CLIMenu {
                 } else {
                     System.out.println("Invalid selection.");
                 }
-            },
-            () -> System.out.println("Student not found.")
+            }
         );
     }
     
+    // Accepts an ID or regNo; on a miss offers regNo completions instead of failing
+    private Optional<Student> promptStudent() {
+        System.out.print("Student ID or RegNo: ");
+        String input = scanner.nextLine().trim();
+        Optional<Student> student = studentService.findStudentById(input);
+        if (student.isEmpty()) {
+            student = studentService.findStudentByRegNo(input);
+        }
+        if (student.isPresent()) {
+            return student;
+        }
+        return chooseCompletion(input, prefix -> studentService.completeRegNo(prefix, 5),
+            s -> s.getRegNo() + " - " + s.getFullName(), "Student not found.");
+    }
+    
+    private Optional<Course> promptCourse() {
+        System.out.print("Course Code: ");
+        String input = scanner.nextLine().trim();
+        Optional<Course> course = courseService.getCourseByCode(input);
+        if (course.isPresent()) {
+            return course;
+        }
+        return chooseCompletion(input, prefix -> courseService.completeCourses(prefix, 5),
+            c -> c.getCode() + " - " + c.getTitle(), "Course not found.");
+    }
+    
+    // Completes the longest prefix of the input that still matches something, so a typo
+    // near the end still lands on nearby entries
+    private <T> Optional<T> chooseCompletion(String input, Function<String, List<T>> complete,
+                                             Function<T, String> label, String notFound) {
+        List<T> options = new ArrayList<>();
+        for (int end = input.length(); end > 0 && options.isEmpty(); end--) {
+            options = complete.apply(input.substring(0, end));
+        }
+        if (options.isEmpty()) {
+            System.out.println(notFound);
+            return Optional.empty();
+        }
+        System.out.println("'" + input + "' not found. Did you mean:");
+        for (int i = 0; i < options.size(); i++) {
+            System.out.printf("%d. %s%n", i + 1, label.apply(options.get(i)));
+        }
+        System.out.print("Select (number, Enter to cancel): ");
+        String choice = scanner.nextLine().trim();
+        try {
+            int index = Integer.parseInt(choice) - 1;
+            if (index >= 0 && index < options.size()) {
+                return Optional.of(options.get(index));
+            }
+        } catch (NumberFormatException e) {
+            // Enter or anything else cancels
+        }
+        return Optional.empty();
+    }
+    
     private void importExportData() {
         System.out.println("\n=== IMPORT/EXPORT DATA ===");
         System.out.println("1. Export Students to CSV");
         System.out.println("2. Export Courses to CSV");
-        System.out.println("3. Generate Student Report");
-        System.out.println("4. Back to Main Menu");
+        System.out.println("3. Export Instructors to CSV");
+        System.out.println("4. Generate Student Report");
+        System.out.println("5. Import Students from CSV");
+        System.out.println("6. Import Courses from CSV");
+        System.out.println("7. Import Instructors from CSV");
+        System.out.println("8. " + (watcher.isRunning() ? "Stop" : "Start") + " Watching Data Directory");
+        System.out.println("9. Save Students to Shards (" + importExportService.getStore().getDirtyCount()
+            + " changed of " + importExportService.getStore().getShardCount() + ")");
+        System.out.println("10. Build Student Archive from CSV");
+        System.out.println("11. Back to Main Menu");
         System.out.print("Enter choice: ");
         
         try {
@@ -359,10 +851,30 @@ public class CLIMenu {
                     importExportService.exportCoursesToCSV(file);
                 }
                 case "3" -> {
+                    Path file = AppConfig.getInstance().getDataDirectory().resolve("instructors_export.csv");
+                    importExportService.exportInstructorsToCSV(file);
+                }
+                case "4" -> {
                     Path file = AppConfig.getInstance().getDataDirectory().resolve("student_report.txt");
                     importExportService.generateStudentReport(file);
                 }
-                case "4" -> { return; }
+                case "5" -> {
+                    Path file = promptImportFile(AppConfig.getInstance().getStudentDataFile());
+                    importExportService.importStudentsFromCSV(file, promptImportMode());
+                }
+                case "6" -> {
+                    Path file = promptImportFile(AppConfig.getInstance().getCourseDataFile());
+                    importExportService.importCoursesFromCSV(file, promptImportMode());
+                }
+                case "7" -> {
+                    Path file = promptImportFile(AppConfig.getInstance().getInstructorDataFile());
+                    importExportService.importInstructorsFromCSV(file);
+                }
+                case "8" -> toggleWatcher();
+                case "9" -> importExportService.getStore().save();
+                case "10" -> importExportService.buildArchive(
+                    promptImportFile(AppConfig.getInstance().getStudentDataFile()));
+                case "11" -> { return; }
                 default -> System.out.println("Invalid choice!");
             }
         } catch (IOException e) {
@@ -370,20 +882,64 @@ public class CLIMenu {
         }
     }
     
+    // New rows appended to the data files are merged in the background
+    private void toggleWatcher() {
+        if (watcher.isRunning()) {
+            watcher.stop();
+            return;
+        }
+        try {
+            watcher.start();
+        } catch (IOException e) {
+            System.out.println("Could not watch data directory: " + e.getMessage());
+        }
+    }
+    
+    private Path promptImportFile(Path defaultFile) {
+        System.out.print("File [" + defaultFile + "]: ");
+        String input = scanner.nextLine().trim();
+        return input.isEmpty() ? defaultFile : Paths.get(input);
+    }
+    
+    private ImportMode promptImportMode() {
+        ImportMode[] modes = ImportMode.values();
+        for (int i = 0; i < modes.length; i++) {
+            System.out.printf("%d. %s%n", i + 1, modes[i].getDisplayName());
+        }
+        System.out.print("Enter choice [" + (ImportMode.MERGE.ordinal() + 1) + "]: ");
+        String input = scanner.nextLine().trim();
+        try {
+            int index = input.isEmpty() ? ImportMode.MERGE.ordinal() : Integer.parseInt(input) - 1;
+            return (index >= 0 && index < modes.length) ? modes[index] : ImportMode.MERGE;
+        } catch (NumberFormatException e) {
+            return ImportMode.MERGE;
+        }
+    }
+    
     private void backupOperations() {
         System.out.println("\n=== BACKUP OPERATIONS ===");
+        printBackupSchedule();
         System.out.println("1. Create Backup");
         System.out.println("2. Show Backup Size (Recursive)");
         System.out.println("3. List Backup Files (Recursive)");
         System.out.println("4. Analyze Backups");
-        System.out.println("5. Back to Main Menu");
+        System.out.println("5. Prune Old Backups");
+        System.out.println("6. Restore from Backup");
+        System.out.println("7. Back to Main Menu");
         System.out.print("Enter choice: ");
         
         try {
             switch (scanner.nextLine()) {
                 case "1" -> {
-                    Path backupDir = backupService.createBackup();
-                    System.out.println("Backup created: " + backupDir.getFileName());
+                    // Runs on the backup thread; the outcome is printed when it finishes
+                    System.out.println("Backup started in the background.");
+                    backupScheduler.backupNow().whenComplete((backupDir, error) -> {
+                        if (error != null) {
+                            System.out.println("\nBackup failed: " + error.getCause().getMessage());
+                        } else {
+                            System.out.println("\nBackup created: " + backupDir.getFileName());
+                        }
+                    });
                 }
                 case "2" -> {
                     Path backupDir = AppConfig.getInstance().getBackupDirectory();
@@ -395,7 +951,18 @@ public class CLIMenu {
                     backupService.listFilesByDepth(backupDir, 0, 3);
                 }
                 case "4" -> backupService.analyzeBackups();
-                case "5" -> { return; }
+                case "5" -> {
+                    System.out.println("Pruning in the background, keeping " + backupScheduler.getRetention() + " backups.");
+                    backupScheduler.pruneNow().whenComplete((pruned, error) -> {
+                        if (error != null) {
+                            System.out.println("\nPrune failed: " + error.getCause().getMessage());
+                        } else {
+                            System.out.println("\nPruned " + pruned + " old backup(s).");
+                        }
+                    });
+                }
+                case "6" -> restoreBackup();
+                case "7" -> { return; }
                 default -> System.out.println("Invalid choice!");
             }
         } catch (IOException e) {
@@ -403,12 +970,101 @@ public class CLIMenu {
         }
     }
     
+    // Loads and compares first; the live data is replaced only if confirmed, otherwise it was a dry run
+    private void restoreBackup() throws IOException {
+        Map<Path, LocalDateTime> backups = backupService.listBackups();
+        if (backups.isEmpty()) {
+            System.out.println("No backups found.");
+            return;
+        }
+        System.out.println("Backups:");
+        backups.keySet().forEach(backupDir -> System.out.println("  " + backupDir.getFileName()));
+        System.out.print("Timestamp (yyyyMMdd_HHmmss, or a prefix such as a date) [newest]: ");
+        RestoreService restoreService = new RestoreService(backupService);
+        Optional<Path> backupDir = restoreService.findBackup(scanner.nextLine());
+        if (backupDir.isEmpty()) {
+            System.out.println("No backup matches that timestamp.");
+            return;
+        }
+        
+        System.out.println("Verifying and loading " + backupDir.get().getFileName() + "...");
+        RestoredData restored = restoreService.restore(backupDir.get(), studentService, courseService);
+        restored.getReport().print();
+        if (!restored.getReport().hasChanges()) {
+            System.out.println("The backup matches the live data.");
+        }
+        System.out.print("Replace the live data with this backup? (y/N, N leaves this a dry run): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            restored.discard();
+            System.out.println("Dry run: live data unchanged.");
+            return;
+        }
+        swapIn(restored);
+        System.out.println("Restored " + restored.getReport().getBackupName()
+            + ". It is in memory only; save to shards or export to keep it.");
+    }
+    
+    /**
+     * Replaces every service at once. Background work on the old services
+     * is stopped first: the watcher, and the backup scheduler after any
+     * backup in progress. The old inactive tier is closed before the new
+     * services get one, as they share the spill file. The archive carries over.
+     */
+    private void swapIn(RestoredData restored) {
+        boolean watching = watcher.isRunning();
+        watcher.stop();
+        Duration interval = backupScheduler.isRunning() ? backupScheduler.getInterval() : null;
+        if (backupScheduler.isBusy()) {
+            System.out.println("Waiting for the backup in progress to finish...");
+        }
+        backupScheduler.close(BACKUP_CLOSE_TIMEOUT);
+        closeInactiveTier();
+        MappedStudentArchive archive = studentService.getArchive();
+        EventBus oldEvents = events;
+        
+        useServices(restored.getEvents(), restored.getCourseService(), restored.getStudentService(),
+            restored.getImportExportService());
+        dataLoad = DataLoad.completed();
+        studentService.setArchive(archive);
+        oldEvents.close();
+        
+        // The live tier is closed above, so the restored services can take over the spill file
+        enableInactiveTier(studentService, courseService);
+        importExportService.retireInactiveStudents();
+        if (watching) {
+            toggleWatcher();
+        }
+        if (interval != null) {
+            backupScheduler.start(interval);
+        }
+    }
+    
+    private void printBackupSchedule() {
+        if (backupScheduler.isRunning()) {
+            System.out.printf("Scheduled backups every %d min, keeping %s%n",
+                backupScheduler.getInterval().toMinutes(), backupScheduler.getRetention());
+        } else {
+            System.out.println("Scheduled backups are off (-Dccrm.backup.interval=minutes)");
+        }
+        if (backupScheduler.getLastBackup() != null) {
+            System.out.printf("Last backup: %s at %s in %d ms; %d this session, %d pruned%n",
+                backupScheduler.getLastBackup().getFileName(),
+                backupScheduler.getLastBackupTime().toLocalTime().withNano(0),
+                backupScheduler.getLastBackupMillis(), backupScheduler.getBackupCount(),
+                backupScheduler.getPrunedCount());
+        }
+        if (backupScheduler.getLastError() != null) {
+            System.out.println(backupScheduler.getLastError());
+        }
+    }
+    
     private void generateReports() {
         System.out.println("\n=== REPORTS ===");
         System.out.println("1. Top Students by GPA");
         System.out.println("2. GPA Distribution");
         System.out.println("3. Department-wise Summary");
-        System.out.println("4. Back to Main Menu");
+        System.out.println("4. Recent Activity");
+        System.out.println("5. Back to Main Menu");
         System.out.print("Enter choice: ");
         
         switch (scanner.nextLine()) {
@@ -422,35 +1078,158 @@ public class CLIMenu {
             }
             case "2" -> {
                 System.out.println("\n=== GPA DISTRIBUTION ===");
-                double averageGPA = studentService.getAllStudents().stream()
-                    .mapToDouble(studentService::calculateGPA)
-                    .average()
-                    .orElse(0.0);
-                System.out.printf("Average GPA: %.2f%n", averageGPA);
+                printGradeStatistics();
             }
             case "3" -> {
                 System.out.println("\n=== DEPARTMENT SUMMARY ===");
-                courseService.getAllCourses().stream()
-                    .collect(java.util.stream.Collectors.groupingBy(
-                        Course::getDepartment,
-                        java.util.stream.Collectors.counting()
-                    ))
-                    .forEach((dept, count) -> System.out.printf("%s: %d courses%n", dept, count));
+                DepartmentAggregates aggregates = courseService.getDepartmentAggregates();
+                aggregates.getDepartmentSummaries().forEach((dept, summary) -> printSummary(dept, summary));
+                System.out.println("\n=== SEMESTER SUMMARY ===");
+                aggregates.getSemesterSummaries().forEach((semester, summary) ->
+                    printSummary(semester.getDisplayName(), summary));
             }
-            case "4" -> { return; }
+            case "4" -> printRecentActivity();
+            case "5" -> { return; }
             default -> System.out.println("Invalid choice!");
         }
     }
     
+    private void printRecentActivity() {
+        System.out.println("\n=== RECENT ACTIVITY ===");
+        recentActivity.getCounts().forEach((type, count) ->
+            System.out.printf("%s: %d%n", type.getDisplayName(), count));
+        if (recentActivity.getDroppedCount() > 0) {
+            System.out.println("(" + recentActivity.getDroppedCount() + " events dropped)");
+        }
+        List<DomainEvent> events = recentActivity.getRecentEvents();
+        if (events.isEmpty()) {
+            System.out.println("No activity yet.");
+        }
+        events.forEach(event -> System.out.println(event));
+    }
+    
+    private void printSummary(String label, DepartmentAggregates.Summary summary) {
+        System.out.printf("%s: %d courses (%d active), %d credits offered, %d enrollments, avg GPA %.2f%n",
+            label, summary.getCourseCount(), summary.getActiveCourseCount(), summary.getCreditsOffered(),
+            summary.getEnrollmentCount(), summary.getAverageGpa());
+    }
+    
+    private void printGradeStatistics() {
+        long start = System.nanoTime();
+        GradeStatistics stats = statisticsService.computeGradeStatistics();
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+        
+        System.out.printf("Students: %d (%d with graded courses)%n",
+            stats.getStudentCount(), stats.getGradedStudentCount());
+        System.out.printf("Average GPA: %.2f (min %.2f, max %.2f)%n",
+            stats.getAverageGpa(), stats.getGpaMin(), stats.getGpaMax());
+        System.out.printf("Percentiles: p25 %.2f | p50 %.2f | p75 %.2f | p90 %.2f%n",
+            stats.getGpaPercentile(0.25), stats.getGpaPercentile(0.50),
+            stats.getGpaPercentile(0.75), stats.getGpaPercentile(0.90));
+        
+        System.out.println("\nGPA histogram:");
+        long[] buckets = stats.getGpaBuckets();
+        long largest = java.util.Arrays.stream(buckets).max().orElse(0);
+        for (int i = 0; i < buckets.length; i++) {
+            int bar = largest > 0 ? (int) Math.round(30.0 * buckets[i] / largest) : 0;
+            String label = i < 10 ? String.format("%2d-%-2d", i, i + 1) : "  10 ";
+            System.out.printf("%s | %-30s %d%n", label, "#".repeat(bar), buckets[i]);
+        }
+        
+        System.out.println("\nGrade distribution:");
+        printGradeCounts(stats.getOverall());
+        
+        System.out.println("\nPer course:");
+        if (stats.getByCourse().isEmpty()) {
+            System.out.println("No graded enrollments.");
+        }
+        stats.getByCourse().forEach((code, summary) -> {
+            System.out.printf("%-10s n=%-4d mean %.1f  sd %.1f  range %.0f-%.0f  ",
+                code, summary.getCount(), summary.getMean(), summary.getStandardDeviation(),
+                summary.getMin(), summary.getMax());
+            printGradeCounts(summary);
+        });
+        
+        System.out.println("\nPer semester:");
+        stats.getBySemester().forEach((semester, summary) -> {
+            System.out.printf("%-10s n=%-4d mean %.1f  sd %.1f  ",
+                semester, summary.getCount(), summary.getMean(), summary.getStandardDeviation());
+            printGradeCounts(summary);
+        });
+        System.out.printf("%nComputed in %.2f ms%n", elapsedMicros / 1000.0);
+    }
+    
+    private void printGradeCounts(GradeStatistics.MarksSummary summary) {
+        StringBuilder line = new StringBuilder();
+        for (Grade grade : Grade.values()) {
+            line.append(grade).append(':').append(summary.getGradeCount(grade)).append(' ');
+        }
+        System.out.println(line.toString().trim());
+    }
+    
+    private void printInactiveTier() {
+        InactiveStudentTier tier = studentService.getInactiveTier();
+        if (tier == null) {
+            return;
+        }
+        System.out.printf("Inactive students: %d on disk (%d KB), %d of %d cached%n",
+            tier.getRetiredCount(), tier.getSpillBytes() / 1024, tier.getCachedCount(), tier.getCapacity());
+        System.out.printf("Inactive cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %d writes%n",
+            tier.getHitCount(), tier.getMissCount(), tier.getHitRate() * 100,
+            tier.getEvictionCount(), tier.getWriteCount());
+    }
+    
+    private void printResultCache() {
+        QueryResultCache cache = studentService.getResultCache();
+        if (cache == null) {
+            return;
+        }
+        System.out.printf("Result cache: %d of %d entries, %d hits, %d misses, %d invalidated (%.1f%% hit rate), %d evictions%n",
+            cache.getSize(), cache.getCapacity(), cache.getHitCount(), cache.getMissCount(),
+            cache.getInvalidationCount(), cache.getHitRate() * 100, cache.getEvictionCount());
+        StringBuilder line = new StringBuilder("Data versions:");
+        for (DataDomain domain : DataDomain.values()) {
+            line.append(' ').append(domain.getDisplayName()).append(' ').append(cache.getVersions().get(domain)).append(',');
+        }
+        System.out.println(line.substring(0, line.length() - 1));
+    }
+    
+    // Only one set of services may hold the tier at a time, as they share the spill file
+    private static void enableInactiveTier(StudentService studentService, CourseService courseService) {
+        AppConfig config = AppConfig.getInstance();
+        studentService.enableInactiveTier(courseService, config.getSpillFile(), config.getInactiveCacheSize());
+    }
+    
+    // The spill file is scratch; retired students persist through the shards and exports
+    private void closeInactiveTier() {
+        InactiveStudentTier tier = studentService.getInactiveTier();
+        if (tier == null) {
+            return;
+        }
+        try {
+            tier.close();
+        } catch (IOException e) {
+            System.out.println("Note: Could not delete the inactive student spill file: " + e.getMessage());
+        }
+    }
+    
     private void debugMenu() {
         System.out.println("\n=== DEBUG MENU ===");
         
         Runnable debugAction = new Runnable() {
             @Override
             public void run() {
-                System.out.println("Students: " + studentService.getAllStudents().size());
+                System.out.println("Students: " + studentService.getAllStudents().size() + " loaded");
                 System.out.println("Courses: " + courseService.getAllCourses().size());
                 System.out.println("Data directory: " + AppConfig.getInstance().getDataDirectory());
+                printInactiveTier();
+                printResultCache();
+                // Aggregates still count retired students' enrollments
+                List<Student> everyone = studentService.streamAllStudentsIncludingRetired()
+                    .collect(Collectors.toList());
+                boolean consistent = courseService.getDepartmentAggregates().matches(
+                    DepartmentAggregates.recompute(courseService.getAllCourses(), everyone));
+                System.out.println("Department aggregates consistent: " + consistent);
             }
         };
         
@@ -1,19 +1,77 @@
 package edu.ccrm.cli;
 
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.event.EventBus;
+import edu.ccrm.io.BackupRetention;
+import edu.ccrm.io.BackupScheduler;
+import edu.ccrm.io.BackupService;
+import edu.ccrm.io.DataDirectoryWatcher;
+import edu.ccrm.io.ImportExportService;
+import edu.ccrm.server.QueryServer;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+
+import java.time.Duration;
+import java.util.Scanner;
+
 public class Main {
     public static void main(String[] args) {
         try {
             displayPlatformInfo();
-            
+
+            if (args.length > 0 && args[0].equals("--server")) {
+                int port = args.length > 1 ? Integer.parseInt(args[1]) : AppConfig.getInstance().getServerPort();
+                runServer(port);
+                return;
+            }
+
             CLIMenu menu = new CLIMenu();
             menu.start();
-            
+
         } catch (Exception e) {
             System.err.println("Application error: " + e.getMessage());
             e.printStackTrace();
         }
     }
-    
+
+    // Server mode: load data, serve JSON queries until Enter is pressed
+    private static void runServer(int port) throws Exception {
+        EventBus events = new EventBus();
+        CourseService courseService = new CourseService(events);
+        StudentService studentService = new StudentService(events, courseService);
+        AppConfig config = AppConfig.getInstance();
+        studentService.enableInactiveTier(courseService, config.getSpillFile(), config.getInactiveCacheSize());
+        studentService.enableResultCache(config.getResultCacheSize());
+        ImportExportService importExportService = new ImportExportService(studentService, courseService);
+        importExportService.loadInitialData();
+        importExportService.attachArchiveIfPresent();
+        DataDirectoryWatcher watcher = importExportService.createWatcher();
+        if (config.isWatchEnabled()) {
+            watcher.start();
+        }
+
+        BackupScheduler backups = new BackupScheduler(new BackupService(importExportService),
+            new BackupRetention(config.getBackupKeepHourly(), config.getBackupKeepDaily()));
+        if (config.getBackupIntervalMinutes() > 0) {
+            backups.start(Duration.ofMinutes(config.getBackupIntervalMinutes()));
+        }
+
+        QueryServer server = new QueryServer(studentService, courseService, port);
+        server.start();
+        System.out.println("Press Enter to stop the server.");
+
+        try (Scanner scanner = new Scanner(System.in)) {
+            if (scanner.hasNextLine()) {
+                scanner.nextLine();
+            }
+        }
+        server.stop();
+        backups.close(Duration.ofSeconds(60));
+        watcher.stop();
+        events.close();
+        System.out.println("Query server stopped.");
+    }
+
     private static void displayPlatformInfo() {
         System.out.println("=== Java Platform Information ===");
         System.out.println("Java Version: " + System.getProperty("java.version"));
@@ -26,4 +84,4 @@ public class Main {
         System.out.println("This application uses: Java SE");
         System.out.println("=================================\n");
     }
-}
\ No newline at end of file
+}
@@ -3,22 +3,46 @@ package edu.ccrm.config;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+/**
+ * Process-wide settings, read once from system properties. The instance is
+ * built by the JVM's class initialization (holder idiom), so concurrent
+ * first calls from the startup loader threads and the menu see one fully
+ * constructed config without locking, and the directories are created once.
+ */
 public class AppConfig {
-    private static AppConfig instance;
-    private Path dataDirectory;
-    private Path backupDirectory;
+    private final Path dataDirectory;
+    private final Path backupDirectory;
+    private final int serverPort;
+    private final int pageSize;
+    private final boolean watchEnabled;
+    private final int shardCount;
+    private final int inactiveCacheSize;
+    private final int resultCacheSize;
+    private final int backupIntervalMinutes;
+    private final int backupKeepHourly;
+    private final int backupKeepDaily;
  
     private AppConfig() {
         this.dataDirectory = Paths.get("data");
         this.backupDirectory = Paths.get("backups");
+        this.serverPort = Integer.getInteger("ccrm.server.port", 8080);
+        this.pageSize = Integer.getInteger("ccrm.page.size", 10);
+        this.watchEnabled = Boolean.getBoolean("ccrm.watch");
+        this.shardCount = Math.max(1, Integer.getInteger("ccrm.shards", 16));
+        this.inactiveCacheSize = Math.max(2, Integer.getInteger("ccrm.cache.students", 1000));
+        this.resultCacheSize = Math.max(2, Integer.getInteger("ccrm.cache.results", 256));
+        this.backupIntervalMinutes = Math.max(0, Integer.getInteger("ccrm.backup.interval", 60));
+        this.backupKeepHourly = Math.max(0, Integer.getInteger("ccrm.backup.keep.hourly", 24));
+        this.backupKeepDaily = Math.max(0, Integer.getInteger("ccrm.backup.keep.daily", 7));
         initializeDirectories();
     }
 
+    private static final class Holder {
+        private static final AppConfig INSTANCE = new AppConfig();
+    }
+
     public static AppConfig getInstance() {
-        if (instance == null) {
-            instance = new AppConfig();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
     
     private void initializeDirectories() {
@@ -36,7 +60,30 @@ public class AppConfig {
  
     public Path getDataDirectory() { return dataDirectory; }
     public Path getBackupDirectory() { return backupDirectory; }
+    public int getServerPort() { return serverPort; }
+    public int getPageSize() { return pageSize; }
+    public boolean isWatchEnabled() { return watchEnabled; }
+    
+    // Used when a sharded layout is first written; an existing layout keeps its own count
+    public int getShardCount() { return shardCount; }
+    
+    // Inactive students kept on the heap; the rest wait in the spill file
+    public int getInactiveCacheSize() { return inactiveCacheSize; }
+    
+    // Report and ranking results kept until the data they depend on changes
+    public int getResultCacheSize() { return resultCacheSize; }
+    
+    // Minutes between scheduled backups; 0 turns them off
+    public int getBackupIntervalMinutes() { return backupIntervalMinutes; }
+    public int getBackupKeepHourly() { return backupKeepHourly; }
+    public int getBackupKeepDaily() { return backupKeepDaily; }
     
     public Path getStudentDataFile() { return dataDirectory.resolve("students.csv"); }
     public Path getCourseDataFile() { return dataDirectory.resolve("courses.csv"); }
+    public Path getRequirementDataFile() { return dataDirectory.resolve("prerequisites.csv"); }
+    public Path getInstructorDataFile() { return dataDirectory.resolve("instructors.csv"); }
+    public Path getMarksDataFile() { return dataDirectory.resolve("marks.csv"); }
+    public Path getShardDirectory() { return dataDirectory.resolve("shards"); }
+    public Path getArchiveDirectory() { return dataDirectory.resolve("archive"); }
+    public Path getSpillFile() { return dataDirectory.resolve("inactive-students.spill"); }
 }
\ No newline at end of file
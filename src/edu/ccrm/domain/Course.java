@@ -1,21 +1,30 @@
 package edu.ccrm.domain;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 public class Course {
     private String code;
     private String title;
     private int credits;
     private String instructor;
+    private String instructorId;
     private Semester semester;
     private String department;
     private boolean active;
+    private List<TimeSlot> meetingTimes;
+    private final List<CourseListener> listeners = new CopyOnWriteArrayList<>();
     
     public static class Builder {
         private String code;
         private String title;
         private int credits = 3; // default
         private String instructor;
+        private String instructorId;
         private Semester semester;
         private String department;
+        private List<TimeSlot> meetingTimes = List.of();
         
         public Builder(String code, String title) {
             this.code = code;
@@ -32,6 +41,11 @@ public class Course {
             return this;
         }
         
+        public Builder instructorId(String instructorId) {
+            this.instructorId = instructorId;
+            return this;
+        }
+        
         public Builder semester(Semester semester) {
             this.semester = semester;
             return this;
@@ -42,6 +56,11 @@ public class Course {
             return this;
         }
         
+        public Builder meetingTimes(List<TimeSlot> meetingTimes) {
+            this.meetingTimes = List.copyOf(meetingTimes);
+            return this;
+        }
+        
         public Course build() {
             return new Course(this);
         }
@@ -52,8 +71,10 @@ public class Course {
         this.title = builder.title;
         this.credits = builder.credits;
         this.instructor = builder.instructor;
+        this.instructorId = builder.instructorId;
         this.semester = builder.semester;
         this.department = builder.department;
+        this.meetingTimes = builder.meetingTimes;
         this.active = true;
     }
 
@@ -62,25 +83,99 @@ public class Course {
     }
 
     public String getCode() { return code; }
-    public void setCode(String code) { this.code = code; }
+    public void setCode(String code) {
+        String oldCode = this.code;
+        this.code = code;
+        if (!Objects.equals(oldCode, code)) {
+            listeners.forEach(l -> l.codeChanged(this, oldCode));
+        }
+    }
     
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) {
+        String oldTitle = this.title;
+        this.title = title;
+        if (!Objects.equals(oldTitle, title)) {
+            listeners.forEach(l -> l.titleChanged(this, oldTitle));
+        }
+    }
     
     public int getCredits() { return credits; }
-    public void setCredits(int credits) { this.credits = credits; }
+    public void setCredits(int credits) {
+        int oldCredits = this.credits;
+        this.credits = credits;
+        if (oldCredits != credits) {
+            listeners.forEach(l -> l.creditsChanged(this, oldCredits));
+        }
+    }
     
     public String getInstructor() { return instructor; }
-    public void setInstructor(String instructor) { this.instructor = instructor; }
+    public void setInstructor(String instructor) {
+        String oldInstructor = this.instructor;
+        this.instructor = instructor;
+        if (!Objects.equals(oldInstructor, instructor)) {
+            listeners.forEach(l -> l.instructorChanged(this, oldInstructor));
+        }
+    }
+    
+    // Id of the Instructor teaching this course; instructor holds their display name
+    public String getInstructorId() { return instructorId; }
+    public void setInstructorId(String instructorId) {
+        String oldInstructorId = this.instructorId;
+        this.instructorId = instructorId;
+        if (!Objects.equals(oldInstructorId, instructorId)) {
+            listeners.forEach(l -> l.instructorIdChanged(this, oldInstructorId));
+        }
+    }
     
     public Semester getSemester() { return semester; }
-    public void setSemester(Semester semester) { this.semester = semester; }
+    public void setSemester(Semester semester) {
+        Semester oldSemester = this.semester;
+        this.semester = semester;
+        if (oldSemester != semester) {
+            listeners.forEach(l -> l.semesterChanged(this, oldSemester));
+        }
+    }
     
     public String getDepartment() { return department; }
-    public void setDepartment(String department) { this.department = department; }
+    public void setDepartment(String department) {
+        String oldDepartment = this.department;
+        this.department = department;
+        if (!Objects.equals(oldDepartment, department)) {
+            listeners.forEach(l -> l.departmentChanged(this, oldDepartment));
+        }
+    }
+    
+    // Weekly meetings, the same in every week of the course's semester
+    public List<TimeSlot> getMeetingTimes() { return meetingTimes; }
+    public void setMeetingTimes(List<TimeSlot> meetingTimes) {
+        List<TimeSlot> oldTimes = this.meetingTimes;
+        this.meetingTimes = List.copyOf(meetingTimes);
+        if (!oldTimes.equals(this.meetingTimes)) {
+            listeners.forEach(l -> l.meetingTimesChanged(this, oldTimes));
+        }
+    }
     
     public boolean isActive() { return active; }
-    public void setActive(boolean active) { this.active = active; }
+    public void setActive(boolean active) {
+        boolean wasActive = this.active;
+        this.active = active;
+        if (wasActive != active) {
+            listeners.forEach(l -> l.activeChanged(this, wasActive));
+        }
+    }
+    
+    public void addListener(CourseListener listener) { listeners.add(listener); }
+    public void removeListener(CourseListener listener) { listeners.remove(listener); }
+    
+    // Called from Student and Enrollment so listeners see enrollment activity
+    void fireStudentEnrolled(Enrollment enrollment) {
+        listeners.forEach(l -> l.studentEnrolled(enrollment));
+    }
+    
+    void fireMarksRecorded(Enrollment enrollment, Grade oldGrade) {
+        listeners.forEach(l -> l.marksRecorded(enrollment, oldGrade));
+    }
     
     @Override
     public String toString() {
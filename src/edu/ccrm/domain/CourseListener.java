@@ -0,0 +1,25 @@
+package edu.ccrm.domain;
+
+import java.util.List;
+
+/**
+ * Callback for changes to a course and to enrollments in it. Listeners are
+ * called on the writing thread after the change is applied; every method is
+ * a no-op by default.
+ */
+public interface CourseListener {
+    default void codeChanged(Course course, String oldCode) {}
+    default void titleChanged(Course course, String oldTitle) {}
+    default void instructorChanged(Course course, String oldInstructor) {}
+    default void instructorIdChanged(Course course, String oldInstructorId) {}
+    default void departmentChanged(Course course, String oldDepartment) {}
+    default void semesterChanged(Course course, Semester oldSemester) {}
+    default void creditsChanged(Course course, int oldCredits) {}
+    default void meetingTimesChanged(Course course, List<TimeSlot> oldTimes) {}
+    default void activeChanged(Course course, boolean wasActive) {}
+    default void studentEnrolled(Enrollment enrollment) {}
+    default void marksRecorded(Enrollment enrollment, Grade oldGrade) {}
+    
+    // Only for listeners registered with CourseService.addCourseListener
+    default void courseAdded(Course course) {}
+}
@@ -11,19 +11,33 @@ public class Enrollment {
     private Grade grade;
     
     public Enrollment(Student student, Course course) {
+        this(student, course, LocalDateTime.now());
+    }
+    
+    // Used when restoring an enrollment made earlier
+    public Enrollment(Student student, Course course, LocalDateTime enrollmentDate) {
         this.enrollmentId = generateEnrollmentId();
         this.student = student;
         this.course = course;
-        this.enrollmentDate = LocalDateTime.now();
+        this.enrollmentDate = enrollmentDate;
+    }
+    
+    // Restores marks as well, without telling the course; for enrollments listeners already counted
+    public Enrollment(Student student, Course course, LocalDateTime enrollmentDate, Double marks) {
+        this(student, course, enrollmentDate);
+        this.marks = marks;
+        this.grade = marks == null ? null : Grade.fromScore(marks);
     }
     
     private String generateEnrollmentId() {
         return "ENR" + System.currentTimeMillis();
     }
   
-    public void recordMarks(double marks) {
+    public synchronized void recordMarks(double marks) {
+        Grade oldGrade = this.grade;
         this.marks = marks;
         this.grade = Grade.fromScore(marks);
+        course.fireMarksRecorded(this, oldGrade);
     }
     
     public double calculateGradePoints() {
@@ -0,0 +1,68 @@
+package edu.ccrm.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class Instructor extends Person {
+    private String department;
+    private final List<InstructorListener> listeners = new CopyOnWriteArrayList<>();
+    
+    public Instructor(String id, String fullName, String email, String department) {
+        this(id, fullName, email, department, LocalDateTime.now());
+    }
+    
+    public Instructor(String id, String fullName, String email, String department, LocalDateTime createdDate) {
+        super(id, fullName, email, createdDate);
+        this.department = department;
+    }
+    
+    @Override
+    public void displayProfile() {
+        System.out.println("=== Instructor Profile ===");
+        System.out.println("ID: " + getId());
+        System.out.println("Full Name: " + getFullName());
+        System.out.println("Email: " + getEmail());
+        System.out.println("Department: " + department);
+    }
+    
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) {
+        String oldDepartment = this.department;
+        this.department = department;
+        if (!Objects.equals(oldDepartment, department)) {
+            listeners.forEach(l -> l.departmentChanged(this, oldDepartment));
+        }
+    }
+    
+    public void addListener(InstructorListener listener) { listeners.add(listener); }
+    public void removeListener(InstructorListener listener) { listeners.remove(listener); }
+    
+    @Override
+    protected void onIdChanged(String oldId) {
+        if (!Objects.equals(oldId, getId())) {
+            listeners.forEach(l -> l.idChanged(this, oldId));
+        }
+    }
+    
+    @Override
+    protected void onNameChanged(String oldName) {
+        if (!Objects.equals(oldName, getFullName())) {
+            listeners.forEach(l -> l.nameChanged(this, oldName));
+        }
+    }
+    
+    @Override
+    protected void onEmailChanged(String oldEmail) {
+        if (!Objects.equals(oldEmail, getEmail())) {
+            listeners.forEach(l -> l.emailChanged(this, oldEmail));
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Instructor[ID: %s, Name: %s, Email: %s, Department: %s]",
+                           getId(), getFullName(), getEmail(), department);
+    }
+}
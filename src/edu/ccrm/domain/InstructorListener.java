@@ -0,0 +1,12 @@
+package edu.ccrm.domain;
+
+/**
+ * Callback for changes to an instructor's fields. Called on the writing
+ * thread after the change is applied; every method is a no-op by default.
+ */
+public interface InstructorListener {
+    default void idChanged(Instructor instructor, String oldId) {}
+    default void nameChanged(Instructor instructor, String oldName) {}
+    default void emailChanged(Instructor instructor, String oldEmail) {}
+    default void departmentChanged(Instructor instructor, String oldDepartment) {}
+}
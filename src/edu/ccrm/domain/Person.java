@@ -9,21 +9,43 @@ public abstract class Person {
     private LocalDateTime createdDate;
     
     public Person(String id, String fullName, String email) {
+        this(id, fullName, email, LocalDateTime.now());
+    }
+    
+    // Used when restoring a record that was created earlier
+    public Person(String id, String fullName, String email, LocalDateTime createdDate) {
         this.id = id;
         this.fullName = fullName;
         this.email = email;
-        this.createdDate = LocalDateTime.now();
+        this.createdDate = createdDate;
     }
 
     public abstract void displayProfile();
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) {
+        String oldId = this.id;
+        this.id = id;
+        onIdChanged(oldId);
+    }
     
     public String getFullName() { return fullName; }
-    public void setFullName(String fullName) { this.fullName = fullName; }
+    public void setFullName(String fullName) {
+        String oldName = this.fullName;
+        this.fullName = fullName;
+        onNameChanged(oldName);
+    }
     
     public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
+    public void setEmail(String email) {
+        String oldEmail = this.email;
+        this.email = email;
+        onEmailChanged(oldEmail);
+    }
+    
+    // Hooks for subclasses that publish changes
+    protected void onIdChanged(String oldId) {}
+    protected void onNameChanged(String oldName) {}
+    protected void onEmailChanged(String oldEmail) {}
     
     public LocalDateTime getCreatedDate() { return createdDate; }
 
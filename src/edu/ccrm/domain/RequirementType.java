@@ -0,0 +1,16 @@
+package edu.ccrm.domain;
+
+public enum RequirementType {
+    PREREQUISITE("Prerequisite"),   // must have been passed before enrolling
+    COREQUISITE("Corequisite");     // passed, or enrolled in alongside
+    
+    private final String displayName;
+    
+    RequirementType(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
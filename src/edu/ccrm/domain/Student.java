@@ -1,18 +1,25 @@
 package edu.ccrm.domain;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Student extends Person {
     private String regNo;
     private boolean active;
     private List<Enrollment> enrollments; // Now using Enrollment objects
+    private final List<StudentListener> listeners = new CopyOnWriteArrayList<>();
     
     public Student(String id, String regNo, String fullName, String email) {
-        super(id, fullName, email);
+        this(id, regNo, fullName, email, LocalDateTime.now());
+    }
+    
+    public Student(String id, String regNo, String fullName, String email, LocalDateTime createdDate) {
+        super(id, fullName, email, createdDate);
         this.regNo = regNo;
         this.active = true;
-        this.enrollments = new ArrayList<>();
+        this.enrollments = new CopyOnWriteArrayList<>();
     }
     
     @Override
@@ -29,10 +36,26 @@ public class Student extends Person {
     public Enrollment enrollInCourse(Course course) {
         Enrollment enrollment = new Enrollment(this, course);
         enrollments.add(enrollment);
+        course.fireStudentEnrolled(enrollment);
         System.out.println("Enrolled " + getFullName() + " in " + course.getCode());
         return enrollment;
     }
     
+    // Re-creates a saved enrollment; listeners are told as for a new one
+    public Enrollment restoreEnrollment(Course course, LocalDateTime enrollmentDate) {
+        Enrollment enrollment = new Enrollment(this, course, enrollmentDate);
+        enrollments.add(enrollment);
+        course.fireStudentEnrolled(enrollment);
+        return enrollment;
+    }
+    
+    // Re-attaches an enrollment read back from disk; listeners already know it, so none are told
+    public Enrollment reattachEnrollment(Course course, LocalDateTime enrollmentDate, Double marks) {
+        Enrollment enrollment = new Enrollment(this, course, enrollmentDate, marks);
+        enrollments.add(enrollment);
+        return enrollment;
+    }
+    
     public void displayEnrolledCourses() {
         System.out.println("Courses enrolled by " + getFullName() + ":");
         for (Enrollment enrollment : enrollments) {
@@ -49,10 +72,46 @@ public class Student extends Person {
     
     // Getters and setters
     public String getRegNo() { return regNo; }
-    public void setRegNo(String regNo) { this.regNo = regNo; }
+    public void setRegNo(String regNo) {
+        String oldRegNo = this.regNo;
+        this.regNo = regNo;
+        if (!Objects.equals(oldRegNo, regNo)) {
+            listeners.forEach(l -> l.regNoChanged(this, oldRegNo));
+        }
+    }
     
     public boolean isActive() { return active; }
-    public void setActive(boolean active) { this.active = active; }
+    public void setActive(boolean active) {
+        boolean wasActive = this.active;
+        this.active = active;
+        if (wasActive != active) {
+            listeners.forEach(l -> l.activeChanged(this, wasActive));
+        }
+    }
+    
+    public void addListener(StudentListener listener) { listeners.add(listener); }
+    public void removeListener(StudentListener listener) { listeners.remove(listener); }
+    
+    @Override
+    protected void onIdChanged(String oldId) {
+        if (!Objects.equals(oldId, getId())) {
+            listeners.forEach(l -> l.idChanged(this, oldId));
+        }
+    }
+    
+    @Override
+    protected void onNameChanged(String oldName) {
+        if (!Objects.equals(oldName, getFullName())) {
+            listeners.forEach(l -> l.nameChanged(this, oldName));
+        }
+    }
+    
+    @Override
+    protected void onEmailChanged(String oldEmail) {
+        if (!Objects.equals(oldEmail, getEmail())) {
+            listeners.forEach(l -> l.emailChanged(this, oldEmail));
+        }
+    }
     
     public List<Enrollment> getEnrollments() { return enrollments; }
     
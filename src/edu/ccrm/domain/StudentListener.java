@@ -0,0 +1,20 @@
+package edu.ccrm.domain;
+
+/**
+ * Callback for changes to a student's identifying fields. Called on the
+ * writing thread after the change is applied; every method is a no-op by
+ * default.
+ */
+public interface StudentListener {
+    default void idChanged(Student student, String oldId) {}
+    default void regNoChanged(Student student, String oldRegNo) {}
+    default void nameChanged(Student student, String oldName) {}
+    default void emailChanged(Student student, String oldEmail) {}
+    default void activeChanged(Student student, boolean wasActive) {}
+    
+    // Only for listeners registered with StudentService.addStudentListener
+    default void studentAdded(Student student) {}
+    
+    // The student was moved out of the heap to the inactive tier; studentAdded follows if it returns
+    default void studentRetired(Student student) {}
+}
@@ -0,0 +1,120 @@
+package edu.ccrm.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * One weekly meeting of a course, such as "MON 09:00-10:30". The end time
+ * is exclusive, so back-to-back slots do not clash.
+ */
+public final class TimeSlot {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final DayOfWeek day;
+    private final LocalTime start;
+    private final LocalTime end;
+
+    public TimeSlot(DayOfWeek day, LocalTime start, LocalTime end) {
+        this.day = Objects.requireNonNull(day, "day");
+        this.start = Objects.requireNonNull(start, "start");
+        this.end = Objects.requireNonNull(end, "end");
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("Slot must end after it starts: " + this);
+        }
+    }
+
+    // "MON 09:00-10:30"; day names may be abbreviated to three letters
+    public static TimeSlot parse(String text) {
+        String[] parts = text.trim().split("\\s+");
+        String[] times = parts.length == 2 ? parts[1].split("-") : new String[0];
+        if (times.length != 2) {
+            throw new IllegalArgumentException("Expected DAY HH:MM-HH:MM: " + text);
+        }
+        try {
+            return new TimeSlot(parseDay(parts[0]), LocalTime.parse(times[0]), LocalTime.parse(times[1]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time in slot: " + text);
+        }
+    }
+
+    // Semicolon-separated slots, as stored in the courses CSV; blank means none
+    public static List<TimeSlot> parseList(String text) {
+        List<TimeSlot> slots = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return slots;
+        }
+        for (String part : text.split(";")) {
+            if (!part.isBlank()) {
+                slots.add(parse(part));
+            }
+        }
+        return slots;
+    }
+
+    public static boolean isValidList(String text) {
+        try {
+            parseList(text);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static String formatList(List<TimeSlot> slots) {
+        List<String> parts = new ArrayList<>(slots.size());
+        slots.forEach(slot -> parts.add(slot.toString()));
+        return String.join(";", parts);
+    }
+
+    private static DayOfWeek parseDay(String text) {
+        String name = text.toUpperCase(Locale.ROOT);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().equals(name) || day.name().startsWith(name) && name.length() >= 3) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Unknown day: " + text);
+    }
+
+    public DayOfWeek getDay() { return day; }
+    public LocalTime getStart() { return start; }
+    public LocalTime getEnd() { return end; }
+
+    // Minutes since Monday 00:00, so slots compare as plain intervals
+    public int getStartMinute() {
+        return (day.getValue() - 1) * MINUTES_PER_DAY + start.getHour() * 60 + start.getMinute();
+    }
+
+    public int getEndMinute() {
+        return (day.getValue() - 1) * MINUTES_PER_DAY + end.getHour() * 60 + end.getMinute();
+    }
+
+    public boolean overlaps(TimeSlot other) {
+        return getStartMinute() < other.getEndMinute() && other.getStartMinute() < getEndMinute();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TimeSlot)) {
+            return false;
+        }
+        TimeSlot other = (TimeSlot) o;
+        return day == other.day && start.equals(other.start) && end.equals(other.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(day, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toUpperCase(Locale.ROOT) + " " + start + "-" + end;
+    }
+}
@@ -0,0 +1,109 @@
+package edu.ccrm.event;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.domain.StudentListener;
+import edu.ccrm.domain.TimeSlot;
+
+import java.util.List;
+
+/**
+ * Turns the domain listener callbacks into {@link DomainEvent}s on a bus.
+ * Registered on every student and course a service manages, so setters,
+ * enrollments and {@link Enrollment#recordMarks} publish without the callers
+ * knowing about the bus.
+ */
+public class ChangePublisher implements StudentListener, CourseListener {
+    private final EventBus events;
+
+    public ChangePublisher(EventBus events) {
+        this.events = events;
+    }
+
+    // Student fields
+    @Override
+    public void idChanged(Student student, String oldId) {
+        events.publish(EventType.STUDENT_UPDATED, student, "id", oldId, student.getId());
+    }
+
+    @Override
+    public void regNoChanged(Student student, String oldRegNo) {
+        events.publish(EventType.STUDENT_UPDATED, student, "regNo", oldRegNo, student.getRegNo());
+    }
+
+    @Override
+    public void nameChanged(Student student, String oldName) {
+        events.publish(EventType.STUDENT_UPDATED, student, "fullName", oldName, student.getFullName());
+    }
+
+    @Override
+    public void emailChanged(Student student, String oldEmail) {
+        events.publish(EventType.STUDENT_UPDATED, student, "email", oldEmail, student.getEmail());
+    }
+
+    @Override
+    public void activeChanged(Student student, boolean wasActive) {
+        events.publish(EventType.STUDENT_UPDATED, student, "active", wasActive, student.isActive());
+    }
+
+    // Course fields
+    @Override
+    public void codeChanged(Course course, String oldCode) {
+        events.publish(EventType.COURSE_UPDATED, course, "code", oldCode, course.getCode());
+    }
+
+    @Override
+    public void titleChanged(Course course, String oldTitle) {
+        events.publish(EventType.COURSE_UPDATED, course, "title", oldTitle, course.getTitle());
+    }
+
+    @Override
+    public void instructorChanged(Course course, String oldInstructor) {
+        events.publish(EventType.COURSE_UPDATED, course, "instructor", oldInstructor, course.getInstructor());
+    }
+
+    @Override
+    public void instructorIdChanged(Course course, String oldInstructorId) {
+        events.publish(EventType.COURSE_UPDATED, course, "instructorId", oldInstructorId, course.getInstructorId());
+    }
+
+    @Override
+    public void departmentChanged(Course course, String oldDepartment) {
+        events.publish(EventType.COURSE_UPDATED, course, "department", oldDepartment, course.getDepartment());
+    }
+
+    @Override
+    public void semesterChanged(Course course, Semester oldSemester) {
+        events.publish(EventType.COURSE_UPDATED, course, "semester", oldSemester, course.getSemester());
+    }
+
+    @Override
+    public void creditsChanged(Course course, int oldCredits) {
+        events.publish(EventType.COURSE_UPDATED, course, "credits", oldCredits, course.getCredits());
+    }
+
+    @Override
+    public void meetingTimesChanged(Course course, List<TimeSlot> oldTimes) {
+        events.publish(EventType.COURSE_UPDATED, course, "meetingTimes", oldTimes, course.getMeetingTimes());
+    }
+
+    @Override
+    public void activeChanged(Course course, boolean wasActive) {
+        events.publish(EventType.COURSE_UPDATED, course, "active", wasActive, course.isActive());
+    }
+
+    // Enrollments and marks
+    @Override
+    public void studentEnrolled(Enrollment enrollment) {
+        events.publish(EventType.STUDENT_ENROLLED, enrollment);
+    }
+
+    @Override
+    public void marksRecorded(Enrollment enrollment, Grade oldGrade) {
+        events.publish(EventType.MARKS_RECORDED, enrollment, "grade", oldGrade, enrollment.getGrade());
+    }
+}
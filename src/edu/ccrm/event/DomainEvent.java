@@ -0,0 +1,80 @@
+package edu.ccrm.event;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+import java.time.Instant;
+
+/**
+ * One change to the domain model. The subject is the live record
+ * (a Student, Course or Enrollment), so a consumer that reads it later sees
+ * its current state; for updates, the field's old and new values are
+ * captured when the event is published.
+ */
+public final class DomainEvent {
+    private final long sequence;
+    private final EventType type;
+    private final Object subject;
+    private final String field;
+    private final Object oldValue;
+    private final Object newValue;
+    private final Instant timestamp;
+
+    DomainEvent(long sequence, EventType type, Object subject, String field,
+                Object oldValue, Object newValue) {
+        this.sequence = sequence;
+        this.type = type;
+        this.subject = subject;
+        this.field = field;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.timestamp = Instant.now();
+    }
+
+    // Increases with every event the bus publishes, so it orders events across subscribers
+    public long getSequence() { return sequence; }
+    public EventType getType() { return type; }
+    public Object getSubject() { return subject; }
+    public String getField() { return field; }
+    public Object getOldValue() { return oldValue; }
+    public Object getNewValue() { return newValue; }
+    public Instant getTimestamp() { return timestamp; }
+
+    public Student getStudent() {
+        if (subject instanceof Enrollment) {
+            return ((Enrollment) subject).getStudent();
+        }
+        return subject instanceof Student ? (Student) subject : null;
+    }
+
+    public Course getCourse() {
+        if (subject instanceof Enrollment) {
+            return ((Enrollment) subject).getCourse();
+        }
+        return subject instanceof Course ? (Course) subject : null;
+    }
+
+    public Enrollment getEnrollment() {
+        return subject instanceof Enrollment ? (Enrollment) subject : null;
+    }
+
+    public String describe() {
+        Student student = getStudent();
+        Course course = getCourse();
+        return switch (type) {
+            case STUDENT_ADDED -> student.getId() + " " + student.getFullName();
+            case STUDENT_UPDATED -> student.getId() + " " + field + ": " + oldValue + " -> " + newValue;
+            case COURSE_ADDED -> course.getCode() + " " + course.getTitle();
+            case COURSE_UPDATED -> course.getCode() + " " + field + ": " + oldValue + " -> " + newValue;
+            case STUDENT_ENROLLED -> student.getId() + " in " + course.getCode();
+            case MARKS_RECORDED -> student.getId() + " in " + course.getCode() + ": "
+                + getEnrollment().getMarks() + " (" + getEnrollment().getGrade() + ")";
+        };
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s %s", sequence, type.getDisplayName(), describe());
+    }
+}
@@ -0,0 +1,427 @@
+package edu.ccrm.event;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process publisher of {@link DomainEvent}s, following the
+ * {@link Flow} contract. Each onNext carries a batch of events, and demand
+ * is counted in batches.
+ *
+ * Every subscription has its own bounded buffer, an optional filter on event
+ * types, and an {@link OverflowPolicy} for when the buffer is full. Publishing
+ * only appends to the buffers of interested subscribers. The subscriber's
+ * callbacks run on the bus executor, never on the writing thread. A
+ * subscription is drained by at most one task at a time, which hands over
+ * everything buffered (up to the batch size) on each onNext. A slow
+ * subscriber therefore gets fewer, larger batches and never holds up the
+ * others.
+ *
+ * With no subscribers, publish is a volatile read and a return.
+ */
+public class EventBus implements Flow.Publisher<List<DomainEvent>>, AutoCloseable {
+    private static final BusSubscription[] NONE = new BusSubscription[0];
+
+    private final Executor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile BusSubscription[] subscriptions = NONE;
+    private volatile boolean closed;
+
+    public EventBus() {
+        this(newDeliveryExecutor());
+    }
+
+    public EventBus(Executor executor) {
+        this.executor = executor;
+    }
+
+    static ExecutorService newDeliveryExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "ccrm-events-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Options options() {
+        return new Options();
+    }
+
+    public void publish(EventType type, Object subject) {
+        publish(type, subject, null, null, null);
+    }
+
+    public void publish(EventType type, Object subject, String field, Object oldValue, Object newValue) {
+        BusSubscription[] current = subscriptions;
+        if (current.length == 0) {
+            return;
+        }
+        DomainEvent event = null;
+        for (BusSubscription subscription : current) {
+            if (subscription.wants(type)) {
+                if (event == null) {
+                    event = new DomainEvent(sequence.incrementAndGet(), type, subject, field, oldValue, newValue);
+                }
+                subscription.offer(event);
+            }
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return subscriptions.length > 0;
+    }
+
+    public List<BusSubscription> getSubscriptions() {
+        return List.of(subscriptions);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<DomainEvent>> subscriber) {
+        subscribe(subscriber, options());
+    }
+
+    public BusSubscription subscribe(Flow.Subscriber<? super List<DomainEvent>> subscriber, Options options) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        BusSubscription subscription = new BusSubscription(subscriber, options);
+        // Nothing is buffered before onSubscribe returns, so no onNext can overlap it
+        subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            if (closed) {
+                subscription.complete();
+                return subscription;
+            }
+            BusSubscription[] current = subscriptions;
+            BusSubscription[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = subscription;
+            subscriptions = next;
+        }
+        return subscription;
+    }
+
+    // Runs the consumer for every batch, with unbounded demand; the buffer still bounds memory
+    public BusSubscription subscribe(Consumer<List<DomainEvent>> consumer, Options options) {
+        return subscribe(new Flow.Subscriber<List<DomainEvent>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+            @Override
+            public void onNext(List<DomainEvent> batch) {
+                consumer.accept(batch);
+            }
+            @Override
+            public void onError(Throwable error) {
+                System.out.println("Event subscriber stopped: " + error.getMessage());
+            }
+            @Override
+            public void onComplete() {
+            }
+        }, options);
+    }
+
+    // Stops publishing; subscribers receive what is buffered, then onComplete
+    @Override
+    public void close() {
+        BusSubscription[] current;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current = subscriptions;
+            subscriptions = NONE;
+        }
+        for (BusSubscription subscription : current) {
+            subscription.complete();
+        }
+    }
+
+    private synchronized void remove(BusSubscription subscription) {
+        BusSubscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                BusSubscription[] next = new BusSubscription[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                subscriptions = next;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Per-subscription settings. Defaults: every event type, 1,024 buffered
+     * events, batches of up to 256, {@link OverflowPolicy#DROP_OLDEST}.
+     */
+    public static final class Options {
+        private Set<EventType> types = EnumSet.allOf(EventType.class);
+        private int capacity = 1024;
+        private int maxBatch = 256;
+        private OverflowPolicy overflow = OverflowPolicy.DROP_OLDEST;
+        private Duration blockTimeout = Duration.ofMillis(100);
+
+        private Options() {
+        }
+
+        public Options types(EventType first, EventType... rest) {
+            this.types = EnumSet.of(first, rest);
+            return this;
+        }
+
+        public Options capacity(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Options maxBatch(int maxBatch) {
+            if (maxBatch < 1) {
+                throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+            }
+            this.maxBatch = maxBatch;
+            return this;
+        }
+
+        public Options overflow(OverflowPolicy overflow) {
+            this.overflow = Objects.requireNonNull(overflow, "overflow");
+            return this;
+        }
+
+        // Longest a publisher waits for room under BLOCK before dropping the event
+        public Options blockTimeout(Duration blockTimeout) {
+            this.blockTimeout = Objects.requireNonNull(blockTimeout, "blockTimeout");
+            return this;
+        }
+    }
+
+    /**
+     * One subscriber's buffer, demand and delivery state.
+     */
+    public final class BusSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super List<DomainEvent>> subscriber;
+        private final Set<EventType> types;
+        private final int capacity;
+        private final int maxBatch;
+        private final OverflowPolicy overflow;
+        private final long blockNanos;
+
+        private final ArrayDeque<DomainEvent> buffer = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private final AtomicLong demand = new AtomicLong();
+        private final LongAdder dropped = new LongAdder();
+        private final AtomicLong delivered = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile boolean completing;
+        private volatile Throwable error;
+        private boolean terminated;     // only touched by the draining task
+
+        private BusSubscription(Flow.Subscriber<? super List<DomainEvent>> subscriber, Options options) {
+            this.subscriber = subscriber;
+            this.types = options.types;
+            this.capacity = options.capacity;
+            this.maxBatch = options.maxBatch;
+            this.overflow = options.overflow;
+            this.blockNanos = options.blockTimeout.toNanos();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be positive: " + n));
+                return;
+            }
+            demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            remove(this);
+            lock.lock();
+            try {
+                buffer.clear();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public long getDroppedCount() {
+            return dropped.sum();
+        }
+
+        public long getDeliveredCount() {
+            return delivered.get();
+        }
+
+        public int getBufferedCount() {
+            lock.lock();
+            try {
+                return buffer.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private boolean wants(EventType type) {
+            return !cancelled && types.contains(type);
+        }
+
+        private void offer(DomainEvent event) {
+            boolean overflowed = false;
+            lock.lock();
+            try {
+                if (cancelled) {
+                    return;
+                }
+                if (buffer.size() >= capacity) {
+                    switch (overflow) {
+                        case DROP_OLDEST -> {
+                            buffer.pollFirst();
+                            dropped.increment();
+                        }
+                        case DROP_NEWEST, CANCEL -> overflowed = true;
+                        case BLOCK -> overflowed = !awaitRoom();
+                    }
+                }
+                if (overflowed) {
+                    dropped.increment();
+                } else {
+                    buffer.addLast(event);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (overflowed && overflow == OverflowPolicy.CANCEL) {
+                fail(new IllegalStateException("subscriber fell " + capacity + " events behind and was cancelled"));
+            } else if (!overflowed) {
+                scheduleDrain();
+            }
+        }
+
+        // Called with the lock held
+        private boolean awaitRoom() {
+            long remaining = blockNanos;
+            try {
+                while (buffer.size() >= capacity && !cancelled) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = notFull.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return !cancelled;
+        }
+
+        private List<DomainEvent> takeBatch() {
+            lock.lock();
+            try {
+                int size = Math.min(buffer.size(), maxBatch);
+                if (size == 0) {
+                    return null;
+                }
+                List<DomainEvent> batch = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    batch.add(buffer.pollFirst());
+                }
+                notFull.signalAll();
+                return Collections.unmodifiableList(batch);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void complete() {
+            completing = true;
+            scheduleDrain();
+        }
+
+        private void fail(Throwable cause) {
+            error = cause;
+            cancel();
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (pendingDrains.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // Serialized by pendingDrains: a signal that arrives mid-drain makes this loop go round again
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    deliver();
+                }
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            long sent = 0;
+            long wanted = demand.get();
+            while (sent < wanted && !cancelled) {
+                List<DomainEvent> batch = takeBatch();
+                if (batch == null) {
+                    break;
+                }
+                try {
+                    subscriber.onNext(batch);
+                } catch (RuntimeException e) {
+                    // A subscriber that throws breaks the contract; stop delivering to it
+                    cancel();
+                    System.out.println("Event subscriber failed and was cancelled: " + e);
+                    terminated = true;
+                    return;
+                }
+                delivered.addAndGet(batch.size());
+                sent++;
+            }
+            if (sent > 0 && wanted != Long.MAX_VALUE) {
+                demand.addAndGet(-sent);
+            }
+            Throwable cause = error;
+            if (cause != null) {
+                terminated = true;
+                subscriber.onError(cause);
+            } else if (completing && !cancelled && getBufferedCount() == 0) {
+                terminated = true;
+                cancelled = true;
+                subscriber.onComplete();
+            }
+        }
+    }
+}
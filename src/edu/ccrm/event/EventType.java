@@ -0,0 +1,20 @@
+package edu.ccrm.event;
+
+public enum EventType {
+    STUDENT_ADDED("Student added"),
+    STUDENT_UPDATED("Student updated"),     // field names the setter that changed
+    COURSE_ADDED("Course added"),
+    COURSE_UPDATED("Course updated"),
+    STUDENT_ENROLLED("Student enrolled"),
+    MARKS_RECORDED("Marks recorded");       // old value is the previous grade, or null
+    
+    private final String displayName;
+    
+    EventType(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,21 @@
+package edu.ccrm.event;
+
+/**
+ * What a subscription does when an event arrives and its buffer is full.
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST("Drop oldest"),     // evict the oldest buffered event; the newest state wins
+    DROP_NEWEST("Drop newest"),     // discard the incoming event; the publisher never waits
+    BLOCK("Block"),                 // make the publisher wait for room, up to the block timeout
+    CANCEL("Cancel");               // cancel the subscription and signal onError
+    
+    private final String displayName;
+    
+    OverflowPolicy(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
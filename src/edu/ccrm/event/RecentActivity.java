@@ -0,0 +1,50 @@
+package edu.ccrm.event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the last few events and a count per type, for the activity report.
+ * Fed in batches by the bus, so recording costs the writers nothing.
+ */
+public class RecentActivity {
+    private final int limit;
+    private final ArrayDeque<DomainEvent> recent = new ArrayDeque<>();
+    private final Map<EventType, Long> counts = new EnumMap<>(EventType.class);
+    private final EventBus.BusSubscription subscription;
+
+    public RecentActivity(EventBus events, int limit) {
+        this.limit = limit;
+        this.subscription = events.subscribe(this::record, EventBus.options().capacity(4096));
+    }
+
+    private synchronized void record(List<DomainEvent> batch) {
+        for (DomainEvent event : batch) {
+            counts.merge(event.getType(), 1L, Long::sum);
+            if (recent.size() == limit) {
+                recent.pollFirst();
+            }
+            recent.addLast(event);
+        }
+    }
+
+    // Newest first
+    public synchronized List<DomainEvent> getRecentEvents() {
+        List<DomainEvent> events = new ArrayList<>(recent);
+        Collections.reverse(events);
+        return events;
+    }
+
+    public synchronized Map<EventType, Long> getCounts() {
+        return new EnumMap<>(counts);
+    }
+
+    // Events lost because this consumer fell a full buffer behind
+    public long getDroppedCount() {
+        return subscription.getDroppedCount();
+    }
+}
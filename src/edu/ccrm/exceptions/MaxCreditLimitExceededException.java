@@ -13,6 +13,15 @@ public class MaxCreditLimitExceededException extends Exception {
         this.maxAllowed = max;
     }
     
+    // Limit applied to one term
+    public MaxCreditLimitExceededException(String term, int current, int attempted, int max) {
+        super(String.format("Credit limit exceeded for %s! Current: %d, Attempted: %d, Max: %d", 
+                          term, current, attempted, max));
+        this.currentCredits = current;
+        this.attemptedCredits = attempted;
+        this.maxAllowed = max;
+    }
+    
     public int getCurrentCredits() { return currentCredits; }
     public int getAttemptedCredits() { return attemptedCredits; }
     public int getMaxAllowed() { return maxAllowed; }
@@ -0,0 +1,31 @@
+package edu.ccrm.exceptions;
+
+import java.util.List;
+
+public class PrerequisiteNotMetException extends Exception {
+    private static final long serialVersionUID = 1L;
+    private final List<String> missingPrerequisites;
+    private final List<String> missingCorequisites;
+    
+    public PrerequisiteNotMetException(String studentName, String courseCode,
+                                       List<String> missingPrerequisites, List<String> missingCorequisites) {
+        super(buildMessage(studentName, courseCode, missingPrerequisites, missingCorequisites));
+        this.missingPrerequisites = List.copyOf(missingPrerequisites);
+        this.missingCorequisites = List.copyOf(missingCorequisites);
+    }
+    
+    private static String buildMessage(String studentName, String courseCode,
+                                       List<String> prerequisites, List<String> corequisites) {
+        StringBuilder message = new StringBuilder("Student " + studentName + " cannot enroll in " + courseCode);
+        if (!prerequisites.isEmpty()) {
+            message.append("; prerequisites not passed: ").append(String.join(", ", prerequisites));
+        }
+        if (!corequisites.isEmpty()) {
+            message.append("; corequisites neither passed nor enrolled: ").append(String.join(", ", corequisites));
+        }
+        return message.toString();
+    }
+    
+    public List<String> getMissingPrerequisites() { return missingPrerequisites; }
+    public List<String> getMissingCorequisites() { return missingCorequisites; }
+}
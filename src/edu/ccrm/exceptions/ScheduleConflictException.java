@@ -0,0 +1,15 @@
+package edu.ccrm.exceptions;
+
+public class ScheduleConflictException extends Exception {
+    private static final long serialVersionUID = 1L;
+    private final String clashingCourseCode;
+    
+    public ScheduleConflictException(String studentName, String courseCode, String slot,
+                                     String clashingCourseCode, String clashingSlot) {
+        super(String.format("Timetable clash for %s: %s (%s) overlaps %s (%s)",
+                          studentName, courseCode, slot, clashingCourseCode, clashingSlot));
+        this.clashingCourseCode = clashingCourseCode;
+    }
+    
+    public String getClashingCourseCode() { return clashingCourseCode; }
+}
@@ -0,0 +1,18 @@
+package edu.ccrm.interfaces;
+
+import edu.ccrm.query.Criterion;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public interface Queryable<T> {
+    // Lazily evaluated; indexed predicates narrow the candidates first
+    Stream<T> queryStream(Criterion<T> criterion);
+    
+    String explain(Criterion<T> criterion);
+    
+    default List<T> query(Criterion<T> criterion) {
+        return queryStream(criterion).collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,24 @@
 package edu.ccrm.interfaces;
 
+import edu.ccrm.util.KeysetPager;
+import edu.ccrm.util.Page;
+import edu.ccrm.util.SortKey;
+
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @FunctionalInterface
 public interface Searchable<T> {
     List<T> search(String keyword);
+    
+    // Lazy variant; implementations backed by a snapshot should override to avoid building the list
+    default Stream<T> searchStream(String keyword) {
+        return search(keyword).stream();
+    }
+    
+    // Keyset-paginated search: pass null for the first page, then the previous page's cursor
+    default Page<T> searchPage(String keyword, Function<? super T, SortKey> keyOf, String cursor, int pageSize) {
+        return KeysetPager.page(searchStream(keyword), keyOf, cursor, pageSize);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package edu.ccrm.io;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which backups to keep: the newest backup of each of the last N hours that
+ * have one, and the newest of each of the last M days that have one. A
+ * backup kept for either reason stays, and the newest backup is always kept.
+ */
+public final class BackupRetention {
+    private final int hourly;
+    private final int daily;
+
+    public BackupRetention(int hourly, int daily) {
+        if (hourly < 0 || daily < 0) {
+            throw new IllegalArgumentException("Retention counts cannot be negative: " + hourly + ", " + daily);
+        }
+        this.hourly = hourly;
+        this.daily = daily;
+    }
+
+    public int getHourly() { return hourly; }
+    public int getDaily() { return daily; }
+
+    // The backups, by time taken, that the policy no longer keeps
+    public List<Path> expired(Map<Path, LocalDateTime> backups) {
+        List<Map.Entry<Path, LocalDateTime>> newestFirst = new ArrayList<>(backups.entrySet());
+        newestFirst.sort(Map.Entry.<Path, LocalDateTime>comparingByValue(Comparator.reverseOrder()));
+        
+        Set<LocalDateTime> hours = new HashSet<>();
+        Set<LocalDate> days = new HashSet<>();
+        List<Path> expired = new ArrayList<>();
+        for (int i = 0; i < newestFirst.size(); i++) {
+            LocalDateTime taken = newestFirst.get(i).getValue();
+            boolean keep = i == 0;
+            if (hours.size() < hourly && hours.add(taken.truncatedTo(ChronoUnit.HOURS))) {
+                keep = true;
+            }
+            if (days.size() < daily && days.add(taken.toLocalDate())) {
+                keep = true;
+            }
+            if (!keep) {
+                expired.add(newestFirst.get(i).getKey());
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public String toString() {
+        return hourly + " hourly and " + daily + " daily";
+    }
+}
@@ -0,0 +1,182 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes backups in the background: every interval once started, and on
+ * request through {@link #backupNow}. Each backup captures a snapshot and
+ * writes it on the scheduler's single daemon thread, then queues a prune
+ * with the retention policy behind it, so callers never wait, backups never
+ * overlap and a prune never deletes a backup that is being written.
+ *
+ * The outcome of the latest backup and prune is kept for status displays
+ * rather than printed, as scheduled runs happen while the menu is in use.
+ */
+public class BackupScheduler {
+    private final BackupService backupService;
+    private final BackupRetention retention;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> periodic;
+    private Duration interval;
+    private volatile Path lastBackup;
+    private volatile LocalDateTime lastBackupTime;
+    private volatile long lastBackupMillis;
+    private volatile String lastError;
+    private volatile int backupCount;
+    private volatile int prunedCount;
+    private final AtomicInteger pendingBackups = new AtomicInteger();
+
+    public BackupScheduler(BackupService backupService, BackupRetention retention) {
+        this.backupService = backupService;
+        this.retention = retention;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ccrm-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // The first scheduled backup is one interval from now; restarting replaces the old schedule
+    public synchronized void start(Duration interval) {
+        stop();
+        this.interval = interval;
+        long millis = interval.toMillis();
+        periodic = executor.scheduleWithFixedDelay(this::scheduledBackup, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops scheduling; a backup already running finishes
+    public synchronized void stop() {
+        if (periodic != null) {
+            periodic.cancel(false);
+            periodic = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return periodic != null;
+    }
+
+    public synchronized Duration getInterval() {
+        return interval;
+    }
+
+    // Completes with the new backup directory; the prune that follows is not waited for
+    public CompletableFuture<Path> backupNow() {
+        pendingBackups.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return backup();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                pendingBackups.decrementAndGet();
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Integer> pruneNow() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return prune();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    // A failure is recorded; throwing would cancel the schedule
+    private void scheduledBackup() {
+        pendingBackups.incrementAndGet();
+        try {
+            backup();
+        } catch (IOException | RuntimeException e) {
+            // Recorded by backup()
+        } finally {
+            pendingBackups.decrementAndGet();
+        }
+    }
+
+    private Path backup() throws IOException {
+        long start = System.nanoTime();
+        Path backupDir;
+        try {
+            backupDir = backupService.createBackup();
+            lastBackup = backupDir;
+            lastBackupTime = LocalDateTime.now();
+            lastBackupMillis = (System.nanoTime() - start) / 1_000_000;
+            lastError = null;
+            backupCount++;
+        } catch (IOException | RuntimeException e) {
+            lastError = "Backup failed: " + e.getMessage();
+            throw e;
+        }
+        try {
+            executor.execute(this::scheduledPrune);
+        } catch (RejectedExecutionException e) {
+            // Closing; the next session's first backup prunes
+        }
+        return backupDir;
+    }
+
+    private void scheduledPrune() {
+        try {
+            prune();
+        } catch (IOException | RuntimeException e) {
+            // Recorded by prune()
+        }
+    }
+
+    private int prune() throws IOException {
+        try {
+            int pruned = backupService.prune(retention);
+            prunedCount += pruned;
+            return pruned;
+        } catch (IOException | RuntimeException e) {
+            lastError = "Prune failed: " + e.getMessage();
+            throw e;
+        }
+    }
+
+    public BackupRetention getRetention() { return retention; }
+    public Path getLastBackup() { return lastBackup; }
+    public LocalDateTime getLastBackupTime() { return lastBackupTime; }
+    public long getLastBackupMillis() { return lastBackupMillis; }
+    public int getBackupCount() { return backupCount; }
+    public int getPrunedCount() { return prunedCount; }
+
+    // The latest failure, cleared by the next successful backup; null if none
+    public String getLastError() { return lastError; }
+
+    // A backup is running or queued
+    public boolean isBusy() {
+        return pendingBackups.get() > 0;
+    }
+
+    /**
+     * Stops scheduling and waits up to the timeout for a backup that is
+     * running or queued, so one just requested is not cut off at exit.
+     * Returns false if it was still going; its partial directory is then
+     * removed by the next prune.
+     */
+    public boolean close(Duration timeout) {
+        stop();
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -5,7 +5,13 @@ import edu.ccrm.config.AppConfig;
 import java.nio.file.*;
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -13,6 +19,11 @@ import java.util.concurrent.atomic.AtomicLong;
  * Demonstrates recursive file operations and NIO.2 backup functionality
  */
 public class BackupService {
+    static final String BACKUP_PREFIX = "backup_";
+    private static final String PARTIAL_PREFIX = "partial_";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final int TIMESTAMP_LENGTH = "yyyyMMdd_HHmmss".length();
+    
     private final AppConfig config;
     private final ImportExportService importExportService;
     
@@ -21,27 +32,98 @@ public class BackupService {
         this.importExportService = importExportService;
     }
     
-    // Create timestamped backup using NIO.2
+    // Create timestamped backup using NIO.2, from a snapshot rendered before anything is written
     public Path createBackup() throws IOException {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        Path backupDir = config.getBackupDirectory().resolve("backup_" + timestamp);
-        
-        // Create backup directory
-        Files.createDirectories(backupDir);
-        
-        // Export current data to backup directory
-        Path studentsBackup = backupDir.resolve("students_backup.csv");
-        Path coursesBackup = backupDir.resolve("courses_backup.csv");
-        Path reportBackup = backupDir.resolve("student_report.txt");
-        
-        importExportService.exportStudentsToCSV(studentsBackup);
-        importExportService.exportCoursesToCSV(coursesBackup);
-        importExportService.generateStudentReport(reportBackup);
-        
-        System.out.println("Backup created: " + backupDir.getFileName());
+        return writeBackup(importExportService.captureBackupSnapshot());
+    }
+    
+    /**
+     * Writes the snapshot to backup_<timestamp> (with a _N suffix if that
+     * is taken). The files go to a partial_ directory first, which is
+     * renamed once complete, so a backup_ directory is never half written.
+     */
+    Path writeBackup(BackupSnapshot snapshot) throws IOException {
+        Files.createDirectories(config.getBackupDirectory());
+        String name = BACKUP_PREFIX + snapshot.getTakenAt().format(TIMESTAMP);
+        Path backupDir = config.getBackupDirectory().resolve(name);
+        for (int n = 1; Files.exists(backupDir); n++) {
+            backupDir = config.getBackupDirectory().resolve(name + "_" + n);
+        }
+        Path partial = config.getBackupDirectory().resolve(PARTIAL_PREFIX + backupDir.getFileName());
+        Files.createDirectories(partial);
+        try {
+            snapshot.writeTo(partial);
+            try {
+                Files.move(partial, backupDir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partial, backupDir);
+            }
+        } catch (IOException e) {
+            deleteRecursively(partial);
+            throw e;
+        }
         return backupDir;
     }
     
+    // Completed backups by the time in their name, oldest first
+    public Map<Path, LocalDateTime> listBackups() throws IOException {
+        Map<Path, LocalDateTime> backups = new TreeMap<>();
+        if (!Files.isDirectory(config.getBackupDirectory())) {
+            return backups;
+        }
+        try (Stream<Path> paths = Files.list(config.getBackupDirectory())) {
+            paths.filter(Files::isDirectory)
+                 .forEach(path -> backupTime(path).ifPresent(taken -> backups.put(path, taken)));
+        }
+        return backups;
+    }
+    
+    // The time in a backup_yyyyMMdd_HHmmss[_N] name; empty for anything else
+    static Optional<LocalDateTime> backupTime(Path backupDir) {
+        String name = backupDir.getFileName().toString();
+        int end = BACKUP_PREFIX.length() + TIMESTAMP_LENGTH;
+        if (!name.startsWith(BACKUP_PREFIX) || name.length() < end) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(LocalDateTime.parse(name.substring(BACKUP_PREFIX.length(), end), TIMESTAMP));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Deletes the backups the retention policy no longer keeps, and any
+     * partial_ directories left by a backup that did not finish. Must not
+     * run alongside a backup; {@link BackupScheduler} runs both on one
+     * thread. Returns the number of backups deleted.
+     */
+    public int prune(BackupRetention retention) throws IOException {
+        List<Path> expired = retention.expired(listBackups());
+        for (Path backupDir : expired) {
+            deleteRecursively(backupDir);
+        }
+        try (Stream<Path> paths = Files.list(config.getBackupDirectory())) {
+            for (Path partial : paths.filter(path -> path.getFileName().toString().startsWith(PARTIAL_PREFIX))
+                                     .collect(Collectors.toList())) {
+                deleteRecursively(partial);
+            }
+        }
+        return expired.size();
+    }
+    
+    // Recursive delete: contents first, then the directory itself
+    void deleteRecursively(Path path) throws IOException {
+        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            try (Stream<Path> paths = Files.list(path)) {
+                for (Path child : paths.collect(Collectors.toList())) {
+                    deleteRecursively(child); // RECURSIVE CALL
+                }
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+    
     // Recursive method to calculate directory size - DEMONSTRATES RECURSION
     public long calculateDirectorySize(Path directory) throws IOException {
         // Base case: if it's a file, return its size
@@ -109,7 +191,7 @@ public class BackupService {
         try (Stream<Path> backupPaths = Files.walk(config.getBackupDirectory())) {
             backupPaths
                 .filter(Files::isDirectory)
-                .filter(path -> path.getFileName().toString().startsWith("backup_"))
+                .filter(path -> path.getFileName().toString().startsWith(BACKUP_PREFIX))
                 .forEach(backupDir -> {
                     try {
                         long size = calculateDirectorySize(backupDir);
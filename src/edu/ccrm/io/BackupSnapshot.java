@@ -0,0 +1,97 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Everything one backup writes, already rendered to lines when it was
+ * captured; see {@link ImportExportService#captureBackupSnapshot}. Writing
+ * it reads nothing live, so it can take as long as the disk needs. The
+ * manifest, written last, records when it was taken, its row counts, how
+ * the capture went, and each file's size and CRC32 for restore to verify.
+ */
+final class BackupSnapshot {
+    static final String STUDENTS_FILE = "students_backup.csv";
+    static final String COURSES_FILE = "courses_backup.csv";
+    static final String INSTRUCTORS_FILE = "instructors_backup.csv";
+    static final String ENROLLMENTS_FILE = "enrollments_backup.csv";
+    static final String REQUIREMENTS_FILE = "prerequisites_backup.csv";
+    static final String REPORT_FILE = "student_report.txt";
+    static final String MANIFEST_FILE = "backup.properties";
+    // Manifest key prefix for a file's "bytes,crc32" entry
+    static final String FILE_KEY = "file.";
+
+    private final LocalDateTime takenAt;
+    private final int attempts;
+    private final Map<String, List<String>> files = new LinkedHashMap<>();
+    private boolean settled;
+
+    BackupSnapshot(LocalDateTime takenAt, int attempts, List<String> students, List<String> courses,
+                   List<String> instructors, List<String> enrollments, List<String> requirements,
+                   List<String> report) {
+        this.takenAt = takenAt;
+        this.attempts = attempts;
+        files.put(STUDENTS_FILE, students);
+        files.put(COURSES_FILE, courses);
+        files.put(INSTRUCTORS_FILE, instructors);
+        files.put(ENROLLMENTS_FILE, enrollments);
+        files.put(REQUIREMENTS_FILE, requirements);
+        files.put(REPORT_FILE, report);
+    }
+
+    BackupSnapshot settled(boolean settled) {
+        this.settled = settled;
+        return this;
+    }
+
+    LocalDateTime getTakenAt() { return takenAt; }
+    int getAttempts() { return attempts; }
+
+    // False if writes kept completing through every capture attempt
+    boolean isSettled() { return settled; }
+
+    // Rows, not counting headers
+    int getStudentCount() { return files.get(STUDENTS_FILE).size() - 1; }
+    int getEnrollmentCount() { return files.get(ENROLLMENTS_FILE).size() - 1; }
+
+    void writeTo(Path directory) throws IOException {
+        List<String> manifest = new ArrayList<>(List.of(
+            "takenAt=" + takenAt,
+            "students=" + getStudentCount(),
+            "enrollments=" + getEnrollmentCount(),
+            "captureAttempts=" + attempts,
+            "settled=" + settled));
+        for (Map.Entry<String, List<String>> file : files.entrySet()) {
+            byte[] bytes = encode(file.getValue());
+            Files.write(directory.resolve(file.getKey()), bytes,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            manifest.add(FILE_KEY + file.getKey() + "=" + bytes.length + "," + checksum(bytes));
+        }
+        Files.write(directory.resolve(MANIFEST_FILE), manifest,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // As Files.write would lay the lines out
+    private static byte[] encode(List<String> lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append(System.lineSeparator());
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return String.format("%08x", crc.getValue());
+    }
+}
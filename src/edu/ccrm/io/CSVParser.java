@@ -0,0 +1,92 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal CSV reader for the import files. Fields may be wrapped in double
+ * quotes to contain commas, with "" for a literal quote; unquoted fields are
+ * trimmed.
+ */
+public class CSVParser {
+    private static final String[] BLANK_ROW = new String[0];
+
+    private CSVParser() {}
+
+    /**
+     * Reads every line after the header. Row i of the result is line i + 2 of
+     * the file; blank lines stay in place as empty arrays so row numbers in a
+     * report match the file.
+     */
+    public static List<String[]> readRows(Path file) throws IOException {
+        return parseRows(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    // The same for a file already read into lines, header first
+    public static List<String[]> parseRows(List<String> lines) {
+        List<String[]> rows = new ArrayList<>(Math.max(0, lines.size() - 1));
+        for (int i = 1; i < lines.size(); i++) {
+            rows.add(parseLine(lines.get(i)));
+        }
+        return rows;
+    }
+
+    public static String[] parseLine(String line) {
+        if (line.isBlank()) {
+            return BLANK_ROW;
+        }
+        if (line.indexOf('"') < 0) {
+            String[] fields = line.split(",", -1);
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fields[i].trim();
+            }
+            return fields;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                if (field.toString().isBlank()) {
+                    field.setLength(0);
+                }
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(wasQuoted ? field.toString() : field.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    // Quotes a value for writing only when it needs it
+    public static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
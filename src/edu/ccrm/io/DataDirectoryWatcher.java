@@ -0,0 +1,351 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Follows CSV files that another system appends to and imports only the new
+ * rows.
+ *
+ * Each tracked file has a checkpoint: the byte offset just past the last
+ * complete line imported, the number of lines consumed, and a CRC32 of the
+ * file's first bytes (up to {@link #HEAD_BYTES}), plus the file key (inode)
+ * where the platform has one. On every change the watcher:
+ *   - starts over from byte 0 if the file shrank below the offset
+ *     (truncation), if the head checksum no longer matches, or if the file
+ *     key changed (rotation or replacement). Imports merge, so rows already
+ *     loaded come back as unchanged rather than as duplicates.
+ *   - otherwise reads from the offset to the last newline and hands those
+ *     rows to the file's sink. A half-written last line waits for the next
+ *     change.
+ *
+ * A file starts from the {@link Checkpoint} its tracker supplies when the
+ * watcher first starts: the bytes an import actually read, so rows appended
+ * between that read and the start are imported too. Without one it starts
+ * from the file's end. Stopping keeps every checkpoint, and starting again
+ * picks up what was appended meanwhile.
+ *
+ * Changes are picked up from a {@link WatchService} on the directory. A stat
+ * of each file every {@link #POLL_SECONDS} seconds covers platforms whose
+ * watch service is itself a slow poller.
+ */
+public class DataDirectoryWatcher {
+    static final int HEAD_BYTES = 4096;
+    private static final int POLL_SECONDS = 1;
+    private static final int MAX_READ_BYTES = 8 << 20;
+
+    private final Path directory;
+    private final Map<Path, Tail> tails = new LinkedHashMap<>();
+    private volatile WatchService watchService;
+    private volatile Thread thread;
+
+    /**
+     * Receives the rows appended to one file. Row i is line firstLine + i.
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        MergeResult accept(List<String[]> rows, int firstLine, String source);
+    }
+
+    public DataDirectoryWatcher(Path directory) {
+        this.directory = directory;
+    }
+
+    // The checkpoint is asked for on the first start; null means from the file's end
+    public synchronized DataDirectoryWatcher track(Path file, Supplier<Checkpoint> from, RowSink sink) {
+        tails.put(file.getFileName(), new Tail(file, from, sink));
+        return this;
+    }
+
+    /**
+     * Starts following every tracked file from its checkpoint; what was
+     * appended since is imported on the first poll.
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            return;
+        }
+        for (Tail tail : tails.values()) {
+            tail.position();
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::run, "ccrm-data-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Watching " + directory.toAbsolutePath() + " for appended rows");
+    }
+
+    public synchronized void stop() {
+        Thread running = thread;
+        if (running == null) {
+            return;
+        }
+        thread = null;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Closing only ends the loop
+        }
+        running.interrupt();
+        System.out.println("Stopped watching " + directory.toAbsolutePath());
+    }
+
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    // Checks every tracked file now; also used by the watch loop on each timeout
+    public synchronized void pollNow() {
+        for (Tail tail : tails.values()) {
+            tail.catchUp();
+        }
+    }
+
+    private void run() {
+        while (thread != null) {
+            WatchKey key;
+            try {
+                key = watchService.poll(POLL_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (key == null) {
+                pollNow();
+                continue;
+            }
+            boolean overflow = false;
+            List<Path> changed = new ArrayList<>();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                } else {
+                    changed.add((Path) event.context());
+                }
+            }
+            key.reset();
+            synchronized (this) {
+                for (Map.Entry<Path, Tail> tail : tails.entrySet()) {
+                    if (overflow || changed.contains(tail.getKey())) {
+                        tail.getValue().catchUp();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * How much of a file has been imported: the byte offset, the newlines
+     * before it, a CRC32 of its first bytes and the file key when it was read.
+     */
+    public static final class Checkpoint {
+        // Nothing imported yet; the whole file is read
+        public static final Checkpoint START = new Checkpoint(0, 0, 0, 0, null);
+
+        private final long offset;
+        private final int lines;
+        private final long headChecksum;
+        private final int headLength;
+        private final Object fileKey;
+
+        private Checkpoint(long offset, int lines, long headChecksum, int headLength, Object fileKey) {
+            this.offset = offset;
+            this.lines = lines;
+            this.headChecksum = headChecksum;
+            this.headLength = headLength;
+            this.fileKey = fileKey;
+        }
+
+        // After an import read these bytes from the start of the file; take the key before reading
+        public static Checkpoint after(byte[] consumed, Object fileKey) {
+            int lines = 0;
+            for (byte b : consumed) {
+                if (b == '\n') {
+                    lines++;
+                }
+            }
+            int headLength = Math.min(consumed.length, HEAD_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(consumed, 0, headLength);
+            return new Checkpoint(consumed.length, lines, crc.getValue(), headLength, fileKey);
+        }
+    }
+
+    // Checkpoint and reader for one file
+    private static final class Tail {
+        private final Path file;
+        private final Supplier<Checkpoint> from;
+        private final RowSink sink;
+        private boolean positioned;
+        private long offset;
+        private int linesConsumed;
+        private long headChecksum;
+        private int headLength;
+        private Object fileKey;
+
+        private Tail(Path file, Supplier<Checkpoint> from, RowSink sink) {
+            this.file = file;
+            this.from = from;
+            this.sink = sink;
+        }
+
+        // Once only; later starts resume where the last stop left off
+        private void position() throws IOException {
+            if (positioned) {
+                return;
+            }
+            positioned = true;
+            Checkpoint checkpoint = from.get();
+            if (checkpoint == null) {
+                skipToEnd();
+                return;
+            }
+            offset = checkpoint.offset;
+            linesConsumed = checkpoint.lines;
+            headChecksum = checkpoint.headChecksum;
+            headLength = checkpoint.headLength;
+            fileKey = checkpoint.fileKey;
+        }
+
+        private void skipToEnd() throws IOException {
+            reset();
+            if (!Files.exists(file)) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                // Count lines once so later row numbers match the file
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                long position = 0;
+                long lastNewline = -1;
+                int lines = 0;
+                while (channel.read(buffer, position) > 0) {
+                    buffer.flip();
+                    for (int i = 0; i < buffer.limit(); i++) {
+                        if (buffer.get(i) == '\n') {
+                            lines++;
+                            lastNewline = position + i;
+                        }
+                    }
+                    position += buffer.limit();
+                    buffer.clear();
+                }
+                offset = lastNewline + 1;
+                linesConsumed = lines;
+                fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+                recordHead(channel);
+            }
+        }
+
+        private void reset() {
+            offset = 0;
+            linesConsumed = 0;
+            headChecksum = 0;
+            headLength = 0;
+            fileKey = null;
+        }
+
+        private void catchUp() {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Object currentKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+                long size = channel.size();
+                String replaced = null;
+                if (size < offset) {
+                    replaced = "truncated";
+                } else if (fileKey != null && currentKey != null && !fileKey.equals(currentKey)) {
+                    replaced = "replaced";
+                } else if (headLength > 0 && checksum(channel, headLength) != headChecksum) {
+                    replaced = "rewritten";
+                }
+                if (replaced != null) {
+                    System.out.println(file.getFileName() + " was " + replaced + "; re-reading from the start");
+                    reset();
+                }
+                fileKey = currentKey;
+                while (size > offset && readAppended(channel, size)) {
+                    // Keep going while whole lines remain
+                }
+            } catch (NoSuchFileException e) {
+                // Gone for now (mid-rotation); read it from the start when it comes back
+                reset();
+            } catch (IOException e) {
+                System.out.println("Could not read " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+
+        // Imports the complete lines in the next chunk; false if none are complete yet
+        private boolean readAppended(FileChannel channel, long size) throws IOException {
+            int length = (int) Math.min(size - offset, MAX_READ_BYTES);
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+                // Fill the buffer
+            }
+            byte[] bytes = buffer.array();
+            int end = buffer.position();
+            while (end > 0 && bytes[end - 1] != '\n') {
+                end--;
+            }
+            if (end == 0) {
+                return false;
+            }
+
+            String[] lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\r?\n", -1);
+            int lineCount = lines.length - 1;           // text ends with a newline
+            int first = 0;
+            if (linesConsumed == 0) {
+                first = 1;                              // header
+            }
+            List<String[]> rows = new ArrayList<>(Math.max(0, lineCount - first));
+            for (int i = first; i < lineCount; i++) {
+                rows.add(CSVParser.parseLine(lines[i]));
+            }
+            int firstLine = linesConsumed + first + 1;
+            offset += end;
+            linesConsumed += lineCount;
+            if (headLength < HEAD_BYTES) {
+                recordHead(channel);
+            }
+            if (!rows.isEmpty()) {
+                sink.accept(rows, firstLine, file.getFileName().toString());
+            }
+            return true;
+        }
+
+        // The head covers only bytes already consumed, so appends never change it
+        private void recordHead(FileChannel channel) throws IOException {
+            headLength = (int) Math.min(offset, HEAD_BYTES);
+            headChecksum = checksum(channel, headLength);
+        }
+
+        private static long checksum(FileChannel channel, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+                // Fill the buffer
+            }
+            CRC32 crc = new CRC32();
+            buffer.flip();
+            crc.update(buffer);
+            return crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package edu.ccrm.io;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Readiness of the startup load. Students and courses are imported on
+ * separate background threads; each future completes once its import has
+ * finished, normally even when the file was missing or unreadable (the
+ * import prints why). Callers that need complete data wait on the matching
+ * future; read-only views may run against what has loaded so far.
+ */
+public class DataLoad {
+    private final CompletableFuture<Void> studentsLoaded;
+    private final CompletableFuture<Void> coursesLoaded;
+    private final CompletableFuture<Void> allLoaded;
+
+    DataLoad(CompletableFuture<Void> studentsLoaded, CompletableFuture<Void> coursesLoaded) {
+        this.studentsLoaded = studentsLoaded;
+        this.coursesLoaded = coursesLoaded;
+        this.allLoaded = CompletableFuture.allOf(studentsLoaded, coursesLoaded);
+    }
+
+    // Already finished, for callers that loaded synchronously
+    public static DataLoad completed() {
+        return new DataLoad(CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(null));
+    }
+
+    public CompletableFuture<Void> getStudentsLoaded() { return studentsLoaded; }
+    public CompletableFuture<Void> getCoursesLoaded() { return coursesLoaded; }
+    public CompletableFuture<Void> getAllLoaded() { return allLoaded; }
+
+    public boolean isDone() {
+        return allLoaded.isDone();
+    }
+}
@@ -2,122 +2,776 @@ package edu.ccrm.io;
 
 import edu.ccrm.domain.Student;
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.RequirementType;
 import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.TimeSlot;
 import edu.ccrm.service.StudentService;
 import edu.ccrm.service.CourseService;
+import edu.ccrm.service.DataDomain;
+import edu.ccrm.service.DataVersions;
+import edu.ccrm.service.InactiveStudentTier;
+import edu.ccrm.service.InstructorService;
+import edu.ccrm.service.PrerequisiteGraph;
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.store.MappedStudentArchive;
+import edu.ccrm.store.StudentArchiveConverter;
+import edu.ccrm.util.IsoDateTime;
+import edu.ccrm.util.ValidationReport;
+import edu.ccrm.util.Validator;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class ImportExportService {
     private final StudentService studentService;
     private final CourseService courseService;
     private final AppConfig config;
+    private final ShardedStudentStore store;
+    private volatile ValidationReport lastStudentReport;
+    private volatile ValidationReport lastCourseReport;
+    // How far the startup load read each file the watcher follows
+    private final Map<Path, DataDirectoryWatcher.Checkpoint> loadedUpTo = new ConcurrentHashMap<>();
+    
+    // Header is line 1, so the first data row is line 2
+    static final int FIRST_DATA_LINE = 2;
+    
+    private static final Validator STUDENT_ROWS = Validator.forColumns("id", "regNo", "fullName", "email")
+        .required("id").maxLength("id", 32)
+        .required("regNo").matches("regNo", "\\d{2}[A-Za-z]{3}\\d{5}", "regNo-format")
+        .required("fullName").maxLength("fullName", 100)
+        .required("email").matches("email", "[\\w.+-]+@[\\w-]+(?:\\.[\\w-]+)+", "email-format")
+        .unique("id").unique("regNo")
+        .build();
+    
+    private static final Validator COURSE_ROWS = Validator.forColumns(
+            "code", "title", "credits", "instructor", "semester", "department")
+        .required("code").matches("code", "[A-Za-z]{2,5}\\d{3,4}", "course-code")
+        .required("title").maxLength("title", 120)
+        .required("credits").intRange("credits", 1, 6)
+        .required("semester").enumValue("semester", Semester.class)
+        .required("department")
+        .optionalColumns("active", "meetingTimes", "instructorId")
+        .check("active", "boolean", ImportExportService::isBoolean)
+        .check("meetingTimes", "meeting-times", TimeSlot::isValidList)
+        .unique("code")
+        .build();
+    
+    private static final Validator INSTRUCTOR_ROWS = Validator.forColumns("id", "fullName", "email")
+        .required("id").maxLength("id", 32)
+        .required("fullName").maxLength("fullName", 100)
+        .required("email").matches("email", "[\\w.+-]+@[\\w-]+(?:\\.[\\w-]+)+", "email-format")
+        .optionalColumns("department")
+        .unique("id")
+        .build();
+    
+    private static final Validator REQUIREMENT_ROWS = Validator.forColumns("course", "requires", "type")
+        .required("course").required("requires")
+        .required("type").enumValue("type", RequirementType.class)
+        .build();
+    
+    private static final Validator ENROLLMENT_ROWS = Validator.forColumns("studentId", "courseCode", "enrollmentDate")
+        .required("studentId").required("courseCode")
+        .required("enrollmentDate").check("enrollmentDate", "date-time", ImportExportService::isDateTime)
+        .optionalColumns("marks")
+        .check("marks", "marks-range", ImportExportService::isMarks)
+        .build();
+    
+    private static final Validator MARK_ROWS = Validator.forColumns("studentId", "courseCode", "marks")
+        .required("studentId").required("courseCode")
+        .required("marks").check("marks", "marks-range", ImportExportService::isMarks)
+        .build();
     
     public ImportExportService(StudentService studentService, CourseService courseService) {
         this.studentService = studentService;
         this.courseService = courseService;
         this.config = AppConfig.getInstance();
+        this.store = new ShardedStudentStore(config.getShardDirectory(), config.getShardCount(),
+            studentService, courseService);
+    }
+    
+    /**
+     * Attaches the student archive in the archive directory, if one has
+     * been built, so lookups fall back to it. Opening maps the files and
+     * reads only their headers.
+     */
+    public void attachArchiveIfPresent() {
+        Path directory = config.getArchiveDirectory();
+        if (!Files.exists(directory.resolve(MappedStudentArchive.DATA_FILE))) {
+            return;
+        }
+        try {
+            attachArchive(MappedStudentArchive.open(directory));
+        } catch (IOException e) {
+            System.out.println("Note: Could not open student archive: " + e.getMessage());
+        }
+    }
+    
+    // Converts a students CSV into the archive directory and attaches the result
+    public StudentArchiveConverter.Result buildArchive(Path csv) throws IOException {
+        MappedStudentArchive previous = studentService.getArchive();
+        if (previous != null) {
+            studentService.setArchive(null);
+            previous.close();
+        }
+        StudentArchiveConverter.Result result = StudentArchiveConverter.convert(csv, config.getArchiveDirectory());
+        attachArchive(MappedStudentArchive.open(config.getArchiveDirectory()));
+        System.out.println("Built student archive from " + csv.getFileName() + ": " + result);
+        return result;
+    }
+    
+    private void attachArchive(MappedStudentArchive archive) {
+        studentService.setArchive(archive);
+        System.out.println("Student archive attached: " + archive.size() + " archived students");
+    }
+    
+    // Sharded students and enrollments; save() writes only what changed
+    public ShardedStudentStore getStore() {
+        return store;
+    }
+    
+    // Load the default student and course files if they exist, and wait for both
+    public void loadInitialData() {
+        loadInitialDataAsync().getAllLoaded().join();
+    }
+    
+    /**
+     * Starts importing the default student and course files in parallel on
+     * two daemon threads and returns at once. The two imports touch
+     * disjoint services, so they need no coordination. Per-record "Added"
+     * lines are suppressed while loading.
+     *
+     * Once a sharded layout has been saved, students and their enrollments
+     * come from it instead of students.csv. Its segments are parsed while
+     * courses load, and added once courses are in so enrollments resolve.
+     * students.csv is then unread, so the watcher merges it from the start.
+     */
+    public DataLoad loadInitialDataAsync() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService loaders = Executors.newFixedThreadPool(2, task -> {
+            Thread thread = new Thread(task, "ccrm-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        
+        studentService.setAnnounceAdds(false);
+        courseService.setAnnounceAdds(false);
+        CompletableFuture<Void> courses = CompletableFuture
+            .runAsync(() -> {
+                loadIfPresent(config.getInstructorDataFile(), this::importInstructorsFromCSV);
+                loadFollowed(config.getCourseDataFile(), this::importCourseRows);
+                loadIfPresent(config.getRequirementDataFile(), this::importRequirementsFromCSV);
+            }, loaders)
+            .whenComplete((ignored, error) -> courseService.setAnnounceAdds(true));
+        CompletableFuture<Void> students;
+        if (store.exists()) {
+            loadedUpTo.put(config.getStudentDataFile(), DataDirectoryWatcher.Checkpoint.START);
+            students = CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return store.read();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, loaders)
+                .thenAcceptBothAsync(courses, (segments, ignored) -> store.apply(segments), loaders);
+        } else {
+            students = CompletableFuture
+                .runAsync(() -> loadFollowed(config.getStudentDataFile(), this::importStudentRows), loaders);
+        }
+        students = students
+            .thenRun(this::retireInactiveStudents)
+            .whenComplete((ignored, error) -> studentService.setAnnounceAdds(true));
+        
+        DataLoad load = new DataLoad(students, courses);
+        load.getAllLoaded().whenComplete((ignored, error) -> {
+            loaders.shutdown();
+            if (error != null) {
+                System.out.println("Note: Initial data load failed: " + error.getCause());
+            } else {
+                System.out.printf("Initial data loaded in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            }
+        });
+        return load;
+    }
+    
+    // Moves inactive students to the spill file; returns how many moved, none without a tier
+    public int retireInactiveStudents() {
+        long start = System.nanoTime();
+        try {
+            int retired = studentService.retireInactiveStudents();
+            if (retired > 0) {
+                System.out.printf("Moved %d inactive students out of memory in %d ms%n",
+                    retired, (System.nanoTime() - start) / 1_000_000);
+            }
+            return retired;
+        } catch (IOException e) {
+            System.out.println("Note: Could not move inactive students out of memory: " + e.getMessage());
+            return 0;
+        }
+    }
+    
+    private interface FileImport {
+        int run(Path file) throws IOException;
+    }
+    
+    private interface RowImport {
+        MergeResult run(List<String[]> rows, int firstLine, ImportMode mode, String source);
     }
     
-    // Import students from CSV using NIO.2 and Stream API
+    // As loadIfPresent, recording the bytes read for the watcher; a missing or unreadable file is followed from its start
+    private void loadFollowed(Path file, RowImport rowImport) {
+        loadedUpTo.put(file, DataDirectoryWatcher.Checkpoint.START);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            byte[] bytes = Files.readAllBytes(file);
+            List<String[]> rows = CSVParser.parseRows(
+                new String(bytes, StandardCharsets.UTF_8).lines().collect(Collectors.toList()));
+            loadedUpTo.put(file, DataDirectoryWatcher.Checkpoint.after(bytes, fileKey));
+            rowImport.run(rows, FIRST_DATA_LINE, ImportMode.MERGE, file.getFileName().toString());
+        } catch (IOException e) {
+            System.out.println("Note: Could not load initial data: " + e.getMessage());
+        }
+    }
+    
+    private static void loadIfPresent(Path file, FileImport fileImport) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            fileImport.run(file);
+        } catch (IOException e) {
+            System.out.println("Note: Could not load initial data: " + e.getMessage());
+        }
+    }
+    
+    // Merges by default, so importing the same file again adds nothing
     public int importStudentsFromCSV(Path filePath) throws IOException {
+        return importStudentsFromCSV(filePath, ImportMode.MERGE).getAppliedCount();
+    }
+    
+    // Rows failing STUDENT_ROWS are left out and reported
+    public MergeResult importStudentsFromCSV(Path filePath, ImportMode mode) throws IOException {
         if (!Files.exists(filePath)) {
             throw new IOException("File not found: " + filePath);
         }
+        List<String[]> rows = CSVParser.readRows(filePath);
+        return importStudentRows(rows, FIRST_DATA_LINE, mode, filePath.getFileName().toString());
+    }
+    
+    // Rows already split into fields; row i is reported as line firstLine + i of source
+    public MergeResult importStudentRows(List<String[]> rows, int firstLine, ImportMode mode, String source) {
+        ValidationReport report = STUDENT_ROWS.validate(rows, firstLine);
+        lastStudentReport = report;
         
-        List<Student> importedStudents = Files.lines(filePath) // Stream of lines
-            .skip(1) // Skip header
-            .filter(line -> !line.trim().isEmpty()) // Filter empty lines
-            .map(this::parseStudentFromCSV) // Map to Student objects
-            .filter(Objects::nonNull) // Filter out nulls
-            .collect(Collectors.toList());
-        
-        // Add to service
-        importedStudents.forEach(studentService::addStudent);
+        MergeResult result = new MergeResult(mode, report.getRejectedCount());
+        if (mode == ImportMode.APPEND) {
+            validRows(rows, report).forEach(i -> {
+                studentService.addStudent(parseStudent(rows.get(i)));
+                result.inserted();
+            });
+        } else if (mergeStudents(rows, firstLine, report, result)) {
+            // As when a student is deactivated from the menu
+            retireInactiveStudents();
+        }
         
-        System.out.println("Imported " + importedStudents.size() + " students from " + filePath.getFileName());
-        return importedStudents.size();
+        System.out.println("Imported students from " + source + ": " + result);
+        report.printSummary("student", 5);
+        result.getConflicts().stream().limit(5).forEach(c -> System.out.println("  " + c));
+        return result;
     }
     
-    private Student parseStudentFromCSV(String csvLine) {
-        try {
-            String[] fields = csvLine.split(",");
-            if (fields.length >= 4) {
-                String id = fields[0].trim();
-                String regNo = fields[1].trim();
-                String fullName = fields[2].trim();
-                String email = fields[3].trim();
-                
-                return new Student(id, regNo, fullName, email);
+    /**
+     * Hash join of the file against the stored students: the existing id and
+     * regNo keys are hashed once, then every row probes them. A row matches
+     * on id, or failing that on regNo; it is an update if any field differs.
+     * Cost is one pass over the stored keys plus one over the file. Returns
+     * whether any stored student was deactivated; a retired student that
+     * comes back active rejoins the loaded ones through setActive.
+     */
+    private boolean mergeStudents(List<String[]> rows, int firstLine, ValidationReport report, MergeResult result) {
+        List<Student> existing = studentService.getAllStudents();
+        Map<String, Student> byId = new HashMap<>(existing.size() * 2);
+        Map<String, Student> byRegNo = new HashMap<>(existing.size() * 2);
+        for (Student student : existing) {
+            byId.put(student.getId(), student);
+            byRegNo.put(regNoKey(student.getRegNo()), student);
+        }
+        
+        AtomicBoolean deactivated = new AtomicBoolean();
+        validRows(rows, report).forEach(i -> {
+            String[] fields = rows.get(i);
+            Student matchedById = byId.get(fields[0]);
+            Student matchedByRegNo = byRegNo.get(regNoKey(fields[1]));
+            if (matchedById != null && matchedByRegNo != null && matchedById != matchedByRegNo) {
+                result.conflict(firstLine + i, "id " + fields[0] + " and regNo " + fields[1]
+                    + " belong to different students");
+                return;
+            }
+            Student target = matchedById != null ? matchedById : matchedByRegNo;
+            if (target == null) {
+                // Retired students are not in the list above; a lookup faults them in
+                target = studentService.findRetiredStudent(fields[0], fields[1]).orElse(null);
+            }
+            if (target == null) {
+                Student student = parseStudent(fields);
+                studentService.addStudent(student);
+                byId.put(student.getId(), student);
+                byRegNo.put(regNoKey(student.getRegNo()), student);
+                result.inserted();
+                return;
             }
-        } catch (Exception e) {
-            System.err.println("Error parsing student from CSV: " + csvLine);
+            if (target.getId().equals(fields[0]) && target.getRegNo().equals(fields[1])
+                    && target.getFullName().equals(fields[2]) && target.getEmail().equals(fields[3])
+                    && target.isActive() == isActiveStatus(fields)) {
+                result.unchanged();
+                return;
+            }
+            // Setters notify the services, so their indexes follow the update
+            byId.remove(target.getId());
+            byRegNo.remove(regNoKey(target.getRegNo()));
+            target.setId(fields[0]);
+            target.setRegNo(fields[1]);
+            target.setFullName(fields[2]);
+            target.setEmail(fields[3]);
+            byId.put(target.getId(), target);
+            byRegNo.put(regNoKey(target.getRegNo()), target);
+            if (target.isActive() && !isActiveStatus(fields)) {
+                deactivated.set(true);
+            }
+            target.setActive(isActiveStatus(fields));
+            result.updated();
+        });
+        return deactivated.get();
+    }
+    
+    private static String regNoKey(String regNo) {
+        return regNo == null ? "" : regNo.toUpperCase(Locale.ROOT);
+    }
+    
+    // The optional status column is written by exportStudentsToCSV
+    private Student parseStudent(String[] fields) {
+        Student student = new Student(fields[0], fields[1], fields[2], fields[3]);
+        if (!isActiveStatus(fields)) {
+            student.setActive(false);
         }
-        return null;
+        return student;
+    }
+    
+    private static boolean isActiveStatus(String[] fields) {
+        return fields.length <= 4 || !fields[4].trim().equalsIgnoreCase("INACTIVE");
     }
     
-    // Import courses from CSV using NIO.2
+    // Merges by default, so importing the same file again adds nothing
     public int importCoursesFromCSV(Path filePath) throws IOException {
+        return importCoursesFromCSV(filePath, ImportMode.MERGE).getAppliedCount();
+    }
+    
+    // Rows failing COURSE_ROWS are left out and reported
+    public MergeResult importCoursesFromCSV(Path filePath, ImportMode mode) throws IOException {
         if (!Files.exists(filePath)) {
             throw new IOException("File not found: " + filePath);
         }
+        List<String[]> rows = CSVParser.readRows(filePath);
+        return importCourseRows(rows, FIRST_DATA_LINE, mode, filePath.getFileName().toString());
+    }
+    
+    public MergeResult importCourseRows(List<String[]> rows, int firstLine, ImportMode mode, String source) {
+        ValidationReport report = COURSE_ROWS.validate(rows, firstLine);
+        lastCourseReport = report;
         
-        List<Course> importedCourses = Files.lines(filePath)
-            .skip(1)
-            .filter(line -> !line.trim().isEmpty())
-            .map(this::parseCourseFromCSV)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
+        MergeResult result = new MergeResult(mode, report.getRejectedCount());
+        if (mode == ImportMode.APPEND) {
+            validRows(rows, report).forEach(i -> {
+                courseService.addCourse(parseCourse(rows.get(i)));
+                result.inserted();
+            });
+        } else {
+            mergeCourses(rows, report, result);
+        }
         
-        importedCourses.forEach(courseService::addCourse);
+        System.out.println("Imported courses from " + source + ": " + result);
+        report.printSummary("course", 5);
+        return result;
+    }
+    
+    /**
+     * Reads id,fullName,email,department rows, merging by id: a known id is
+     * updated in place, so the names on that instructor's courses follow.
+     * Import before courses so course rows can resolve their instructor.
+     */
+    public int importInstructorsFromCSV(Path filePath) throws IOException {
+        if (!Files.exists(filePath)) {
+            throw new IOException("File not found: " + filePath);
+        }
+        return importInstructorRows(CSVParser.readRows(filePath), FIRST_DATA_LINE,
+            filePath.getFileName().toString()).getAppliedCount();
+    }
+    
+    public MergeResult importInstructorRows(List<String[]> rows, int firstLine, String source) {
+        ValidationReport report = INSTRUCTOR_ROWS.validate(rows, firstLine);
+        MergeResult result = new MergeResult(ImportMode.MERGE, report.getRejectedCount());
+        InstructorService instructors = courseService.getInstructors();
+        
+        validRows(rows, report).forEach(i -> {
+            String[] fields = rows.get(i);
+            String department = fields.length > 3 ? fields[3] : "";
+            Optional<Instructor> existing = instructors.findInstructorById(fields[0]);
+            if (existing.isEmpty()) {
+                instructors.addInstructor(new Instructor(fields[0], fields[1], fields[2], department));
+                result.inserted();
+                return;
+            }
+            Instructor target = existing.get();
+            if (target.getFullName().equals(fields[1]) && target.getEmail().equals(fields[2])
+                    && Objects.equals(target.getDepartment(), department)) {
+                result.unchanged();
+                return;
+            }
+            target.setFullName(fields[1]);
+            target.setEmail(fields[2]);
+            target.setDepartment(department);
+            result.updated();
+        });
         
-        System.out.println("Imported " + importedCourses.size() + " courses from " + filePath.getFileName());
-        return importedCourses.size();
+        System.out.println("Imported instructors from " + source + ": " + result);
+        report.printSummary("instructor", 5);
+        return result;
+    }
+    
+    /**
+     * Reads course,requires,type rows (type PREREQUISITE or COREQUISITE)
+     * into the prerequisite graph. Rows naming unknown courses or closing a
+     * prerequisite cycle are reported as conflicts and skipped.
+     */
+    public int importRequirementsFromCSV(Path filePath) throws IOException {
+        if (!Files.exists(filePath)) {
+            throw new IOException("File not found: " + filePath);
+        }
+        return importRequirementRows(CSVParser.readRows(filePath), FIRST_DATA_LINE,
+            filePath.getFileName().toString()).getAppliedCount();
     }
     
-    private Course parseCourseFromCSV(String csvLine) {
+    public MergeResult importRequirementRows(List<String[]> rows, int firstLine, String source) {
+        ValidationReport report = REQUIREMENT_ROWS.validate(rows, firstLine);
+        MergeResult result = new MergeResult(ImportMode.MERGE, report.getRejectedCount());
+        PrerequisiteGraph graph = courseService.getPrerequisites();
+        
+        validRows(rows, report).forEach(i -> {
+            String[] fields = rows.get(i);
+            RequirementType type = RequirementType.valueOf(fields[2].trim().toUpperCase(Locale.ROOT));
+            List<String> existing = type == RequirementType.PREREQUISITE
+                ? graph.getPrerequisites(fields[0]) : graph.getCorequisites(fields[0]);
+            if (existing.contains(fields[1].trim().toUpperCase(Locale.ROOT))) {
+                result.unchanged();
+                return;
+            }
+            try {
+                courseService.addRequirement(fields[0], fields[1], type);
+                result.inserted();
+            } catch (IllegalArgumentException e) {
+                result.conflict(firstLine + i, e.getMessage());
+            }
+        });
+        
+        System.out.println("Imported requirements from " + source + ": " + result);
+        report.printSummary("requirement", 5);
+        result.getConflicts().stream().limit(5).forEach(c -> System.out.println("  " + c));
+        return result;
+    }
+    
+    /**
+     * Re-creates enrollments from studentId,courseCode,enrollmentDate[,marks]
+     * rows, as written to backups. Students and courses are hash-joined
+     * once; each enrollment is restored with its date and then its marks,
+     * so every listener sees it. Rows naming an unknown student or course,
+     * or repeating an enrollment the student has, are conflicts.
+     */
+    public MergeResult importEnrollmentRows(List<String[]> rows, int firstLine, String source) {
+        ValidationReport report = ENROLLMENT_ROWS.validate(rows, firstLine);
+        MergeResult result = new MergeResult(ImportMode.APPEND, report.getRejectedCount());
+        Map<String, Student> students = new HashMap<>();
+        studentService.streamAllStudentsIncludingRetired().forEach(student -> students.put(student.getId(), student));
+        Map<String, Course> courses = new HashMap<>();
+        courseService.getAllCourses().forEach(course -> courses.put(codeKey(course.getCode()), course));
+        
+        validRows(rows, report).forEach(i -> {
+            String[] fields = rows.get(i);
+            Student student = students.get(fields[0]);
+            Course course = courses.get(codeKey(fields[1]));
+            if (student == null || course == null) {
+                result.conflict(firstLine + i, student == null
+                    ? "unknown student " + fields[0] : "unknown course " + fields[1]);
+                return;
+            }
+            if (student.getEnrollments().stream().anyMatch(e -> e.getCourse() == course)) {
+                result.conflict(firstLine + i, fields[0] + " is already enrolled in " + course.getCode());
+                return;
+            }
+            Enrollment enrollment = student.restoreEnrollment(course, IsoDateTime.parse(fields[2].trim()));
+            if (fields.length > 3 && !fields[3].isEmpty()) {
+                enrollment.recordMarks(Double.parseDouble(fields[3]));
+            }
+            result.inserted();
+        });
+        
+        System.out.println("Imported enrollments from " + source + ": " + result);
+        report.printSummary("enrollment", 5);
+        result.getConflicts().stream().limit(5).forEach(c -> System.out.println("  " + c));
+        return result;
+    }
+    
+    /**
+     * Records marks in bulk from a CSV of studentId,courseCode,marks. Rows
+     * are hash-joined to the loaded students on id (then looked up by regNo
+     * and in the inactive tier) and grouped by student. Students are then processed in parallel: one pass
+     * over a student's enrollments indexes them by course code, recordMarks
+     * runs for each of its rows, and its GPA is computed once before and
+     * once after. Listeners see each mark as in interactive grading.
+     *
+     * A row is rejected if it fails validation, names an unknown or archived
+     * student, an unknown course or one the student is not enrolled in, or
+     * repeats an earlier row for the same enrollment; the first row stands.
+     */
+    public MarksImportResult importMarksFromCSV(Path filePath) throws IOException {
+        if (!Files.exists(filePath)) {
+            throw new IOException("File not found: " + filePath);
+        }
+        long start = System.nanoTime();
+        List<String[]> rows = CSVParser.readRows(filePath);
+        ValidationReport report = MARK_ROWS.validate(rows, FIRST_DATA_LINE);
+        MarksImportResult result = new MarksImportResult();
+        Map<Integer, List<String>> problems = new TreeMap<>();
+        for (Validator.Violation violation : report.getViolations()) {
+            problems.computeIfAbsent(violation.getLine(), line -> new ArrayList<>())
+                .add(violation.getField() + " fails " + violation.getRule());
+        }
+        problems.forEach((line, reasons) -> result.reject(
+            new MarksImportResult.Reject(line, rows.get(line - FIRST_DATA_LINE), String.join("; ", reasons))));
+        
+        // Hash join on id, as in mergeStudents; misses fall back to the regNo, retired and archived lookups
+        List<Student> loaded = studentService.getAllStudents();
+        Map<String, Optional<Student>> resolved = new HashMap<>(loaded.size() * 2);
+        for (Student student : loaded) {
+            resolved.put(student.getId(), Optional.of(student));
+        }
+        Map<Student, List<Integer>> rowsByStudent = new IdentityHashMap<>();
+        validRows(rows, report).forEach(i -> {
+            String id = rows.get(i)[0].trim();
+            Optional<Student> student = resolved.computeIfAbsent(id,
+                key -> studentService.findStudentById(key).or(() -> studentService.findStudentByRegNo(key)));
+            if (student.isEmpty()) {
+                result.reject(new MarksImportResult.Reject(FIRST_DATA_LINE + i, rows.get(i), "unknown student"));
+            } else if (studentService.isArchived(student.get())) {
+                result.reject(new MarksImportResult.Reject(FIRST_DATA_LINE + i, rows.get(i), "student is archived"));
+            } else {
+                rowsByStudent.computeIfAbsent(student.get(), s -> new ArrayList<>()).add(i);
+            }
+        });
+        
+        new ArrayList<>(rowsByStudent.entrySet()).parallelStream()
+            .forEach(entry -> applyMarks(entry.getKey(), entry.getValue(), rows, result));
+        result.finish((System.nanoTime() - start) / 1_000_000);
+        
+        System.out.println("Imported marks from " + filePath.getFileName() + ": " + result);
+        result.getRejects().stream().limit(5).forEach(r -> System.out.println("  " + r));
+        if (result.getRejected() > 5) {
+            System.out.println("  ... " + (result.getRejected() - 5) + " more");
+        }
+        return result;
+    }
+    
+    // One student's rows, under the student's lock as enrollment takes it
+    private void applyMarks(Student student, List<Integer> rowIndexes, List<String[]> rows, MarksImportResult result) {
+        int recorded = 0;
+        int unchanged = 0;
+        List<MarksImportResult.Reject> rejects = new ArrayList<>(0);
+        boolean gpaChanged;
+        synchronized (student) {
+            double gpaBefore = studentService.calculateGPA(student);
+            Map<String, Enrollment> byCode = new HashMap<>();
+            for (Enrollment enrollment : student.getEnrollments()) {
+                byCode.put(codeKey(enrollment.getCourse().getCode()), enrollment);
+            }
+            Set<String> seen = new HashSet<>();
+            for (int i : rowIndexes) {
+                String[] fields = rows.get(i);
+                String code = codeKey(fields[1].trim());
+                Enrollment enrollment = byCode.get(code);
+                if (enrollment == null) {
+                    String reason = courseService.getCourseByCode(fields[1].trim()).isPresent()
+                        ? "student is not enrolled in " + fields[1].trim() : "unknown course";
+                    rejects.add(new MarksImportResult.Reject(FIRST_DATA_LINE + i, fields, reason));
+                    continue;
+                }
+                if (!seen.add(code)) {
+                    rejects.add(new MarksImportResult.Reject(FIRST_DATA_LINE + i, fields,
+                        "repeats an earlier row for this enrollment"));
+                    continue;
+                }
+                double marks = Double.parseDouble(fields[2].trim());
+                if (enrollment.getMarks() != null && enrollment.getMarks() == marks) {
+                    unchanged++;
+                } else {
+                    enrollment.recordMarks(marks);
+                    recorded++;
+                }
+            }
+            gpaChanged = recorded > 0 && studentService.calculateGPA(student) != gpaBefore;
+        }
+        result.addStudent(recorded, unchanged, gpaChanged, rejects);
+    }
+    
+    private static boolean isDateTime(String value) {
+        return IsoDateTime.isValid(value.trim());
+    }
+    
+    private static boolean isBoolean(String value) {
+        String trimmed = value.trim();
+        return trimmed.equalsIgnoreCase("true") || trimmed.equalsIgnoreCase("false");
+    }
+    
+    private static boolean isMarks(String value) {
         try {
-            String[] fields = csvLine.split(",");
-            if (fields.length >= 6) {
-                String code = fields[0].trim();
-                String title = fields[1].trim();
-                int credits = Integer.parseInt(fields[2].trim());
-                String instructor = fields[3].trim();
-                Semester semester = Semester.valueOf(fields[4].trim().toUpperCase());
-                String department = fields[5].trim();
-                
-                return new Course.Builder(code, title)
-                    .credits(credits)
-                    .instructor(instructor)
-                    .semester(semester)
-                    .department(department)
-                    .build();
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing course from CSV: " + csvLine + " - " + e.getMessage());
-        }
-        return null;
+            double marks = Double.parseDouble(value.trim());
+            return marks >= 0 && marks <= 100;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Follows appends to the default student and course files; call start()
+     * on the result. Each file is followed from where the startup load
+     * stopped reading it, or from its end if this service never loaded it.
+     */
+    public DataDirectoryWatcher createWatcher() {
+        Path students = config.getStudentDataFile();
+        Path courses = config.getCourseDataFile();
+        return new DataDirectoryWatcher(config.getDataDirectory())
+            .track(students, () -> loadedUpTo.get(students),
+                (rows, firstLine, source) -> importStudentRows(rows, firstLine, ImportMode.MERGE, source))
+            .track(courses, () -> loadedUpTo.get(courses),
+                (rows, firstLine, source) -> importCourseRows(rows, firstLine, ImportMode.MERGE, source));
+    }
+    
+    // Same hash join as mergeStudents, keyed on the course code
+    private void mergeCourses(List<String[]> rows, ValidationReport report, MergeResult result) {
+        List<Course> existing = courseService.getAllCourses();
+        Map<String, Course> byCode = new HashMap<>(existing.size() * 2);
+        for (Course course : existing) {
+            byCode.put(codeKey(course.getCode()), course);
+        }
+        
+        validRows(rows, report).forEach(i -> {
+            String[] fields = rows.get(i);
+            Course incoming = parseCourse(fields);
+            Course target = byCode.get(codeKey(incoming.getCode()));
+            if (target == null) {
+                courseService.addCourse(incoming);
+                byCode.put(codeKey(incoming.getCode()), incoming);
+                result.inserted();
+                return;
+            }
+            if (target.getCode().equals(incoming.getCode())
+                    && Objects.equals(target.getTitle(), incoming.getTitle())
+                    && target.getCredits() == incoming.getCredits()
+                    && Objects.equals(target.getInstructor(), incoming.getInstructor())
+                    && Objects.equals(target.getInstructorId(), incoming.getInstructorId())
+                    && target.getSemester() == incoming.getSemester()
+                    && Objects.equals(target.getDepartment(), incoming.getDepartment())
+                    && target.getMeetingTimes().equals(incoming.getMeetingTimes())
+                    && target.isActive() == incoming.isActive()) {
+                result.unchanged();
+                return;
+            }
+            // Setters fire only for fields that actually change
+            target.setCode(incoming.getCode());
+            target.setTitle(incoming.getTitle());
+            target.setCredits(incoming.getCredits());
+            target.setInstructorId(incoming.getInstructorId());
+            target.setInstructor(incoming.getInstructor());
+            target.setSemester(incoming.getSemester());
+            target.setDepartment(incoming.getDepartment());
+            target.setMeetingTimes(incoming.getMeetingTimes());
+            target.setActive(incoming.isActive());
+            result.updated();
+        });
     }
     
+    private static String codeKey(String code) {
+        return code == null ? "" : code.toUpperCase(Locale.ROOT);
+    }
+    
+    private static IntStream validRows(List<String[]> rows, ValidationReport report) {
+        return IntStream.range(0, rows.size()).filter(i -> rows.get(i).length > 0 && !report.isRejected(i));
+    }
+    
+    /**
+     * Fields have passed COURSE_ROWS, so the numeric and enum parses cannot
+     * fail. Rows without an instructorId (older files) are linked by
+     * instructor name when exactly one instructor has it, and rows without
+     * an active flag are active.
+     */
+    private Course parseCourse(String[] fields) {
+        String instructorId = fields.length > 8 && !fields[8].isBlank() ? fields[8].trim() : null;
+        String name = fields[3];
+        Instructor instructor = courseService.getInstructors().resolve(instructorId, name);
+        if (instructor != null) {
+            instructorId = instructor.getId();
+            name = instructor.getFullName();
+        }
+        Course course = new Course.Builder(fields[0], fields[1])
+            .credits(Integer.parseInt(fields[2]))
+            .instructor(courseService.getInstructors().intern(name))
+            .instructorId(instructorId)
+            .semester(Semester.valueOf(fields[4].toUpperCase()))
+            .department(fields[5])
+            .meetingTimes(fields.length > 7 ? TimeSlot.parseList(fields[7]) : List.of())
+            .build();
+        if (fields.length > 6 && fields[6].trim().equalsIgnoreCase("false")) {
+            course.setActive(false);
+        }
+        return course;
+    }
+    
+    public ValidationReport getLastStudentReport() { return lastStudentReport; }
+    public ValidationReport getLastCourseReport() { return lastCourseReport; }
+    
+    static final String STUDENT_HEADER = "id,regNo,fullName,email,status";
+    static final String COURSE_HEADER = "code,title,credits,instructor,semester,department,active,meetingTimes,instructorId";
+    static final String INSTRUCTOR_HEADER = "id,fullName,email,department";
+    static final String ENROLLMENT_HEADER = "studentId,courseCode,enrollmentDate,marks";
+    static final String REQUIREMENT_HEADER = "course,requires,type";
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 3;
+    
     // Export students to CSV using NIO.2
     public void exportStudentsToCSV(Path filePath) throws IOException {
         List<String> lines = new ArrayList<>();
-        lines.add("id,regNo,fullName,email,status"); // Header
+        lines.add(STUDENT_HEADER); // Header
         
         // Using Stream API to transform students to CSV lines
-        List<String> studentLines = studentService.getAllStudents().stream()
-            .map(student -> String.format("%s,%s,%s,%s,%s",
-                student.getId(),
-                student.getRegNo(),
-                student.getFullName(),
-                student.getEmail(),
-                student.isActive() ? "ACTIVE" : "INACTIVE"))
+        List<String> studentLines = studentService.streamAllStudentsIncludingRetired()
+            .map(ImportExportService::studentLine)
             .collect(Collectors.toList());
         
         lines.addAll(studentLines);
@@ -130,17 +784,10 @@ public class ImportExportService {
     // Export courses to CSV using NIO.2
     public void exportCoursesToCSV(Path filePath) throws IOException {
         List<String> lines = new ArrayList<>();
-        lines.add("code,title,credits,instructor,semester,department,active");
+        lines.add(COURSE_HEADER);
         
         List<String> courseLines = courseService.getAllCourses().stream()
-            .map(course -> String.format("%s,%s,%d,%s,%s,%s,%s",
-                course.getCode(),
-                course.getTitle(),
-                course.getCredits(),
-                course.getInstructor(),
-                course.getSemester(),
-                course.getDepartment(),
-                course.isActive()))
+            .map(ImportExportService::courseLine)
             .collect(Collectors.toList());
         
         lines.addAll(courseLines);
@@ -148,26 +795,150 @@ public class ImportExportService {
         System.out.println("Exported " + courseLines.size() + " courses to " + filePath.getFileName());
     }
     
+    public void exportInstructorsToCSV(Path filePath) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(INSTRUCTOR_HEADER);
+        
+        List<String> instructorLines = courseService.getInstructors().getAllInstructors().stream()
+            .map(ImportExportService::instructorLine)
+            .collect(Collectors.toList());
+        
+        lines.addAll(instructorLines);
+        Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        System.out.println("Exported " + instructorLines.size() + " instructors to " + filePath.getFileName());
+    }
+    
     // Generate student report using Stream API
     public void generateStudentReport(Path filePath) throws IOException {
-        List<String> reportLines = new ArrayList<>();
-        reportLines.add("=== STUDENT REPORT ===");
-        reportLines.add("Generated: " + LocalDateTime.now());
-        reportLines.add("");
-        
-        // Using Stream API for complex data transformation
-        String reportContent = studentService.getAllStudents().stream()
-            .map(student -> {
-                double gpa = studentService.calculateGPA(student);
-                int credits = student.getTotalCredits();
-                return String.format("Student: %s (%s)\nEmail: %s\nGPA: %.2f\nCredits: %d\nCourses: %d\n",
-                    student.getFullName(), student.getRegNo(), student.getEmail(),
-                    gpa, credits, student.getEnrollments().size());
-            })
-            .collect(Collectors.joining("\n"));
-        
-        reportLines.add(reportContent);
-        Files.write(filePath, reportLines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        // Using Stream API for complex data transformation; the body is cached until the data changes
+        String reportContent = studentService.cachedResult("studentReport", EnumSet.allOf(DataDomain.class),
+            () -> studentService.streamAllStudentsIncludingRetired()
+                .map(this::reportEntry)
+                .collect(Collectors.joining("\n")));
+        
+        Files.write(filePath, reportLines(LocalDateTime.now(), reportContent),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
         System.out.println("Generated student report: " + filePath.getFileName());
     }
+    
+    /**
+     * Renders everything a backup holds into memory, so no file is written
+     * while data is being read and writers are never paused. Loaded
+     * students and courses come from the services' copy-on-write snapshots,
+     * and each student is read under its own lock, as bulk marks take it.
+     * The capture is repeated (up to {@link #MAX_SNAPSHOT_ATTEMPTS} times)
+     * while the student service's data versions show writes completed
+     * during it, so the result matches one instant between writes.
+     */
+    BackupSnapshot captureBackupSnapshot() {
+        DataVersions versions = studentService.getDataVersions();
+        for (int attempt = 1; ; attempt++) {
+            long[] before = versionStamp(versions);
+            BackupSnapshot snapshot = renderBackupSnapshot(attempt);
+            boolean settled = Arrays.equals(before, versionStamp(versions));
+            if (settled || attempt == MAX_SNAPSHOT_ATTEMPTS) {
+                return snapshot.settled(settled);
+            }
+        }
+    }
+    
+    private static long[] versionStamp(DataVersions versions) {
+        return Arrays.stream(DataDomain.values()).mapToLong(versions::get).toArray();
+    }
+    
+    private BackupSnapshot renderBackupSnapshot(int attempt) {
+        LocalDateTime takenAt = LocalDateTime.now();
+        List<Student> loaded = studentService.getAllStudents();
+        List<String> students = new ArrayList<>(loaded.size() + 1);
+        List<String> enrollments = new ArrayList<>();
+        List<String> reportEntries = new ArrayList<>(loaded.size());
+        students.add(STUDENT_HEADER);
+        enrollments.add(ENROLLMENT_HEADER);
+        for (Student student : loaded) {
+            synchronized (student) {
+                students.add(studentLine(student));
+                student.getEnrollments().forEach(enrollment -> enrollments.add(enrollmentLine(enrollment)));
+                reportEntries.add(reportEntry(student));
+            }
+        }
+        // Retired students are read back as copies, which nothing else changes
+        InactiveStudentTier tier = studentService.getInactiveTier();
+        if (tier != null) {
+            tier.streamRetired().forEach(student -> {
+                students.add(studentLine(student));
+                student.getEnrollments().forEach(enrollment -> enrollments.add(enrollmentLine(enrollment)));
+                reportEntries.add(reportEntry(student));
+            });
+        }
+        
+        List<String> courses = new ArrayList<>();
+        List<String> requirements = new ArrayList<>();
+        courses.add(COURSE_HEADER);
+        requirements.add(REQUIREMENT_HEADER);
+        PrerequisiteGraph graph = courseService.getPrerequisites();
+        courseService.getAllCourses().forEach(course -> {
+            courses.add(courseLine(course));
+            graph.getPrerequisites(course.getCode()).forEach(code ->
+                requirements.add(String.join(",", course.getCode(), code, RequirementType.PREREQUISITE.name())));
+            graph.getCorequisites(course.getCode()).forEach(code ->
+                requirements.add(String.join(",", course.getCode(), code, RequirementType.COREQUISITE.name())));
+        });
+        List<String> instructors = new ArrayList<>();
+        instructors.add(INSTRUCTOR_HEADER);
+        courseService.getInstructors().getAllInstructors().forEach(instructor -> instructors.add(instructorLine(instructor)));
+        
+        List<String> report = reportLines(takenAt, String.join("\n", reportEntries));
+        return new BackupSnapshot(takenAt, attempt, students, courses, instructors, enrollments, requirements, report);
+    }
+    
+    static String studentLine(Student student) {
+        return String.format("%s,%s,%s,%s,%s",
+            student.getId(),
+            student.getRegNo(),
+            CSVParser.quote(student.getFullName()),
+            student.getEmail(),
+            student.isActive() ? "ACTIVE" : "INACTIVE");
+    }
+    
+    static String courseLine(Course course) {
+        return String.format("%s,%s,%d,%s,%s,%s,%s,%s,%s",
+            course.getCode(),
+            CSVParser.quote(course.getTitle()),
+            course.getCredits(),
+            CSVParser.quote(course.getInstructor()),
+            course.getSemester(),
+            CSVParser.quote(course.getDepartment()),
+            course.isActive(),
+            CSVParser.quote(TimeSlot.formatList(course.getMeetingTimes())),
+            CSVParser.quote(course.getInstructorId()));
+    }
+    
+    static String instructorLine(Instructor instructor) {
+        return String.format("%s,%s,%s,%s",
+            CSVParser.quote(instructor.getId()),
+            CSVParser.quote(instructor.getFullName()),
+            instructor.getEmail(),
+            CSVParser.quote(instructor.getDepartment()));
+    }
+    
+    // Marks are left empty until recorded
+    static String enrollmentLine(Enrollment enrollment) {
+        return String.join(",",
+            enrollment.getStudent().getId(),
+            enrollment.getCourse().getCode(),
+            enrollment.getEnrollmentDate().toString(),
+            enrollment.getMarks() == null ? "" : enrollment.getMarks().toString());
+    }
+    
+    private String reportEntry(Student student) {
+        double gpa = studentService.calculateGPA(student);
+        int credits = student.getTotalCredits();
+        return String.format("Student: %s (%s)\nEmail: %s\nGPA: %.2f\nCredits: %d\nCourses: %d\n",
+            student.getFullName(), student.getRegNo(), student.getEmail(),
+            gpa, credits, student.getEnrollments().size());
+    }
+    
+    private static List<String> reportLines(LocalDateTime generated, String content) {
+        return List.of("=== STUDENT REPORT ===", "Generated: " + generated, "", content);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package edu.ccrm.io;
+
+public enum ImportMode {
+    APPEND("Append"),   // add every valid row as a new record
+    MERGE("Merge");     // insert new keys, update changed records, skip identical ones
+    
+    private final String displayName;
+    
+    ImportMode(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
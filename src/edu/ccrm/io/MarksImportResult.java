@@ -0,0 +1,99 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Counts from one bulk marks import: rows recorded, rows whose marks were
+ * already stored, students touched and how many of them have a new GPA, and
+ * every rejected row with its reason, in line order.
+ */
+public class MarksImportResult {
+    private int recorded;
+    private int unchanged;
+    private int students;
+    private int gpaChanged;
+    private long elapsedMillis;
+    private final List<Reject> rejects = new ArrayList<>();
+
+    /**
+     * One row that was not applied: its file line, the row as read and why.
+     */
+    public static final class Reject {
+        private final int line;
+        private final String studentId;
+        private final String courseCode;
+        private final String marks;
+        private final String reason;
+
+        Reject(int line, String[] fields, String reason) {
+            this.line = line;
+            this.studentId = fields.length > 0 ? fields[0] : "";
+            this.courseCode = fields.length > 1 ? fields[1] : "";
+            this.marks = fields.length > 2 ? fields[2] : "";
+            this.reason = reason;
+        }
+
+        public int getLine() { return line; }
+        public String getStudentId() { return studentId; }
+        public String getCourseCode() { return courseCode; }
+        public String getMarks() { return marks; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason;
+        }
+    }
+
+    // Merges the counts of one student's rows; called once per student
+    synchronized void addStudent(int recorded, int unchanged, boolean gpaChanged, List<Reject> rejects) {
+        this.recorded += recorded;
+        this.unchanged += unchanged;
+        this.students++;
+        if (gpaChanged) {
+            this.gpaChanged++;
+        }
+        this.rejects.addAll(rejects);
+    }
+
+    synchronized void reject(Reject reject) {
+        rejects.add(reject);
+    }
+
+    void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+        rejects.sort(Comparator.comparingInt(Reject::getLine));
+    }
+
+    public int getRecorded() { return recorded; }
+    public int getUnchanged() { return unchanged; }
+    public int getRejected() { return rejects.size(); }
+    public int getStudentCount() { return students; }
+    public int getGpaChangedCount() { return gpaChanged; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<Reject> getRejects() { return Collections.unmodifiableList(rejects); }
+
+    // line,studentId,courseCode,marks,reason; one row per rejected line
+    public void writeRejects(Path file) throws IOException {
+        List<String> lines = new ArrayList<>(rejects.size() + 1);
+        lines.add("line,studentId,courseCode,marks,reason");
+        for (Reject reject : rejects) {
+            lines.add(String.join(",", String.valueOf(reject.line), CSVParser.quote(reject.studentId),
+                CSVParser.quote(reject.courseCode), CSVParser.quote(reject.marks), CSVParser.quote(reject.reason)));
+        }
+        Files.write(file, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d recorded, %d unchanged, %d rejected; %d students, %d with a new GPA, in %d ms",
+            recorded, unchanged, getRejected(), students, gpaChanged, elapsedMillis);
+    }
+}
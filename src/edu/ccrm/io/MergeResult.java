@@ -0,0 +1,50 @@
+package edu.ccrm.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts from one import: rows inserted, updated in place, left unchanged
+ * because they matched the stored record, rejected by validation, and
+ * rejected because their keys point at two different existing records.
+ */
+public class MergeResult {
+    private final ImportMode mode;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private final int rejected;
+    private final List<String> conflicts = new ArrayList<>();
+
+    MergeResult(ImportMode mode, int rejected) {
+        this.mode = mode;
+        this.rejected = rejected;
+    }
+
+    void inserted() { inserted++; }
+    void updated() { updated++; }
+    void unchanged() { unchanged++; }
+
+    void conflict(int line, String message) {
+        conflicts.add("line " + line + ": " + message);
+    }
+
+    public ImportMode getMode() { return mode; }
+    public int getInserted() { return inserted; }
+    public int getUpdated() { return updated; }
+    public int getUnchanged() { return unchanged; }
+    public int getRejected() { return rejected + conflicts.size(); }
+    public List<String> getConflicts() { return Collections.unmodifiableList(conflicts); }
+
+    // Rows that changed stored data
+    public int getAppliedCount() {
+        return inserted + updated;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d inserted, %d updated, %d unchanged, %d rejected",
+            inserted, updated, unchanged, getRejected());
+    }
+}
@@ -0,0 +1,121 @@
+package edu.ccrm.io;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What one restore read, how each file verified, how long each phase took,
+ * what the backup holds and how it differs from the live data it would
+ * replace.
+ */
+public class RestoreReport {
+    private final String backupName;
+    private final Map<String, String> files = new LinkedHashMap<>();
+    private long bytes;
+    private long readMillis;
+    private long verifyMillis;
+    private long loadMillis;
+    private int students;
+    private int courses;
+    private int enrollments;
+    private int rejected;
+    private Changes studentChanges = new Changes(0, 0, 0);
+    private Changes courseChanges = new Changes(0, 0, 0);
+    private Changes enrollmentChanges = new Changes(0, 0, 0);
+
+    /**
+     * Records added, removed and changed relative to the live data. For
+     * enrollments, changed counts the ones whose marks differ.
+     */
+    public static final class Changes {
+        private final int added;
+        private final int removed;
+        private final int changed;
+
+        Changes(int added, int removed, int changed) {
+            this.added = added;
+            this.removed = removed;
+            this.changed = changed;
+        }
+
+        public int getAdded() { return added; }
+        public int getRemoved() { return removed; }
+        public int getChanged() { return changed; }
+
+        public boolean isEmpty() {
+            return added == 0 && removed == 0 && changed == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d added, %d removed, %d changed", added, removed, changed);
+        }
+    }
+
+    RestoreReport(String backupName) {
+        this.backupName = backupName;
+    }
+
+    void file(String name, long size, String status) {
+        files.put(name, status);
+        bytes += size;
+    }
+
+    void timings(long readMillis, long verifyMillis, long loadMillis) {
+        this.readMillis = readMillis;
+        this.verifyMillis = verifyMillis;
+        this.loadMillis = loadMillis;
+    }
+
+    void loaded(int students, int courses, int enrollments, int rejected) {
+        this.students = students;
+        this.courses = courses;
+        this.enrollments = enrollments;
+        this.rejected = rejected;
+    }
+
+    void changes(Changes students, Changes courses, Changes enrollments) {
+        this.studentChanges = students;
+        this.courseChanges = courses;
+        this.enrollmentChanges = enrollments;
+    }
+
+    public String getBackupName() { return backupName; }
+    public Map<String, String> getFiles() { return Collections.unmodifiableMap(files); }
+    public long getBytes() { return bytes; }
+    public long getReadMillis() { return readMillis; }
+    public long getVerifyMillis() { return verifyMillis; }
+    public long getLoadMillis() { return loadMillis; }
+    public long getTotalMillis() { return readMillis + verifyMillis + loadMillis; }
+    public int getStudentCount() { return students; }
+    public int getCourseCount() { return courses; }
+    public int getEnrollmentCount() { return enrollments; }
+    public int getRejectedCount() { return rejected; }
+    public Changes getStudentChanges() { return studentChanges; }
+    public Changes getCourseChanges() { return courseChanges; }
+    public Changes getEnrollmentChanges() { return enrollmentChanges; }
+
+    // Total time over the time to read the files; 0 when the read was too quick to measure
+    public double getReadMultiple() {
+        return readMillis == 0 ? 0.0 : (double) getTotalMillis() / readMillis;
+    }
+
+    public boolean hasChanges() {
+        return !studentChanges.isEmpty() || !courseChanges.isEmpty() || !enrollmentChanges.isEmpty();
+    }
+
+    public void print() {
+        System.out.printf("Backup %s: %d files, %d KB%n", backupName, files.size(), bytes / 1024);
+        files.forEach((name, status) -> System.out.println("  " + name + ": " + status));
+        System.out.printf("Read in %d ms, verified in %d ms, loaded in %d ms; %d ms in all%s%n",
+            readMillis, verifyMillis, loadMillis, getTotalMillis(),
+            readMillis == 0 ? "" : String.format(" (%.1fx the read)", getReadMultiple()));
+        System.out.printf("Holds %d students, %d courses and %d enrollments (%d rows rejected)%n",
+            students, courses, enrollments, rejected);
+        System.out.println("Compared with the live data:");
+        System.out.println("  Students: " + studentChanges);
+        System.out.println("  Courses: " + courseChanges);
+        System.out.println("  Enrollments: " + enrollmentChanges + " (changed = different marks)");
+    }
+}
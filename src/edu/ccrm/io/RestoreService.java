@@ -0,0 +1,282 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+import edu.ccrm.event.EventBus;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Restores a backup written by {@link BackupService} into fresh services,
+ * leaving the live ones untouched until the caller swaps them in.
+ *
+ * Every file is read into memory in parallel and checked against the size
+ * and CRC32 in the backup's manifest; a mismatch or a missing file aborts
+ * before anything is loaded. Backups made before checksums were recorded
+ * load unverified and say so. The bytes read are then parsed and loaded as
+ * at startup: instructors, courses and prerequisites on one thread,
+ * students on another, enrollment rows parsed on a third. Enrollments are
+ * applied once students and courses are in. Nothing is read twice.
+ */
+public class RestoreService {
+    private static final List<String> DATA_FILES = List.of(BackupSnapshot.STUDENTS_FILE,
+        BackupSnapshot.COURSES_FILE, BackupSnapshot.INSTRUCTORS_FILE, BackupSnapshot.ENROLLMENTS_FILE,
+        BackupSnapshot.REQUIREMENTS_FILE);
+    private static final List<String> REQUIRED_FILES = List.of(BackupSnapshot.STUDENTS_FILE,
+        BackupSnapshot.COURSES_FILE);
+
+    private final BackupService backupService;
+
+    public RestoreService(BackupService backupService) {
+        this.backupService = backupService;
+    }
+
+    // The newest backup whose yyyyMMdd_HHmmss timestamp starts with the given digits; blank picks the newest
+    public Optional<Path> findBackup(String timestamp) throws IOException {
+        String name = BackupService.BACKUP_PREFIX + timestamp.trim();
+        return backupService.listBackups().keySet().stream()
+            .filter(backupDir -> backupDir.getFileName().toString().startsWith(name))
+            .reduce((older, newer) -> newer);
+    }
+
+    /**
+     * Verifies the backup and loads it into fresh services, then compares
+     * it with the live data. Throws IOException if a file is missing or
+     * fails verification; the live services are never changed.
+     */
+    public RestoredData restore(Path backupDir, StudentService liveStudents, CourseService liveCourses)
+            throws IOException {
+        RestoreReport report = new RestoreReport(backupDir.getFileName().toString());
+        Map<String, String> manifest = readManifest(backupDir);
+        List<String> names = new ArrayList<>();
+        for (String name : DATA_FILES) {
+            boolean listed = manifest.containsKey(name);
+            if (Files.exists(backupDir.resolve(name))) {
+                names.add(name);
+            } else if (listed || REQUIRED_FILES.contains(name)) {
+                throw new IOException("Backup " + backupDir.getFileName() + " is missing " + name);
+            }
+        }
+
+        long start = System.nanoTime();
+        Map<String, byte[]> contents = readAll(backupDir, names);
+        long read = System.nanoTime();
+        verify(contents, manifest, report);
+        long verified = System.nanoTime();
+        RestoredData restored = load(contents, report);
+        long loaded = System.nanoTime();
+        report.timings((read - start) / 1_000_000, (verified - read) / 1_000_000, (loaded - verified) / 1_000_000);
+
+        compare(liveStudents, liveCourses, restored, report);
+        return restored;
+    }
+
+    // file name to "bytes,crc32"; empty for a backup without checksums
+    private static Map<String, String> readManifest(Path backupDir) throws IOException {
+        Map<String, String> files = new HashMap<>();
+        Path manifest = backupDir.resolve(BackupSnapshot.MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return files;
+        }
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(BackupSnapshot.FILE_KEY)) {
+                files.put(key.substring(BackupSnapshot.FILE_KEY.length()), properties.getProperty(key));
+            }
+        }
+        return files;
+    }
+
+    private static Map<String, byte[]> readAll(Path backupDir, List<String> names) throws IOException {
+        try {
+            return names.parallelStream().collect(Collectors.toConcurrentMap(name -> name, name -> {
+                try {
+                    return Files.readAllBytes(backupDir.resolve(name));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void verify(Map<String, byte[]> contents, Map<String, String> manifest, RestoreReport report)
+            throws IOException {
+        Map<String, String> actual = new ConcurrentHashMap<>();
+        contents.entrySet().parallelStream().forEach(file ->
+            actual.put(file.getKey(), file.getValue().length + "," + BackupSnapshot.checksum(file.getValue())));
+        for (String name : DATA_FILES) {
+            if (!contents.containsKey(name)) {
+                continue;
+            }
+            String expected = manifest.get(name);
+            if (expected != null && !expected.equals(actual.get(name))) {
+                throw new IOException(name + " failed verification: expected bytes,crc32 "
+                    + expected + " but found " + actual.get(name));
+            }
+            long size = contents.get(name).length;
+            report.file(name, size, expected == null
+                ? "unverified, no checksum in manifest (" + size + " bytes)"
+                : "verified (" + size + " bytes, crc32 " + expected.substring(expected.indexOf(',') + 1) + ")");
+        }
+    }
+
+    private static List<String[]> rows(byte[] bytes) {
+        return CSVParser.parseRows(new String(bytes, StandardCharsets.UTF_8).lines().collect(Collectors.toList()));
+    }
+
+    private static RestoredData load(Map<String, byte[]> contents, RestoreReport report) throws IOException {
+        EventBus events = new EventBus();
+        CourseService courseService = new CourseService(events);
+        StudentService studentService = new StudentService(events, courseService);
+        studentService.enableResultCache(AppConfig.getInstance().getResultCacheSize());
+        ImportExportService target = new ImportExportService(studentService, courseService);
+        courseService.setAnnounceAdds(false);
+        studentService.setAnnounceAdds(false);
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService loaders = Executors.newFixedThreadPool(3, task -> {
+            Thread thread = new Thread(task, "ccrm-restore-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger rejected = new AtomicInteger();
+        int line = ImportExportService.FIRST_DATA_LINE;
+        try {
+            CompletableFuture<Void> courses = CompletableFuture.runAsync(() -> {
+                byte[] instructors = contents.get(BackupSnapshot.INSTRUCTORS_FILE);
+                if (instructors != null) {
+                    rejected.addAndGet(target.importInstructorRows(rows(instructors), line,
+                        BackupSnapshot.INSTRUCTORS_FILE).getRejected());
+                }
+                rejected.addAndGet(target.importCourseRows(rows(contents.get(BackupSnapshot.COURSES_FILE)), line,
+                    ImportMode.APPEND, BackupSnapshot.COURSES_FILE).getRejected());
+                byte[] requirements = contents.get(BackupSnapshot.REQUIREMENTS_FILE);
+                if (requirements != null) {
+                    rejected.addAndGet(target.importRequirementRows(rows(requirements), line,
+                        BackupSnapshot.REQUIREMENTS_FILE).getRejected());
+                } else {
+                    // Backups made before prerequisites were included keep the current rules file
+                    loadRequirementsFile(target);
+                }
+            }, loaders);
+            CompletableFuture<Void> students = CompletableFuture.runAsync(() ->
+                rejected.addAndGet(target.importStudentRows(rows(contents.get(BackupSnapshot.STUDENTS_FILE)), line,
+                    ImportMode.APPEND, BackupSnapshot.STUDENTS_FILE).getRejected()), loaders);
+            byte[] enrollmentBytes = contents.get(BackupSnapshot.ENROLLMENTS_FILE);
+            CompletableFuture<List<String[]>> enrollmentRows = enrollmentBytes == null
+                ? CompletableFuture.completedFuture(List.of())
+                : CompletableFuture.supplyAsync(() -> rows(enrollmentBytes), loaders);
+            
+            CompletableFuture.allOf(courses, students, enrollmentRows).join();
+            int enrollments = 0;
+            if (enrollmentBytes != null) {
+                MergeResult result = target.importEnrollmentRows(enrollmentRows.join(), line,
+                    BackupSnapshot.ENROLLMENTS_FILE);
+                rejected.addAndGet(result.getRejected());
+                enrollments = result.getAppliedCount();
+            }
+            report.loaded(studentService.getAllStudents().size(), courseService.getAllCourses().size(),
+                enrollments, rejected.get());
+        } catch (CompletionException e) {
+            events.close();
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Could not load backup: " + cause, cause);
+        } finally {
+            loaders.shutdown();
+            courseService.setAnnounceAdds(true);
+            studentService.setAnnounceAdds(true);
+        }
+        return new RestoredData(events, courseService, studentService, target, report);
+    }
+
+    private static void loadRequirementsFile(ImportExportService target) {
+        Path file = AppConfig.getInstance().getRequirementDataFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            target.importRequirementsFromCSV(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Matches students by id and courses by code, and compares them as their export rows
+    private static void compare(StudentService liveStudents, CourseService liveCourses, RestoredData restored,
+                                RestoreReport report) {
+        Map<String, String> currentStudents = new HashMap<>();
+        Map<String, String> currentEnrollments = new HashMap<>();
+        liveStudents.streamAllStudentsIncludingRetired()
+            .forEach(student -> describe(student, currentStudents, currentEnrollments));
+        Map<String, String> restoredStudents = new HashMap<>();
+        Map<String, String> restoredEnrollments = new HashMap<>();
+        restored.getStudentService().streamAllStudentsIncludingRetired()
+            .forEach(student -> describe(student, restoredStudents, restoredEnrollments));
+
+        Map<String, String> currentCourses = new HashMap<>();
+        liveCourses.getAllCourses().forEach(course ->
+            currentCourses.put(course.getCode(), ImportExportService.courseLine(course)));
+        Map<String, String> restoredCourses = new HashMap<>();
+        restored.getCourseService().getAllCourses().forEach(course ->
+            restoredCourses.put(course.getCode(), ImportExportService.courseLine(course)));
+
+        report.changes(changes(currentStudents, restoredStudents), changes(currentCourses, restoredCourses),
+            changes(currentEnrollments, restoredEnrollments));
+    }
+
+    // A student's row keyed by id, and each enrollment's marks keyed by student id and course code
+    private static void describe(Student student, Map<String, String> students, Map<String, String> enrollments) {
+        students.put(student.getId(), ImportExportService.studentLine(student));
+        for (Enrollment enrollment : student.getEnrollments()) {
+            enrollments.put(student.getId() + "," + enrollment.getCourse().getCode(),
+                String.valueOf(enrollment.getMarks()));
+        }
+    }
+
+    private static RestoreReport.Changes changes(Map<String, String> live, Map<String, String> restored) {
+        Set<String> removed = new HashSet<>(live.keySet());
+        removed.removeAll(restored.keySet());
+        int added = 0;
+        int changed = 0;
+        for (Map.Entry<String, String> entry : restored.entrySet()) {
+            String current = live.get(entry.getKey());
+            if (current == null) {
+                added++;
+            } else if (!current.equals(entry.getValue())) {
+                changed++;
+            }
+        }
+        return new RestoreReport.Changes(added, removed.size(), changed);
+    }
+}
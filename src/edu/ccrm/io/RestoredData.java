@@ -0,0 +1,40 @@
+package edu.ccrm.io;
+
+import edu.ccrm.event.EventBus;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+
+/**
+ * Fresh services loaded from a backup by {@link RestoreService}, not yet in
+ * use. The caller either swaps them in for the live ones or discards them.
+ * They have no inactive tier, so inactive students are still in memory;
+ * the caller enables one once the live tier is closed and then retires
+ * them.
+ */
+public class RestoredData {
+    private final EventBus events;
+    private final CourseService courseService;
+    private final StudentService studentService;
+    private final ImportExportService importExportService;
+    private final RestoreReport report;
+
+    RestoredData(EventBus events, CourseService courseService, StudentService studentService,
+                 ImportExportService importExportService, RestoreReport report) {
+        this.events = events;
+        this.courseService = courseService;
+        this.studentService = studentService;
+        this.importExportService = importExportService;
+        this.report = report;
+    }
+
+    public EventBus getEvents() { return events; }
+    public CourseService getCourseService() { return courseService; }
+    public StudentService getStudentService() { return studentService; }
+    public ImportExportService getImportExportService() { return importExportService; }
+    public RestoreReport getReport() { return report; }
+
+    // For a dry run or a restore that will not be used
+    public void discard() {
+        events.close();
+    }
+}
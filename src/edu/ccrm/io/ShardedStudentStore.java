@@ -0,0 +1,395 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.domain.StudentListener;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.InactiveStudentTier;
+import edu.ccrm.service.StudentService;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Students and their enrollments kept as N segment files in the shard
+ * directory. A student lives in segment floorMod(id.hashCode(), N), with its
+ * enrollments on the lines after it. String.hashCode is fixed by the
+ * language spec, so the layout is stable from run to run; N is recorded in
+ * {@link #LAYOUT_FILE} when the layout is first written.
+ *
+ * The store listens to both services and keeps a dirty flag per segment,
+ * plus the students in each segment. Students retired to the inactive tier
+ * are kept by id only and read back from it when their segment is written. A save rewrites only the dirty
+ * segments, in parallel, each to a temporary file that is then renamed over
+ * the old one, so a crash mid-save leaves every segment whole, old or new.
+ * Save cost follows the segments touched, not the total data.
+ *
+ * Loading reads and parses every segment in parallel (one task per core via
+ * a parallel stream), then adds the students and their enrollments in
+ * segment order on the calling thread, as the services expect one writer.
+ */
+public class ShardedStudentStore implements StudentListener, CourseListener {
+    static final String LAYOUT_FILE = "layout.properties";
+    private static final String HEADER = "record,id,regNo,fullName,email,active,createdDate";
+    private static final String STUDENT_RECORD = "S";
+    private static final String ENROLLMENT_RECORD = "E";
+
+    private final Path directory;
+    private final int shardCount;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final List<Set<Student>> members;
+    private final List<Set<String>> retired;
+    private final AtomicIntegerArray dirty;
+    private final Object saveLock = new Object();
+
+    public ShardedStudentStore(Path directory, int defaultShardCount,
+                               StudentService studentService, CourseService courseService) {
+        this.directory = directory;
+        this.shardCount = readShardCount(directory).orElse(defaultShardCount);
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.members = new ArrayList<>(shardCount);
+        this.retired = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            members.add(Collections.newSetFromMap(new IdentityHashMap<>()));
+            retired.add(new HashSet<>());
+        }
+        this.dirty = new AtomicIntegerArray(shardCount);
+        studentService.addStudentListener(this);
+        courseService.addCourseListener(this);
+    }
+
+    // True once a save has written the layout
+    public boolean exists() {
+        return Files.exists(directory.resolve(LAYOUT_FILE));
+    }
+
+    public int getShardCount() { return shardCount; }
+
+    public Path getDirectory() { return directory; }
+
+    public int getDirtyCount() {
+        int count = 0;
+        for (int i = 0; i < shardCount; i++) {
+            count += dirty.get(i);
+        }
+        return count;
+    }
+
+    public int shardOf(String id) {
+        return Math.floorMod(id == null ? 0 : id.hashCode(), shardCount);
+    }
+
+    private Path segmentFile(int shard) {
+        return directory.resolve(String.format("segment-%03d.csv", shard));
+    }
+
+    private static Optional<Integer> readShardCount(Path directory) {
+        Path layout = directory.resolve(LAYOUT_FILE);
+        if (!Files.exists(layout)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(layout, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            return Optional.of(Integer.parseInt(properties.getProperty("shards")));
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Note: Ignoring unreadable " + layout + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // ---- Loading
+
+    /**
+     * The parsed rows of one segment. Reading is separate from applying so
+     * the parse can overlap the course import; enrollments need the courses.
+     */
+    public static final class Segment {
+        private final int shard;
+        private final List<String[]> rows;
+
+        private Segment(int shard, List<String[]> rows) {
+            this.shard = shard;
+            this.rows = rows;
+        }
+    }
+
+    // Reads and parses every segment in parallel; a missing segment is empty
+    public List<Segment> read() throws IOException {
+        try {
+            return IntStream.range(0, shardCount).parallel()
+                .mapToObj(shard -> {
+                    Path file = segmentFile(shard);
+                    try {
+                        return new Segment(shard, Files.exists(file) ? CSVParser.readRows(file) : List.of());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Adds the students and enrollments read by {@link #read}. Enrollments
+     * naming a course that is not loaded are skipped and counted. The
+     * segments are clean afterwards.
+     */
+    public void apply(List<Segment> segments) {
+        long start = System.nanoTime();
+        int students = 0;
+        int enrollments = 0;
+        int skipped = 0;
+        for (Segment segment : segments) {
+            Student current = null;
+            for (String[] row : segment.rows) {
+                if (row.length == 0) {
+                    continue;
+                }
+                try {
+                    if (row[0].equals(STUDENT_RECORD)) {
+                        current = new Student(row[1], row[2], row[3], row[4], LocalDateTime.parse(row[6]));
+                        current.setActive(Boolean.parseBoolean(row[5]));
+                        studentService.addStudent(current);
+                        students++;
+                    } else if (row[0].equals(ENROLLMENT_RECORD) && current != null && current.getId().equals(row[1])) {
+                        Optional<Course> course = courseService.getCourseByCode(row[2]);
+                        if (course.isEmpty()) {
+                            skipped++;
+                            continue;
+                        }
+                        Enrollment enrollment = current.restoreEnrollment(course.get(), LocalDateTime.parse(row[3]));
+                        if (row.length > 4 && !row[4].isEmpty()) {
+                            enrollment.recordMarks(Double.parseDouble(row[4]));
+                        }
+                        enrollments++;
+                    } else {
+                        skipped++;
+                    }
+                } catch (RuntimeException e) {
+                    // Short row, bad date or number: the file was edited by hand
+                    skipped++;
+                }
+            }
+        }
+        for (int i = 0; i < shardCount; i++) {
+            dirty.set(i, 0);
+        }
+        System.out.printf("Loaded %d students and %d enrollments from %d segments in %d ms%n",
+            students, enrollments, segments.size(), (System.nanoTime() - start) / 1_000_000);
+        if (skipped > 0) {
+            System.out.println("Skipped " + skipped + " segment rows that could not be restored");
+        }
+    }
+
+    // ---- Saving
+
+    /**
+     * Rewrites the dirty segments in parallel and returns how many were
+     * written. A segment whose write fails stays dirty for the next save.
+     */
+    public int save() throws IOException {
+        synchronized (saveLock) {
+            long start = System.nanoTime();
+            boolean firstSave = !exists();
+            Files.createDirectories(directory);
+            List<Integer> toWrite = new ArrayList<>();
+            for (int i = 0; i < shardCount; i++) {
+                // Cleared before writing, so a change made during the write marks it again
+                if (dirty.getAndSet(i, 0) == 1 || (firstSave && !Files.exists(segmentFile(i)))) {
+                    toWrite.add(i);
+                }
+            }
+            List<IOException> failures = Collections.synchronizedList(new ArrayList<>());
+            int students = toWrite.parallelStream()
+                .mapToInt(shard -> {
+                    try {
+                        return writeSegment(shard);
+                    } catch (IOException e) {
+                        dirty.set(shard, 1);
+                        failures.add(e);
+                        return 0;
+                    }
+                })
+                .sum();
+            if (firstSave) {
+                writeLayout();
+            }
+            System.out.printf("Saved %d of %d segments (%d students) in %d ms%n",
+                toWrite.size() - failures.size(), shardCount, students, (System.nanoTime() - start) / 1_000_000);
+            if (!failures.isEmpty()) {
+                throw failures.get(0);
+            }
+            return toWrite.size();
+        }
+    }
+
+    // Marks every segment dirty, then saves; used to rewrite the whole layout
+    public int saveAll() throws IOException {
+        markAllDirty();
+        return save();
+    }
+
+    private int writeSegment(int shard) throws IOException {
+        List<Student> students;
+        List<String> retiredIds;
+        synchronized (members) {
+            students = new ArrayList<>(members.get(shard));
+            retiredIds = new ArrayList<>(retired.get(shard));
+        }
+        InactiveStudentTier tier = studentService.getInactiveTier();
+        if (tier != null) {
+            for (String id : retiredIds) {
+                tier.peek(id).ifPresent(students::add);
+            }
+        }
+        students.sort((a, b) -> a.getId().compareTo(b.getId()));
+        Path target = segmentFile(shard);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (Student student : students) {
+                writer.write(String.join(",", STUDENT_RECORD,
+                    CSVParser.quote(student.getId()),
+                    CSVParser.quote(student.getRegNo()),
+                    CSVParser.quote(student.getFullName()),
+                    CSVParser.quote(student.getEmail()),
+                    String.valueOf(student.isActive()),
+                    student.getCreatedDate().toString()));
+                writer.write('\n');
+                for (Enrollment enrollment : student.getEnrollments()) {
+                    writer.write(String.join(",", ENROLLMENT_RECORD,
+                        CSVParser.quote(student.getId()),
+                        CSVParser.quote(enrollment.getCourse().getCode()),
+                        enrollment.getEnrollmentDate().toString(),
+                        enrollment.getMarks() == null ? "" : enrollment.getMarks().toString()));
+                    writer.write('\n');
+                }
+            }
+        }
+        moveIntoPlace(temp, target);
+        return students.size();
+    }
+
+    private void writeLayout() throws IOException {
+        Path target = directory.resolve(LAYOUT_FILE);
+        Path temp = directory.resolve(LAYOUT_FILE + ".tmp");
+        Files.write(temp, List.of("shards=" + shardCount), StandardCharsets.UTF_8);
+        moveIntoPlace(temp, target);
+    }
+
+    // Atomic where the file system allows; a plain replace otherwise
+    static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void markDirty(String id) {
+        dirty.set(shardOf(id), 1);
+    }
+
+    private void markAllDirty() {
+        for (int i = 0; i < shardCount; i++) {
+            dirty.set(i, 1);
+        }
+    }
+
+    // ---- Change tracking
+
+    @Override
+    public void studentAdded(Student student) {
+        synchronized (members) {
+            members.get(shardOf(student.getId())).add(student);
+            retired.get(shardOf(student.getId())).remove(student.getId());
+        }
+        markDirty(student.getId());
+    }
+
+    @Override
+    public void studentRetired(Student student) {
+        synchronized (members) {
+            members.get(shardOf(student.getId())).remove(student);
+            retired.get(shardOf(student.getId())).add(student.getId());
+        }
+    }
+    
+    @Override
+    public void idChanged(Student student, String oldId) {
+        synchronized (members) {
+            if (retired.get(shardOf(oldId)).remove(oldId)) {
+                retired.get(shardOf(student.getId())).add(student.getId());
+            } else {
+                members.get(shardOf(oldId)).remove(student);
+                members.get(shardOf(student.getId())).add(student);
+            }
+        }
+        markDirty(oldId);
+        markDirty(student.getId());
+    }
+
+    @Override
+    public void regNoChanged(Student student, String oldRegNo) {
+        markDirty(student.getId());
+    }
+
+    @Override
+    public void nameChanged(Student student, String oldName) {
+        markDirty(student.getId());
+    }
+
+    @Override
+    public void emailChanged(Student student, String oldEmail) {
+        markDirty(student.getId());
+    }
+
+    @Override
+    public void activeChanged(Student student, boolean wasActive) {
+        markDirty(student.getId());
+    }
+
+    @Override
+    public void studentEnrolled(Enrollment enrollment) {
+        markDirty(enrollment.getStudent().getId());
+    }
+
+    @Override
+    public void marksRecorded(Enrollment enrollment, Grade oldGrade) {
+        markDirty(enrollment.getStudent().getId());
+    }
+
+    // Enrollment rows name the course code; which students take the course is not indexed here
+    @Override
+    public void codeChanged(Course course, String oldCode) {
+        markAllDirty();
+    }
+}
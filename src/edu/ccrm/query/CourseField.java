@@ -0,0 +1,33 @@
+package edu.ccrm.query;
+
+import edu.ccrm.domain.Course;
+
+import java.util.function.Function;
+
+public enum CourseField implements Field<Course> {
+    CODE(Course::getCode, true),
+    TITLE(Course::getTitle, true),
+    CREDITS(Course::getCredits, false),
+    INSTRUCTOR(Course::getInstructor, true),
+    SEMESTER(Course::getSemester, false),
+    DEPARTMENT(Course::getDepartment, true),
+    ACTIVE(Course::isActive, false);
+    
+    private final Function<Course, Object> extractor;
+    private final boolean caseInsensitive;
+    
+    CourseField(Function<Course, Object> extractor, boolean caseInsensitive) {
+        this.extractor = extractor;
+        this.caseInsensitive = caseInsensitive;
+    }
+    
+    @Override
+    public Object valueOf(Course course) {
+        return extractor.apply(course);
+    }
+    
+    @Override
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+}
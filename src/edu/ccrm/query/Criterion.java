@@ -0,0 +1,235 @@
+package edu.ccrm.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Composable filter over records of type T. Build criteria with the static
+ * factories and hand them to a {@link QueryEngine}, which decides whether an
+ * index can narrow the candidates before the criterion is tested.
+ *
+ * <pre>
+ *   Criterion.and(
+ *       Criterion.eq(CourseField.DEPARTMENT, "CS"),
+ *       Criterion.eq(CourseField.SEMESTER, Semester.FALL),
+ *       Criterion.atLeast(CourseField.CREDITS, 4),
+ *       Criterion.eq(CourseField.INSTRUCTOR, "Dr. X"))
+ * </pre>
+ */
+public abstract class Criterion<T> implements Predicate<T> {
+
+    public abstract String describe();
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+
+    public static <T> Criterion<T> eq(Field<T> field, Object value) {
+        return new Equals<>(field, value);
+    }
+
+    public static <T> Criterion<T> between(Field<T> field, Comparable<?> min, Comparable<?> max) {
+        return new Range<>(field, min, max);
+    }
+
+    public static <T> Criterion<T> atLeast(Field<T> field, Comparable<?> min) {
+        return new Range<>(field, min, null);
+    }
+
+    public static <T> Criterion<T> atMost(Field<T> field, Comparable<?> max) {
+        return new Range<>(field, null, max);
+    }
+
+    public static <T> Criterion<T> contains(Field<T> field, String substring) {
+        return new Contains<>(field, substring);
+    }
+
+    @SafeVarargs
+    public static <T> Criterion<T> and(Criterion<T>... criteria) {
+        // Read element by element; handing the array on is an unchecked varargs use
+        List<Criterion<T>> list = new ArrayList<>(criteria.length);
+        for (Criterion<T> criterion : criteria) {
+            list.add(criterion);
+        }
+        return new And<>(List.copyOf(list));
+    }
+
+    public static <T> Criterion<T> and(List<Criterion<T>> criteria) {
+        return new And<>(List.copyOf(criteria));
+    }
+
+    @SafeVarargs
+    public static <T> Criterion<T> or(Criterion<T>... criteria) {
+        List<Criterion<T>> list = new ArrayList<>(criteria.length);
+        for (Criterion<T> criterion : criteria) {
+            list.add(criterion);
+        }
+        return new Or<>(List.copyOf(list));
+    }
+
+    public static <T> Criterion<T> not(Criterion<T> criterion) {
+        return new Not<>(criterion);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareKeys(Comparable<?> a, Comparable<?> b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /** field = value */
+    public static final class Equals<T> extends Criterion<T> {
+        private final Field<T> field;
+        private final Comparable<?> key;
+
+        private Equals(Field<T> field, Object value) {
+            this.field = field;
+            this.key = field.keyOf(value);
+        }
+
+        public Field<T> getField() { return field; }
+        public Comparable<?> getKey() { return key; }
+
+        @Override
+        public boolean test(T record) {
+            Comparable<?> actual = field.keyFor(record);
+            return actual == null ? key == null : actual.equals(key);
+        }
+
+        @Override
+        public String describe() {
+            return field.name() + " = '" + key + "'";
+        }
+    }
+
+    /** min <= field <= max; a null bound is open */
+    public static final class Range<T> extends Criterion<T> {
+        private final Field<T> field;
+        private final Comparable<?> min;
+        private final Comparable<?> max;
+
+        private Range(Field<T> field, Comparable<?> min, Comparable<?> max) {
+            this.field = field;
+            this.min = field.keyOf(min);
+            this.max = field.keyOf(max);
+        }
+
+        public Field<T> getField() { return field; }
+        public Comparable<?> getMin() { return min; }
+        public Comparable<?> getMax() { return max; }
+
+        @Override
+        public boolean test(T record) {
+            Comparable<?> actual = field.keyFor(record);
+            if (actual == null) {
+                return false;
+            }
+            return (min == null || compareKeys(actual, min) >= 0)
+                && (max == null || compareKeys(actual, max) <= 0);
+        }
+
+        @Override
+        public String describe() {
+            if (max == null) {
+                return field.name() + " >= " + min;
+            }
+            if (min == null) {
+                return field.name() + " <= " + max;
+            }
+            return field.name() + " BETWEEN " + min + " AND " + max;
+        }
+    }
+
+    /** field contains substring (case-insensitive) */
+    public static final class Contains<T> extends Criterion<T> {
+        private final Field<T> field;
+        private final String needle;
+
+        private Contains(Field<T> field, String substring) {
+            this.field = field;
+            this.needle = substring.toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean test(T record) {
+            Object value = field.valueOf(record);
+            return value != null && value.toString().toLowerCase(Locale.ROOT).contains(needle);
+        }
+
+        @Override
+        public String describe() {
+            return field.name() + " CONTAINS '" + needle + "'";
+        }
+    }
+
+    public static final class And<T> extends Criterion<T> {
+        private final List<Criterion<T>> children;
+
+        private And(List<Criterion<T>> children) {
+            this.children = children;
+        }
+
+        public List<Criterion<T>> getChildren() { return children; }
+
+        @Override
+        public boolean test(T record) {
+            for (Criterion<T> child : children) {
+                if (!child.test(record)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String describe() {
+            return children.stream().map(Criterion::describe).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+    }
+
+    public static final class Or<T> extends Criterion<T> {
+        private final List<Criterion<T>> children;
+
+        private Or(List<Criterion<T>> children) {
+            this.children = children;
+        }
+
+        public List<Criterion<T>> getChildren() { return children; }
+
+        @Override
+        public boolean test(T record) {
+            for (Criterion<T> child : children) {
+                if (child.test(record)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String describe() {
+            return children.stream().map(Criterion::describe).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+    }
+
+    public static final class Not<T> extends Criterion<T> {
+        private final Criterion<T> child;
+
+        private Not(Criterion<T> child) {
+            this.child = child;
+        }
+
+        @Override
+        public boolean test(T record) {
+            return !child.test(record);
+        }
+
+        @Override
+        public String describe() {
+            return "NOT " + child.describe();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package edu.ccrm.query;
+
+import java.util.Locale;
+
+/**
+ * A queryable attribute of a record type.
+ */
+public interface Field<T> {
+    String name();
+    
+    Object valueOf(T record);
+    
+    // Text fields compared without regard to case
+    boolean isCaseInsensitive();
+    
+    // Normalized, comparable form used both for matching and as an index key
+    default Comparable<?> keyOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            return isCaseInsensitive() ? text.toLowerCase(Locale.ROOT) : text;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Comparable) {
+            return (Comparable<?>) value;
+        }
+        return value.toString();
+    }
+    
+    default Comparable<?> keyFor(T record) {
+        return keyOf(valueOf(record));
+    }
+}
@@ -0,0 +1,89 @@
+package edu.ccrm.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Sorted secondary index on one field: normalized key to the records holding
+ * it. Serves equality and range lookups plus the row-count estimates the
+ * planner uses to choose between them. Records whose value is null are kept
+ * apart because they never match a range.
+ */
+public class FieldIndex<T> {
+    private final Field<T> field;
+    private final NavigableMap<Comparable<?>, Set<T>> postings = new TreeMap<>(Criterion::compareKeys);
+    private final Set<T> nullRecords = new LinkedHashSet<>();
+
+    public FieldIndex(Field<T> field) {
+        this.field = field;
+    }
+
+    public Field<T> getField() {
+        return field;
+    }
+
+    public synchronized void add(T record) {
+        Comparable<?> key = field.keyFor(record);
+        if (key == null) {
+            nullRecords.add(record);
+        } else {
+            postings.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(record);
+        }
+    }
+
+    // Removes the record from the posting list of the value it was indexed under
+    public synchronized void remove(T record, Object oldValue) {
+        Comparable<?> key = field.keyOf(oldValue);
+        if (key == null) {
+            nullRecords.remove(record);
+            return;
+        }
+        Set<T> records = postings.get(key);
+        if (records != null) {
+            records.remove(record);
+            if (records.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    public synchronized List<T> lookup(Comparable<?> key) {
+        Set<T> records = key == null ? nullRecords : postings.get(key);
+        return records == null ? Collections.emptyList() : new ArrayList<>(records);
+    }
+
+    public synchronized int count(Comparable<?> key) {
+        Set<T> records = key == null ? nullRecords : postings.get(key);
+        return records == null ? 0 : records.size();
+    }
+
+    public synchronized List<T> range(Comparable<?> min, Comparable<?> max) {
+        List<T> result = new ArrayList<>();
+        rangeView(min, max).values().forEach(result::addAll);
+        return result;
+    }
+
+    public synchronized int countRange(Comparable<?> min, Comparable<?> max) {
+        int total = 0;
+        for (Set<T> records : rangeView(min, max).values()) {
+            total += records.size();
+        }
+        return total;
+    }
+
+    private NavigableMap<Comparable<?>, Set<T>> rangeView(Comparable<?> min, Comparable<?> max) {
+        NavigableMap<Comparable<?>, Set<T>> view = postings;
+        if (min != null) {
+            view = view.tailMap(min, true);
+        }
+        if (max != null) {
+            view = view.headMap(max, true);
+        }
+        return view;
+    }
+}
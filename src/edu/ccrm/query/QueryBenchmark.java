@@ -0,0 +1,75 @@
+package edu.ccrm.query;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.service.CourseService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Times a compound course query through the planner against the same
+ * filters chained over a full stream.
+ *
+ * Usage: java edu.ccrm.query.QueryBenchmark [courses] [iterations]
+ */
+public class QueryBenchmark {
+    private static final String[] DEPARTMENTS = {
+        "Computer Science", "Mathematics", "Physics", "English", "Chemistry", "Biology"
+    };
+
+    public static void main(String[] args) {
+        int courseCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        CourseService service = new CourseService();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        for (int i = 0; i < courseCount; i++) {
+            service.addCourse(new Course.Builder("C" + i, "Course Title " + i)
+                .credits(1 + i % 5)
+                .instructor("Dr. Instructor " + (i % 2000))
+                .semester(Semester.values()[i % Semester.values().length])
+                .department(DEPARTMENTS[i % DEPARTMENTS.length])
+                .build());
+        }
+        System.setOut(console);
+
+        Criterion<Course> query = Criterion.and(
+            Criterion.eq(CourseField.DEPARTMENT, "Computer Science"),
+            Criterion.eq(CourseField.SEMESTER, Semester.FALL),
+            Criterion.atLeast(CourseField.CREDITS, 4),
+            Criterion.eq(CourseField.INSTRUCTOR, "Dr. Instructor 42"));
+        System.out.println(service.explain(query));
+
+        List<Course> all = service.getAllCourses();
+        int planned = 0;
+        int chained = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                planned = service.query(query).size();
+            }
+            long plannedNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                chained = all.stream()
+                    .filter(c -> c.getDepartment().equalsIgnoreCase("Computer Science"))
+                    .filter(c -> c.getSemester() == Semester.FALL)
+                    .filter(c -> c.getCredits() >= 4)
+                    .filter(c -> c.getInstructor().equalsIgnoreCase("Dr. Instructor 42"))
+                    .collect(Collectors.toList())
+                    .size();
+            }
+            long chainedNanos = System.nanoTime() - start;
+
+            if (warmup == 1) {
+                System.out.printf("%nPlanned query:   %.3f ms/query (%d rows)%n", plannedNanos / 1e6 / iterations, planned);
+                System.out.printf("Chained filters: %.3f ms/query (%d rows)%n", chainedNanos / 1e6 / iterations, chained);
+            }
+        }
+    }
+}
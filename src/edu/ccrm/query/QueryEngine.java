@@ -0,0 +1,221 @@
+package edu.ccrm.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plans and runs {@link Criterion} queries over one record type.
+ *
+ * The planner looks for the most selective access path an index can serve:
+ * an equality or range on an indexed field, the best such child of an AND, or
+ * the union of indexed children of an OR. It compares the estimated row count
+ * with a full scan. Only the candidates from the chosen path are fetched, and
+ * the remaining predicates are streamed over them.
+ */
+public class QueryEngine<T> {
+    private final Supplier<List<T>> source;
+    private final Map<Field<T>, FieldIndex<T>> indexes = new ConcurrentHashMap<>();
+
+    public QueryEngine(Supplier<List<T>> source) {
+        this.source = source;
+    }
+
+    public void createIndex(Field<T> field) {
+        FieldIndex<T> index = new FieldIndex<>(field);
+        source.get().forEach(index::add);
+        indexes.put(field, index);
+    }
+
+    public boolean isIndexed(Field<T> field) {
+        return indexes.containsKey(field);
+    }
+
+    // Index maintenance, called by the owning service
+    public void recordAdded(T record) {
+        indexes.values().forEach(index -> index.add(record));
+    }
+
+    // Call before the record leaves the source, while its fields still hold the indexed values
+    public void recordRemoved(T record) {
+        indexes.values().forEach(index -> index.remove(record, index.getField().valueOf(record)));
+    }
+
+    public void recordChanged(T record, Field<T> field, Object oldValue) {
+        FieldIndex<T> index = indexes.get(field);
+        if (index != null) {
+            index.remove(record, oldValue);
+            index.add(record);
+        }
+    }
+
+    // Equality lookup on one field, through the index when there is one
+    public List<T> lookup(Field<T> field, Object value) {
+        return execute(Criterion.eq(field, value));
+    }
+
+    public Optional<T> lookupFirst(Field<T> field, Object value) {
+        return stream(Criterion.eq(field, value)).findFirst();
+    }
+
+    public List<T> execute(Criterion<T> criterion) {
+        return stream(criterion).collect(Collectors.toList());
+    }
+
+    public Stream<T> stream(Criterion<T> criterion) {
+        return plan(criterion).stream();
+    }
+
+    public String explain(Criterion<T> criterion) {
+        return plan(criterion).explain();
+    }
+
+    public QueryPlan<T> plan(Criterion<T> criterion) {
+        int total = source.get().size();
+        AccessPath<T> path = accessPath(criterion);
+        if (path == null || path.estimate >= total) {
+            return new QueryPlan<>(criterion, null, total, source, criterion);
+        }
+        return new QueryPlan<>(criterion, path, total, path.fetch, residual(criterion, path.covered));
+    }
+
+    private AccessPath<T> accessPath(Criterion<T> criterion) {
+        if (criterion instanceof Criterion.Equals) {
+            Criterion.Equals<T> eq = (Criterion.Equals<T>) criterion;
+            FieldIndex<T> index = indexes.get(eq.getField());
+            if (index == null) {
+                return null;
+            }
+            return new AccessPath<>(index.count(eq.getKey()), () -> index.lookup(eq.getKey()),
+                "INDEX LOOKUP " + eq.describe(), criterion);
+        }
+        if (criterion instanceof Criterion.Range) {
+            Criterion.Range<T> range = (Criterion.Range<T>) criterion;
+            FieldIndex<T> index = indexes.get(range.getField());
+            if (index == null) {
+                return null;
+            }
+            return new AccessPath<>(index.countRange(range.getMin(), range.getMax()),
+                () -> index.range(range.getMin(), range.getMax()),
+                "INDEX RANGE " + range.describe(), criterion);
+        }
+        if (criterion instanceof Criterion.And) {
+            AccessPath<T> best = null;
+            for (Criterion<T> child : ((Criterion.And<T>) criterion).getChildren()) {
+                AccessPath<T> candidate = accessPath(child);
+                if (candidate != null && (best == null || candidate.estimate < best.estimate)) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+        if (criterion instanceof Criterion.Or) {
+            List<AccessPath<T>> branches = new ArrayList<>();
+            int estimate = 0;
+            for (Criterion<T> child : ((Criterion.Or<T>) criterion).getChildren()) {
+                AccessPath<T> branch = accessPath(child);
+                if (branch == null) {
+                    return null;
+                }
+                branches.add(branch);
+                estimate += branch.estimate;
+            }
+            String description = branches.stream().map(b -> b.description)
+                                         .collect(Collectors.joining(" | ", "UNION(", ")"));
+            return new AccessPath<>(estimate, () -> union(branches), description, criterion);
+        }
+        return null;
+    }
+
+    // Predicates still to be applied once the access path produced its candidates
+    private Criterion<T> residual(Criterion<T> criterion, Criterion<T> covered) {
+        if (covered == criterion) {
+            return null;
+        }
+        if (criterion instanceof Criterion.And) {
+            List<Criterion<T>> remaining = new ArrayList<>(((Criterion.And<T>) criterion).getChildren());
+            remaining.remove(covered);
+            return remaining.size() == 1 ? remaining.get(0) : Criterion.and(remaining);
+        }
+        return criterion;
+    }
+
+    private static <T> Collection<T> union(List<AccessPath<T>> branches) {
+        Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> result = new ArrayList<>();
+        for (AccessPath<T> branch : branches) {
+            for (T record : branch.fetch.get()) {
+                if (seen.add(record)) {
+                    result.add(record);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class AccessPath<T> {
+        private final int estimate;
+        private final Supplier<? extends Collection<T>> fetch;
+        private final String description;
+        private final Criterion<T> covered;
+
+        private AccessPath(int estimate, Supplier<? extends Collection<T>> fetch,
+                           String description, Criterion<T> covered) {
+            this.estimate = estimate;
+            this.fetch = fetch;
+            this.description = description;
+            this.covered = covered;
+        }
+    }
+
+    /**
+     * Chosen execution strategy for one query.
+     */
+    public static final class QueryPlan<T> {
+        private final Criterion<T> criterion;
+        private final AccessPath<T> path;
+        private final int totalRows;
+        private final Supplier<? extends Collection<T>> candidates;
+        private final Criterion<T> filter;
+
+        private QueryPlan(Criterion<T> criterion, AccessPath<T> path, int totalRows,
+                          Supplier<? extends Collection<T>> candidates, Criterion<T> filter) {
+            this.criterion = criterion;
+            this.path = path;
+            this.totalRows = totalRows;
+            this.candidates = candidates;
+            this.filter = filter;
+        }
+
+        public boolean usesIndex() {
+            return path != null;
+        }
+
+        public Stream<T> stream() {
+            Stream<T> rows = candidates.get().stream();
+            return filter == null ? rows : rows.filter(filter);
+        }
+
+        public String explain() {
+            StringBuilder out = new StringBuilder();
+            out.append("Query:  ").append(criterion.describe()).append('\n');
+            if (path == null) {
+                out.append("Access: FULL SCAN (").append(totalRows).append(" rows)\n");
+            } else {
+                out.append("Access: ").append(path.description)
+                   .append(" (est. ").append(path.estimate).append(" of ").append(totalRows).append(" rows)\n");
+            }
+            out.append("Filter: ").append(filter == null ? "none" : filter.describe());
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package edu.ccrm.query;
+
+import edu.ccrm.domain.Student;
+
+import java.util.function.Function;
+
+public enum StudentField implements Field<Student> {
+    ID(Student::getId, false),
+    REG_NO(Student::getRegNo, false),
+    NAME(Student::getFullName, true),
+    EMAIL(Student::getEmail, true),
+    ACTIVE(Student::isActive, false),
+    CREDITS(Student::getTotalCredits, false);
+    
+    private final Function<Student, Object> extractor;
+    private final boolean caseInsensitive;
+    
+    StudentField(Function<Student, Object> extractor, boolean caseInsensitive) {
+        this.extractor = extractor;
+        this.caseInsensitive = caseInsensitive;
+    }
+    
+    @Override
+    public Object valueOf(Student student) {
+        return extractor.apply(student);
+    }
+    
+    @Override
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+}
@@ -0,0 +1,80 @@
+package edu.ccrm.server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local load generator for the query server.
+ *
+ * Usage: java edu.ccrm.server.LoadTestHarness [baseUrl] [concurrency] [requests]
+ * e.g.   java edu.ccrm.server.LoadTestHarness http://localhost:8080 2000 100000
+ *
+ * Requests cycle through the read endpoints and keep at most {@code concurrency}
+ * in flight. Throughput and latency percentiles are printed at the end.
+ */
+public class LoadTestHarness {
+    private static final List<String> READ_PATHS = List.of(
+        "/students", "/courses", "/reports/top-students?n=10",
+        "/courses/search?q=computer", "/courses/search?semester=FALL");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int totalRequests = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(QueryServer.newRequestExecutor())
+            .build();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[totalRequests];
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[totalRequests];
+
+        System.out.printf("Sending %d requests to %s with concurrency %d%n", totalRequests, baseUrl, concurrency);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < totalRequests; i++) {
+            inFlight.acquire();
+            final int index = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + READ_PATHS.get(i % READ_PATHS.size())))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+            long sent = System.nanoTime();
+            pending[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (error != null || response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+        }
+        CompletableFuture.allOf(pending).exceptionally(e -> null).join();
+
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        System.out.println("=== LOAD TEST RESULTS ===");
+        System.out.printf("Requests: %d (failed: %d)%n", totalRequests, failures.get());
+        System.out.printf("Elapsed: %.2f s%n", elapsed / 1e9);
+        System.out.printf("Throughput: %.0f req/s%n", totalRequests / (elapsed / 1e9));
+        System.out.printf("Latency p50: %.2f ms, p99: %.2f ms, max: %.2f ms%n",
+            percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,391 @@
+package edu.ccrm.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exceptions.DuplicateEnrollmentException;
+import edu.ccrm.exceptions.MaxCreditLimitExceededException;
+import edu.ccrm.exceptions.PrerequisiteNotMetException;
+import edu.ccrm.exceptions.ScheduleConflictException;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Optional HTTP front end exposing the student and course queries as JSON.
+ *
+ * Endpoints:
+ *   GET  /students                      all students (?active=true for active only)
+ *   GET  /students?prefix=X             regNo completions (n= limits, default 10)
+ *   GET  /students/{id}                 one student with enrollments
+ *   GET  /reports/top-students?n=3      top students by GPA
+ *   GET  /reports/students-by-department?name=X
+ *                                       students enrolled in a department
+ *   GET  /courses                       all courses (?active=true for enrollable only)
+ *   GET  /courses/{code}                one course
+ *   GET  /courses/search?q=X            keyword search (also instructor=, department=, semester=)
+ *   GET  /courses/complete?prefix=X     code and title completions (n= limits, default 10)
+ *   POST /enrollments?studentId=X&courseCode=Y
+ *
+ * Every path segment under /students is a student id. Errors are JSON
+ * {"error": ...}; a runtime exception from a handler becomes a 400 for an
+ * IllegalArgumentException and a 500 otherwise, unless the response had
+ * already started.
+ */
+public class QueryServer {
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public QueryServer(StudentService studentService, CourseService courseService, int port) throws IOException {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        // Chunked keep-alive responses otherwise stall on Nagle + delayed ACK (~40 ms each)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+
+        server.createContext("/students", guarded(this::handleStudents));
+        server.createContext("/reports", guarded(this::handleReports));
+        server.createContext("/courses", guarded(this::handleCourses));
+        server.createContext("/enrollments", guarded(this::handleEnrollments));
+        server.setExecutor(executor);
+    }
+
+    // One virtual thread per request when the runtime has them (JDK 21+),
+    // otherwise fall back to a cached pool of platform threads
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // Closes the exchange after the handler, and answers with an error if the handler threw before responding
+    private HttpHandler guarded(HttpHandler handler) {
+        return exchange -> {
+            try (exchange) {
+                try {
+                    handler.handle(exchange);
+                } catch (IllegalArgumentException e) {
+                    sendErrorIfUnanswered(exchange, 400, e.getMessage());
+                } catch (RuntimeException e) {
+                    sendErrorIfUnanswered(exchange, 500, "Internal error: " + e);
+                }
+            }
+        };
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Query server listening on port " + getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleStudents(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        List<String> segments = pathSegments(exchange, "/students");
+        Map<String, String> params = queryParams(exchange);
+
+        if (segments.isEmpty()) {
+            if (params.containsKey("prefix")) {
+                streamStudents(exchange, studentService.completeRegNo(params.get("prefix"), parseInt(params.get("n"), 10)));
+                return;
+            }
+            List<Student> students = "true".equals(params.get("active"))
+                ? studentService.getActiveStudents()
+                : studentService.streamAllStudentsIncludingRetired().collect(Collectors.toList());
+            streamStudents(exchange, students);
+            return;
+        }
+
+        Optional<Student> student = studentService.findStudentById(segments.get(0));
+        if (student.isEmpty()) {
+            sendError(exchange, 404, "Student not found: " + segments.get(0));
+            return;
+        }
+        try (Writer out = beginBody(exchange, 200)) {
+            JsonWriter json = new JsonWriter(out);
+            writeStudent(json, student.get(), true);
+        }
+    }
+
+    private void handleReports(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        List<String> segments = pathSegments(exchange, "/reports");
+        Map<String, String> params = queryParams(exchange);
+        String report = segments.isEmpty() ? "" : segments.get(0);
+
+        switch (report) {
+            case "top-students" -> streamStudents(exchange, studentService.getTopStudents(parseInt(params.get("n"), 3)));
+            case "students-by-department" -> {
+                String name = params.get("name");
+                if (name == null) {
+                    sendError(exchange, 400, "Missing parameter: name");
+                    return;
+                }
+                streamStudents(exchange, studentService.getStudentsByDepartment(name));
+            }
+            default -> sendError(exchange, 404, "Unknown report: " + report);
+        }
+    }
+
+    private void handleCourses(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        List<String> segments = pathSegments(exchange, "/courses");
+        Map<String, String> params = queryParams(exchange);
+
+        if (segments.isEmpty()) {
+            List<Course> courses = "true".equals(params.get("active"))
+                ? courseService.getActiveCourses()
+                : courseService.getAllCourses();
+            streamCourses(exchange, courses);
+            return;
+        }
+
+        if (segments.get(0).equals("search")) {
+            List<Course> results;
+            if (params.containsKey("q")) {
+                results = courseService.search(params.get("q"));
+            } else if (params.containsKey("instructor")) {
+                results = courseService.searchByInstructor(params.get("instructor"));
+            } else if (params.containsKey("department")) {
+                results = courseService.searchByDepartment(params.get("department"));
+            } else if (params.containsKey("semester")) {
+                Semester semester;
+                try {
+                    semester = Semester.valueOf(params.get("semester").toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    sendError(exchange, 400, "Unknown semester: " + params.get("semester"));
+                    return;
+                }
+                results = courseService.searchBySemester(semester);
+            } else {
+                sendError(exchange, 400, "Expected one of: q, instructor, department, semester");
+                return;
+            }
+            streamCourses(exchange, results);
+            return;
+        }
+
+        if (segments.get(0).equals("complete")) {
+            String prefix = params.getOrDefault("prefix", "");
+            streamCourses(exchange, courseService.completeCourses(prefix, parseInt(params.get("n"), 10)));
+            return;
+        }
+
+        Optional<Course> course = courseService.getCourseByCode(segments.get(0));
+        if (course.isEmpty()) {
+            sendError(exchange, 404, "Course not found: " + segments.get(0));
+            return;
+        }
+        try (Writer out = beginBody(exchange, 200)) {
+            writeCourse(new JsonWriter(out), course.get());
+        }
+    }
+
+    private void handleEnrollments(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) {
+            return;
+        }
+        Map<String, String> params = queryParams(exchange);
+        String studentId = params.get("studentId");
+        String courseCode = params.get("courseCode");
+        if (studentId == null || courseCode == null) {
+            sendError(exchange, 400, "Missing parameter: studentId and courseCode are required");
+            return;
+        }
+
+        Optional<Student> student = studentService.findStudentById(studentId);
+        Optional<Course> course = courseService.getCourseByCode(courseCode);
+        if (student.isEmpty() || course.isEmpty()) {
+            sendError(exchange, 404, "Student or course not found.");
+            return;
+        }
+
+        try {
+            Enrollment enrollment = studentService.enrollStudentInCourse(student.get(), course.get());
+            try (Writer out = beginBody(exchange, 201)) {
+                writeEnrollment(new JsonWriter(out), enrollment);
+            }
+        } catch (DuplicateEnrollmentException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (PrerequisiteNotMetException | ScheduleConflictException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (MaxCreditLimitExceededException e) {
+            sendError(exchange, 422, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            // Archived students are read-only
+            sendError(exchange, 409, e.getMessage());
+        }
+    }
+
+    private void streamStudents(HttpExchange exchange, List<Student> students) throws IOException {
+        try (Writer out = beginBody(exchange, 200)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginArray();
+            for (Student student : students) {
+                writeStudent(json, student, false);
+            }
+            json.endArray();
+        }
+    }
+
+    private void streamCourses(HttpExchange exchange, List<Course> courses) throws IOException {
+        try (Writer out = beginBody(exchange, 200)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginArray();
+            for (Course course : courses) {
+                writeCourse(json, course);
+            }
+            json.endArray();
+        }
+    }
+
+    private void writeStudent(JsonWriter json, Student student, boolean withEnrollments) throws IOException {
+        json.beginObject()
+            .field("id", student.getId())
+            .field("regNo", student.getRegNo())
+            .field("fullName", student.getFullName())
+            .field("email", student.getEmail())
+            .field("active", student.isActive())
+            .field("gpa", studentService.calculateGPA(student))
+            .field("credits", student.getTotalCredits());
+        if (withEnrollments) {
+            json.name("enrollments").beginArray();
+            for (Enrollment enrollment : student.getEnrollments()) {
+                writeEnrollment(json, enrollment);
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private void writeCourse(JsonWriter json, Course course) throws IOException {
+        json.beginObject()
+            .field("code", course.getCode())
+            .field("title", course.getTitle())
+            .field("credits", course.getCredits())
+            .field("instructor", course.getInstructor())
+            .field("instructorId", course.getInstructorId())
+            .field("semester", course.getSemester() != null ? course.getSemester().name() : null)
+            .field("department", course.getDepartment())
+            .field("active", course.isActive())
+            .endObject();
+    }
+
+    private void writeEnrollment(JsonWriter json, Enrollment enrollment) throws IOException {
+        json.beginObject()
+            .field("enrollmentId", enrollment.getEnrollmentId())
+            .field("studentId", enrollment.getStudent().getId())
+            .field("courseCode", enrollment.getCourse().getCode())
+            .field("enrollmentDate", enrollment.getEnrollmentDate().toString());
+        if (enrollment.isGraded()) {
+            json.field("marks", enrollment.getMarks())
+                .field("grade", enrollment.getGrade().getLetter());
+        }
+        json.endObject();
+    }
+
+    // Chunked response: the body is flushed to the socket as it is written
+    private Writer beginBody(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (Writer out = beginBody(exchange, status)) {
+            new JsonWriter(out).beginObject().field("error", message).endObject();
+        }
+    }
+
+    // A response already under way cannot change its status; closing the exchange ends it
+    private void sendErrorIfUnanswered(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() == -1) {
+            sendError(exchange, status, message);
+        }
+    }
+
+    private boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+            return false;
+        }
+        return true;
+    }
+
+    private static List<String> pathSegments(HttpExchange exchange, String context) {
+        String path = exchange.getRequestURI().getPath().substring(context.length());
+        List<String> segments = new ArrayList<>();
+        for (String part : path.split("/")) {
+            if (!part.isEmpty()) {
+                segments.add(URLDecoder.decode(part, StandardCharsets.UTF_8));
+            }
+        }
+        return segments;
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                       URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
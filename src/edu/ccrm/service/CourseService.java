@@ -1,74 +1,275 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.RequirementType;
 import edu.ccrm.domain.Semester;
+import edu.ccrm.event.ChangePublisher;
+import edu.ccrm.event.EventBus;
+import edu.ccrm.event.EventType;
+import edu.ccrm.interfaces.Queryable;
 import edu.ccrm.interfaces.Searchable;
+import edu.ccrm.query.CourseField;
+import edu.ccrm.query.Criterion;
+import edu.ccrm.query.QueryEngine;
+import edu.ccrm.util.KeysetPager;
+import edu.ccrm.util.Page;
+import edu.ccrm.util.RadixTree;
+import edu.ccrm.util.SnapshotList;
+import edu.ccrm.util.SortKey;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
-public class CourseService implements Searchable<Course> {
-    private final List<Course> courses;
+public class CourseService implements Searchable<Course>, Queryable<Course> {
+    private final SnapshotList<Course> courses;
+    private final DepartmentAggregates aggregates;
+    private final QueryEngine<Course> queries;
+    private final CourseListener indexMaintainer;
+    private final RadixTree<Course> completions = new RadixTree<>();
+    private final EventBus events;
+    private final ChangePublisher changePublisher;
+    private final PrerequisiteGraph prerequisites = new PrerequisiteGraph();
+    private final TimetableIndex timetables = new TimetableIndex();
+    private final InstructorService instructors = new InstructorService();
+    private final List<CourseListener> courseListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean announceAdds = true;
     
     public CourseService() {
-        this.courses = new ArrayList<>();
+        this(new EventBus());
+    }
+    
+    public CourseService(EventBus events) {
+        this.events = events;
+        this.changePublisher = new ChangePublisher(events);
+        this.courses = new SnapshotList<>();
+        this.aggregates = new DepartmentAggregates();
+        this.queries = new QueryEngine<>(courses::snapshot);
+        for (CourseField field : new CourseField[] {
+                CourseField.CODE, CourseField.DEPARTMENT, CourseField.SEMESTER,
+                CourseField.INSTRUCTOR, CourseField.CREDITS, CourseField.ACTIVE }) {
+            queries.createIndex(field);
+        }
+        this.indexMaintainer = new CourseListener() {
+            @Override
+            public void codeChanged(Course course, String oldCode) {
+                queries.recordChanged(course, CourseField.CODE, oldCode);
+                completionKeys(oldCode, null).forEach(key -> completions.remove(key, course));
+                completionKeys(course.getCode(), null).forEach(key -> completions.put(key, course));
+            }
+            @Override
+            public void titleChanged(Course course, String oldTitle) {
+                completionKeys(null, oldTitle).forEach(key -> completions.remove(key, course));
+                completionKeys(null, course.getTitle()).forEach(key -> completions.put(key, course));
+            }
+            @Override
+            public void departmentChanged(Course course, String oldDepartment) {
+                queries.recordChanged(course, CourseField.DEPARTMENT, oldDepartment);
+            }
+            @Override
+            public void semesterChanged(Course course, Semester oldSemester) {
+                queries.recordChanged(course, CourseField.SEMESTER, oldSemester);
+            }
+            @Override
+            public void instructorChanged(Course course, String oldInstructor) {
+                queries.recordChanged(course, CourseField.INSTRUCTOR, oldInstructor);
+            }
+            @Override
+            public void creditsChanged(Course course, int oldCredits) {
+                queries.recordChanged(course, CourseField.CREDITS, oldCredits);
+            }
+            @Override
+            public void activeChanged(Course course, boolean wasActive) {
+                queries.recordChanged(course, CourseField.ACTIVE, wasActive);
+            }
+        };
+    }
+    
+    // Courses whose code, title or any later part of the title starts with prefix
+    public List<Course> completeCourses(String prefix, int limit) {
+        return completions.complete(prefix.trim().toLowerCase(Locale.ROOT), limit);
+    }
+    
+    public RadixTree<Course> getCompletionIndex() {
+        return completions;
+    }
+    
+    // "Data Structures" is reachable as "data structures" and "structures"
+    private static List<String> completionKeys(String code, String title) {
+        List<String> keys = new ArrayList<>();
+        if (code != null && !code.isBlank()) {
+            keys.add(code.trim().toLowerCase(Locale.ROOT));
+        }
+        if (title != null) {
+            String[] words = title.trim().toLowerCase(Locale.ROOT).split("\\s+");
+            for (int i = 0; i < words.length; i++) {
+                if (!words[i].isEmpty()) {
+                    keys.add(String.join(" ", Arrays.copyOfRange(words, i, words.length)));
+                }
+            }
+        }
+        return keys;
     }
     
     public void addCourse(Course course) {
+        instructors.canonicalize(course);
         courses.add(course);
-        System.out.println("Added course: " + course.getCode() + " - " + course.getTitle());
+        queries.recordAdded(course);
+        course.addListener(indexMaintainer);
+        completionKeys(course.getCode(), course.getTitle()).forEach(key -> completions.put(key, course));
+        aggregates.courseAdded(course);
+        course.addListener(aggregates);
+        course.addListener(changePublisher);
+        prerequisites.courseAdded(course);
+        course.addListener(prerequisites);
+        course.addListener(timetables);
+        instructors.courseAdded(course);
+        course.addListener(instructors);
+        for (CourseListener listener : courseListeners) {
+            course.addListener(listener);
+            listener.courseAdded(course);
+        }
+        events.publish(EventType.COURSE_ADDED, course);
+        if (announceAdds) {
+            System.out.println("Added course: " + course.getCode() + " - " + course.getTitle());
+        }
     }
     
    
     @Override
     public List<Course> search(String keyword) {
-        return courses.stream()
+        return searchStream(keyword).collect(Collectors.toList());
+    }
+    
+    @Override
+    public Stream<Course> searchStream(String keyword) {
+        String needle = keyword.toLowerCase();
+        return courses.snapshot().stream()
                      .filter(course -> 
-                         course.getCode().toLowerCase().contains(keyword.toLowerCase()) ||
-                         course.getTitle().toLowerCase().contains(keyword.toLowerCase()) ||
-                         course.getInstructor().toLowerCase().contains(keyword.toLowerCase()) ||
-                         course.getDepartment().toLowerCase().contains(keyword.toLowerCase()))
-                     .collect(Collectors.toList());
+                         course.getCode().toLowerCase().contains(needle) ||
+                         course.getTitle().toLowerCase().contains(needle) ||
+                         course.getInstructor().toLowerCase().contains(needle) ||
+                         course.getDepartment().toLowerCase().contains(needle));
     }
     
-   
+    // Accepts an instructor id or an instructor's name
     public List<Course> searchByInstructor(String instructor) {
-        return courses.stream()
-                     .filter(course -> course.getInstructor().equalsIgnoreCase(instructor))
-                     .collect(Collectors.toList());
+        if (instructors.findInstructorById(instructor).isPresent()) {
+            return instructors.getCoursesTaughtBy(instructor);
+        }
+        return queries.lookup(CourseField.INSTRUCTOR, instructor);
     }
     
   
     public List<Course> searchByDepartment(String department) {
-        return courses.stream()
-                     .filter(course -> course.getDepartment().equalsIgnoreCase(department))
-                     .collect(Collectors.toList());
+        return queries.lookup(CourseField.DEPARTMENT, department);
     }
     
    
     public List<Course> searchBySemester(Semester semester) {
-        return courses.stream()
-                     .filter(course -> course.getSemester() == semester)
-                     .collect(Collectors.toList());
+        return queries.lookup(CourseField.SEMESTER, semester);
+    }
+    
+    @Override
+    public Stream<Course> queryStream(Criterion<Course> criterion) {
+        return queries.stream(criterion);
+    }
+    
+    @Override
+    public String explain(Criterion<Course> criterion) {
+        return queries.explain(criterion);
     }
     
     
     public List<Course> getActiveCourses() {
-        return courses.stream()
+        return courses.snapshot().stream()
                      .filter(Course::canEnroll)
                      .collect(Collectors.toList());
     }
     
     
     public Optional<Course> getCourseByCode(String code) {
-        return courses.stream()
-                     .filter(course -> course.getCode().equalsIgnoreCase(code))
-                     .findFirst();
+        return queries.lookupFirst(CourseField.CODE, code);
     }
     
     
+    // Immutable point-in-time list of the courses, O(1) and never copied; the courses themselves stay live
     public List<Course> getAllCourses() {
-        return new ArrayList<>(courses);
+        return courses.snapshot();
+    }
+    
+    // Attaches the listener to every course, current and added later, and calls its courseAdded for each later one
+    public void addCourseListener(CourseListener listener) {
+        courseListeners.add(listener);
+        for (Course course : courses.snapshot()) {
+            course.addListener(listener);
+        }
+    }
+    
+    // Prerequisite and corequisite rules, plus each student's passed courses
+    public PrerequisiteGraph getPrerequisites() {
+        return prerequisites;
+    }
+    
+    // Students' weekly meetings and credits per semester, for clash and credit-limit checks
+    public TimetableIndex getTimetables() {
+        return timetables;
+    }
+    
+    // Instructors, the courses each teaches and their workload per semester
+    public InstructorService getInstructors() {
+        return instructors;
+    }
+    
+    // Both codes must name catalog courses; throws IllegalArgumentException otherwise or on a cycle
+    public void addRequirement(String courseCode, String requiredCode, RequirementType type) {
+        Course course = getCourseByCode(courseCode)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown course: " + courseCode));
+        Course required = getCourseByCode(requiredCode)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown course: " + requiredCode));
+        prerequisites.add(course.getCode(), required.getCode(), type);
+    }
+    
+    // Course changes, enrollments and recorded marks are published here
+    public EventBus getEvents() {
+        return events;
+    }
+    
+    // Bulk loads turn off the per-course "Added" line so they do not flood the console
+    public void setAnnounceAdds(boolean announceAdds) {
+        this.announceAdds = announceAdds;
+    }
+    
+    // Maintained incrementally; reading a summary never scans courses
+    public DepartmentAggregates getDepartmentAggregates() {
+        return aggregates;
+    }
+    
+    public Stream<Course> streamCourses() {
+        return courses.snapshot().stream();
+    }
+    
+    // Keyset pagination: pass null for the first page, then the previous page's cursor
+    public Page<Course> pageCourses(CourseSort sort, String cursor, int pageSize) {
+        return pageCourses(streamCourses(), sort, cursor, pageSize);
+    }
+    
+    public Page<Course> pageCourses(Stream<Course> source, CourseSort sort, String cursor, int pageSize) {
+        return KeysetPager.page(source, course -> sortKey(course, sort), cursor, pageSize);
+    }
+    
+    public Page<Course> searchPage(String keyword, CourseSort sort, String cursor, int pageSize) {
+        return pageCourses(searchStream(keyword), sort, cursor, pageSize);
+    }
+    
+    private static SortKey sortKey(Course course, CourseSort sort) {
+        return switch (sort) {
+            case CODE -> SortKey.ofText(sort.name(), course.getCode(), course.getCode());
+            case TITLE -> SortKey.ofText(sort.name(), course.getTitle().toLowerCase(), course.getCode());
+            case CREDITS -> SortKey.ofNumber(sort.name(), course.getCredits(), course.getCode());
+        };
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package edu.ccrm.service;
+
+public enum CourseSort {
+    CODE("Code"), TITLE("Title"), CREDITS("Credits");
+    
+    private final String displayName;
+    
+    CourseSort(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,16 @@
+package edu.ccrm.service;
+
+// The parts of the data a cached result can depend on, each with its own version counter
+public enum DataDomain {
+    STUDENTS("Students"), COURSES("Courses"), ENROLLMENTS("Enrollments and marks");
+    
+    private final String displayName;
+    
+    DataDomain(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
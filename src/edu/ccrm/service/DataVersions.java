@@ -0,0 +1,82 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.domain.StudentListener;
+import edu.ccrm.domain.TimeSlot;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One change counter per {@link DataDomain}. Registered as a student and
+ * course listener, it bumps STUDENTS when a student is added, retired or
+ * changes a field, COURSES when a course is added or changes, and
+ * ENROLLMENTS when a student enrolls or marks are recorded.
+ *
+ * Counters only grow and are bumped after the change is applied, so a
+ * result computed after reading them is current for as long as they stay
+ * the same.
+ */
+public class DataVersions implements StudentListener, CourseListener {
+    private final AtomicLongArray counters = new AtomicLongArray(DataDomain.values().length);
+
+    public long get(DataDomain domain) {
+        return counters.get(domain.ordinal());
+    }
+
+    private void bump(DataDomain domain) {
+        counters.incrementAndGet(domain.ordinal());
+    }
+
+    // ---- Students
+
+    @Override
+    public void studentAdded(Student student) { bump(DataDomain.STUDENTS); }
+    @Override
+    public void studentRetired(Student student) { bump(DataDomain.STUDENTS); }
+    @Override
+    public void idChanged(Student student, String oldId) { bump(DataDomain.STUDENTS); }
+    @Override
+    public void regNoChanged(Student student, String oldRegNo) { bump(DataDomain.STUDENTS); }
+    @Override
+    public void nameChanged(Student student, String oldName) { bump(DataDomain.STUDENTS); }
+    @Override
+    public void emailChanged(Student student, String oldEmail) { bump(DataDomain.STUDENTS); }
+    @Override
+    public void activeChanged(Student student, boolean wasActive) { bump(DataDomain.STUDENTS); }
+
+    // ---- Courses
+
+    @Override
+    public void courseAdded(Course course) { bump(DataDomain.COURSES); }
+    @Override
+    public void codeChanged(Course course, String oldCode) { bump(DataDomain.COURSES); }
+    @Override
+    public void titleChanged(Course course, String oldTitle) { bump(DataDomain.COURSES); }
+    @Override
+    public void instructorChanged(Course course, String oldInstructor) { bump(DataDomain.COURSES); }
+    @Override
+    public void instructorIdChanged(Course course, String oldInstructorId) { bump(DataDomain.COURSES); }
+    @Override
+    public void departmentChanged(Course course, String oldDepartment) { bump(DataDomain.COURSES); }
+    @Override
+    public void semesterChanged(Course course, Semester oldSemester) { bump(DataDomain.COURSES); }
+    @Override
+    public void creditsChanged(Course course, int oldCredits) { bump(DataDomain.COURSES); }
+    @Override
+    public void meetingTimesChanged(Course course, List<TimeSlot> oldTimes) { bump(DataDomain.COURSES); }
+    @Override
+    public void activeChanged(Course course, boolean wasActive) { bump(DataDomain.COURSES); }
+
+    // ---- Enrollments
+
+    @Override
+    public void studentEnrolled(Enrollment enrollment) { bump(DataDomain.ENROLLMENTS); }
+    @Override
+    public void marksRecorded(Enrollment enrollment, Grade oldGrade) { bump(DataDomain.ENROLLMENTS); }
+}
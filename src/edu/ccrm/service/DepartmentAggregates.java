@@ -0,0 +1,232 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-department and per-semester summaries kept up to date as courses,
+ * enrollments and marks change, so reports read them in O(departments).
+ *
+ * Each course remembers exactly what it last contributed (department,
+ * semester, credits, counts). A change subtracts that contribution and adds
+ * the new one. Grade points are whole numbers, so totals are integers and
+ * always match {@link #recompute} exactly.
+ */
+public class DepartmentAggregates implements CourseListener {
+    private final Map<Course, CourseTally> tallies = new IdentityHashMap<>();
+    private final Map<String, Summary> byDepartment = new TreeMap<>();
+    private final Map<Semester, Summary> bySemester = new EnumMap<>(Semester.class);
+
+    public synchronized void courseAdded(Course course) {
+        if (tallies.containsKey(course)) {
+            return;
+        }
+        CourseTally tally = new CourseTally(course);
+        tallies.put(course, tally);
+        apply(tally, +1);
+    }
+
+    @Override
+    public synchronized void departmentChanged(Course course, String oldDepartment) {
+        refresh(course);
+    }
+
+    @Override
+    public synchronized void semesterChanged(Course course, Semester oldSemester) {
+        refresh(course);
+    }
+
+    @Override
+    public synchronized void creditsChanged(Course course, int oldCredits) {
+        refresh(course);
+    }
+
+    @Override
+    public synchronized void activeChanged(Course course, boolean wasActive) {
+        refresh(course);
+    }
+
+    @Override
+    public synchronized void studentEnrolled(Enrollment enrollment) {
+        CourseTally tally = tallies.get(enrollment.getCourse());
+        if (tally != null) {
+            apply(tally, -1);
+            tally.enrollments++;
+            apply(tally, +1);
+        }
+    }
+
+    @Override
+    public synchronized void marksRecorded(Enrollment enrollment, Grade oldGrade) {
+        CourseTally tally = tallies.get(enrollment.getCourse());
+        if (tally == null) {
+            return;
+        }
+        apply(tally, -1);
+        if (oldGrade != null) {
+            tally.graded--;
+            tally.gradePoints -= points(oldGrade);
+        }
+        tally.graded++;
+        tally.gradePoints += points(enrollment.getGrade());
+        apply(tally, +1);
+    }
+
+    // Copies are O(departments) and safe to iterate while writes continue
+    public synchronized Map<String, Summary> getDepartmentSummaries() {
+        Map<String, Summary> copy = new TreeMap<>();
+        byDepartment.forEach((dept, summary) -> copy.put(dept, summary.copy()));
+        return copy;
+    }
+
+    public synchronized Map<Semester, Summary> getSemesterSummaries() {
+        Map<Semester, Summary> copy = new EnumMap<>(Semester.class);
+        bySemester.forEach((semester, summary) -> copy.put(semester, summary.copy()));
+        return copy;
+    }
+
+    // Full scan used to verify the maintained aggregates
+    public static DepartmentAggregates recompute(Collection<Course> courses, Collection<Student> students) {
+        DepartmentAggregates fresh = new DepartmentAggregates();
+        for (Course course : courses) {
+            fresh.courseAdded(course);
+        }
+        for (Student student : students) {
+            for (Enrollment enrollment : student.getEnrollments()) {
+                fresh.studentEnrolled(enrollment);
+                if (enrollment.isGraded()) {
+                    fresh.marksRecorded(enrollment, null);
+                }
+            }
+        }
+        return fresh;
+    }
+
+    public boolean matches(DepartmentAggregates other) {
+        return getDepartmentSummaries().equals(other.getDepartmentSummaries())
+            && getSemesterSummaries().equals(other.getSemesterSummaries());
+    }
+
+    private void refresh(Course course) {
+        CourseTally tally = tallies.get(course);
+        if (tally != null) {
+            apply(tally, -1);
+            tally.capture(course);
+            apply(tally, +1);
+        }
+    }
+
+    private void apply(CourseTally tally, int sign) {
+        if (tally.department != null) {
+            Summary summary = byDepartment.computeIfAbsent(tally.department, d -> new Summary());
+            summary.add(tally, sign);
+            if (summary.courseCount == 0) {
+                byDepartment.remove(tally.department);
+            }
+        }
+        if (tally.semester != null) {
+            Summary summary = bySemester.computeIfAbsent(tally.semester, s -> new Summary());
+            summary.add(tally, sign);
+            if (summary.courseCount == 0) {
+                bySemester.remove(tally.semester);
+            }
+        }
+    }
+
+    private static long points(Grade grade) {
+        return Math.round(grade.getPoints());
+    }
+
+    // What one course currently contributes to its department and semester
+    private static final class CourseTally {
+        private String department;
+        private Semester semester;
+        private int credits;
+        private boolean active;
+        private long enrollments;
+        private long graded;
+        private long gradePoints;
+
+        private CourseTally(Course course) {
+            capture(course);
+        }
+
+        private void capture(Course course) {
+            this.department = course.getDepartment();
+            this.semester = course.getSemester();
+            this.credits = course.getCredits();
+            this.active = course.isActive();
+        }
+    }
+
+    /**
+     * Totals for one department or semester.
+     */
+    public static final class Summary {
+        private long courseCount;
+        private long activeCourseCount;
+        private long creditsOffered;
+        private long enrollmentCount;
+        private long weightedGradePoints;
+        private long gradedCredits;
+
+        private void add(CourseTally tally, int sign) {
+            courseCount += sign;
+            activeCourseCount += tally.active ? sign : 0;
+            creditsOffered += (long) sign * tally.credits;
+            enrollmentCount += sign * tally.enrollments;
+            weightedGradePoints += sign * tally.gradePoints * tally.credits;
+            gradedCredits += sign * tally.graded * tally.credits;
+        }
+
+        private Summary copy() {
+            Summary copy = new Summary();
+            copy.courseCount = courseCount;
+            copy.activeCourseCount = activeCourseCount;
+            copy.creditsOffered = creditsOffered;
+            copy.enrollmentCount = enrollmentCount;
+            copy.weightedGradePoints = weightedGradePoints;
+            copy.gradedCredits = gradedCredits;
+            return copy;
+        }
+
+        public long getCourseCount() { return courseCount; }
+        public long getActiveCourseCount() { return activeCourseCount; }
+        public long getCreditsOffered() { return creditsOffered; }
+        public long getEnrollmentCount() { return enrollmentCount; }
+
+        // Credit-weighted GPA of graded enrollments in these courses
+        public double getAverageGpa() {
+            return gradedCredits > 0 ? (double) weightedGradePoints / gradedCredits : 0.0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Summary)) {
+                return false;
+            }
+            Summary other = (Summary) o;
+            return courseCount == other.courseCount
+                && activeCourseCount == other.activeCourseCount
+                && creditsOffered == other.creditsOffered
+                && enrollmentCount == other.enrollmentCount
+                && weightedGradePoints == other.weightedGradePoints
+                && gradedCredits == other.gradedCredits;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(courseCount * 31 + enrollmentCount) ^ Long.hashCode(weightedGradePoints);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable accumulator for campus grade statistics.
+ *
+ * Each thread folds students into its own instance with {@link #accept} and
+ * the partial results are combined with {@link #merge}, so the whole report is
+ * one parallel pass. GPA percentiles come from a 0.01-wide histogram, which
+ * merges by addition and is exact to two decimals.
+ */
+public class GradeStatistics {
+    private static final int GPA_SCALE = 100;
+    private static final int GPA_SLOTS = 10 * GPA_SCALE + 1;
+
+    private final int[] gpaHistogram = new int[GPA_SLOTS];
+    private long studentCount;
+    private long gradedStudentCount;
+    private double gpaSum;
+    private double gpaMin = Double.POSITIVE_INFINITY;
+    private double gpaMax = Double.NEGATIVE_INFINITY;
+
+    private final MarksSummary overall = new MarksSummary();
+    private final Map<String, MarksSummary> byCourse = new HashMap<>();
+    private final Map<Semester, MarksSummary> bySemester = new EnumMap<>(Semester.class);
+
+    // Single walk over the student's enrollments feeds every aggregate
+    public void accept(Student student) {
+        studentCount++;
+        double gradePoints = 0.0;
+        int gradedCredits = 0;
+
+        for (Enrollment enrollment : student.getEnrollments()) {
+            Grade grade = enrollment.getGrade();
+            if (grade == null) {
+                continue;
+            }
+            Course course = enrollment.getCourse();
+            double marks = enrollment.getMarks();
+            int credits = course.getCredits();
+            gradePoints += grade.getPoints() * credits;
+            gradedCredits += credits;
+
+            overall.add(marks, grade);
+            byCourse.computeIfAbsent(course.getCode(), code -> new MarksSummary()).add(marks, grade);
+            if (course.getSemester() != null) {
+                bySemester.computeIfAbsent(course.getSemester(), s -> new MarksSummary()).add(marks, grade);
+            }
+        }
+
+        if (gradedCredits > 0) {
+            double gpa = gradePoints / gradedCredits;
+            gradedStudentCount++;
+            gpaSum += gpa;
+            gpaMin = Math.min(gpaMin, gpa);
+            gpaMax = Math.max(gpaMax, gpa);
+            gpaHistogram[(int) Math.round(gpa * GPA_SCALE)]++;
+        }
+    }
+
+    public GradeStatistics merge(GradeStatistics other) {
+        for (int i = 0; i < GPA_SLOTS; i++) {
+            gpaHistogram[i] += other.gpaHistogram[i];
+        }
+        studentCount += other.studentCount;
+        gradedStudentCount += other.gradedStudentCount;
+        gpaSum += other.gpaSum;
+        gpaMin = Math.min(gpaMin, other.gpaMin);
+        gpaMax = Math.max(gpaMax, other.gpaMax);
+        overall.merge(other.overall);
+        other.byCourse.forEach((code, summary) ->
+            byCourse.computeIfAbsent(code, c -> new MarksSummary()).merge(summary));
+        other.bySemester.forEach((semester, summary) ->
+            bySemester.computeIfAbsent(semester, s -> new MarksSummary()).merge(summary));
+        return this;
+    }
+
+    public long getStudentCount() { return studentCount; }
+    public long getGradedStudentCount() { return gradedStudentCount; }
+    public double getGpaMin() { return gradedStudentCount > 0 ? gpaMin : 0.0; }
+    public double getGpaMax() { return gradedStudentCount > 0 ? gpaMax : 0.0; }
+
+    public double getAverageGpa() {
+        return gradedStudentCount > 0 ? gpaSum / gradedStudentCount : 0.0;
+    }
+
+    // GPA below which the given fraction (0..1) of graded students fall
+    public double getGpaPercentile(double fraction) {
+        if (gradedStudentCount == 0) {
+            return 0.0;
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * gradedStudentCount));
+        long seen = 0;
+        for (int i = 0; i < GPA_SLOTS; i++) {
+            seen += gpaHistogram[i];
+            if (seen >= target) {
+                return (double) i / GPA_SCALE;
+            }
+        }
+        return getGpaMax();
+    }
+
+    // Student counts per whole GPA point: index 0 is [0,1), ..., index 10 is exactly 10
+    public long[] getGpaBuckets() {
+        long[] buckets = new long[11];
+        for (int i = 0; i < GPA_SLOTS; i++) {
+            buckets[i / GPA_SCALE] += gpaHistogram[i];
+        }
+        return buckets;
+    }
+
+    public MarksSummary getOverall() { return overall; }
+
+    public Map<String, MarksSummary> getByCourse() {
+        return Collections.unmodifiableMap(new TreeMap<>(byCourse));
+    }
+
+    public Map<Semester, MarksSummary> getBySemester() {
+        return Collections.unmodifiableMap(bySemester);
+    }
+
+    /**
+     * Count, mean, standard deviation and letter distribution of marks.
+     * Uses Welford's update and Chan's merge so partials combine exactly.
+     */
+    public static class MarksSummary {
+        private long count;
+        private double mean;
+        private double m2;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private final long[] gradeCounts = new long[Grade.values().length];
+
+        void add(double marks, Grade grade) {
+            count++;
+            double delta = marks - mean;
+            mean += delta / count;
+            m2 += delta * (marks - mean);
+            min = Math.min(min, marks);
+            max = Math.max(max, marks);
+            gradeCounts[grade.ordinal()]++;
+        }
+
+        void merge(MarksSummary other) {
+            if (other.count == 0) {
+                return;
+            }
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+            count = total;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            for (int i = 0; i < gradeCounts.length; i++) {
+                gradeCounts[i] += other.gradeCounts[i];
+            }
+        }
+
+        public long getCount() { return count; }
+        public double getMean() { return count > 0 ? mean : 0.0; }
+        public double getMin() { return count > 0 ? min : 0.0; }
+        public double getMax() { return count > 0 ? max : 0.0; }
+
+        // Population standard deviation
+        public double getStandardDeviation() {
+            return count > 0 ? Math.sqrt(m2 / count) : 0.0;
+        }
+
+        public long getGradeCount(Grade grade) {
+            return gradeCounts[grade.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Student;
+import edu.ccrm.domain.StudentListener;
+import edu.ccrm.store.StudentSpillFile;
+import edu.ccrm.util.TinyLfuCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Holds inactive students off the heap. {@link StudentService} retires them
+ * here: each is written to a {@link StudentSpillFile} and dropped from the
+ * service's list and indexes. A lookup that misses the service faults the
+ * student back in from the file, and a {@link TinyLfuCache} keeps the ones
+ * looked up often, so the heap holds the live students plus at most
+ * capacity inactive ones, however many have ever been registered.
+ *
+ * A cached student that changes is marked dirty and written back when the
+ * cache evicts it; a change to its id or regNo is written at once, as the
+ * file's key index follows it. Reactivating a student hands it back to the
+ * service. Faulted-in students keep the service's change publisher and
+ * listeners but not its indexes; listings, queries and name search reach
+ * retired students through {@link #streamRetired}.
+ */
+public class InactiveStudentTier implements StudentListener, CourseListener {
+    private final StudentService owner;
+    private final CourseService catalog;
+    private final Path spillPath;
+    private final TinyLfuCache<String, Student> cache;
+    private final Set<Student> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Enrollments on disk name a course by the code it had then
+    private final Map<String, Course> renamedCourses = new ConcurrentHashMap<>();
+    private StudentSpillFile spill;
+    private long writes;
+
+    InactiveStudentTier(StudentService owner, CourseService catalog, Path spillPath, int capacity) {
+        this.owner = owner;
+        this.catalog = catalog;
+        this.spillPath = spillPath;
+        this.cache = new TinyLfuCache<>(capacity, (id, student) -> evicted(student));
+        catalog.addCourseListener(this);
+    }
+
+    // Opened on first use; the file is scratch and starts empty
+    private StudentSpillFile spill() throws IOException {
+        if (spill == null) {
+            spill = StudentSpillFile.create(spillPath);
+        }
+        return spill;
+    }
+
+    synchronized void retire(Student student) throws IOException {
+        write(student);
+    }
+
+    synchronized boolean holds(String id) {
+        return spill != null && spill.contains(id);
+    }
+
+    // Counted as a cache hit or miss; a miss reads the file
+    synchronized Optional<Student> findById(String id) {
+        if (!holds(id)) {
+            return Optional.empty();
+        }
+        Student cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Student> loaded = read(id);
+        loaded.ifPresent(student -> {
+            owner.attachRetired(student);
+            student.addListener(this);
+            cache.put(id, student);
+        });
+        return loaded;
+    }
+
+    synchronized Optional<Student> findByRegNo(String regNo) {
+        if (spill == null) {
+            return Optional.empty();
+        }
+        return spill.idOfRegNo(regNo).flatMap(this::findById);
+    }
+
+    /**
+     * The current state of a retired student without caching it or counting
+     * a lookup: the cached instance if there is one, else a fresh copy that
+     * nothing tracks. For bulk readers such as exports and saves.
+     */
+    public synchronized Optional<Student> peek(String id) {
+        if (!holds(id)) {
+            return Optional.empty();
+        }
+        Student cached = cache.peek(id);
+        return cached != null ? Optional.of(cached) : read(id);
+    }
+
+    // Every retired student, through peek
+    public Stream<Student> streamRetired() {
+        List<String> ids;
+        synchronized (this) {
+            ids = spill == null ? List.of() : spill.ids();
+        }
+        return ids.stream().map(this::peek).flatMap(Optional::stream);
+    }
+
+    private Optional<Student> read(String id) {
+        try {
+            return spill.get(id, this::courseOf);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read student " + id + " from " + spillPath, e);
+        }
+    }
+
+    private Course courseOf(String code) {
+        return catalog.getCourseByCode(code).orElseGet(() -> renamedCourses.get(code));
+    }
+
+    private void write(Student student) throws IOException {
+        spill().put(student);
+        dirty.remove(student);
+        writes++;
+    }
+
+    private void writeQuietly(Student student) {
+        try {
+            write(student);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write student " + student.getId() + " to " + spillPath, e);
+        }
+    }
+
+    // Called by the cache, inside a synchronized method
+    private void evicted(Student student) {
+        if (dirty.contains(student)) {
+            writeQuietly(student);
+        }
+        owner.forgetDerived(student);
+    }
+
+    // A cached student is written on eviction; one already evicted but still held by a caller is written now
+    private synchronized void changed(Student student) {
+        if (cache.peek(student.getId()) == student) {
+            dirty.add(student);
+        } else if (holds(student.getId())) {
+            writeQuietly(student);
+        }
+    }
+
+    // ---- Change tracking on faulted-in students
+
+    @Override
+    public synchronized void idChanged(Student student, String oldId) {
+        if (cache.peek(oldId) == student) {
+            cache.remove(oldId);
+            cache.put(student.getId(), student);
+        }
+        spill.remove(oldId);
+        writeQuietly(student);
+    }
+
+    @Override
+    public synchronized void regNoChanged(Student student, String oldRegNo) {
+        writeQuietly(student);
+    }
+
+    @Override
+    public void nameChanged(Student student, String oldName) {
+        changed(student);
+    }
+
+    @Override
+    public void emailChanged(Student student, String oldEmail) {
+        changed(student);
+    }
+
+    @Override
+    public void activeChanged(Student student, boolean wasActive) {
+        if (!student.isActive()) {
+            changed(student);
+            return;
+        }
+        synchronized (this) {
+            cache.remove(student.getId());
+            dirty.remove(student);
+            spill.remove(student.getId());
+        }
+        student.removeListener(this);
+        owner.reinstate(student);
+    }
+
+    @Override
+    public void marksRecorded(Enrollment enrollment, Grade oldGrade) {
+        Student student = enrollment.getStudent();
+        if (holds(student.getId())) {
+            changed(student);
+        }
+    }
+
+    @Override
+    public void codeChanged(Course course, String oldCode) {
+        renamedCourses.put(oldCode, course);
+    }
+
+    // ---- Statistics
+
+    public int getCapacity() { return cache.capacity(); }
+    public int getCachedCount() { return cache.size(); }
+    public long getHitCount() { return cache.getHitCount(); }
+    public long getMissCount() { return cache.getMissCount(); }
+    public long getEvictionCount() { return cache.getEvictionCount(); }
+
+    public synchronized int getRetiredCount() {
+        return spill == null ? 0 : spill.size();
+    }
+
+    public synchronized long getWriteCount() {
+        return writes;
+    }
+
+    public synchronized long getSpillBytes() {
+        return spill == null ? 0 : spill.getFileBytes();
+    }
+
+    public double getHitRate() {
+        long lookups = getHitCount() + getMissCount();
+        return lookups == 0 ? 0.0 : (double) getHitCount() / lookups;
+    }
+
+    // Deletes the spill file; retired students must have been saved or exported first
+    public synchronized void close() throws IOException {
+        if (spill != null) {
+            spill.close();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Instructor;
+import edu.ccrm.domain.InstructorListener;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Instructors, the courses each one teaches, and their teaching load.
+ *
+ * Courses refer to an instructor by id and carry the instructor's name for
+ * display and search. Alongside the instructors (by id and by name) this
+ * keeps, per instructor id, the courses taught and a {@link Workload} per
+ * semester: courses, credits and enrolled students. Both are maintained from
+ * the course listener hooks. Each course remembers what it last contributed,
+ * so a change moves exactly that amount, as in {@link DepartmentAggregates}.
+ * Lookups and workload reads cost O(result) and never scan the catalog.
+ *
+ * Instructor names are interned, so the courses taught by one instructor
+ * share a single name string.
+ */
+public class InstructorService implements CourseListener {
+    private final Map<String, Instructor> byId = new HashMap<>();
+    private final Map<String, List<Instructor>> byName = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final Map<Course, CourseLoad> loads = new IdentityHashMap<>();
+    private final Map<String, Set<Course>> coursesByInstructor = new HashMap<>();
+    private final Map<String, Map<Semester, Workload>> workloads = new HashMap<>();
+    private final InstructorListener instructorMaintainer = new InstructorListener() {
+        @Override
+        public void idChanged(Instructor instructor, String oldId) {
+            renamed(instructor, oldId, instructor.getFullName());
+        }
+        @Override
+        public void nameChanged(Instructor instructor, String oldName) {
+            renamed(instructor, instructor.getId(), oldName);
+        }
+    };
+    
+    // Throws IllegalArgumentException if the id is already taken
+    public void addInstructor(Instructor instructor) {
+        List<Course> taught;
+        synchronized (this) {
+            if (byId.containsKey(instructor.getId())) {
+                throw new IllegalArgumentException("Instructor id already in use: " + instructor.getId());
+            }
+            instructor.setFullName(internLocked(instructor.getFullName()));
+            byId.put(instructor.getId(), instructor);
+            byName.computeIfAbsent(nameKey(instructor.getFullName()), k -> new ArrayList<>()).add(instructor);
+            taught = getCoursesTaughtBy(instructor.getId());
+        }
+        instructor.addListener(instructorMaintainer);
+        // Courses may have named this id before the instructor was registered
+        for (Course course : taught) {
+            course.setInstructor(instructor.getFullName());
+        }
+    }
+    
+    public synchronized Optional<Instructor> findInstructorById(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+    
+    // Exact name, ignoring case
+    public synchronized List<Instructor> findInstructorsByName(String name) {
+        return name == null ? List.of() : List.copyOf(byName.getOrDefault(nameKey(name), List.of()));
+    }
+    
+    public synchronized List<Instructor> getAllInstructors() {
+        List<Instructor> all = new ArrayList<>(byId.values());
+        all.sort((a, b) -> a.getId().compareTo(b.getId()));
+        return all;
+    }
+    
+    /**
+     * The instructor a course row refers to: by id if one is given,
+     * otherwise by name when exactly one instructor has that name. Null if
+     * neither finds one.
+     */
+    public synchronized Instructor resolve(String instructorId, String name) {
+        if (instructorId != null && !instructorId.isBlank()) {
+            return byId.get(instructorId.trim());
+        }
+        List<Instructor> matches = name == null ? null : byName.get(nameKey(name));
+        return matches != null && matches.size() == 1 ? matches.get(0) : null;
+    }
+    
+    // Points the course at the instructor (null to unassign); listeners see both changes
+    public void assign(Course course, Instructor instructor) {
+        course.setInstructorId(instructor == null ? null : instructor.getId());
+        course.setInstructor(instructor == null ? null : intern(instructor.getFullName()));
+    }
+    
+    public synchronized String intern(String name) {
+        return internLocked(name);
+    }
+    
+    // Interns the course's instructor name, taking the registered name when its id is known
+    public void canonicalize(Course course) {
+        String name;
+        synchronized (this) {
+            Instructor instructor = course.getInstructorId() == null ? null : byId.get(course.getInstructorId());
+            name = internLocked(instructor != null ? instructor.getFullName() : course.getInstructor());
+        }
+        course.setInstructor(name);
+    }
+    
+    public synchronized List<Course> getCoursesTaughtBy(String instructorId) {
+        Set<Course> courses = coursesByInstructor.get(instructorId);
+        return courses == null ? List.of() : new ArrayList<>(courses);
+    }
+    
+    // Copy of one instructor's load per semester; courses without a semester are not counted
+    public synchronized Map<Semester, Workload> getWorkload(String instructorId) {
+        Map<Semester, Workload> copy = new EnumMap<>(Semester.class);
+        Map<Semester, Workload> bySemester = workloads.get(instructorId);
+        if (bySemester != null) {
+            bySemester.forEach((semester, workload) -> copy.put(semester, workload.copy()));
+        }
+        return copy;
+    }
+    
+    // Every instructor id that teaches something, in id order
+    public synchronized Map<String, Map<Semester, Workload>> getWorkloadReport() {
+        Map<String, Map<Semester, Workload>> report = new TreeMap<>();
+        for (String instructorId : workloads.keySet()) {
+            report.put(instructorId, getWorkload(instructorId));
+        }
+        return report;
+    }
+    
+    public synchronized void courseAdded(Course course) {
+        if (loads.containsKey(course)) {
+            return;
+        }
+        CourseLoad load = new CourseLoad(course);
+        loads.put(course, load);
+        apply(load, +1);
+    }
+    
+    @Override
+    public synchronized void instructorIdChanged(Course course, String oldInstructorId) {
+        refresh(course);
+    }
+    
+    @Override
+    public synchronized void semesterChanged(Course course, Semester oldSemester) {
+        refresh(course);
+    }
+    
+    @Override
+    public synchronized void creditsChanged(Course course, int oldCredits) {
+        refresh(course);
+    }
+    
+    @Override
+    public synchronized void studentEnrolled(Enrollment enrollment) {
+        CourseLoad load = loads.get(enrollment.getCourse());
+        if (load != null) {
+            apply(load, -1);
+            load.enrolled++;
+            apply(load, +1);
+        }
+    }
+    
+    // Full scan used to verify the maintained indexes
+    public static InstructorService recompute(Collection<Course> courses, Collection<Student> students) {
+        InstructorService fresh = new InstructorService();
+        for (Course course : courses) {
+            fresh.courseAdded(course);
+        }
+        for (Student student : students) {
+            for (Enrollment enrollment : student.getEnrollments()) {
+                fresh.studentEnrolled(enrollment);
+            }
+        }
+        return fresh;
+    }
+    
+    public boolean matches(InstructorService other) {
+        Map<String, Map<Semester, Workload>> report = getWorkloadReport();
+        if (!report.equals(other.getWorkloadReport())) {
+            return false;
+        }
+        for (String instructorId : report.keySet()) {
+            if (!new LinkedHashSet<>(getCoursesTaughtBy(instructorId)).equals(
+                    new LinkedHashSet<>(other.getCoursesTaughtBy(instructorId)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Keeps the indexes and the names on the instructor's courses in step
+    private void renamed(Instructor instructor, String oldId, String oldName) {
+        List<Course> taught;
+        String name;
+        synchronized (this) {
+            byId.remove(oldId);
+            byId.put(instructor.getId(), instructor);
+            List<Instructor> sameName = byName.get(nameKey(oldName));
+            if (sameName != null) {
+                sameName.remove(instructor);
+                if (sameName.isEmpty()) {
+                    byName.remove(nameKey(oldName));
+                }
+            }
+            name = internLocked(instructor.getFullName());
+            byName.computeIfAbsent(nameKey(name), k -> new ArrayList<>()).add(instructor);
+            taught = getCoursesTaughtBy(oldId);
+        }
+        // Setters notify listeners, including this one, so call them unlocked
+        instructor.setFullName(name);
+        for (Course course : taught) {
+            course.setInstructorId(instructor.getId());
+            course.setInstructor(name);
+        }
+    }
+    
+    private String internLocked(String name) {
+        return name == null ? null : names.computeIfAbsent(name, n -> n);
+    }
+    
+    private static String nameKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private void refresh(Course course) {
+        CourseLoad load = loads.get(course);
+        if (load != null) {
+            apply(load, -1);
+            load.capture(course);
+            apply(load, +1);
+        }
+    }
+    
+    private void apply(CourseLoad load, int sign) {
+        if (load.instructorId == null) {
+            return;
+        }
+        if (sign > 0) {
+            coursesByInstructor.computeIfAbsent(load.instructorId, id -> new LinkedHashSet<>()).add(load.course);
+        } else {
+            Set<Course> courses = coursesByInstructor.get(load.instructorId);
+            courses.remove(load.course);
+            if (courses.isEmpty()) {
+                coursesByInstructor.remove(load.instructorId);
+            }
+        }
+        if (load.semester != null) {
+            Map<Semester, Workload> bySemester =
+                workloads.computeIfAbsent(load.instructorId, id -> new EnumMap<>(Semester.class));
+            Workload workload = bySemester.computeIfAbsent(load.semester, s -> new Workload());
+            workload.add(load, sign);
+            if (workload.courseCount == 0) {
+                bySemester.remove(load.semester);
+                if (bySemester.isEmpty()) {
+                    workloads.remove(load.instructorId);
+                }
+            }
+        }
+    }
+    
+    // What one course currently contributes to its instructor's load
+    private static final class CourseLoad {
+        private final Course course;
+        private String instructorId;
+        private Semester semester;
+        private int credits;
+        private long enrolled;
+        
+        private CourseLoad(Course course) {
+            this.course = course;
+            capture(course);
+        }
+        
+        private void capture(Course course) {
+            this.instructorId = course.getInstructorId();
+            this.semester = course.getSemester();
+            this.credits = course.getCredits();
+        }
+    }
+    
+    /**
+     * One instructor's teaching in one semester.
+     */
+    public static final class Workload {
+        private long courseCount;
+        private long credits;
+        private long enrolledStudents;
+        
+        private void add(CourseLoad load, int sign) {
+            courseCount += sign;
+            credits += (long) sign * load.credits;
+            enrolledStudents += sign * load.enrolled;
+        }
+        
+        private Workload copy() {
+            Workload copy = new Workload();
+            copy.courseCount = courseCount;
+            copy.credits = credits;
+            copy.enrolledStudents = enrolledStudents;
+            return copy;
+        }
+        
+        public long getCourseCount() { return courseCount; }
+        public long getCredits() { return credits; }
+        
+        // Enrollments across the courses; a student in two of them counts twice
+        public long getEnrolledStudents() { return enrolledStudents; }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Workload)) {
+                return false;
+            }
+            Workload other = (Workload) o;
+            return courseCount == other.courseCount
+                && credits == other.credits
+                && enrolledStudents == other.enrolledStudents;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Long.hashCode(courseCount * 31 + credits) ^ Long.hashCode(enrolledStudents);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%d courses, %d credits, %d enrolled", courseCount, credits, enrolledStudents);
+        }
+    }
+}
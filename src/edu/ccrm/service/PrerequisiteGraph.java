@@ -0,0 +1,375 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.RequirementType;
+import edu.ccrm.domain.Student;
+import edu.ccrm.exceptions.PrerequisiteNotMetException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prerequisite DAG over course codes, with the transitive closure of every
+ * course kept as a {@link BitSet}, one bit per course.
+ *
+ * Each student's passed courses (any grade above F) and current enrollments
+ * are bitsets too, maintained from the course listener hooks. Checking
+ * eligibility is then one containment test: closure(course) minus passed
+ * must be empty, and likewise corequisites minus (passed or enrolled).
+ *
+ * Catalog changes update the closures incrementally. Adding an edge
+ * course -> prerequisite would close a cycle exactly when the course is
+ * already in the prerequisite's closure, so detection is a single bit test.
+ * Otherwise the prerequisite's closure is ORed into the course and into
+ * every course whose closure contains it. Removing an edge recomputes only
+ * the course and its dependents, from their direct edges.
+ */
+public class PrerequisiteGraph implements CourseListener {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> bits = new HashMap<>();
+    private final List<String> codes = new ArrayList<>();
+    private final List<BitSet> direct = new ArrayList<>();
+    private final List<BitSet> closure = new ArrayList<>();
+    private final List<BitSet> corequisites = new ArrayList<>();
+    private final Map<Student, Progress> progress = new IdentityHashMap<>();
+
+    // Passed and enrolled courses of one student; guarded by its own monitor
+    private static final class Progress {
+        private final BitSet passed = new BitSet();
+        private final BitSet enrolled = new BitSet();
+    }
+
+    public void courseAdded(Course course) {
+        lock.writeLock().lock();
+        try {
+            bitFor(course.getCode());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that course requires prerequisite.
+     *
+     * @throws IllegalArgumentException if the edge would create a cycle
+     */
+    public void addPrerequisite(String courseCode, String prerequisiteCode) {
+        lock.writeLock().lock();
+        try {
+            int course = bitFor(courseCode);
+            int prerequisite = bitFor(prerequisiteCode);
+            if (course == prerequisite || closure.get(prerequisite).get(course)) {
+                throw new IllegalArgumentException("Prerequisite would create a cycle: "
+                    + codes.get(course) + " -> " + cyclePath(prerequisite, course));
+            }
+            if (direct.get(course).get(prerequisite)) {
+                return;
+            }
+            direct.get(course).set(prerequisite);
+
+            BitSet added = (BitSet) closure.get(prerequisite).clone();
+            added.set(prerequisite);
+            for (int other = 0; other < codes.size(); other++) {
+                if (other == course || closure.get(other).get(course)) {
+                    closure.get(other).or(added);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean removePrerequisite(String courseCode, String prerequisiteCode) {
+        lock.writeLock().lock();
+        try {
+            Integer course = bits.get(key(courseCode));
+            Integer prerequisite = bits.get(key(prerequisiteCode));
+            if (course == null || prerequisite == null || !direct.get(course).get(prerequisite)) {
+                return false;
+            }
+            direct.get(course).clear(prerequisite);
+
+            BitSet affected = new BitSet();
+            affected.set(course);
+            for (int other = 0; other < codes.size(); other++) {
+                if (closure.get(other).get(course)) {
+                    affected.set(other);
+                }
+            }
+            BitSet[] fresh = new BitSet[codes.size()];
+            for (int bit = affected.nextSetBit(0); bit >= 0; bit = affected.nextSetBit(bit + 1)) {
+                recompute(bit, affected, fresh);
+            }
+            for (int bit = affected.nextSetBit(0); bit >= 0; bit = affected.nextSetBit(bit + 1)) {
+                closure.set(bit, fresh[bit]);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Closure from direct edges; courses outside the affected set keep their current closure
+    private BitSet recompute(int bit, BitSet affected, BitSet[] fresh) {
+        if (!affected.get(bit)) {
+            return closure.get(bit);
+        }
+        if (fresh[bit] == null) {
+            BitSet result = new BitSet();
+            BitSet edges = direct.get(bit);
+            for (int next = edges.nextSetBit(0); next >= 0; next = edges.nextSetBit(next + 1)) {
+                result.set(next);
+                result.or(recompute(next, affected, fresh));
+            }
+            fresh[bit] = result;
+        }
+        return fresh[bit];
+    }
+
+    // Corequisites may be mutual, so they are not part of the DAG
+    public void addCorequisite(String courseCode, String corequisiteCode) {
+        lock.writeLock().lock();
+        try {
+            int course = bitFor(courseCode);
+            int corequisite = bitFor(corequisiteCode);
+            if (course == corequisite) {
+                throw new IllegalArgumentException(codes.get(course) + " cannot be its own corequisite");
+            }
+            corequisites.get(course).set(corequisite);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean removeCorequisite(String courseCode, String corequisiteCode) {
+        lock.writeLock().lock();
+        try {
+            Integer course = bits.get(key(courseCode));
+            Integer corequisite = bits.get(key(corequisiteCode));
+            if (course == null || corequisite == null || !corequisites.get(course).get(corequisite)) {
+                return false;
+            }
+            corequisites.get(course).clear(corequisite);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(String courseCode, String requiredCode, RequirementType type) {
+        switch (type) {
+            case PREREQUISITE -> addPrerequisite(courseCode, requiredCode);
+            case COREQUISITE -> addCorequisite(courseCode, requiredCode);
+        }
+    }
+
+    public boolean remove(String courseCode, String requiredCode, RequirementType type) {
+        return switch (type) {
+            case PREREQUISITE -> removePrerequisite(courseCode, requiredCode);
+            case COREQUISITE -> removeCorequisite(courseCode, requiredCode);
+        };
+    }
+
+    public List<String> getPrerequisites(String courseCode) {
+        return codesOf(courseCode, direct);
+    }
+
+    // Every course that must be passed first, however indirectly
+    public List<String> getAllPrerequisites(String courseCode) {
+        return codesOf(courseCode, closure);
+    }
+
+    public List<String> getCorequisites(String courseCode) {
+        return codesOf(courseCode, corequisites);
+    }
+
+    /**
+     * Throws unless the student has passed every direct and indirect
+     * prerequisite of the course, and has passed or is enrolled in each of
+     * its corequisites.
+     */
+    public void checkEligible(Student student, Course course) throws PrerequisiteNotMetException {
+        BitSet[] missing = missing(student, course);
+        if (missing != null) {
+            throw new PrerequisiteNotMetException(student.getFullName(), course.getCode(),
+                codesOf(missing[0]), codesOf(missing[1]));
+        }
+    }
+
+    public boolean isEligible(Student student, Course course) {
+        return missing(student, course) == null;
+    }
+
+    // Missing prerequisites and corequisites, or null when the student is eligible
+    private BitSet[] missing(Student student, Course course) {
+        BitSet missingPrerequisites;
+        BitSet missingCorequisites;
+        lock.readLock().lock();
+        try {
+            Integer bit = bits.get(key(course.getCode()));
+            if (bit == null || (closure.get(bit).isEmpty() && corequisites.get(bit).isEmpty())) {
+                return null;
+            }
+            missingPrerequisites = (BitSet) closure.get(bit).clone();
+            missingCorequisites = (BitSet) corequisites.get(bit).clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+        Progress record = progressOf(student);
+        synchronized (record) {
+            missingPrerequisites.andNot(record.passed);
+            missingCorequisites.andNot(record.passed);
+            missingCorequisites.andNot(record.enrolled);
+        }
+        if (missingPrerequisites.isEmpty() && missingCorequisites.isEmpty()) {
+            return null;
+        }
+        return new BitSet[] { missingPrerequisites, missingCorequisites };
+    }
+
+    public int getCourseCount() {
+        lock.readLock().lock();
+        try {
+            return codes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Course listener hooks: keep code bits and student progress current
+
+    @Override
+    public void codeChanged(Course course, String oldCode) {
+        lock.writeLock().lock();
+        try {
+            Integer bit = bits.remove(key(oldCode));
+            if (bit == null) {
+                bitFor(course.getCode());
+                return;
+            }
+            bits.put(key(course.getCode()), bit);
+            codes.set(bit, key(course.getCode()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void studentEnrolled(Enrollment enrollment) {
+        int bit = bitOf(enrollment.getCourse());
+        Progress record = progressOf(enrollment.getStudent());
+        synchronized (record) {
+            record.enrolled.set(bit);
+        }
+    }
+
+    @Override
+    public void marksRecorded(Enrollment enrollment, Grade oldGrade) {
+        int bit = bitOf(enrollment.getCourse());
+        Progress record = progressOf(enrollment.getStudent());
+        synchronized (record) {
+            record.passed.set(bit, enrollment.getGrade() != null && enrollment.getGrade() != Grade.F);
+        }
+    }
+
+    // Drops the student's progress; studentEnrolled and marksRecorded rebuild it
+    public void forget(Student student) {
+        synchronized (progress) {
+            progress.remove(student);
+        }
+    }
+
+    private Progress progressOf(Student student) {
+        synchronized (progress) {
+            return progress.computeIfAbsent(student, s -> new Progress());
+        }
+    }
+
+    private int bitOf(Course course) {
+        lock.readLock().lock();
+        try {
+            Integer bit = bits.get(key(course.getCode()));
+            if (bit != null) {
+                return bit;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            return bitFor(course.getCode());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called with the write lock held
+    private int bitFor(String code) {
+        String key = key(code);
+        Integer bit = bits.get(key);
+        if (bit != null) {
+            return bit;
+        }
+        int next = codes.size();
+        bits.put(key, next);
+        codes.add(key);
+        direct.add(new BitSet());
+        closure.add(new BitSet());
+        corequisites.add(new BitSet());
+        return next;
+    }
+
+    // Direct edges from 'from' leading to 'to', for the cycle message
+    private String cyclePath(int from, int to) {
+        List<String> path = new ArrayList<>();
+        int current = from;
+        path.add(codes.get(current));
+        while (current != to) {
+            BitSet edges = direct.get(current);
+            int next = edges.nextSetBit(0);
+            while (next >= 0 && next != to && !closure.get(next).get(to)) {
+                next = edges.nextSetBit(next + 1);
+            }
+            current = next;
+            path.add(codes.get(current));
+        }
+        return String.join(" -> ", path);
+    }
+
+    private List<String> codesOf(String courseCode, List<BitSet> sets) {
+        lock.readLock().lock();
+        try {
+            Integer bit = bits.get(key(courseCode));
+            return bit == null ? List.of() : codesOf(sets.get(bit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> codesOf(BitSet set) {
+        List<String> result = new ArrayList<>(set.cardinality());
+        lock.readLock().lock();
+        try {
+            for (int bit = set.nextSetBit(0); bit >= 0; bit = set.nextSetBit(bit + 1)) {
+                result.add(codes.get(bit));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static String key(String code) {
+        return code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+    }
+}
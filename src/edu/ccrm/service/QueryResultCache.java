@@ -0,0 +1,103 @@
+package edu.ccrm.service;
+
+import edu.ccrm.util.TinyLfuCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Results of report and analytical queries, keyed by query name and
+ * parameters. Each entry is stamped with the {@link DataVersions} counters
+ * of the domains it depends on, read before it was computed; a lookup
+ * compares those few counters and recomputes only when one has moved, so a
+ * change to courses never invalidates a result that depends on students
+ * alone. Entries are bounded by a {@link TinyLfuCache}, which keeps the
+ * queries asked for repeatedly over one-off parameter combinations.
+ *
+ * Cached values are shared between callers and must not be modified.
+ */
+public class QueryResultCache {
+    private final DataVersions versions;
+    private final TinyLfuCache<List<Object>, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static final class Entry {
+        private final Object value;
+        private final DataDomain[] dependsOn;
+        private final long[] stamps;
+
+        Entry(Object value, DataDomain[] dependsOn, long[] stamps) {
+            this.value = value;
+            this.dependsOn = dependsOn;
+            this.stamps = stamps;
+        }
+
+        boolean isCurrent(DataVersions versions) {
+            for (int i = 0; i < dependsOn.length; i++) {
+                if (versions.get(dependsOn[i]) != stamps[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public QueryResultCache(DataVersions versions, int capacity) {
+        this.versions = versions;
+        this.entries = new TinyLfuCache<>(capacity, (key, entry) -> { });
+    }
+
+    /**
+     * The cached result of the query for these parameters if no domain it
+     * depends on has changed since it was computed; otherwise computes,
+     * caches and returns it. Concurrent misses may each compute.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, Set<DataDomain> dependsOn, Supplier<T> compute, Object... params) {
+        List<Object> key = new ArrayList<>(params.length + 1);
+        key.add(query);
+        key.addAll(Arrays.asList(params));
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isCurrent(versions)) {
+            hits.incrementAndGet();
+            return (T) entry.value;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+        } else {
+            invalidations.incrementAndGet();
+        }
+        
+        DataDomain[] domains = EnumSet.copyOf(dependsOn).toArray(new DataDomain[0]);
+        long[] stamps = new long[domains.length];
+        for (int i = 0; i < domains.length; i++) {
+            stamps[i] = versions.get(domains[i]);
+        }
+        T value = compute.get();
+        entries.put(key, new Entry(value, domains, stamps));
+        return value;
+    }
+
+    public DataVersions getVersions() { return versions; }
+    public int getCapacity() { return entries.capacity(); }
+    public int getSize() { return entries.size(); }
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getEvictionCount() { return entries.getEvictionCount(); }
+
+    // Lookups that found an entry computed before a change it depends on
+    public long getInvalidationCount() { return invalidations.get(); }
+
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long lookups = hitCount + getMissCount() + getInvalidationCount();
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+}
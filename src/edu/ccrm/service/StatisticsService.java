@@ -0,0 +1,30 @@
+package edu.ccrm.service;
+
+import java.util.EnumSet;
+
+/**
+ * Campus-wide grade statistics computed in one parallel pass over the
+ * current student snapshot and the retired students, and cached until a
+ * student, course or enrollment changes. The returned statistics are
+ * shared; only read them.
+ *
+ * The pass walks the {@link edu.ccrm.domain.Student} and enrollment
+ * objects rather than primitive marks data. Marks live there; the
+ * off-heap {@link edu.ccrm.store.OffHeapEnrollmentTable} is not kept in
+ * step with them, so reading it would first copy every enrollment. Each
+ * mark is unboxed once into the accumulators' primitive counters.
+ */
+public class StatisticsService {
+    private final StudentService studentService;
+    
+    public StatisticsService(StudentService studentService) {
+        this.studentService = studentService;
+    }
+    
+    public GradeStatistics computeGradeStatistics() {
+        return studentService.cachedResult("gradeStatistics", EnumSet.allOf(DataDomain.class),
+            () -> studentService.streamAllStudentsIncludingRetired()
+                                .parallel()
+                                .collect(GradeStatistics::new, GradeStatistics::accept, GradeStatistics::merge));
+    }
+}
@@ -0,0 +1,208 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.domain.StudentListener;
+import edu.ccrm.util.FuzzyDictionary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Typo-tolerant lookup of students by name or email.
+ *
+ * Name words and the words of the email's local part ("jane.doe42" gives
+ * jane, doe and 42) are filed in one {@link FuzzyDictionary}. Every query word
+ * must match some word of the student. The query word whose matches hold the
+ * fewest students supplies the candidates, and the other words are checked
+ * against each candidate's own words. The score is the sum of the best
+ * distances. The radius grows from exact matches until enough students are
+ * found or the typo budget for the word length is spent.
+ */
+class StudentNameIndex implements StudentListener {
+    // Splits on punctuation and between letters and digits
+    private static final Pattern WORD_BREAK =
+        Pattern.compile("[^\\p{L}\\p{N}]+|(?<=\\p{L})(?=\\p{N})|(?<=\\p{N})(?=\\p{L})");
+    private static final int MAX_TYPOS = 2;
+
+    private final FuzzyDictionary<Student> words = new FuzzyDictionary<>(StudentNameIndex::typoBudget);
+
+    void add(Student student) {
+        for (String word : wordsOf(student.getFullName(), student.getEmail())) {
+            words.add(word, student);
+        }
+    }
+
+    void remove(Student student) {
+        for (String word : wordsOf(student.getFullName(), student.getEmail())) {
+            words.remove(word, student);
+        }
+    }
+
+    @Override
+    public void nameChanged(Student student, String oldName) {
+        reindex(student, wordsOf(oldName, student.getEmail()));
+    }
+
+    @Override
+    public void emailChanged(Student student, String oldEmail) {
+        reindex(student, wordsOf(student.getFullName(), oldEmail));
+    }
+
+    // Closest students first; ties broken by name
+    List<Student> search(String query, int limit) {
+        return search(query, limit, Stream.empty());
+    }
+
+    /**
+     * As above, also ranking students that are not indexed, such as retired
+     * ones. They are scanned once and only matches are kept, each joining
+     * the indexed ones from the smallest radius it matches at.
+     */
+    List<Student> search(String query, int limit, Stream<Student> unindexed) {
+        List<String> queryWords = new ArrayList<>(wordsOf(query, null));
+        if (queryWords.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        Map<Student, int[]> scanned = new HashMap<>();
+        unindexed.forEach(student -> {
+            int[] radiusAndScore = scan(queryWords, student);
+            if (radiusAndScore != null) {
+                scanned.put(student, radiusAndScore);
+            }
+        });
+        Map<Student, Integer> scores = new HashMap<>();
+        for (int radius = 0; radius <= MAX_TYPOS; radius++) {
+            scores = match(queryWords, radius);
+            for (Map.Entry<Student, int[]> entry : scanned.entrySet()) {
+                if (entry.getValue()[0] <= radius) {
+                    scores.put(entry.getKey(), entry.getValue()[1]);
+                }
+            }
+            if (scores.size() >= limit) {
+                break;
+            }
+        }
+        Map<Student, Integer> ranking = scores;
+        List<Student> ranked = new ArrayList<>(ranking.keySet());
+        ranked.sort(Comparator.<Student>comparingInt(ranking::get)
+            .thenComparing(Student::getFullName, String.CASE_INSENSITIVE_ORDER));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    private Map<Student, Integer> match(List<String> queryWords, int radius) {
+        // Pick the most selective query word before materializing any candidates
+        int driver = 0;
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < queryWords.size(); i++) {
+            long[] postings = new long[1];
+            words.visit(queryWords.get(i), radius, (term, distance, students) -> postings[0] += students.size());
+            if (postings[0] == 0) {
+                return new HashMap<>();
+            }
+            if (postings[0] < fewest) {
+                fewest = postings[0];
+                driver = i;
+            }
+        }
+
+        Map<Student, Integer> candidates = new HashMap<>();
+        words.visit(queryWords.get(driver), radius, (term, distance, students) -> {
+            for (Student student : students) {
+                candidates.merge(student, distance, Math::min);
+            }
+        });
+        if (queryWords.size() == 1) {
+            return candidates;
+        }
+
+        Map<Student, Integer> scores = new HashMap<>();
+        for (Map.Entry<Student, Integer> candidate : candidates.entrySet()) {
+            Student student = candidate.getKey();
+            Set<String> own = wordsOf(student.getFullName(), student.getEmail());
+            int score = candidate.getValue();
+            for (int i = 0; i < queryWords.size() && score >= 0; i++) {
+                if (i != driver) {
+                    int best = closest(queryWords.get(i), own, radius);
+                    score = best < 0 ? -1 : score + best;
+                }
+            }
+            if (score >= 0) {
+                scores.put(student, score);
+            }
+        }
+        return scores;
+    }
+
+    // The radius a student first matches every query word at, and its score there; null if it never does
+    private static int[] scan(List<String> queryWords, Student student) {
+        Set<String> own = wordsOf(student.getFullName(), student.getEmail());
+        int radius = 0;
+        int score = 0;
+        for (String queryWord : queryWords) {
+            int best = closest(queryWord, own, MAX_TYPOS);
+            if (best < 0) {
+                return null;
+            }
+            radius = Math.max(radius, best);
+            score += best;
+        }
+        return new int[] {radius, score};
+    }
+
+    private void reindex(Student student, Set<String> oldWords) {
+        for (String word : oldWords) {
+            words.remove(word, student);
+        }
+        add(student);
+    }
+
+    // Smallest distance to any of the words within both budgets, or -1
+    private static int closest(String queryWord, Set<String> candidates, int radius) {
+        int best = -1;
+        for (String word : candidates) {
+            int limit = Math.min(radius, Math.min(typoBudget(queryWord), typoBudget(word)));
+            int distance = FuzzyDictionary.distance(queryWord, word, limit);
+            if (distance <= limit && (best < 0 || distance < best)) {
+                best = distance;
+            }
+        }
+        return best;
+    }
+
+    // Short words and numbers must match exactly, otherwise everything matches "al"
+    private static int typoBudget(String word) {
+        if (word.length() <= 3 || Character.isDigit(word.charAt(0))) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : MAX_TYPOS;
+    }
+
+    private static Set<String> wordsOf(String name, String email) {
+        Set<String> result = new LinkedHashSet<>();
+        split(name, result);
+        split(email, result);
+        return result;
+    }
+
+    // Only the part before '@' is searchable; every address shares the domain
+    private static void split(String text, Set<String> into) {
+        if (text == null) {
+            return;
+        }
+        int at = text.indexOf('@');
+        String local = at >= 0 ? text.substring(0, at) : text;
+        for (String word : WORD_BREAK.split(local.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                into.add(word);
+            }
+        }
+    }
+}
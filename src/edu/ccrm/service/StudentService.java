@@ -4,40 +4,361 @@ import edu.ccrm.domain.Student;
 import edu.ccrm.domain.Course;
 import edu.ccrm.domain.Enrollment;
 import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.StudentListener;
+import edu.ccrm.domain.TimeSlot;
+import edu.ccrm.event.ChangePublisher;
+import edu.ccrm.event.EventBus;
+import edu.ccrm.event.EventType;
 import edu.ccrm.exceptions.DuplicateEnrollmentException;
 import edu.ccrm.exceptions.MaxCreditLimitExceededException;
+import edu.ccrm.exceptions.PrerequisiteNotMetException;
+import edu.ccrm.exceptions.ScheduleConflictException;
+import edu.ccrm.interfaces.Queryable;
+import edu.ccrm.query.Criterion;
+import edu.ccrm.query.QueryEngine;
+import edu.ccrm.query.StudentField;
+import edu.ccrm.store.MappedStudentArchive;
+import edu.ccrm.util.KeysetPager;
+import edu.ccrm.util.Page;
+import edu.ccrm.util.RadixTree;
+import edu.ccrm.util.SnapshotList;
+import edu.ccrm.util.SortKey;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-public class StudentService {
-    private final List<Student> students;
-    private static final int MAX_CREDITS_PER_SEMESTER = 18;
+public class StudentService implements Queryable<Student> {
+    private final SnapshotList<Student> students;
+    private final QueryEngine<Student> queries;
+    private final StudentListener indexMaintainer;
+    private final StudentNameIndex nameIndex = new StudentNameIndex();
+    private final RadixTree<Student> regNoCompletions = new RadixTree<>();
+    private final EventBus events;
+    private final ChangePublisher changePublisher;
+    private final PrerequisiteGraph prerequisites;
+    private final TimetableIndex timetables;
+    private final List<StudentListener> studentListeners = new CopyOnWriteArrayList<>();
+    private volatile MappedStudentArchive archive;
+    private volatile InactiveStudentTier inactiveTier;
+    private volatile QueryResultCache resultCache;
+    private final DataVersions dataVersions = new DataVersions();
+    private volatile boolean announceAdds = true;
+    public static final int MAX_CREDITS_PER_SEMESTER = 18;
     
     public StudentService() {
-        this.students = new ArrayList<>();
+        this(new EventBus());
+    }
+    
+    public StudentService(EventBus events) {
+        this(events, new PrerequisiteGraph(), new TimetableIndex());
+    }
+    
+    // Enrollments are checked against the catalog's prerequisite rules and students' timetables
+    public StudentService(EventBus events, CourseService catalog) {
+        this(events, catalog.getPrerequisites(), catalog.getTimetables());
+        catalog.addCourseListener(dataVersions);
+    }
+    
+    private StudentService(EventBus events, PrerequisiteGraph prerequisites, TimetableIndex timetables) {
+        this.events = events;
+        this.prerequisites = prerequisites;
+        this.timetables = timetables;
+        this.changePublisher = new ChangePublisher(events);
+        this.students = new SnapshotList<>();
+        this.queries = new QueryEngine<>(students::snapshot);
+        queries.createIndex(StudentField.ID);
+        queries.createIndex(StudentField.REG_NO);
+        queries.createIndex(StudentField.ACTIVE);
+        this.indexMaintainer = new StudentListener() {
+            @Override
+            public void idChanged(Student student, String oldId) {
+                queries.recordChanged(student, StudentField.ID, oldId);
+            }
+            @Override
+            public void regNoChanged(Student student, String oldRegNo) {
+                queries.recordChanged(student, StudentField.REG_NO, oldRegNo);
+                if (oldRegNo != null) {
+                    regNoCompletions.remove(completionKey(oldRegNo), student);
+                }
+                if (student.getRegNo() != null) {
+                    regNoCompletions.put(completionKey(student.getRegNo()), student);
+                }
+            }
+            @Override
+            public void activeChanged(Student student, boolean wasActive) {
+                queries.recordChanged(student, StudentField.ACTIVE, wasActive);
+            }
+        };
+        studentListeners.add(dataVersions);
     }
  
     public void addStudent(Student student) {
         students.add(student);
-        System.out.println("Added student: " + student.getFullName());
+        index(student);
+        student.addListener(changePublisher);
+        for (StudentListener listener : studentListeners) {
+            student.addListener(listener);
+            listener.studentAdded(student);
+        }
+        events.publish(EventType.STUDENT_ADDED, student);
+        if (announceAdds) {
+            System.out.println("Added student: " + student.getFullName());
+        }
+    }
+    
+    private void index(Student student) {
+        queries.recordAdded(student);
+        student.addListener(indexMaintainer);
+        nameIndex.add(student);
+        student.addListener(nameIndex);
+        if (student.getRegNo() != null) {
+            regNoCompletions.put(completionKey(student.getRegNo()), student);
+        }
+    }
+    
+    private void unindex(Student student) {
+        queries.recordRemoved(student);
+        student.removeListener(indexMaintainer);
+        nameIndex.remove(student);
+        student.removeListener(nameIndex);
+        if (student.getRegNo() != null) {
+            regNoCompletions.remove(completionKey(student.getRegNo()), student);
+        }
+    }
+    
+    /**
+     * Moves inactive students off the heap from now on. Retired students
+     * are written to spillFile and the capacity looked up most often are
+     * cached; see {@link InactiveStudentTier}. Call once, before loading.
+     */
+    public void enableInactiveTier(CourseService catalog, Path spillFile, int capacity) {
+        this.inactiveTier = new InactiveStudentTier(this, catalog, spillFile, capacity);
+    }
+    
+    public InactiveStudentTier getInactiveTier() {
+        return inactiveTier;
+    }
+    
+    /**
+     * Caches report and ranking results from now on, up to capacity of
+     * them, each validated against the service's {@link DataVersions}.
+     */
+    public void enableResultCache(int capacity) {
+        this.resultCache = new QueryResultCache(dataVersions, capacity);
+    }
+    
+    public QueryResultCache getResultCache() {
+        return resultCache;
+    }
+    
+    // Change counters per domain, kept from construction; courses and enrollments only with a catalog
+    public DataVersions getDataVersions() {
+        return dataVersions;
+    }
+    
+    // Through the result cache when enabled, else computed every time
+    public <T> T cachedResult(String query, Set<DataDomain> dependsOn, Supplier<T> compute, Object... params) {
+        QueryResultCache cache = resultCache;
+        return cache == null ? compute.get() : cache.get(query, dependsOn, compute, params);
+    }
+    
+    /**
+     * Retires every inactive student to the inactive tier, if enabled, and
+     * returns how many. Each is written out before it leaves the list and
+     * indexes, which are rebuilt once for the whole batch. Listeners get
+     * studentRetired. Lookups by id or regNo fault them back in, and
+     * listings, searches, queries and reports read them from the tier.
+     */
+    public int retireInactiveStudents() throws IOException {
+        InactiveStudentTier tier = inactiveTier;
+        if (tier == null) {
+            return 0;
+        }
+        List<Student> leaving = streamStudents().filter(s -> !s.isActive()).collect(Collectors.toList());
+        Set<Student> retired = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            for (Student student : leaving) {
+                tier.retire(student);
+                retired.add(student);
+                unindex(student);
+                forgetDerived(student);
+                student.removeListener(changePublisher);
+                for (StudentListener listener : studentListeners) {
+                    student.removeListener(listener);
+                    listener.studentRetired(student);
+                }
+            }
+        } finally {
+            students.removeIf(retired::contains);
+        }
+        return retired.size();
+    }
+    
+    // A student faulted in from the inactive tier reports changes like any other
+    void attachRetired(Student student) {
+        student.addListener(changePublisher);
+        for (StudentListener listener : studentListeners) {
+            student.addListener(listener);
+        }
+    }
+    
+    // Timetable and prerequisite state is rebuilt from the enrollments when needed
+    void forgetDerived(Student student) {
+        timetables.forget(student);
+        prerequisites.forget(student);
+    }
+    
+    // A retired student made active again rejoins the list, indexes and derived state
+    void reinstate(Student student) {
+        forgetDerived(student);
+        students.add(student);
+        index(student);
+        for (Enrollment enrollment : student.getEnrollments()) {
+            timetables.studentEnrolled(enrollment);
+            prerequisites.studentEnrolled(enrollment);
+            if (enrollment.isGraded()) {
+                prerequisites.marksRecorded(enrollment, null);
+            }
+        }
+        for (StudentListener listener : studentListeners) {
+            listener.studentAdded(student);
+        }
     }
    
+    /**
+     * Attaches the listener to every student, current and added later, and
+     * calls its studentAdded for each later one. Register before loading so
+     * no student is missed.
+     */
+    public void addStudentListener(StudentListener listener) {
+        studentListeners.add(listener);
+        for (Student student : students.snapshot()) {
+            student.addListener(listener);
+        }
+    }
+    
+    // Loaded students first, then retired ones, then the archive if one is attached
     public Optional<Student> findStudentById(String id) {
-        return students.stream()
-                      .filter(s -> s.getId().equals(id))
-                      .findFirst();
+        Optional<Student> found = queries.lookupFirst(StudentField.ID, id);
+        InactiveStudentTier tier = inactiveTier;
+        if (found.isEmpty() && tier != null) {
+            found = tier.findById(id);
+        }
+        MappedStudentArchive fallback = archive;
+        return found.isPresent() || fallback == null ? found : fallback.findById(id);
+    }
+    
+    /**
+     * Attaches a read-only archive that id and regNo lookups fall back to
+     * when no loaded student matches. Pass null to detach. Students found
+     * there are detached copies and cannot be enrolled.
+     */
+    public void setArchive(MappedStudentArchive archive) {
+        this.archive = archive;
+    }
+    
+    public MappedStudentArchive getArchive() {
+        return archive;
+    }
+    
+    // True for students that came from the archive rather than this service
+    public boolean isArchived(Student student) {
+        return queries.lookupFirst(StudentField.ID, student.getId()).orElse(null) != student
+            && !isRetired(student);
+    }
+    
+    // A retired student with the id, or failing that the regNo, faulted in
+    public Optional<Student> findRetiredStudent(String id, String regNo) {
+        InactiveStudentTier tier = inactiveTier;
+        if (tier == null) {
+            return Optional.empty();
+        }
+        return tier.findById(id).or(() -> tier.findByRegNo(regNo));
+    }
+    
+    // True for students held by the inactive tier; reactivating one brings it back
+    public boolean isRetired(Student student) {
+        InactiveStudentTier tier = inactiveTier;
+        return tier != null && tier.holds(student.getId());
+    }
+    
+    // Student changes are published here; enrollments and marks on the course service's bus
+    public EventBus getEvents() {
+        return events;
+    }
+    
+    // Bulk loads turn off the per-student "Added" line so they do not flood the console
+    public void setAnnounceAdds(boolean announceAdds) {
+        this.announceAdds = announceAdds;
+    }
+    
+    // Typo-tolerant match on name words or email, closest first; retired students are scanned
+    public List<Student> searchByName(String query, int limit) {
+        return nameIndex.search(query, limit, streamRetired());
+    }
+
+    // Students whose regNo starts with prefix, shortest first
+    public List<Student> completeRegNo(String prefix, int limit) {
+        return regNoCompletions.complete(completionKey(prefix), limit);
+    }
+    
+    public RadixTree<Student> getRegNoCompletionIndex() {
+        return regNoCompletions;
     }
     
+    private static String completionKey(String regNo) {
+        return regNo.trim().toLowerCase(Locale.ROOT);
+    }
+
     public Optional<Student> findStudentByRegNo(String regNo) {
-        return students.stream()
-                      .filter(s -> s.getRegNo().equals(regNo))
-                      .findFirst();
+        Optional<Student> found = queries.lookupFirst(StudentField.REG_NO, regNo);
+        InactiveStudentTier tier = inactiveTier;
+        if (found.isEmpty() && tier != null) {
+            found = tier.findByRegNo(regNo);
+        }
+        MappedStudentArchive fallback = archive;
+        return found.isPresent() || fallback == null ? found : fallback.findByRegNo(regNo);
     }
     
+    // Retired students are not indexed, so they are scanned after the plan's candidates
+    @Override
+    public Stream<Student> queryStream(Criterion<Student> criterion) {
+        return Stream.concat(queries.stream(criterion), streamRetired().filter(criterion));
+    }
+    
+    @Override
+    public String explain(Criterion<Student> criterion) {
+        InactiveStudentTier tier = inactiveTier;
+        int retired = tier == null ? 0 : tier.getRetiredCount();
+        String plan = queries.explain(criterion);
+        return retired == 0 ? plan : plan + "\nThen:   SCAN of " + retired + " retired students";
+    }
+    
+    // Throws IllegalArgumentException for an archived or retired student
     public Enrollment enrollStudentInCourse(Student student, Course course) 
-            throws DuplicateEnrollmentException, MaxCreditLimitExceededException {
-        
+            throws DuplicateEnrollmentException, PrerequisiteNotMetException,
+                   ScheduleConflictException, MaxCreditLimitExceededException {
+        if (isRetired(student)) {
+            throw new IllegalArgumentException(student.getFullName() + " is inactive and cannot be enrolled");
+        }
+        if (isArchived(student)) {
+            throw new IllegalArgumentException(student.getFullName() + " is archived and cannot be enrolled");
+        }
+        // Lock per student so concurrent requests cannot both pass the checks below
+        synchronized (student) {
+            return enrollChecked(student, course);
+        }
+    }
+    
+    private Enrollment enrollChecked(Student student, Course course) 
+            throws DuplicateEnrollmentException, PrerequisiteNotMetException,
+                   ScheduleConflictException, MaxCreditLimitExceededException {
         boolean alreadyEnrolled = student.getEnrollments().stream()
             .anyMatch(e -> e.getCourse().getCode().equals(course.getCode()));
         
@@ -45,29 +366,31 @@ public class StudentService {
             throw new DuplicateEnrollmentException(student.getFullName(), course.getCode());
         }
         
-        int currentCredits = student.getTotalCredits();
-        int attemptedCredits = currentCredits + course.getCredits();
-        
-        if (attemptedCredits > MAX_CREDITS_PER_SEMESTER) {
-            throw new MaxCreditLimitExceededException(currentCredits, course.getCredits(), MAX_CREDITS_PER_SEMESTER);
-        }
+        prerequisites.checkEligible(student, course);
+        // Clashes and the credit limit are checked within the course's semester only
+        timetables.checkEnrollment(student, course, MAX_CREDITS_PER_SEMESTER);
         
         Enrollment enrollment = student.enrollInCourse(course);
         System.out.println("Successfully enrolled " + student.getFullName() + " in " + course.getCode());
         return enrollment;
     }
     
+    public int getCredits(Student student, Semester semester) {
+        return timetables.getCredits(student, semester);
+    }
+    
+    public List<Map.Entry<TimeSlot, Course>> getTimetable(Student student, Semester semester) {
+        return timetables.getTimetable(student, semester);
+    }
+    
     public List<Student> getActiveStudents() {
-        return students.stream()
-                      .filter(Student::isActive)
-                      .collect(Collectors.toList());
+        return streamActiveStudents().collect(Collectors.toList());
     }
     
+    // Cached, as is getTopStudents; the list is shared and unmodifiable
     public List<Student> getStudentsByDepartment(String department) {
-        return students.stream()
-                      .filter(s -> s.getEnrollments().stream()
-                                  .anyMatch(e -> e.getCourse().getDepartment().equals(department)))
-                      .collect(Collectors.toList());
+        return cachedResult("studentsByDepartment", EnumSet.allOf(DataDomain.class),
+            () -> streamStudentsByDepartment(department).collect(Collectors.toUnmodifiableList()), department);
     }
     
     public double calculateGPA(Student student) {
@@ -88,15 +411,64 @@ public class StudentService {
         return totalCredits > 0 ? totalGradePoints / totalCredits : 0.0;
     }
     
+    // GPA depends on marks and course credits as well as on which students are loaded
     public List<Student> getTopStudents(int count) {
-        return students.stream()
+        return cachedResult("topStudents", EnumSet.allOf(DataDomain.class), () -> streamAllStudentsIncludingRetired()
                       .filter(s -> !s.getEnrollments().isEmpty())
                       .sorted((s1, s2) -> Double.compare(calculateGPA(s2), calculateGPA(s1)))
                       .limit(count)
-                      .collect(Collectors.toList());
+                      .collect(Collectors.toUnmodifiableList()), count);
     }
     
+    // Immutable point-in-time list of the loaded students, O(1) and never copied; retired ones are not in it
+    // and enrollments stay live, so a long read can see some students before a write and others after
     public List<Student> getAllStudents() {
-        return new ArrayList<>(students);
+        return students.snapshot();
+    }
+    
+    // Lazy variants: nothing is materialized until the caller pulls from the stream
+    public Stream<Student> streamStudents() {
+        return students.snapshot().stream();
+    }
+    
+    /**
+     * Loaded students, then retired ones read back from the spill file
+     * without caching. Listings, searches, queries and reports go through
+     * this, so retiring a student changes only where it is held.
+     */
+    public Stream<Student> streamAllStudentsIncludingRetired() {
+        return Stream.concat(streamStudents(), streamRetired());
+    }
+    
+    private Stream<Student> streamRetired() {
+        InactiveStudentTier tier = inactiveTier;
+        return tier == null ? Stream.empty() : tier.streamRetired();
+    }
+    
+    public Stream<Student> streamActiveStudents() {
+        return streamStudents().filter(Student::isActive);
+    }
+    
+    public Stream<Student> streamStudentsByDepartment(String department) {
+        return streamAllStudentsIncludingRetired()
+                      .filter(s -> s.getEnrollments().stream()
+                                  .anyMatch(e -> e.getCourse().getDepartment().equals(department)));
+    }
+    
+    // Keyset pagination: pass null for the first page, then the previous page's cursor
+    public Page<Student> pageStudents(StudentSort sort, String cursor, int pageSize) {
+        return pageStudents(streamAllStudentsIncludingRetired(), sort, cursor, pageSize);
+    }
+    
+    public Page<Student> pageStudents(Stream<Student> source, StudentSort sort, String cursor, int pageSize) {
+        return KeysetPager.page(source, student -> sortKey(student, sort), cursor, pageSize);
+    }
+    
+    private SortKey sortKey(Student student, StudentSort sort) {
+        return switch (sort) {
+            case ID -> SortKey.ofKey(sort.name(), student.getId());
+            case NAME -> SortKey.ofText(sort.name(), student.getFullName().toLowerCase(), student.getId());
+            case GPA -> SortKey.ofNumberDescending(sort.name(), calculateGPA(student), student.getId());
+        };
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package edu.ccrm.service;
+
+public enum StudentSort {
+    ID("ID"), NAME("Name"), GPA("GPA (highest first)");
+    
+    private final String displayName;
+    
+    StudentSort(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
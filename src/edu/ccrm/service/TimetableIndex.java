@@ -0,0 +1,212 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseListener;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import edu.ccrm.domain.TimeSlot;
+import edu.ccrm.exceptions.MaxCreditLimitExceededException;
+import edu.ccrm.exceptions.ScheduleConflictException;
+import edu.ccrm.util.IntervalTree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-student weekly timetable and credit ledger, one of each per
+ * {@link Semester}.
+ *
+ * A student's meetings in a term sit in an {@link IntervalTree} keyed by
+ * minute of the week, so a clash check for a new course costs O(log n) per
+ * slot. Credits per term are kept in an EnumMap and read in O(1), instead
+ * of summing every enrollment. Both follow the studentEnrolled hook. Each
+ * booking remembers what it added (term, credits, slots), so a course
+ * whose semester, credits or meeting times change is re-booked for every
+ * student enrolled in it. Courses without a semester are not scheduled.
+ */
+public class TimetableIndex implements CourseListener {
+    private final Map<Student, Schedule> schedules = new IdentityHashMap<>();
+    private final Map<Course, Set<Student>> enrolled = new IdentityHashMap<>();
+
+    // One student's bookings; guarded by its own monitor
+    private static final class Schedule {
+        private final EnumMap<Semester, IntervalTree<Meeting>> timetable = new EnumMap<>(Semester.class);
+        private final EnumMap<Semester, Integer> credits = new EnumMap<>(Semester.class);
+        private final Map<Course, Booking> bookings = new IdentityHashMap<>();
+    }
+
+    // What one enrollment contributed when it was last booked
+    private static final class Booking {
+        private final Semester semester;
+        private final int credits;
+        private final List<Meeting> meetings = new ArrayList<>();
+
+        private Booking(Course course) {
+            this.semester = course.getSemester();
+            this.credits = course.getCredits();
+            course.getMeetingTimes().forEach(slot -> meetings.add(new Meeting(course, slot)));
+        }
+    }
+
+    private static final class Meeting {
+        private final Course course;
+        private final TimeSlot slot;
+
+        private Meeting(Course course, TimeSlot slot) {
+            this.course = course;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Throws if any meeting of the course overlaps a course the student
+     * already has in the same term, or if it would take the student's
+     * credits for that term above maxCredits.
+     */
+    public void checkEnrollment(Student student, Course course, int maxCredits)
+            throws ScheduleConflictException, MaxCreditLimitExceededException {
+        Semester semester = course.getSemester();
+        if (semester == null) {
+            return;
+        }
+        Schedule schedule = scheduleOf(student);
+        synchronized (schedule) {
+            IntervalTree<Meeting> timetable = schedule.timetable.get(semester);
+            if (timetable != null) {
+                for (TimeSlot slot : course.getMeetingTimes()) {
+                    IntervalTree.Entry<Meeting> clash = timetable.findOverlap(slot.getStartMinute(), slot.getEndMinute());
+                    if (clash != null) {
+                        Meeting other = clash.getValue();
+                        throw new ScheduleConflictException(student.getFullName(), course.getCode(), slot.toString(),
+                            other.course.getCode(), other.slot.toString());
+                    }
+                }
+            }
+            int current = schedule.credits.getOrDefault(semester, 0);
+            if (current + course.getCredits() > maxCredits) {
+                throw new MaxCreditLimitExceededException(semester.getDisplayName(),
+                    current, course.getCredits(), maxCredits);
+            }
+        }
+    }
+
+    public int getCredits(Student student, Semester semester) {
+        Schedule schedule = scheduleOf(student);
+        synchronized (schedule) {
+            return schedule.credits.getOrDefault(semester, 0);
+        }
+    }
+
+    // The student's meetings in a term, Monday morning first
+    public List<Map.Entry<TimeSlot, Course>> getTimetable(Student student, Semester semester) {
+        Schedule schedule = scheduleOf(student);
+        List<Map.Entry<TimeSlot, Course>> meetings = new ArrayList<>();
+        synchronized (schedule) {
+            IntervalTree<Meeting> timetable = schedule.timetable.get(semester);
+            if (timetable != null) {
+                for (IntervalTree.Entry<Meeting> entry : timetable.entries()) {
+                    meetings.add(Map.entry(entry.getValue().slot, entry.getValue().course));
+                }
+            }
+        }
+        return meetings;
+    }
+
+    @Override
+    public void studentEnrolled(Enrollment enrollment) {
+        Course course = enrollment.getCourse();
+        Student student = enrollment.getStudent();
+        synchronized (enrolled) {
+            enrolled.computeIfAbsent(course, c -> Collections.newSetFromMap(new IdentityHashMap<>())).add(student);
+        }
+        Schedule schedule = scheduleOf(student);
+        synchronized (schedule) {
+            book(schedule, course);
+        }
+    }
+
+    @Override
+    public void semesterChanged(Course course, Semester oldSemester) {
+        rebook(course);
+    }
+
+    @Override
+    public void creditsChanged(Course course, int oldCredits) {
+        rebook(course);
+    }
+
+    @Override
+    public void meetingTimesChanged(Course course, List<TimeSlot> oldTimes) {
+        rebook(course);
+    }
+
+    private void rebook(Course course) {
+        List<Student> students;
+        synchronized (enrolled) {
+            Set<Student> enrolledStudents = enrolled.get(course);
+            if (enrolledStudents == null) {
+                return;
+            }
+            students = new ArrayList<>(enrolledStudents);
+        }
+        for (Student student : students) {
+            Schedule schedule = scheduleOf(student);
+            synchronized (schedule) {
+                unbook(schedule, course);
+                book(schedule, course);
+            }
+        }
+    }
+
+    private static void book(Schedule schedule, Course course) {
+        Booking booking = new Booking(course);
+        if (booking.semester == null) {
+            return;
+        }
+        schedule.bookings.put(course, booking);
+        schedule.credits.merge(booking.semester, booking.credits, Integer::sum);
+        IntervalTree<Meeting> timetable = schedule.timetable.computeIfAbsent(booking.semester, s -> new IntervalTree<>());
+        for (Meeting meeting : booking.meetings) {
+            timetable.add(meeting.slot.getStartMinute(), meeting.slot.getEndMinute(), meeting);
+        }
+    }
+
+    private static void unbook(Schedule schedule, Course course) {
+        Booking booking = schedule.bookings.remove(course);
+        if (booking == null) {
+            return;
+        }
+        schedule.credits.merge(booking.semester, -booking.credits, Integer::sum);
+        IntervalTree<Meeting> timetable = schedule.timetable.get(booking.semester);
+        for (Meeting meeting : booking.meetings) {
+            timetable.remove(meeting.slot.getStartMinute(), meeting.slot.getEndMinute(), meeting);
+        }
+    }
+
+    // Drops the student's bookings, e.g. when it leaves the heap; studentEnrolled rebuilds them
+    public void forget(Student student) {
+        synchronized (schedules) {
+            schedules.remove(student);
+        }
+        synchronized (enrolled) {
+            for (Enrollment enrollment : student.getEnrollments()) {
+                Set<Student> students = enrolled.get(enrollment.getCourse());
+                if (students != null) {
+                    students.remove(student);
+                }
+            }
+        }
+    }
+
+    private Schedule scheduleOf(Student student) {
+        synchronized (schedules) {
+            return schedules.computeIfAbsent(student, s -> new Schedule());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package edu.ccrm.store;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Compact struct-of-arrays storage for courses. Instructor and department
+ * names are dictionary encoded, so a department shared by thousands of
+ * courses is stored once. Rows are read through a reusable {@link CourseView}.
+ *
+ * Reads and writes lock the store, as in {@link ColumnarStudentStore}:
+ * growing the store replaces its arrays and a setter can grow a dictionary,
+ * so a view reads each field under the lock, and {@link CourseView#toCourse}
+ * and {@link #forEach} hold it for the whole row or scan.
+ */
+public class ColumnarCourseStore {
+    private static final byte NO_SEMESTER = -1;
+    private static final Semester[] SEMESTERS = Semester.values();
+
+    private final TextColumn codes = new TextColumn();
+    private final TextColumn titles = new TextColumn();
+    private final StringDictionary instructors = new StringDictionary();
+    private final StringDictionary departments = new StringDictionary();
+    private final KeyIndex codeIndex = new KeyIndex(codes);
+
+    private short[] credits = new short[64];
+    private int[] instructorCodes = new int[64];
+    private int[] departmentCodes = new int[64];
+    private byte[] semesters = new byte[64];
+    private boolean[] active = new boolean[64];
+    private volatile int size;
+
+    public synchronized int add(Course course) {
+        if (course.getCode() == null) {
+            throw new IllegalArgumentException("A course row needs a code");
+        }
+        int row = size;
+        ensureCapacity(row + 1);
+        codes.set(row, course.getCode());
+        titles.set(row, course.getTitle());
+        credits[row] = (short) course.getCredits();
+        instructorCodes[row] = instructors.encode(course.getInstructor());
+        departmentCodes[row] = departments.encode(course.getDepartment());
+        semesters[row] = course.getSemester() != null ? (byte) course.getSemester().ordinal() : NO_SEMESTER;
+        active[row] = course.isActive();
+        codeIndex.put(course.getCode(), row);
+        size = row + 1;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns -1 when no row has this code
+    public synchronized int rowOf(String code) {
+        return code == null ? -1 : codeIndex.get(code);
+    }
+
+    public synchronized void setDepartment(int row, String department) {
+        checkRow(row);
+        departmentCodes[row] = departments.encode(department);
+    }
+
+    public synchronized void setInstructor(int row, String instructor) {
+        checkRow(row);
+        instructorCodes[row] = instructors.encode(instructor);
+    }
+
+    public synchronized void setActive(int row, boolean value) {
+        checkRow(row);
+        active[row] = value;
+    }
+
+    // Credits by row, for aggregations that should not touch views at all
+    public synchronized int creditsAt(int row) {
+        return credits[row];
+    }
+
+    public CourseView view(int row) {
+        return new CourseView().moveTo(row);
+    }
+
+    // Visits every row with a single flyweight; do not keep the view past the callback
+    public synchronized void forEach(Consumer<CourseView> action) {
+        CourseView view = new CourseView();
+        int rows = size;
+        for (int row = 0; row < rows; row++) {
+            action.accept(view.moveTo(row));
+        }
+    }
+
+    public long estimatedBytes() {
+        return codes.estimatedBytes() + titles.estimatedBytes()
+             + instructors.estimatedBytes() + departments.estimatedBytes() + codeIndex.estimatedBytes()
+             + 16L + 2L * credits.length
+             + 16L + 4L * instructorCodes.length
+             + 16L + 4L * departmentCodes.length
+             + 16L + semesters.length
+             + 16L + active.length;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows > credits.length) {
+            int capacity = Math.max(rows, credits.length * 2);
+            credits = Arrays.copyOf(credits, capacity);
+            instructorCodes = Arrays.copyOf(instructorCodes, capacity);
+            departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+            semesters = Arrays.copyOf(semesters, capacity);
+            active = Arrays.copyOf(active, capacity);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Flyweight over one course row.
+     */
+    public class CourseView {
+        private int row;
+
+        public CourseView moveTo(int row) {
+            checkRow(row);
+            this.row = row;
+            return this;
+        }
+
+        public int getRow() { return row; }
+
+        public String getCode() {
+            synchronized (ColumnarCourseStore.this) {
+                return codes.get(row);
+            }
+        }
+
+        public String getTitle() {
+            synchronized (ColumnarCourseStore.this) {
+                return titles.get(row);
+            }
+        }
+
+        public int getCredits() {
+            synchronized (ColumnarCourseStore.this) {
+                return credits[row];
+            }
+        }
+
+        public String getInstructor() {
+            synchronized (ColumnarCourseStore.this) {
+                return instructors.decode(instructorCodes[row]);
+            }
+        }
+
+        public String getDepartment() {
+            synchronized (ColumnarCourseStore.this) {
+                return departments.decode(departmentCodes[row]);
+            }
+        }
+
+        public boolean isActive() {
+            synchronized (ColumnarCourseStore.this) {
+                return active[row];
+            }
+        }
+
+        public Semester getSemester() {
+            synchronized (ColumnarCourseStore.this) {
+                byte ordinal = semesters[row];
+                return ordinal == NO_SEMESTER ? null : SEMESTERS[ordinal];
+            }
+        }
+
+        // Builds a full domain object from one consistent row
+        public Course toCourse() {
+            synchronized (ColumnarCourseStore.this) {
+                Course course = new Course.Builder(getCode(), getTitle())
+                    .credits(getCredits())
+                    .instructor(getInstructor())
+                    .semester(getSemester())
+                    .department(getDepartment())
+                    .build();
+                course.setActive(isActive());
+                return course;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package edu.ccrm.store;
+
+import edu.ccrm.domain.Student;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Compact struct-of-arrays storage for students.
+ *
+ * Text fields share one byte heap per column, email domains are dictionary
+ * encoded, the active flag is a bit and the creation time is epoch seconds.
+ * A row costs a few dozen bytes instead of the half-dozen objects behind a
+ * {@link Student}. Rows are read through a reusable {@link StudentView}.
+ *
+ * Reads and writes lock the store. Rewriting a text field can move its
+ * column's byte heap and offsets, so a view reads each field under the same
+ * lock; {@link StudentView#toStudent} and {@link #forEach} hold it for the
+ * whole row or scan, so they see no write half-way.
+ */
+public class ColumnarStudentStore {
+    private final TextColumn ids = new TextColumn();
+    private final TextColumn regNos = new TextColumn();
+    private final TextColumn names = new TextColumn();
+    private final TextColumn emailLocalParts = new TextColumn();
+    private final StringDictionary emailDomains = new StringDictionary();
+    private final KeyIndex idIndex = new KeyIndex(ids);
+
+    private int[] emailDomainCodes = new int[64];
+    private long[] createdEpochSeconds = new long[64];
+    private long[] activeBits = new long[1];
+    private volatile int size;
+
+    public synchronized int add(Student student) {
+        return add(student.getId(), student.getRegNo(), student.getFullName(), student.getEmail(),
+                   student.isActive(), student.getCreatedDate());
+    }
+
+    public synchronized int add(String id, String regNo, String fullName, String email,
+                                boolean active, LocalDateTime createdDate) {
+        if (id == null) {
+            throw new IllegalArgumentException("A student row needs an id");
+        }
+        int row = size;
+        ensureCapacity(row + 1);
+        ids.set(row, id);
+        regNos.set(row, regNo);
+        names.set(row, fullName);
+        setEmailAt(row, email);
+        setActiveAt(row, active);
+        createdEpochSeconds[row] = createdDate.toEpochSecond(ZoneOffset.UTC);
+        idIndex.put(id, row);
+        size = row + 1;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns -1 when no row has this id
+    public synchronized int rowOf(String id) {
+        return id == null ? -1 : idIndex.get(id);
+    }
+
+    public synchronized void setFullName(int row, String fullName) {
+        checkRow(row);
+        names.set(row, fullName);
+    }
+
+    public synchronized void setEmail(int row, String email) {
+        checkRow(row);
+        setEmailAt(row, email);
+    }
+
+    public synchronized void setActive(int row, boolean active) {
+        checkRow(row);
+        setActiveAt(row, active);
+    }
+
+    public StudentView view(int row) {
+        return new StudentView().moveTo(row);
+    }
+
+    // Visits every row with a single flyweight; do not keep the view past the callback
+    public synchronized void forEach(Consumer<StudentView> action) {
+        StudentView view = new StudentView();
+        int rows = size;
+        for (int row = 0; row < rows; row++) {
+            action.accept(view.moveTo(row));
+        }
+    }
+
+    public long estimatedBytes() {
+        return ids.estimatedBytes() + regNos.estimatedBytes() + names.estimatedBytes()
+             + emailLocalParts.estimatedBytes() + emailDomains.estimatedBytes() + idIndex.estimatedBytes()
+             + 16L + 4L * emailDomainCodes.length
+             + 16L + 8L * createdEpochSeconds.length
+             + 16L + 8L * activeBits.length;
+    }
+
+    private void setEmailAt(int row, String email) {
+        int at = email != null ? email.lastIndexOf('@') : -1;
+        if (at < 0) {
+            emailLocalParts.set(row, email);
+            emailDomainCodes[row] = StringDictionary.NULL_CODE;
+        } else {
+            emailLocalParts.set(row, email.substring(0, at));
+            emailDomainCodes[row] = emailDomains.encode(email.substring(at + 1));
+        }
+    }
+
+    private void setActiveAt(int row, boolean active) {
+        if (active) {
+            activeBits[row >>> 6] |= 1L << row;
+        } else {
+            activeBits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows > createdEpochSeconds.length) {
+            int capacity = Math.max(rows, createdEpochSeconds.length * 2);
+            emailDomainCodes = Arrays.copyOf(emailDomainCodes, capacity);
+            createdEpochSeconds = Arrays.copyOf(createdEpochSeconds, capacity);
+        }
+        int words = (rows + 63) >>> 6;
+        if (words > activeBits.length) {
+            activeBits = Arrays.copyOf(activeBits, Math.max(words, activeBits.length * 2));
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Flyweight over one row. Getters decode on demand; {@link #moveTo} repositions
+     * the same instance so scans allocate nothing per row.
+     */
+    public class StudentView {
+        private int row;
+
+        public StudentView moveTo(int row) {
+            checkRow(row);
+            this.row = row;
+            return this;
+        }
+
+        public int getRow() { return row; }
+        public String getId() {
+            synchronized (ColumnarStudentStore.this) {
+                return ids.get(row);
+            }
+        }
+
+        public String getRegNo() {
+            synchronized (ColumnarStudentStore.this) {
+                return regNos.get(row);
+            }
+        }
+
+        public String getFullName() {
+            synchronized (ColumnarStudentStore.this) {
+                return names.get(row);
+            }
+        }
+
+        public String getEmail() {
+            synchronized (ColumnarStudentStore.this) {
+                String local = emailLocalParts.get(row);
+                int domain = emailDomainCodes[row];
+                return domain == StringDictionary.NULL_CODE ? local : local + "@" + emailDomains.decode(domain);
+            }
+        }
+
+        public String getEmailDomain() {
+            synchronized (ColumnarStudentStore.this) {
+                return emailDomains.decode(emailDomainCodes[row]);
+            }
+        }
+
+        public boolean isActive() {
+            synchronized (ColumnarStudentStore.this) {
+                return (activeBits[row >>> 6] & (1L << row)) != 0;
+            }
+        }
+
+        public long getCreatedEpochSecond() {
+            synchronized (ColumnarStudentStore.this) {
+                return createdEpochSeconds[row];
+            }
+        }
+
+        public LocalDateTime getCreatedDate() {
+            return LocalDateTime.ofEpochSecond(getCreatedEpochSecond(), 0, ZoneOffset.UTC);
+        }
+
+        // Builds a full domain object for code that needs one, from one consistent row
+        public Student toStudent() {
+            synchronized (ColumnarStudentStore.this) {
+                Student student = new Student(getId(), getRegNo(), getFullName(), getEmail(), getCreatedDate());
+                student.setActive(isActive());
+                return student;
+            }
+        }
+    }
+}
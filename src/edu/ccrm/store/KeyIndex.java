@@ -0,0 +1,83 @@
+package edu.ccrm.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash index from a text key to its row, stored in a single
+ * int[] so the index adds no per-record objects. Keys are never null; the
+ * stores reject a row without one before it reaches the index.
+ */
+class KeyIndex {
+    private static final int EMPTY = -1;
+
+    private final TextColumn keys;
+    private int[] slots = newSlots(64);
+    private int count;
+
+    KeyIndex(TextColumn keys) {
+        this.keys = keys;
+    }
+
+    void put(String key, int row) {
+        if ((count + 1) * 4 > slots.length * 3) {
+            rehash(slots.length * 2);
+        }
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int mask = slots.length - 1;
+        int i = spread(Arrays.hashCode(bytes)) & mask;
+        while (slots[i] != EMPTY) {
+            if (keys.matches(slots[i], bytes)) {
+                slots[i] = row;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = row;
+        count++;
+    }
+
+    int get(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int mask = slots.length - 1;
+        int i = spread(Arrays.hashCode(bytes)) & mask;
+        while (slots[i] != EMPTY) {
+            if (keys.matches(slots[i], bytes)) {
+                return slots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    long estimatedBytes() {
+        return 16L + 4L * slots.length;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = newSlots(capacity);
+        int mask = capacity - 1;
+        for (int row : old) {
+            if (row == EMPTY) {
+                continue;
+            }
+            byte[] bytes = keys.get(row).getBytes(StandardCharsets.UTF_8);
+            int i = spread(Arrays.hashCode(bytes)) & mask;
+            while (slots[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = row;
+        }
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
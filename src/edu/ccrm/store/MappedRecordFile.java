@@ -0,0 +1,105 @@
+package edu.ccrm.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory map of a file holding a fixed-size header followed by
+ * fixed-width records. A single mapping is limited to 2 GB, so the records
+ * are mapped in chunks of whole records; record r is in chunk
+ * r / recordsPerChunk. Nothing is read until a page is touched, and the OS
+ * page cache decides what stays resident.
+ *
+ * All reads use absolute positions, so one instance serves any number of
+ * threads.
+ */
+final class MappedRecordFile implements AutoCloseable {
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] chunks;
+    private final int recordWidth;
+    private final int recordsPerChunk;
+    private final long count;
+
+    private MappedRecordFile(FileChannel channel, MappedByteBuffer header, MappedByteBuffer[] chunks,
+                             int recordWidth, int recordsPerChunk, long count) {
+        this.channel = channel;
+        this.header = header;
+        this.chunks = chunks;
+        this.recordWidth = recordWidth;
+        this.recordsPerChunk = recordsPerChunk;
+        this.count = count;
+    }
+
+    /**
+     * Maps the header, reads the record width and count from it with the
+     * given reader, then maps the records after it.
+     */
+    static MappedRecordFile open(Path file, int headerBytes, HeaderReader headerReader) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < headerBytes) {
+                throw new IOException(file.getFileName() + " is too short to be an archive file");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerBytes);
+            long[] shape = headerReader.read(header);
+            int recordWidth = (int) shape[0];
+            long count = shape[1];
+            if (recordWidth <= 0 || channel.size() < headerBytes + recordWidth * count) {
+                throw new IOException(file.getFileName() + " is truncated or has a bad header");
+            }
+            int recordsPerChunk = (int) Math.max(1, MAX_CHUNK_BYTES / recordWidth);
+            int chunkCount = (int) ((count + recordsPerChunk - 1) / recordsPerChunk);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long first = (long) i * recordsPerChunk;
+                long records = Math.min(recordsPerChunk, count - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    headerBytes + first * recordWidth, records * recordWidth);
+            }
+            return new MappedRecordFile(channel, header, chunks, recordWidth, recordsPerChunk, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Returns {recordWidth, count}, or throws IOException if the header is not recognised
+    @FunctionalInterface
+    interface HeaderReader {
+        long[] read(ByteBuffer header) throws IOException;
+    }
+
+    ByteBuffer header() {
+        return header;
+    }
+
+    long count() {
+        return count;
+    }
+
+    int recordWidth() {
+        return recordWidth;
+    }
+
+    // The chunk holding the record; read it at offsetOf(record)
+    ByteBuffer chunkOf(long record) {
+        return chunks[(int) (record / recordsPerChunk)];
+    }
+
+    int offsetOf(long record) {
+        return (int) (record % recordsPerChunk) * recordWidth;
+    }
+
+    // Mappings are released when collected; closing frees the file handle
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,195 @@
+package edu.ccrm.store;
+
+import edu.ccrm.domain.Student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read-only student archive for data too large to load: fixed-width records
+ * in {@link #DATA_FILE} plus two sorted key indexes, one on id and one on
+ * regNo (upper-cased, as lookups ignore case). All three are memory-mapped,
+ * so opening costs the same for ten records or ten million, and resident
+ * memory is whatever the OS page cache keeps.
+ *
+ * A lookup binary-searches the mapped index, about log2(n) entry reads
+ * touching a handful of pages, then decodes one record into a new
+ * {@link Student}. Archived students are detached snapshots: they are not
+ * held by any service, and changing one does not change the archive.
+ * {@link StudentArchiveConverter} builds the files from a students CSV.
+ *
+ * Data file: a {@link #HEADER_BYTES}-byte header (magic, version, record
+ * width, count, the byte width of each text field, and at
+ * {@link #BUILD_ID_OFFSET} the id of the run that wrote it), then records of
+ * [flags:1][created epoch seconds:8][id][regNo][fullName][email], each text
+ * field a 2-byte UTF-8 length followed by that field's fixed width.
+ * Index files: a header (magic, version, entry width, count, key width, and
+ * the build id), then entries of [key length:2][key, zero padded][record
+ * number:4], sorted by the key's unsigned bytes. The three build ids must
+ * match, so indexes are never read against another run's records.
+ */
+public class MappedStudentArchive implements AutoCloseable {
+    public static final String DATA_FILE = "students.dat";
+    public static final String ID_INDEX_FILE = "students-id.idx";
+    public static final String REG_NO_INDEX_FILE = "students-regno.idx";
+
+    static final int HEADER_BYTES = 64;
+    static final long DATA_MAGIC = 0x4343524D53545531L;   // "CCRMSTU1"
+    static final long INDEX_MAGIC = 0x4343524D49445831L;  // "CCRMIDX1"
+    static final int VERSION = 2;
+    static final int BUILD_ID_OFFSET = HEADER_BYTES - 8;
+    static final int FLAG_ACTIVE = 1;
+
+    private final MappedRecordFile records;
+    private final MappedRecordFile idIndex;
+    private final MappedRecordFile regNoIndex;
+    private final int[] fieldWidths;
+
+    private MappedStudentArchive(MappedRecordFile records, MappedRecordFile idIndex,
+                                 MappedRecordFile regNoIndex, int[] fieldWidths) {
+        this.records = records;
+        this.idIndex = idIndex;
+        this.regNoIndex = regNoIndex;
+        this.fieldWidths = fieldWidths;
+    }
+
+    // Maps the three files; reads only their headers
+    public static MappedStudentArchive open(Path directory) throws IOException {
+        int[] widths = new int[4];
+        long[] buildIds = new long[3];
+        MappedRecordFile records = MappedRecordFile.open(directory.resolve(DATA_FILE), HEADER_BYTES, header -> {
+            checkHeader(header, DATA_MAGIC, DATA_FILE);
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = header.getInt(24 + 4 * i);
+            }
+            buildIds[0] = header.getLong(BUILD_ID_OFFSET);
+            return new long[] {header.getInt(12), header.getLong(16)};
+        });
+        MappedRecordFile idIndex = null;
+        try {
+            idIndex = openIndex(directory.resolve(ID_INDEX_FILE), buildIds, 1);
+            MappedRecordFile regNoIndex = openIndex(directory.resolve(REG_NO_INDEX_FILE), buildIds, 2);
+            // An interrupted conversion can leave one run's indexes beside another's records
+            if (buildIds[1] != buildIds[0] || buildIds[2] != buildIds[0]
+                    || idIndex.count() != records.count() || regNoIndex.count() != records.count()) {
+                regNoIndex.close();
+                throw new IOException("Archive indexes do not match " + DATA_FILE + "; rebuild the archive");
+            }
+            return new MappedStudentArchive(records, idIndex, regNoIndex, widths);
+        } catch (IOException e) {
+            records.close();
+            if (idIndex != null) {
+                idIndex.close();
+            }
+            throw e;
+        }
+    }
+
+    private static MappedRecordFile openIndex(Path file, long[] buildIds, int slot) throws IOException {
+        return MappedRecordFile.open(file, HEADER_BYTES, header -> {
+            checkHeader(header, INDEX_MAGIC, file.getFileName().toString());
+            buildIds[slot] = header.getLong(BUILD_ID_OFFSET);
+            return new long[] {header.getInt(12), header.getLong(16)};
+        });
+    }
+
+    private static void checkHeader(ByteBuffer header, long magic, String name) throws IOException {
+        if (header.getLong(0) != magic) {
+            throw new IOException(name + " is not a student archive file");
+        }
+        if (header.getInt(8) != VERSION) {
+            throw new IOException(name + " has unsupported version " + header.getInt(8));
+        }
+    }
+
+    public long size() {
+        return records.count();
+    }
+
+    public Optional<Student> findById(String id) {
+        return id == null ? Optional.empty() : find(idIndex, id);
+    }
+
+    public Optional<Student> findByRegNo(String regNo) {
+        return regNo == null ? Optional.empty() : find(regNoIndex, regNoKey(regNo));
+    }
+
+    static String regNoKey(String regNo) {
+        return regNo.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private Optional<Student> find(MappedRecordFile index, String key) {
+        byte[] probe = key.getBytes(StandardCharsets.UTF_8);
+        long low = 0;
+        long high = index.count() - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            ByteBuffer chunk = index.chunkOf(mid);
+            int offset = index.offsetOf(mid);
+            int cmp = compareKey(chunk, offset, probe);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                int keyWidth = index.recordWidth() - 6;
+                return Optional.of(decode(chunk.getInt(offset + 2 + keyWidth)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Unsigned byte order, shorter key first on a common prefix; matches the converter's sort
+    private static int compareKey(ByteBuffer chunk, int offset, byte[] probe) {
+        int length = Short.toUnsignedInt(chunk.getShort(offset));
+        int common = Math.min(length, probe.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(chunk.get(offset + 2 + i), probe[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, probe.length);
+    }
+
+    private Student decode(long record) {
+        ByteBuffer chunk = records.chunkOf(record);
+        int position = records.offsetOf(record);
+        boolean active = (chunk.get(position) & FLAG_ACTIVE) != 0;
+        long created = chunk.getLong(position + 1);
+        position += 9;
+        String[] fields = new String[fieldWidths.length];
+        for (int i = 0; i < fields.length; i++) {
+            int length = Short.toUnsignedInt(chunk.getShort(position));
+            byte[] bytes = new byte[length];
+            chunk.get(position + 2, bytes);
+            fields[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += 2 + fieldWidths[i];
+        }
+        Student student = new Student(fields[0], fields[1], fields[2], fields[3],
+            LocalDateTime.ofEpochSecond(created, 0, ZoneOffset.UTC));
+        student.setActive(active);
+        return student;
+    }
+
+    // Bytes per record, for sizing reports
+    public int getRecordWidth() {
+        return records.recordWidth();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            records.close();
+            idIndex.close();
+        } finally {
+            regNoIndex.close();
+        }
+    }
+}
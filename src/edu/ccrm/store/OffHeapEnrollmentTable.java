@@ -0,0 +1,240 @@
+package edu.ccrm.store;
+
+import edu.ccrm.domain.Grade;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Enrollment table kept outside the Java heap.
+ *
+ * Each enrollment is a fixed 32-byte record in direct memory:
+ * <pre>
+ *   0  int    student row  (ColumnarStudentStore)
+ *   4  int    course row   (ColumnarCourseStore)
+ *   8  double marks        (NaN until graded)
+ *  16  long   enrolled at  (epoch seconds, UTC)
+ *  24  byte   grade ordinal (-1 until graded)
+ *  28  int    next record of the same student (-1 ends the chain)
+ * </pre>
+ * Records live in fixed-size direct buffers, so the table grows past the 2 GB
+ * limit of a single buffer and costs the heap only one int per student (the
+ * head of that student's chain). GPA and credit totals walk the chain with
+ * primitive reads and allocate nothing. Direct memory is capped by
+ * -XX:MaxDirectMemorySize, not by -Xmx.
+ *
+ * Reads and writes lock the table. A chain head is written after its record
+ * but in a plain array, so a walk outside the lock could follow it to a
+ * record or chunk not yet visible; walks hold the lock throughout, and a
+ * view reads each field under it.
+ */
+public class OffHeapEnrollmentTable {
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORDS_PER_CHUNK = 1 << 16;
+    private static final int NO_RECORD = -1;
+    private static final byte NOT_GRADED = -1;
+    private static final Grade[] GRADES = Grade.values();
+
+    private static final int STUDENT_OFFSET = 0;
+    private static final int COURSE_OFFSET = 4;
+    private static final int MARKS_OFFSET = 8;
+    private static final int DATE_OFFSET = 16;
+    private static final int GRADE_OFFSET = 24;
+    private static final int NEXT_OFFSET = 28;
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private int[] firstByStudent = new int[0];
+    private volatile int size;
+
+    public synchronized int add(int studentRow, int courseRow, LocalDateTime enrolledAt) {
+        int index = size;
+        if (index == chunks.length * RECORDS_PER_CHUNK) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_SIZE)
+                                             .order(ByteOrder.nativeOrder());
+            chunks = grown;
+        }
+        ensureStudent(studentRow);
+
+        ByteBuffer chunk = chunkOf(index);
+        int base = offsetOf(index);
+        chunk.putInt(base + STUDENT_OFFSET, studentRow);
+        chunk.putInt(base + COURSE_OFFSET, courseRow);
+        chunk.putDouble(base + MARKS_OFFSET, Double.NaN);
+        chunk.putLong(base + DATE_OFFSET, enrolledAt.toEpochSecond(ZoneOffset.UTC));
+        chunk.put(base + GRADE_OFFSET, NOT_GRADED);
+        chunk.putInt(base + NEXT_OFFSET, firstByStudent[studentRow]);
+        firstByStudent[studentRow] = index;
+
+        size = index + 1;
+        return index;
+    }
+
+    public synchronized void recordMarks(int index, double marks) {
+        checkIndex(index);
+        ByteBuffer chunk = chunkOf(index);
+        int base = offsetOf(index);
+        chunk.putDouble(base + MARKS_OFFSET, marks);
+        chunk.put(base + GRADE_OFFSET, (byte) Grade.fromScore(marks).ordinal());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Credit-weighted GPA over the student's graded enrollments
+    public synchronized double calculateGPA(int studentRow, ColumnarCourseStore courses) {
+        double totalGradePoints = 0.0;
+        int totalCredits = 0;
+        for (int i = firstOf(studentRow); i != NO_RECORD; i = nextOf(i)) {
+            ByteBuffer chunk = chunkOf(i);
+            int base = offsetOf(i);
+            byte grade = chunk.get(base + GRADE_OFFSET);
+            if (grade != NOT_GRADED) {
+                int credits = courses.creditsAt(chunk.getInt(base + COURSE_OFFSET));
+                totalGradePoints += GRADES[grade].getPoints() * credits;
+                totalCredits += credits;
+            }
+        }
+        return totalCredits > 0 ? totalGradePoints / totalCredits : 0.0;
+    }
+
+    public synchronized int totalCredits(int studentRow, ColumnarCourseStore courses) {
+        int total = 0;
+        for (int i = firstOf(studentRow); i != NO_RECORD; i = nextOf(i)) {
+            total += courses.creditsAt(chunkOf(i).getInt(offsetOf(i) + COURSE_OFFSET));
+        }
+        return total;
+    }
+
+    public synchronized int enrollmentCount(int studentRow) {
+        int count = 0;
+        for (int i = firstOf(studentRow); i != NO_RECORD; i = nextOf(i)) {
+            count++;
+        }
+        return count;
+    }
+
+    public EnrollmentView view(int index) {
+        return new EnrollmentView().moveTo(index);
+    }
+
+    // Walks one student's enrollments (most recent first) with a single flyweight
+    public synchronized void forEachOfStudent(int studentRow, Consumer<EnrollmentView> action) {
+        EnrollmentView view = new EnrollmentView();
+        for (int i = firstOf(studentRow); i != NO_RECORD; i = nextOf(i)) {
+            action.accept(view.moveTo(i));
+        }
+    }
+
+    public long offHeapBytes() {
+        return (long) chunks.length * RECORDS_PER_CHUNK * RECORD_SIZE;
+    }
+
+    public synchronized long heapBytes() {
+        return 16L + 4L * firstByStudent.length + 16L + 4L * chunks.length + 64L * chunks.length;
+    }
+
+    private int firstOf(int studentRow) {
+        int[] heads = firstByStudent;
+        return studentRow < heads.length ? heads[studentRow] : NO_RECORD;
+    }
+
+    private int nextOf(int index) {
+        return chunkOf(index).getInt(offsetOf(index) + NEXT_OFFSET);
+    }
+
+    private ByteBuffer chunkOf(int index) {
+        return chunks[index / RECORDS_PER_CHUNK];
+    }
+
+    private static int offsetOf(int index) {
+        return (index % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+
+    private void ensureStudent(int studentRow) {
+        if (studentRow >= firstByStudent.length) {
+            int oldLength = firstByStudent.length;
+            firstByStudent = Arrays.copyOf(firstByStudent, Math.max(studentRow + 1, oldLength * 2));
+            Arrays.fill(firstByStudent, oldLength, firstByStudent.length, NO_RECORD);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Enrollment: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Flyweight over one enrollment record.
+     */
+    public class EnrollmentView {
+        private ByteBuffer chunk;
+        private int base;
+        private int index;
+
+        public EnrollmentView moveTo(int index) {
+            synchronized (OffHeapEnrollmentTable.this) {
+                checkIndex(index);
+                this.index = index;
+                this.chunk = chunkOf(index);
+                this.base = offsetOf(index);
+            }
+            return this;
+        }
+
+        public int getIndex() { return index; }
+
+        public int getStudentRow() {
+            synchronized (OffHeapEnrollmentTable.this) {
+                return chunk.getInt(base + STUDENT_OFFSET);
+            }
+        }
+
+        public int getCourseRow() {
+            synchronized (OffHeapEnrollmentTable.this) {
+                return chunk.getInt(base + COURSE_OFFSET);
+            }
+        }
+
+        public boolean isGraded() {
+            synchronized (OffHeapEnrollmentTable.this) {
+                return chunk.get(base + GRADE_OFFSET) != NOT_GRADED;
+            }
+        }
+
+        // NaN when not graded, so callers avoid boxing
+        public double getMarks() {
+            synchronized (OffHeapEnrollmentTable.this) {
+                return chunk.getDouble(base + MARKS_OFFSET);
+            }
+        }
+
+        public Grade getGrade() {
+            synchronized (OffHeapEnrollmentTable.this) {
+                byte grade = chunk.get(base + GRADE_OFFSET);
+                return grade == NOT_GRADED ? null : GRADES[grade];
+            }
+        }
+
+        public long getEnrolledEpochSecond() {
+            synchronized (OffHeapEnrollmentTable.this) {
+                return chunk.getLong(base + DATE_OFFSET);
+            }
+        }
+
+        public LocalDateTime getEnrollmentDate() {
+            return LocalDateTime.ofEpochSecond(getEnrolledEpochSecond(), 0, ZoneOffset.UTC);
+        }
+
+        public double calculateGradePoints(ColumnarCourseStore courses) {
+            Grade grade = getGrade();
+            return grade != null ? grade.getPoints() * courses.creditsAt(getCourseRow()) : 0.0;
+        }
+    }
+}
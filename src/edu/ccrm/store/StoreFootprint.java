@@ -0,0 +1,170 @@
+package edu.ccrm.store;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares heap per record and full-GC pause of the object model against the
+ * columnar stores.
+ *
+ * Usage: java -Xmx4g edu.ccrm.store.StoreFootprint [students] [courses] [enrollmentsPerStudent]
+ */
+public class StoreFootprint {
+    private static final String[] DEPARTMENTS = {
+        "Computer Science", "Mathematics", "Physics", "English", "Chemistry", "Biology"
+    };
+
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int perStudent = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        System.out.printf("=== STORE FOOTPRINT (%d students, %d courses, %d enrollments each) ===%n",
+            studentCount, courseCount, perStudent);
+
+        // Each model is built in its own frame so nothing stays reachable afterwards
+        measureObjectModel(studentCount, courseCount, perStudent);
+        measureColumnar(studentCount, courseCount, perStudent);
+    }
+
+    private static void measureObjectModel(int studentCount, int courseCount, int perStudent) {
+        long baseline = usedHeapAfterGc();
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int i = 0; i < studentCount; i++) {
+            students.add(newStudent(i));
+        }
+        List<Course> courses = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            courses.add(newCourse(i));
+        }
+        long recordHeap = usedHeapAfterGc() - baseline;
+
+        for (int i = 0; i < studentCount; i++) {
+            Student student = students.get(i);
+            for (int j = 0; j < perStudent; j++) {
+                Enrollment enrollment = new Enrollment(student, courses.get((i + j) % courseCount));
+                enrollment.recordMarks((i * 7 + j * 13) % 100);
+                student.getEnrollments().add(enrollment);
+            }
+        }
+        long enrollmentHeap = usedHeapAfterGc() - baseline - recordHeap;
+        long gcMillis = timeFullGc();
+
+        long start = System.nanoTime();
+        double gpaSum = 0;
+        for (int i = 0; i < studentCount; i++) {
+            double points = 0;
+            int credits = 0;
+            for (Enrollment enrollment : students.get(i).getEnrollments()) {
+                points += enrollment.calculateGradePoints();
+                credits += enrollment.getCourse().getCredits();
+            }
+            gpaSum += credits > 0 ? points / credits : 0;
+        }
+        long gpaMillis = (System.nanoTime() - start) / 1_000_000;
+
+        report("Object model", recordHeap, studentCount + courseCount, enrollmentHeap,
+               (long) studentCount * perStudent, gcMillis, gpaMillis, gpaSum);
+        // Keep the data set reachable until it has been measured
+        Reference.reachabilityFence(students);
+        Reference.reachabilityFence(courses);
+    }
+
+    private static void measureColumnar(int studentCount, int courseCount, int perStudent) {
+        long baseline = usedHeapAfterGc();
+        ColumnarStudentStore studentStore = new ColumnarStudentStore();
+        for (int i = 0; i < studentCount; i++) {
+            studentStore.add(newStudent(i));
+        }
+        ColumnarCourseStore courseStore = new ColumnarCourseStore();
+        for (int i = 0; i < courseCount; i++) {
+            courseStore.add(newCourse(i));
+        }
+        long recordHeap = usedHeapAfterGc() - baseline;
+
+        OffHeapEnrollmentTable enrollments = new OffHeapEnrollmentTable();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < studentCount; i++) {
+            for (int j = 0; j < perStudent; j++) {
+                int index = enrollments.add(i, (i + j) % courseCount, now);
+                enrollments.recordMarks(index, (i * 7 + j * 13) % 100);
+            }
+        }
+        long enrollmentHeap = usedHeapAfterGc() - baseline - recordHeap;
+        long gcMillis = timeFullGc();
+
+        long start = System.nanoTime();
+        double gpaSum = 0;
+        for (int i = 0; i < studentCount; i++) {
+            gpaSum += enrollments.calculateGPA(i, courseStore);
+        }
+        long gpaMillis = (System.nanoTime() - start) / 1_000_000;
+
+        report("Columnar/off-heap", recordHeap, studentCount + courseCount, enrollmentHeap,
+               (long) studentCount * perStudent, gcMillis, gpaMillis, gpaSum);
+        System.out.printf("  estimated columns: %,d bytes, off-heap enrollments: %,d bytes%n",
+            studentStore.estimatedBytes() + courseStore.estimatedBytes(), enrollments.offHeapBytes());
+        Reference.reachabilityFence(studentStore);
+        Reference.reachabilityFence(courseStore);
+        Reference.reachabilityFence(enrollments);
+    }
+
+    private static Student newStudent(int i) {
+        return new Student("S" + i, "24BCE" + (10000 + i), "Student Name " + i,
+                           "student" + i + "@uni.edu");
+    }
+
+    private static Course newCourse(int i) {
+        return new Course.Builder("C" + i, "Course Title " + i)
+            .credits(1 + i % 4)
+            .instructor("Dr. Instructor " + (i % 500))
+            .semester(Semester.values()[i % Semester.values().length])
+            .department(DEPARTMENTS[i % DEPARTMENTS.length])
+            .build();
+    }
+
+    private static void report(String label, long recordHeap, int records, long enrollmentHeap,
+                               long enrollmentCount, long gcMillis, long gpaMillis, double gpaSum) {
+        System.out.println(label + ":");
+        System.out.printf("  records:     %,d bytes heap (%.1f bytes/record)%n",
+            recordHeap, (double) recordHeap / records);
+        System.out.printf("  enrollments: %,d bytes heap (%.1f bytes/enrollment)%n",
+            enrollmentHeap, (double) enrollmentHeap / Math.max(1, enrollmentCount));
+        System.out.printf("  full GC: %d ms, GPA pass: %d ms (checksum %.1f)%n", gcMillis, gpaMillis, gpaSum);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Wall time of an explicit full collection with the data set live
+    private static long timeFullGc() {
+        long collectionsBefore = totalGcMillis();
+        long start = System.nanoTime();
+        System.gc();
+        long wall = (System.nanoTime() - start) / 1_000_000;
+        long reported = totalGcMillis() - collectionsBefore;
+        return Math.max(wall, reported);
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,53 @@
+package edu.ccrm.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for low-cardinality strings (departments, instructors,
+ * email domains). Each distinct value is stored once and rows keep an int code.
+ */
+public class StringDictionary {
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public synchronized int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    // Returns NULL_CODE when the value has never been encoded
+    public synchronized int lookup(String value) {
+        Integer code = value != null ? codes.get(value) : null;
+        return code != null ? code : NULL_CODE;
+    }
+
+    public synchronized String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+
+    public synchronized long estimatedBytes() {
+        long bytes = 0;
+        for (String value : values) {
+            // String + backing array + map entry, roughly
+            bytes += 40 + value.length() + 48;
+        }
+        return bytes;
+    }
+}
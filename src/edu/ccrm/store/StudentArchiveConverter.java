@@ -0,0 +1,227 @@
+package edu.ccrm.store;
+
+import edu.ccrm.io.CSVParser;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds a {@link MappedStudentArchive} from a students CSV
+ * (id,regNo,fullName,email[,status]).
+ *
+ * The CSV is streamed twice. The first pass checks rows, finds the widest
+ * value of each field and collects the two keys; the second writes one
+ * fixed-width record per kept row. Rows missing a field, or repeating an id
+ * or regNo already seen, are skipped and counted. Only the keys are held in
+ * memory, so converting needs far less heap than loading the students.
+ *
+ * Every file is written under a temporary name and renamed into place, and
+ * all three headers carry one random build id. A run interrupted between
+ * renames leaves files from two runs side by side; the archive then fails
+ * to open, rather than reading one run's indexes against another's records,
+ * until it is converted again.
+ */
+public final class StudentArchiveConverter {
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+
+    private StudentArchiveConverter() {}
+
+    /**
+     * Summary of one conversion.
+     */
+    public static final class Result {
+        private final long converted;
+        private final long skipped;
+        private final int recordWidth;
+
+        private Result(long converted, long skipped, int recordWidth) {
+            this.converted = converted;
+            this.skipped = skipped;
+            this.recordWidth = recordWidth;
+        }
+
+        public long getConverted() { return converted; }
+        public long getSkipped() { return skipped; }
+        public int getRecordWidth() { return recordWidth; }
+
+        @Override
+        public String toString() {
+            return String.format("%d students archived, %d rows skipped, %d bytes per record",
+                converted, skipped, recordWidth);
+        }
+    }
+
+    public static Result convert(Path csv, Path directory) throws IOException {
+        if (!Files.exists(csv)) {
+            throw new IOException("File not found: " + csv);
+        }
+        Files.createDirectories(directory);
+
+        // Pass 1: which rows to keep, field widths and keys
+        BitSet kept = new BitSet();
+        int[] widths = new int[4];
+        List<byte[]> ids = new ArrayList<>();
+        List<byte[]> regNos = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+        Set<String> seenRegNos = new HashSet<>();
+        long skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            for (int row = 0; (line = reader.readLine()) != null; row++) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = CSVParser.parseLine(line);
+                byte[][] encoded = encode(fields);
+                if (encoded == null) {
+                    skipped++;
+                    continue;
+                }
+                String regNoKey = MappedStudentArchive.regNoKey(fields[1]);
+                if (!seenIds.add(fields[0])) {
+                    skipped++;
+                    continue;
+                }
+                if (!seenRegNos.add(regNoKey)) {
+                    seenIds.remove(fields[0]);
+                    skipped++;
+                    continue;
+                }
+                kept.set(row);
+                for (int i = 0; i < widths.length; i++) {
+                    widths[i] = Math.max(widths[i], encoded[i].length);
+                }
+                ids.add(encoded[0]);
+                regNos.add(regNoKey.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int recordWidth = 1 + 8;
+        for (int width : widths) {
+            recordWidth += 2 + width;
+        }
+        long count = ids.size();
+        Path dataTemp = directory.resolve(MappedStudentArchive.DATA_FILE + ".tmp");
+        Path idTemp = directory.resolve(MappedStudentArchive.ID_INDEX_FILE + ".tmp");
+        Path regNoTemp = directory.resolve(MappedStudentArchive.REG_NO_INDEX_FILE + ".tmp");
+
+        // Pass 2: records in row order, so record numbers match the order of ids
+        long created = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        long buildId = new SecureRandom().nextLong();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             DataOutputStream out = open(dataTemp)) {
+            writeHeader(out, MappedStudentArchive.DATA_MAGIC, recordWidth, count, widths, buildId);
+            reader.readLine();
+            String line;
+            for (int row = 0; (line = reader.readLine()) != null; row++) {
+                if (!kept.get(row)) {
+                    continue;
+                }
+                String[] fields = CSVParser.parseLine(line);
+                byte[][] encoded = encode(fields);
+                boolean active = fields.length < 5 || !fields[4].equalsIgnoreCase("INACTIVE");
+                out.writeByte(active ? MappedStudentArchive.FLAG_ACTIVE : 0);
+                out.writeLong(created);
+                for (int i = 0; i < widths.length; i++) {
+                    writePadded(out, encoded[i], widths[i]);
+                }
+            }
+        }
+
+        writeIndex(idTemp, ids, buildId);
+        writeIndex(regNoTemp, regNos, buildId);
+        moveIntoPlace(idTemp, directory.resolve(MappedStudentArchive.ID_INDEX_FILE));
+        moveIntoPlace(regNoTemp, directory.resolve(MappedStudentArchive.REG_NO_INDEX_FILE));
+        moveIntoPlace(dataTemp, directory.resolve(MappedStudentArchive.DATA_FILE));
+        return new Result(count, skipped, recordWidth);
+    }
+
+    // UTF-8 of id, regNo, fullName and email; null if one is missing or too long
+    private static byte[][] encode(String[] fields) {
+        if (fields.length < 4) {
+            return null;
+        }
+        byte[][] encoded = new byte[4][];
+        for (int i = 0; i < 4; i++) {
+            if (fields[i].isEmpty()) {
+                return null;
+            }
+            encoded[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+            if (encoded[i].length > MAX_FIELD_BYTES) {
+                return null;
+            }
+        }
+        return encoded;
+    }
+
+    private static void writeIndex(Path file, List<byte[]> keys, long buildId) throws IOException {
+        int keyWidth = 0;
+        for (byte[] key : keys) {
+            keyWidth = Math.max(keyWidth, key.length);
+        }
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys.get(a), keys.get(b)));
+        try (DataOutputStream out = open(file)) {
+            writeHeader(out, MappedStudentArchive.INDEX_MAGIC, 2 + keyWidth + 4, keys.size(), new int[] {keyWidth},
+                buildId);
+            for (int record : order) {
+                writePadded(out, keys.get(record), keyWidth);
+                out.writeInt(record);
+            }
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, long magic, int recordWidth, long count, int[] widths,
+                                    long buildId) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MappedStudentArchive.HEADER_BYTES);
+        header.putLong(magic).putInt(MappedStudentArchive.VERSION).putInt(recordWidth).putLong(count);
+        for (int width : widths) {
+            header.putInt(width);
+        }
+        header.putLong(MappedStudentArchive.BUILD_ID_OFFSET, buildId);
+        out.write(header.array());
+    }
+
+    private static void writePadded(DataOutputStream out, byte[] value, int width) throws IOException {
+        out.writeShort(value.length);
+        out.write(value);
+        for (int i = value.length; i < width; i++) {
+            out.writeByte(0);
+        }
+    }
+
+    private static DataOutputStream open(Path file) throws IOException {
+        OutputStream stream = Files.newOutputStream(file);
+        return new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+    }
+
+    static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
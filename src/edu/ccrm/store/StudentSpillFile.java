@@ -0,0 +1,250 @@
+package edu.ccrm.store;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Enrollment;
+import edu.ccrm.domain.Student;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Append-only file of serialized students, with enrollments and marks, for
+ * students moved out of the heap. Writing a student again appends a new
+ * record and leaves the old one as garbage; once garbage is over half the
+ * file, the live records are copied to a fresh file that replaces it.
+ *
+ * Only the keys stay in memory: id to file offset, and regNo (upper-cased,
+ * as lookups ignore case) to id. A read is one positioned read of the
+ * record. The file is scratch space, truncated on open; the students in it
+ * are persisted by the normal exports and the sharded store.
+ *
+ * Record: [payload length:4] then DataOutput fields id, regNo, fullName,
+ * email, active, createdDate, enrollment count, and per enrollment course
+ * code, enrollment date, has-marks flag and marks.
+ */
+public final class StudentSpillFile implements AutoCloseable {
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final Path file;
+    private FileChannel channel;
+    private final Map<String, Long> offsets = new HashMap<>();
+    private final Map<String, String> idsByRegNo = new HashMap<>();
+    private long end;
+    private long garbage;
+
+    private StudentSpillFile(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    public static StudentSpillFile create(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        return new StudentSpillFile(file, openEmpty(file));
+    }
+
+    private static FileChannel openEmpty(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // Writes the student's current state, replacing any earlier record of it
+    public synchronized void put(Student student) throws IOException {
+        byte[] record = encode(student);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + record.length);
+        buffer.putInt(record.length).put(record).flip();
+        long offset = end;
+        while (buffer.hasRemaining()) {
+            end += channel.write(buffer, end);
+        }
+        release(student.getId());
+        offsets.put(student.getId(), offset);
+        if (student.getRegNo() != null) {
+            idsByRegNo.put(regNoKey(student.getRegNo()), student.getId());
+        }
+        if (garbage > MIN_COMPACT_BYTES && garbage > end / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Decodes a new Student from the latest record for the id. Enrollments
+     * whose course the resolver returns null for are dropped.
+     */
+    public synchronized Optional<Student> get(String id, Function<String, Course> courses) throws IOException {
+        Long offset = id == null ? null : offsets.get(id);
+        return offset == null ? Optional.empty() : Optional.of(decode(read(offset), courses));
+    }
+
+    public synchronized Optional<String> idOfRegNo(String regNo) {
+        return regNo == null ? Optional.empty() : Optional.ofNullable(idsByRegNo.get(regNoKey(regNo)));
+    }
+
+    public synchronized boolean contains(String id) {
+        return id != null && offsets.containsKey(id);
+    }
+
+    // Forgets the student; its record becomes garbage
+    public synchronized void remove(String id) {
+        release(id);
+    }
+
+    public synchronized List<String> ids() {
+        return new ArrayList<>(offsets.keySet());
+    }
+
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    public synchronized long getFileBytes() {
+        return end;
+    }
+
+    private void release(String id) {
+        Long old = offsets.remove(id);
+        if (old == null) {
+            return;
+        }
+        try {
+            byte[] record = read(old);
+            garbage += 4 + record.length;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            in.readUTF();
+            String regNo = readNullable(in);
+            if (regNo != null) {
+                idsByRegNo.remove(regNoKey(regNo), id);
+            }
+        } catch (IOException e) {
+            // Unreadable old record: at worst a stale regNo entry, which get() then misses
+        }
+    }
+
+    private int lengthAt(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        while (length.hasRemaining()) {
+            if (channel.read(length, offset + length.position()) < 0) {
+                throw new IOException("Spill file truncated at " + offset);
+            }
+        }
+        return length.getInt(0);
+    }
+
+    private byte[] read(long offset) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(lengthAt(offset));
+        while (record.hasRemaining()) {
+            if (channel.read(record, offset + 4 + record.position()) < 0) {
+                throw new IOException("Spill file truncated at " + offset);
+            }
+        }
+        return record.array();
+    }
+
+    // Copies the live records to a new file and swaps it in
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel fresh = openEmpty(temp);
+        long position = 0;
+        try {
+            for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                long length = 4L + lengthAt(entry.getValue());
+                long copied = 0;
+                while (copied < length) {
+                    copied += channel.transferTo(entry.getValue() + copied, length - copied, fresh);
+                }
+                entry.setValue(position);
+                position += length;
+            }
+        } catch (IOException e) {
+            fresh.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        channel.close();
+        fresh.close();
+        StudentArchiveConverter.moveIntoPlace(temp, file);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        end = position;
+        garbage = 0;
+    }
+
+    private static String regNoKey(String regNo) {
+        return regNo.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static byte[] encode(Student student) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(student.getId());
+            writeNullable(out, student.getRegNo());
+            writeNullable(out, student.getFullName());
+            writeNullable(out, student.getEmail());
+            out.writeBoolean(student.isActive());
+            out.writeUTF(student.getCreatedDate().toString());
+            List<Enrollment> enrollments = student.getEnrollments();
+            out.writeInt(enrollments.size());
+            for (Enrollment enrollment : enrollments) {
+                out.writeUTF(enrollment.getCourse().getCode());
+                out.writeUTF(enrollment.getEnrollmentDate().toString());
+                out.writeBoolean(enrollment.getMarks() != null);
+                out.writeDouble(enrollment.getMarks() == null ? 0 : enrollment.getMarks());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Student decode(byte[] record, Function<String, Course> courses) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        String id = in.readUTF();
+        String regNo = readNullable(in);
+        String fullName = readNullable(in);
+        String email = readNullable(in);
+        boolean active = in.readBoolean();
+        Student student = new Student(id, regNo, fullName, email, LocalDateTime.parse(in.readUTF()));
+        student.setActive(active);
+        int enrollments = in.readInt();
+        for (int i = 0; i < enrollments; i++) {
+            String code = in.readUTF();
+            LocalDateTime date = LocalDateTime.parse(in.readUTF());
+            boolean graded = in.readBoolean();
+            double marks = in.readDouble();
+            Course course = courses.apply(code);
+            if (course != null) {
+                student.reattachEnrollment(course, date, graded ? marks : null);
+            }
+        }
+        return student;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,61 @@
+package edu.ccrm.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Variable-length strings packed into one UTF-8 byte heap with an offset and
+ * length per row, instead of one String object (plus array) per value.
+ * Overwriting a value appends the new bytes; the old bytes are left behind.
+ */
+class TextColumn {
+    private static final int NULL_LENGTH = -1;
+
+    private byte[] data = new byte[1024];
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int used;
+
+    void set(int row, String value) {
+        ensureRows(row + 1);
+        if (value == null) {
+            offsets[row] = 0;
+            lengths[row] = NULL_LENGTH;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (used + bytes.length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, used + bytes.length));
+        }
+        System.arraycopy(bytes, 0, data, used, bytes.length);
+        offsets[row] = used;
+        lengths[row] = bytes.length;
+        used += bytes.length;
+    }
+
+    String get(int row) {
+        int length = lengths[row];
+        return length == NULL_LENGTH ? null : new String(data, offsets[row], length, StandardCharsets.UTF_8);
+    }
+
+    // Compares without decoding the stored value
+    boolean matches(int row, byte[] key) {
+        int length = lengths[row];
+        if (length != key.length) {
+            return false;
+        }
+        return Arrays.equals(data, offsets[row], offsets[row] + length, key, 0, key.length);
+    }
+
+    long estimatedBytes() {
+        return 16L + data.length + 16L + 4L * offsets.length + 16L + 4L * lengths.length;
+    }
+
+    private void ensureRows(int rows) {
+        if (rows > offsets.length) {
+            int capacity = Math.max(rows, offsets.length * 2);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package edu.ccrm.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Terms with their values, searchable by Levenshtein distance without
+ * comparing the query to every term.
+ *
+ * Uses symmetric deletion: each term is filed under every string reachable by
+ * deleting up to its edit budget of characters. Two strings within distance k
+ * always share such a variant with at most k deletions on each side, so a
+ * query only generates its own variants, looks them up, and verifies the few
+ * candidate terms with a bounded distance. A match must be within both the
+ * query radius and the term's own budget.
+ */
+public class FuzzyDictionary<V> {
+    private final ToIntFunction<String> editBudget;
+    private final Map<String, Set<V>> terms = new HashMap<>();
+    // Variant to the terms it came from: a String, or a String[] when shared.
+    // A term is not filed under itself; visit() probes the terms map directly.
+    private final Map<String, Object> variants = new HashMap<>();
+
+    public FuzzyDictionary(ToIntFunction<String> editBudget) {
+        this.editBudget = editBudget;
+    }
+
+    public synchronized void add(String term, V value) {
+        Set<V> values = terms.get(term);
+        if (values == null) {
+            values = new LinkedHashSet<>(2);
+            terms.put(term, values);
+            for (String variant : deletions(term, editBudget.applyAsInt(term))) {
+                if (!variant.equals(term)) {
+                    link(variant, term);
+                }
+            }
+        }
+        values.add(value);
+    }
+
+    public synchronized void remove(String term, V value) {
+        Set<V> values = terms.get(term);
+        if (values == null || !values.remove(value) || !values.isEmpty()) {
+            return;
+        }
+        terms.remove(term);
+        for (String variant : deletions(term, editBudget.applyAsInt(term))) {
+            unlink(variant, term);
+        }
+    }
+
+    /**
+     * Calls the visitor once per term within radius of the query. The value
+     * set is live and must not be kept past the call.
+     */
+    public synchronized void visit(String query, int radius, MatchVisitor<V> visitor) {
+        Set<String> checked = new HashSet<>();
+        for (String variant : deletions(query, radius)) {
+            offer(query, radius, variant, checked, visitor);
+            Object sources = variants.get(variant);
+            if (sources instanceof String) {
+                offer(query, radius, (String) sources, checked, visitor);
+            } else if (sources != null) {
+                for (String term : (String[]) sources) {
+                    offer(query, radius, term, checked, visitor);
+                }
+            }
+        }
+    }
+
+    public synchronized int termCount() {
+        return terms.size();
+    }
+
+    public synchronized int variantCount() {
+        return variants.size();
+    }
+
+    private void offer(String query, int radius, String term, Set<String> checked, MatchVisitor<V> visitor) {
+        Set<V> values = terms.get(term);
+        if (values == null || !checked.add(term)) {
+            return;
+        }
+        int limit = Math.min(radius, editBudget.applyAsInt(term));
+        int distance = distance(query, term, limit);
+        if (distance <= limit) {
+            visitor.match(term, distance, values);
+        }
+    }
+
+    private void link(String variant, String term) {
+        Object sources = variants.get(variant);
+        if (sources == null) {
+            variants.put(variant, term);
+        } else if (sources instanceof String) {
+            variants.put(variant, new String[] {(String) sources, term});
+        } else {
+            String[] old = (String[]) sources;
+            String[] grown = Arrays.copyOf(old, old.length + 1);
+            grown[old.length] = term;
+            variants.put(variant, grown);
+        }
+    }
+
+    private void unlink(String variant, String term) {
+        Object sources = variants.get(variant);
+        if (term.equals(sources)) {
+            variants.remove(variant);
+        } else if (sources instanceof String[]) {
+            String[] old = (String[]) sources;
+            String[] kept = Arrays.stream(old).filter(s -> !s.equals(term)).toArray(String[]::new);
+            variants.put(variant, kept.length == 1 ? kept[0] : kept);
+        }
+    }
+
+    // The term itself plus every string left after deleting 1..edits characters
+    private static Set<String> deletions(String term, int edits) {
+        Set<String> result = new HashSet<>();
+        result.add(term);
+        Set<String> frontier = result;
+        for (int round = 0; round < edits; round++) {
+            Set<String> next = new HashSet<>();
+            for (String word : frontier) {
+                for (int i = 0; i < word.length(); i++) {
+                    String shorter = word.substring(0, i) + word.substring(i + 1);
+                    if (!result.contains(shorter)) {
+                        next.add(shorter);
+                    }
+                }
+            }
+            result.addAll(next);
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Levenshtein distance over two rolling rows. Stops early and returns
+     * limit + 1 once every cell in a row exceeds limit.
+     */
+    public static int distance(String a, String b, int limit) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a.length() - b.length() > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Receives one matching term during {@link #visit}.
+     */
+    @FunctionalInterface
+    public interface MatchVisitor<V> {
+        void match(String term, int distance, Set<V> values);
+    }
+}
@@ -0,0 +1,239 @@
+package edu.ccrm.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Half-open integer intervals [start, end) mapped to values, in an AVL tree
+ * ordered by (start, end). Every node also tracks the largest end in its
+ * subtree. An overlap search can then skip any subtree whose largest end
+ * is at or before the query start, and any right subtree once node starts
+ * pass the query end. Finding one overlap takes O(log n); listing all k
+ * takes O(log n + k).
+ *
+ * Equal intervals share a node. Not thread-safe; callers lock.
+ */
+public class IntervalTree<V> {
+    private Node<V> root;
+    private int size;
+
+    private static final class Node<V> {
+        private final int start;
+        private final int end;
+        private final List<V> values = new ArrayList<>(1);
+        private int maxEnd;
+        private int height = 1;
+        private Node<V> left;
+        private Node<V> right;
+
+        private Node(int start, int end) {
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    /**
+     * One stored interval and its value.
+     */
+    public static final class Entry<V> {
+        private final int start;
+        private final int end;
+        private final V value;
+
+        private Entry(int start, int end, V value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+
+        public int getStart() { return start; }
+        public int getEnd() { return end; }
+        public V getValue() { return value; }
+    }
+
+    public void add(int start, int end, V value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Empty interval [" + start + ", " + end + ")");
+        }
+        root = insert(root, start, end, value);
+        size++;
+    }
+
+    public boolean remove(int start, int end, V value) {
+        int before = size;
+        root = delete(root, start, end, value);
+        return size < before;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Some stored interval overlapping [start, end), or null
+    public Entry<V> findOverlap(int start, int end) {
+        Node<V> node = root;
+        while (node != null) {
+            if (node.start < end && start < node.end) {
+                return new Entry<>(node.start, node.end, node.values.get(0));
+            }
+            // If the left subtree reaches past start it must hold an overlap, or nothing to the right can
+            if (node.left != null && node.left.maxEnd > start) {
+                node = node.left;
+            } else {
+                node = node.start < end ? node.right : null;
+            }
+        }
+        return null;
+    }
+
+    public List<Entry<V>> findAllOverlaps(int start, int end) {
+        List<Entry<V>> found = new ArrayList<>();
+        collect(root, start, end, found);
+        return found;
+    }
+
+    // Every interval, in (start, end) order
+    public List<Entry<V>> entries() {
+        List<Entry<V>> all = new ArrayList<>(size);
+        collect(root, Integer.MIN_VALUE, Integer.MAX_VALUE, all);
+        return all;
+    }
+
+    private void collect(Node<V> node, int start, int end, List<Entry<V>> found) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, found);
+        if (node.start < end && start < node.end) {
+            for (V value : node.values) {
+                found.add(new Entry<>(node.start, node.end, value));
+            }
+        }
+        if (node.start < end) {
+            collect(node.right, start, end, found);
+        }
+    }
+
+    private static int compare(int start, int end, Node<?> node) {
+        int c = Integer.compare(start, node.start);
+        return c != 0 ? c : Integer.compare(end, node.end);
+    }
+
+    private Node<V> insert(Node<V> node, int start, int end, V value) {
+        if (node == null) {
+            Node<V> created = new Node<>(start, end);
+            created.values.add(value);
+            return created;
+        }
+        int c = compare(start, end, node);
+        if (c == 0) {
+            node.values.add(value);
+            return node;
+        }
+        if (c < 0) {
+            node.left = insert(node.left, start, end, value);
+        } else {
+            node.right = insert(node.right, start, end, value);
+        }
+        return rebalance(node);
+    }
+
+    private Node<V> delete(Node<V> node, int start, int end, V value) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(start, end, node);
+        if (c < 0) {
+            node.left = delete(node.left, start, end, value);
+        } else if (c > 0) {
+            node.right = delete(node.right, start, end, value);
+        } else {
+            if (!node.values.remove(value)) {
+                return node;
+            }
+            size--;
+            if (!node.values.isEmpty()) {
+                return node;
+            }
+            if (node.left == null || node.right == null) {
+                return node.left != null ? node.left : node.right;
+            }
+            // Replace with the in-order successor
+            Node<V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node<V> replacement = new Node<>(successor.start, successor.end);
+            replacement.values.addAll(successor.values);
+            replacement.right = removeMin(node.right);
+            replacement.left = node.left;
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private Node<V> removeMin(Node<V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private Node<V> rebalance(Node<V> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<V> rotateRight(Node<V> node) {
+        Node<V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<V> rotateLeft(Node<V> node) {
+        Node<V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<V> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        int maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+}
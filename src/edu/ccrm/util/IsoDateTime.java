@@ -0,0 +1,73 @@
+package edu.ccrm.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the text LocalDateTime.toString() writes, yyyy-MM-ddTHH:mm with
+ * optional :ss and a fraction of up to nine digits, by reading the digits
+ * at their fixed positions. The general formatter copies its field map for
+ * every optional section, which is most of the cost of loading enrollments
+ * from a file. Anything else, including out-of-range values, goes to
+ * LocalDateTime.parse, so errors are reported as it reports them.
+ */
+public final class IsoDateTime {
+    private static final int[] POWERS = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    private IsoDateTime() {
+    }
+
+    public static LocalDateTime parse(String text) {
+        int length = text.length();
+        if (length == 16 || length >= 19 && length != 20 && length <= 29
+                && text.charAt(16) == ':' && (length == 19 || text.charAt(19) == '.')) {
+            int year = digits(text, 0, 4);
+            int month = separated(text, 4, '-');
+            int day = separated(text, 7, '-');
+            int hour = separated(text, 10, 'T');
+            int minute = separated(text, 13, ':');
+            int second = length == 16 ? 0 : digits(text, 17, 19);
+            int nanos = 0;
+            if (length > 20) {
+                int fraction = digits(text, 20, length);
+                nanos = fraction < 0 ? -1 : fraction * POWERS[29 - length];
+            }
+            if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0 && nanos >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+                } catch (DateTimeException e) {
+                    // Out of range; let the formatter report it
+                }
+            }
+        }
+        return LocalDateTime.parse(text);
+    }
+
+    public static boolean isValid(String text) {
+        try {
+            parse(text);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // The two digits after the separator at index, or -1
+    private static int separated(String text, int index, char separator) {
+        return text.charAt(index) == separator ? digits(text, index + 1, index + 3) : -1;
+    }
+
+    // The decimal value of text[from, to), or -1 if any of it is not a digit
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
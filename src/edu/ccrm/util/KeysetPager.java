@@ -0,0 +1,78 @@
+package edu.ccrm.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keyset (cursor) pagination over a lazy stream.
+ *
+ * Only records ordered after the cursor are considered, and a bounded heap keeps
+ * the smallest {@code pageSize} of them, so memory depends on the page size and
+ * never on the number of records scanned.
+ */
+public final class KeysetPager {
+
+    private KeysetPager() {}
+
+    public static <T> Page<T> page(Stream<T> source, Function<? super T, SortKey> keyOf,
+                                   String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        SortKey after = (cursor == null || cursor.isEmpty()) ? null : SortKey.fromCursor(cursor);
+
+        // Max-heap on key: the head is the largest key currently on the page
+        PriorityQueue<Keyed<T>> heap = new PriorityQueue<>(pageSize + 1,
+            Comparator.comparing((Keyed<T> k) -> k.key).reversed());
+        boolean more = false;
+
+        try (source) {
+            Iterator<T> it = source.iterator();
+            while (it.hasNext()) {
+                T item = it.next();
+                SortKey key = keyOf.apply(item);
+                if (after != null) {
+                    if (!key.isCompatibleWith(after)) {
+                        throw new IllegalArgumentException("Cursor does not match the requested sort order");
+                    }
+                    if (key.compareTo(after) <= 0) {
+                        continue;
+                    }
+                }
+                if (heap.size() < pageSize) {
+                    heap.add(new Keyed<>(item, key));
+                } else {
+                    more = true;
+                    if (key.compareTo(heap.peek().key) < 0) {
+                        heap.poll();
+                        heap.add(new Keyed<>(item, key));
+                    }
+                }
+            }
+        }
+
+        List<Keyed<T>> ordered = new ArrayList<>(heap);
+        ordered.sort(Comparator.comparing(k -> k.key));
+        List<T> items = new ArrayList<>(ordered.size());
+        for (Keyed<T> keyed : ordered) {
+            items.add(keyed.item);
+        }
+        String nextCursor = more ? ordered.get(ordered.size() - 1).key.toCursor() : null;
+        return new Page<>(items, nextCursor);
+    }
+
+    private static final class Keyed<T> {
+        private final T item;
+        private final SortKey key;
+
+        private Keyed(T item, SortKey key) {
+            this.item = item;
+            this.key = key;
+        }
+    }
+}
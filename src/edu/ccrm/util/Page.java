@@ -0,0 +1,21 @@
+package edu.ccrm.util;
+
+import java.util.List;
+
+/**
+ * One page of results plus the cursor to fetch the next one
+ * (null when this is the last page).
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = List.copyOf(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+}
@@ -0,0 +1,353 @@
+package edu.ccrm.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Compressed prefix tree from string keys to values, for completions.
+ *
+ * Chains of single-child nodes are merged into one edge label, stored as a
+ * bare char[]. Children sit in an exactly-sized array sorted by first
+ * character, and a value filed under one key is held directly. Keys sharing a
+ * prefix store it once, so a node costs a few dozen bytes.
+ *
+ * {@link #complete} ranks shorter keys first and then alphabetically. Every
+ * node tracks the length of the shortest key below it, which lets the walk
+ * head straight for the best-ranked keys. It touches about as many nodes as
+ * results it returns, however many keys share the prefix.
+ */
+public class RadixTree<V> {
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Node root = new Node(NO_CHARS);
+    private int keyCount;
+    private int nodeCount = 1;
+
+    public synchronized void put(String key, V value) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            path.push(node);
+            int slot = node.find(key.charAt(i));
+            if (slot < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                node.insert(-slot - 1, leaf);
+                nodeCount++;
+                node = leaf;
+                break;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                // Split the edge where the new key diverges
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.children = new Node[] {child};
+                middle.updateShortest();
+                node.children[slot] = middle;
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.addValue(value) && node.valueCount() == 1) {
+            keyCount++;
+        }
+        path.push(node);
+        path.forEach(Node::updateShortest);
+    }
+
+    public synchronized void remove(String key, V value) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int slot = node.find(key.charAt(i));
+            if (slot < 0) {
+                return;
+            }
+            Node child = node.children[slot];
+            if (!labelMatches(child.label, key, i)) {
+                return;
+            }
+            path.push(node);
+            node = child;
+            i += child.label.length;
+        }
+        if (!node.removeValue(value) || node.valueCount() > 0) {
+            return;
+        }
+        keyCount--;
+        node.updateShortest();
+        // Drop the emptied leaf and re-merge any parent left with a single child
+        while (!path.isEmpty() && node.valueCount() == 0 && node.children.length <= 1) {
+            Node parent = path.pop();
+            int slot = parent.find(node.label[0]);
+            if (node.children.length == 0) {
+                parent.delete(slot);
+            } else {
+                Node only = node.children[0];
+                char[] merged = Arrays.copyOf(node.label, node.label.length + only.label.length);
+                System.arraycopy(only.label, 0, merged, node.label.length, only.label.length);
+                only.label = merged;
+                parent.children[slot] = only;
+            }
+            nodeCount--;
+            node = parent;
+        }
+        node.updateShortest();
+        path.forEach(Node::updateShortest);
+    }
+
+    // Up to limit distinct values under keys starting with prefix, shortest keys first
+    public synchronized List<V> complete(String prefix, int limit) {
+        List<V> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        Node node = root;
+        StringBuilder reached = new StringBuilder();
+        int i = 0;
+        while (i < prefix.length()) {
+            int slot = node.find(prefix.charAt(i));
+            if (slot < 0) {
+                return result;
+            }
+            Node child = node.children[slot];
+            // The prefix may end partway along the child's label
+            int common = commonPrefix(child.label, prefix, i);
+            if (common < child.label.length && i + common < prefix.length()) {
+                return result;
+            }
+            reached.append(child.label);
+            node = child;
+            i += child.label.length;
+        }
+        if (node.shortest == Integer.MAX_VALUE) {
+            return result;
+        }
+
+        Set<V> seen = new LinkedHashSet<>();
+        PriorityQueue<Pending> frontier = new PriorityQueue<>(
+            Comparator.<Pending>comparingInt(p -> p.bound).thenComparing(p -> p.key));
+        frontier.add(new Pending(reached.toString(), node, false));
+        while (!frontier.isEmpty() && seen.size() < limit) {
+            Pending next = frontier.poll();
+            if (next.emit) {
+                next.node.<V>forEachValue(value -> {
+                    if (seen.size() < limit) {
+                        seen.add(value);
+                    }
+                });
+                continue;
+            }
+            // A node's own values rank at its key length, its children at theirs
+            if (next.node.valueCount() > 0) {
+                frontier.add(new Pending(next.key, next.node, true));
+            }
+            for (Node child : next.node.children) {
+                if (child.shortest != Integer.MAX_VALUE) {
+                    frontier.add(new Pending(next.key + new String(child.label), child, false));
+                }
+            }
+        }
+        result.addAll(seen);
+        return result;
+    }
+
+    public synchronized int size() {
+        return keyCount;
+    }
+
+    public synchronized int nodeCount() {
+        return nodeCount;
+    }
+
+    // Approximate retained heap with compressed oops, excluding the values themselves
+    public synchronized long estimatedBytes() {
+        long total = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            total += 24;                                  // header, three references, shortest
+            total += align(16 + 2L * node.label.length);
+            if (node.children.length > 0) {
+                total += align(16 + 4L * node.children.length);
+            }
+            if (node.values instanceof Object[]) {
+                total += align(16 + 4L * ((Object[]) node.values).length);
+            }
+            for (Node child : node.children) {
+                pending.push(child);
+            }
+        }
+        return total;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int n = 0;
+        while (n < max && label[n] == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static boolean labelMatches(char[] label, String key, int offset) {
+        return label.length <= key.length() - offset && commonPrefix(label, key, offset) == label.length;
+    }
+
+    private static final class Pending {
+        private final String key;
+        private final Node node;
+        // True once the node's children are queued and only its own values remain
+        private final boolean emit;
+        // Length of the shortest key this entry can still produce
+        private final int bound;
+
+        private Pending(String key, Node node, boolean emit) {
+            this.key = key;
+            this.node = node;
+            this.emit = emit;
+            this.bound = emit ? key.length() : key.length() + node.shortest;
+        }
+    }
+
+    private static final class Node {
+        private char[] label;
+        private Node[] children = NO_NODES;
+        // null, a single value, or Object[] of values
+        private Object values;
+        // Length of the shortest key suffix below this node; 0 if it holds values
+        private int shortest = Integer.MAX_VALUE;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        // Binary search on first characters; negative means (-insertionPoint - 1)
+        private int find(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].label[0];
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        private void insert(int slot, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, slot);
+            grown[slot] = child;
+            System.arraycopy(children, slot, grown, slot + 1, children.length - slot);
+            children = grown;
+        }
+
+        private void delete(int slot) {
+            if (children.length == 1) {
+                children = NO_NODES;
+                return;
+            }
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, slot);
+            System.arraycopy(children, slot + 1, shrunk, slot, shrunk.length - slot);
+            children = shrunk;
+        }
+
+        private void updateShortest() {
+            int best = values != null ? 0 : Integer.MAX_VALUE;
+            for (Node child : children) {
+                if (child.shortest != Integer.MAX_VALUE) {
+                    best = Math.min(best, child.label.length + child.shortest);
+                }
+            }
+            shortest = best;
+        }
+
+        private int valueCount() {
+            if (values == null) {
+                return 0;
+            }
+            return values instanceof Object[] ? ((Object[]) values).length : 1;
+        }
+
+        private boolean addValue(Object value) {
+            if (values == null) {
+                values = value;
+                return true;
+            }
+            if (values instanceof Object[]) {
+                Object[] old = (Object[]) values;
+                for (Object existing : old) {
+                    if (existing.equals(value)) {
+                        return false;
+                    }
+                }
+                Object[] grown = Arrays.copyOf(old, old.length + 1);
+                grown[old.length] = value;
+                values = grown;
+                return true;
+            }
+            if (values.equals(value)) {
+                return false;
+            }
+            values = new Object[] {values, value};
+            return true;
+        }
+
+        private boolean removeValue(Object value) {
+            if (values == null) {
+                return false;
+            }
+            if (!(values instanceof Object[])) {
+                if (!values.equals(value)) {
+                    return false;
+                }
+                values = null;
+                return true;
+            }
+            Object[] old = (Object[]) values;
+            Object[] kept = Arrays.stream(old).filter(v -> !v.equals(value)).toArray();
+            if (kept.length == old.length) {
+                return false;
+            }
+            values = kept.length == 1 ? kept[0] : kept;
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <V> void forEachValue(Consumer<V> action) {
+            if (values instanceof Object[]) {
+                for (Object value : (Object[]) values) {
+                    action.accept((V) value);
+                }
+            } else if (values != null) {
+                action.accept((V) values);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package edu.ccrm.util;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Compares heap and prefix-query time of {@link RadixTree} against a plain
+ * TreeMap holding the same completion keys (regNos and course-title words).
+ *
+ * Usage: java -Xmx2g edu.ccrm.util.RadixTreeFootprint [students] [courses]
+ */
+public class RadixTreeFootprint {
+    private static final String[] PROGRAMS = {"BCE", "BAM", "BME", "BEC", "BCS"};
+    private static final String[] TITLE_WORDS = {
+        "introduction", "advanced", "data", "structures", "programming", "calculus",
+        "linear", "algebra", "physics", "organic", "chemistry", "networks", "systems", "design"
+    };
+
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        List<String> keys = new ArrayList<>(studentCount + courseCount * 3);
+        for (int i = 0; i < studentCount; i++) {
+            keys.add(("2" + (i % 5) + PROGRAMS[(i / 5) % PROGRAMS.length] + (10000 + i / 25)).toLowerCase());
+        }
+        for (int i = 0; i < courseCount; i++) {
+            String title = TITLE_WORDS[i % TITLE_WORDS.length] + " "
+                + TITLE_WORDS[(i / TITLE_WORDS.length) % TITLE_WORDS.length] + " " + i;
+            String[] words = title.split(" ");
+            for (int w = 0; w < words.length; w++) {
+                keys.add(String.join(" ", Arrays.copyOfRange(words, w, words.length)));
+            }
+        }
+        String[] prefixes = {"24b", "21bce1", "22bam100", "data", "introduction p", "s"};
+
+        System.out.printf("=== COMPLETION INDEX FOOTPRINT (%,d keys) ===%n", keys.size());
+        measureRadixTree(keys, prefixes);
+        measureTreeMap(keys, prefixes);
+    }
+
+    private static void measureRadixTree(List<String> keys, String[] prefixes) {
+        long baseline = usedHeapAfterGc();
+        RadixTree<Integer> tree = new RadixTree<>();
+        for (int i = 0; i < keys.size(); i++) {
+            tree.put(keys.get(i), i & 1023);
+        }
+        long heap = usedHeapAfterGc() - baseline;
+
+        long start = System.nanoTime();
+        int results = 0;
+        for (int round = 0; round < 2_000; round++) {
+            for (String prefix : prefixes) {
+                results += tree.complete(prefix, 10).size();
+            }
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / (2_000.0 * prefixes.length);
+
+        System.out.println("Radix tree:");
+        System.out.printf("  heap: %,d bytes (%.1f bytes/key), estimated %,d bytes, %,d nodes%n",
+            heap, (double) heap / keys.size(), tree.estimatedBytes(), tree.nodeCount());
+        System.out.printf("  top-10 completion: %.2f us/query (%d results)%n", micros, results);
+        Reference.reachabilityFence(tree);
+    }
+
+    private static void measureTreeMap(List<String> keys, String[] prefixes) {
+        long baseline = usedHeapAfterGc();
+        TreeMap<String, Integer> map = new TreeMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            // Copy the key so the map owns its strings, as it would when loaded from records
+            map.put(new String(keys.get(i).toCharArray()), i & 1023);
+        }
+        long heap = usedHeapAfterGc() - baseline;
+
+        long start = System.nanoTime();
+        int results = 0;
+        for (int round = 0; round < 2_000; round++) {
+            for (String prefix : prefixes) {
+                // Alphabetical, not ranked by key length
+                NavigableMap<String, Integer> range = map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+                int taken = 0;
+                for (Map.Entry<String, Integer> entry : range.entrySet()) {
+                    if (++taken > 10) {
+                        break;
+                    }
+                    results++;
+                }
+            }
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / (2_000.0 * prefixes.length);
+
+        System.out.println("TreeMap baseline:");
+        System.out.printf("  heap: %,d bytes (%.1f bytes/key)%n", heap, (double) heap / keys.size());
+        System.out.printf("  first-10 range scan: %.2f us/query (%d results)%n", micros, results);
+        Reference.reachabilityFence(map);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,129 @@
+package edu.ccrm.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Append-mostly list with versioned, immutable snapshots.
+ *
+ * Elements live in fixed-size segments. Appends fill slots past the end of
+ * every published snapshot, so older views are never disturbed, and the new
+ * {@link Snapshot} is published with a single volatile store. Readers grab the
+ * current snapshot in O(1) and see a consistent view for as long as they hold
+ * it; they never block writers and never copy the list. Removal is rare and
+ * rebuilds the segments, so batch it with {@link #removeIf}.
+ *
+ * A snapshot versions membership only: which elements are in the list and
+ * in what order. The elements themselves are shared and mutable, so a reader
+ * walking a snapshot of students while enrollments are written can see some
+ * students before a write and others after it. Readers that need element
+ * state from one instant must check for writes around the read themselves.
+ */
+public class SnapshotList<T> {
+    private static final int SEGMENT_SHIFT = 8;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private volatile Snapshot<T> current = new Snapshot<>(new Object[0][], 0, 0L);
+
+    public Snapshot<T> snapshot() {
+        return current;
+    }
+
+    public synchronized void add(T element) {
+        Snapshot<T> base = current;
+        Object[][] segments = appendTo(base.segments, base.size, element);
+        current = new Snapshot<>(segments, base.size + 1, base.version + 1);
+    }
+
+    // Publishes the whole batch as one version
+    public synchronized void addAll(Collection<? extends T> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        Snapshot<T> base = current;
+        Object[][] segments = base.segments;
+        int size = base.size;
+        for (T element : elements) {
+            segments = appendTo(segments, size, element);
+            size++;
+        }
+        current = new Snapshot<>(segments, size, base.version + 1);
+    }
+
+    // Copies the survivors into fresh segments, O(n); published as one version
+    public synchronized int removeIf(Predicate<? super T> filter) {
+        Snapshot<T> base = current;
+        Object[][] segments = new Object[0][];
+        int size = 0;
+        for (T element : base) {
+            if (!filter.test(element)) {
+                segments = appendTo(segments, size, element);
+                size++;
+            }
+        }
+        int removed = base.size - size;
+        if (removed > 0) {
+            current = new Snapshot<>(segments, size, base.version + 1);
+        }
+        return removed;
+    }
+
+    public int size() {
+        return current.size;
+    }
+
+    public long version() {
+        return current.version;
+    }
+
+    // Writers are serialized, so slots at or beyond the published size are
+    // invisible to every existing snapshot and can be filled in place
+    private static Object[][] appendTo(Object[][] segments, int size, Object element) {
+        int segmentIndex = size >>> SEGMENT_SHIFT;
+        if (segmentIndex == segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(4, segments.length * 2));
+        }
+        if (segments[segmentIndex] == null) {
+            segments[segmentIndex] = new Object[SEGMENT_SIZE];
+        }
+        segments[segmentIndex][size & SEGMENT_MASK] = element;
+        return segments;
+    }
+
+    /**
+     * Immutable point-in-time view of the list.
+     */
+    public static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] segments;
+        private final int size;
+        private final long version;
+
+        private Snapshot(Object[][] segments, int size, long version) {
+            this.segments = segments;
+            this.size = size;
+            this.version = version;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (T) segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
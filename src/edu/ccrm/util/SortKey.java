@@ -0,0 +1,132 @@
+package edu.ccrm.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Total ordering key used for keyset pagination: a primary value (text,
+ * record key or number, optionally descending) with the record's unique key
+ * as tiebreaker. Record keys made only of digits compare as numbers, so ids
+ * 1, 2, 10 stay in that order. Keys name the field they sort on and
+ * round-trip through an opaque cursor string.
+ */
+public final class SortKey implements Comparable<SortKey> {
+    private static final char SEPARATOR = '\u0000';
+
+    private enum Kind { TEXT, KEY, NUMBER, NUMBER_DESC }
+
+    private final String field;
+    private final Kind kind;
+    private final String text;
+    private final double number;
+    private final String unique;
+
+    private SortKey(String field, Kind kind, String text, double number, String unique) {
+        this.field = field;
+        this.kind = kind;
+        this.text = text;
+        this.number = number;
+        this.unique = unique;
+    }
+
+    public static SortKey ofText(String field, String text, String unique) {
+        return new SortKey(field, Kind.TEXT, text != null ? text : "", 0.0, unique);
+    }
+
+    // Sorts on the unique key itself
+    public static SortKey ofKey(String field, String unique) {
+        return new SortKey(field, Kind.KEY, unique, 0.0, unique);
+    }
+
+    public static SortKey ofNumber(String field, double number, String unique) {
+        return new SortKey(field, Kind.NUMBER, "", number, unique);
+    }
+
+    public static SortKey ofNumberDescending(String field, double number, String unique) {
+        return new SortKey(field, Kind.NUMBER_DESC, "", number, unique);
+    }
+
+    @Override
+    public int compareTo(SortKey other) {
+        int result = switch (kind) {
+            case TEXT -> text.compareTo(other.text);
+            case KEY -> compareKeys(text, other.text);
+            case NUMBER -> Double.compare(number, other.number);
+            case NUMBER_DESC -> Double.compare(other.number, number);
+        };
+        return result != 0 ? result : compareKeys(unique, other.unique);
+    }
+
+    // Digit-only keys first, by value (shorter without leading zeros is smaller), then the rest as text
+    static int compareKeys(String a, String b) {
+        boolean aNumeric = isDigits(a);
+        boolean bNumeric = isDigits(b);
+        if (aNumeric != bNumeric) {
+            return aNumeric ? -1 : 1;
+        }
+        if (aNumeric) {
+            String aValue = stripLeadingZeros(a);
+            String bValue = stripLeadingZeros(b);
+            int result = aValue.length() != bValue.length()
+                ? Integer.compare(aValue.length(), bValue.length())
+                : aValue.compareTo(bValue);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return a.compareTo(b);
+    }
+
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int start = 0;
+        while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+            start++;
+        }
+        return digits.substring(start);
+    }
+
+    public String toCursor() {
+        String primary = kind == Kind.TEXT || kind == Kind.KEY ? text : Double.toString(number);
+        String raw = field + SEPARATOR + kind.name() + SEPARATOR + primary + SEPARATOR + unique;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SortKey fromCursor(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        try {
+            Kind kind = Kind.valueOf(parts[1]);
+            return kind == Kind.TEXT || kind == Kind.KEY
+                ? new SortKey(parts[0], kind, parts[2], 0.0, parts[3])
+                : new SortKey(parts[0], kind, "", Double.parseDouble(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+    }
+
+    // Cursors only make sense against keys built the same way, on the same field
+    public boolean isCompatibleWith(SortKey other) {
+        return kind == other.kind && field.equals(other.field);
+    }
+}
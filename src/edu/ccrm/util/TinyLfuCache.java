@@ -0,0 +1,225 @@
+package edu.ccrm.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded cache with W-TinyLFU admission.
+ *
+ * New entries go to a small LRU window (about 1% of capacity). An entry
+ * pushed out of the window competes with the coldest entry of the main area
+ * for a place there: whichever a frequency sketch says was requested more
+ * often stays and the other is evicted. The main area is a segmented LRU:
+ * entries start in probation and move to the protected segment (80% of the
+ * main area) when hit again. A burst of one-off lookups therefore only
+ * churns the window and cannot flush entries that are used steadily.
+ *
+ * The sketch is a count-min sketch of 4-bit counters, four per key, packed
+ * sixteen to a long. After 10 x capacity recorded requests every counter is
+ * halved, so old popularity fades.
+ *
+ * Evicted entries are handed to the eviction listener on the calling thread.
+ * All methods are synchronized.
+ */
+public class TinyLfuCache<K, V> {
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final BiConsumer<K, V> evictionListener;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public TinyLfuCache(int capacity, BiConsumer<K, V> evictionListener) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+        }
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.protectedCapacity = (int) ((capacity - windowCapacity) * 0.8);
+        this.sketch = new FrequencySketch(capacity);
+        this.evictionListener = evictionListener;
+    }
+
+    // Counts a hit or a miss and records the request in the sketch
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                promote(key, value);
+            }
+        }
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    // Present without counting a request or changing recency
+    public synchronized V peek(K key) {
+        V value = window.get(key);
+        if (value == null) {
+            value = probation.get(key);
+        }
+        return value != null ? value : protectedSegment.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        window.put(key, value);
+        if (window.size() > windowCapacity) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    // Dropped without calling the eviction listener
+    public synchronized V remove(K key) {
+        V value = window.remove(key);
+        if (value == null) {
+            value = probation.remove(key);
+        }
+        return value != null ? value : protectedSegment.remove(key);
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    public synchronized long getEvictionCount() { return evictions; }
+
+    // Moves a probation entry that was hit again into the protected segment
+    private void promote(K key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedCapacity) {
+            Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    // A window victim joins the main area if there is room or it is requested more than the main victim
+    private void admit(K key, V value) {
+        if (probation.size() + protectedSegment.size() < capacity - windowCapacity) {
+            probation.put(key, value);
+            return;
+        }
+        LinkedHashMap<K, V> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        K victimKey = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(key) > sketch.frequency(victimKey)) {
+            V victimValue = victimSegment.remove(victimKey);
+            probation.put(key, value);
+            evict(victimKey, victimValue);
+        } else {
+            evict(key, value);
+        }
+    }
+
+    private void evict(K key, V value) {
+        evictions++;
+        evictionListener.accept(key, value);
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+        Map.Entry<K, V> eldest = iterator.next();
+        Map.Entry<K, V> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        iterator.remove();
+        return copy;
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters with periodic halving.
+     */
+    private static final class FrequencySketch {
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int capacity) {
+            int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            this.table = new long[size];
+            this.sampleSize = 10 * capacity;
+        }
+
+        private int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                long slot = slot(hash, i);
+                int shift = counterShift(hash, i);
+                frequency = Math.min(frequency, (int) ((table[(int) slot] >>> shift) & 0xF));
+            }
+            return frequency;
+        }
+
+        private void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int slot = (int) slot(hash, i);
+                int shift = counterShift(hash, i);
+                if (((table[slot] >>> shift) & 0xF) < 15) {
+                    table[slot] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private long slot(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            return (h ^ (h >>> 32)) & (table.length - 1);
+        }
+
+        // Which of the long's sixteen counters row i uses
+        private static int counterShift(int hash, int i) {
+            return (((hash >>> (i * 8)) & 3) + (i << 2)) << 2;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 17;
+            hash *= 0xED5AD4BB;
+            hash ^= hash >>> 11;
+            return hash;
+        }
+    }
+}
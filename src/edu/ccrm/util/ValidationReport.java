@@ -0,0 +1,79 @@
+package edu.ccrm.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of validating one batch: every violation in line order and which
+ * rows were rejected. Rows are indexed as in the validated list; the row
+ * count leaves out blank rows.
+ */
+public class ValidationReport {
+    private final List<Validator.Violation> violations;
+    private final BitSet rejected = new BitSet();
+    private final int rowCount;
+
+    ValidationReport(List<Validator.Violation> violations, int rowCount, int firstLineNumber) {
+        violations.sort(Comparator.comparingInt(Validator.Violation::getLine));
+        this.violations = Collections.unmodifiableList(violations);
+        this.rowCount = rowCount;
+        for (Validator.Violation violation : violations) {
+            rejected.set(violation.getLine() - firstLineNumber);
+        }
+    }
+
+    public boolean isRejected(int rowIndex) {
+        return rejected.get(rowIndex);
+    }
+
+    public int getRowCount() { return rowCount; }
+    public int getRejectedCount() { return rejected.cardinality(); }
+    public boolean hasViolations() { return !violations.isEmpty(); }
+    public List<Validator.Violation> getViolations() { return violations; }
+
+    // Violation counts per "field/rule", for a one-line overview
+    public Map<String, Integer> countByRule() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Validator.Violation violation : violations) {
+            counts.merge(violation.getField() + "/" + violation.getRule(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    // Prints the counts and the first few violations
+    public void printSummary(String label, int maxLines) {
+        if (!hasViolations()) {
+            return;
+        }
+        System.out.printf("Rejected %d of %d %s rows: %s%n", getRejectedCount(), rowCount, label, countByRule());
+        violations.stream().limit(maxLines).forEach(v -> System.out.println("  " + v));
+        if (violations.size() > maxLines) {
+            System.out.println("  ... " + (violations.size() - maxLines) + " more");
+        }
+    }
+
+    public void writeCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>(violations.size() + 1);
+        lines.add("line,field,rule,value");
+        for (Validator.Violation v : violations) {
+            lines.add(v.getLine() + "," + v.getField() + "," + v.getRule() + "," + quote(v.getValue()));
+        }
+        Files.write(file, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,280 @@
+package edu.ccrm.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Rule set for rows of parsed text fields, compiled once and applied to
+ * whole batches.
+ *
+ * Columns are named when the validator is built. Each rule is resolved to a
+ * column index then, and patterns are compiled then, so checking a row is
+ * just a few array reads and matches. Batches at or above
+ * {@link #PARALLEL_THRESHOLD} rows are checked in parallel chunks, and the
+ * results are joined in row order. Uniqueness needs every earlier row, so
+ * it runs in a sequential pass afterwards over the rows nothing rejected,
+ * and a rejected row never claims a value a later valid row repeats.
+ *
+ * <pre>
+ *   Validator courses = Validator.forColumns("code", "title", "credits")
+ *       .required("code").matches("code", "[A-Z]{2,5}\\d{3,4}", "course-code")
+ *       .intRange("credits", 1, 6)
+ *       .unique("code")
+ *       .build();
+ *   ValidationReport report = courses.validate(rows, 2);
+ * </pre>
+ */
+public class Validator {
+    public static final int PARALLEL_THRESHOLD = 5_000;
+    private static final int CHUNK_SIZE = 1_024;
+
+    private final String[] columns;
+    private final int requiredColumns;
+    private final ColumnRules[] rules;
+    private final int[] uniqueColumns;
+
+    private Validator(Builder builder) {
+        this.columns = builder.columns.toArray(new String[0]);
+        this.requiredColumns = builder.requiredColumns;
+        this.rules = new ColumnRules[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            ColumnRules column = builder.rules.get(i);
+            column.checks.trimToSize();
+            rules[i] = column;
+        }
+        this.uniqueColumns = builder.unique.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static Builder forColumns(String... columns) {
+        return new Builder(columns);
+    }
+
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    /**
+     * Checks every row. Row i is reported as line firstLineNumber + i. Blank
+     * rows (no fields) are skipped and never rejected.
+     */
+    public ValidationReport validate(List<String[]> rows, int firstLineNumber) {
+        int chunks = (rows.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunkIndexes = IntStream.range(0, chunks);
+        if (rows.size() >= PARALLEL_THRESHOLD) {
+            chunkIndexes = chunkIndexes.parallel();
+        }
+        List<Violation> violations = chunkIndexes
+            .mapToObj(chunk -> validateChunk(rows, chunk * CHUNK_SIZE,
+                Math.min(rows.size(), (chunk + 1) * CHUNK_SIZE), firstLineNumber))
+            .flatMap(List::stream)
+            .collect(Collectors.toCollection(ArrayList::new));
+
+        BitSet rejected = new BitSet(rows.size());
+        for (Violation violation : violations) {
+            rejected.set(violation.getLine() - firstLineNumber);
+        }
+        for (int column : uniqueColumns) {
+            checkUnique(rows, column, firstLineNumber, rejected, violations);
+        }
+        int nonBlank = (int) rows.stream().filter(fields -> fields.length > 0).count();
+        return new ValidationReport(violations, nonBlank, firstLineNumber);
+    }
+
+    private List<Violation> validateChunk(List<String[]> rows, int from, int to, int firstLineNumber) {
+        List<Violation> found = new ArrayList<>(0);
+        for (int row = from; row < to; row++) {
+            String[] fields = rows.get(row);
+            if (fields.length == 0) {
+                continue;
+            }
+            int line = firstLineNumber + row;
+            if (fields.length < requiredColumns) {
+                found.add(new Violation(line, "*", "column-count",
+                    fields.length + " of " + requiredColumns + " columns"));
+                continue;
+            }
+            int present = Math.min(fields.length, columns.length);
+            for (int column = 0; column < present; column++) {
+                rules[column].check(line, columns[column], fields[column], found);
+            }
+        }
+        return found;
+    }
+
+    // Later rows repeating an earlier value are rejected and marked; the first valid one stands
+    private void checkUnique(List<String[]> rows, int column, int firstLineNumber, BitSet rejected,
+                             List<Violation> violations) {
+        Set<String> seen = new HashSet<>(rows.size() * 2);
+        for (int row = rejected.nextClearBit(0); row < rows.size(); row = rejected.nextClearBit(row + 1)) {
+            String[] fields = rows.get(row);
+            if (fields.length <= column || fields[column].isEmpty()) {
+                continue;
+            }
+            // Codes and regNos are usually upper case already, so this rarely copies
+            if (!seen.add(fields[column].toUpperCase(Locale.ROOT))) {
+                violations.add(new Violation(firstLineNumber + row, columns[column], "unique", fields[column]));
+                rejected.set(row);
+            }
+        }
+    }
+
+    /**
+     * One failed rule: file line, column name, rule name and the offending value.
+     */
+    public static final class Violation {
+        private final int line;
+        private final String field;
+        private final String rule;
+        private final String value;
+
+        Violation(int line, String field, String rule, String value) {
+            this.line = line;
+            this.field = field;
+            this.rule = rule;
+            this.value = value;
+        }
+
+        public int getLine() { return line; }
+        public String getField() { return field; }
+        public String getRule() { return rule; }
+        public String getValue() { return value; }
+
+        @Override
+        public String toString() {
+            return String.format("line %d: %s fails %s ('%s')", line, field, rule, value);
+        }
+    }
+
+    private static final class Check {
+        private final String rule;
+        private final Predicate<String> test;
+
+        private Check(String rule, Predicate<String> test) {
+            this.rule = rule;
+            this.test = test;
+        }
+    }
+
+    private static final class ColumnRules {
+        private boolean required;
+        private final ArrayList<Check> checks = new ArrayList<>();
+
+        // A missing optional value skips the column; a failed required check skips the rest
+        private void check(int line, String column, String value, List<Violation> found) {
+            if (value.isEmpty()) {
+                if (required) {
+                    found.add(new Violation(line, column, "required", value));
+                }
+                return;
+            }
+            for (Check check : checks) {
+                if (!check.test.test(value)) {
+                    found.add(new Violation(line, column, check.rule, value));
+                }
+            }
+        }
+    }
+
+    /**
+     * Declares the rules per column; {@link #build} freezes them.
+     */
+    public static final class Builder {
+        private final List<String> columns = new ArrayList<>();
+        private final int requiredColumns;
+        private final Map<String, Integer> indexOf = new HashMap<>();
+        private final List<ColumnRules> rules = new ArrayList<>();
+        private final List<Integer> unique = new ArrayList<>();
+
+        private Builder(String[] columns) {
+            for (String column : columns) {
+                addColumn(column);
+            }
+            this.requiredColumns = columns.length;
+        }
+
+        // Trailing columns that older files may leave out; rules apply only when present
+        public Builder optionalColumns(String... names) {
+            for (String column : names) {
+                addColumn(column);
+            }
+            return this;
+        }
+
+        private void addColumn(String column) {
+            indexOf.put(column, columns.size());
+            columns.add(column);
+            rules.add(new ColumnRules());
+        }
+
+        public Builder required(String column) {
+            rules.get(index(column)).required = true;
+            return this;
+        }
+
+        public Builder matches(String column, String regex, String ruleName) {
+            Pattern pattern = Pattern.compile(regex);
+            // One Matcher per thread, reset per value, instead of one per value
+            ThreadLocal<Matcher> matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+            return check(column, ruleName, value -> matcher.get().reset(value).matches());
+        }
+
+        public Builder maxLength(String column, int max) {
+            return check(column, "max-length-" + max, value -> value.length() <= max);
+        }
+
+        public Builder intRange(String column, int min, int max) {
+            return check(column, "int-" + min + "-" + max, value -> {
+                try {
+                    int n = Integer.parseInt(value);
+                    return n >= min && n <= max;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            });
+        }
+
+        // Case-insensitive match against the constant names of an enum
+        public <E extends Enum<E>> Builder enumValue(String column, Class<E> type) {
+            Set<String> names = Arrays.stream(type.getEnumConstants())
+                .map(Enum::name).collect(Collectors.toUnmodifiableSet());
+            return check(column, type.getSimpleName().toLowerCase(Locale.ROOT),
+                value -> names.contains(value.toUpperCase(Locale.ROOT)));
+        }
+
+        // No two rows may share a value (compared case-insensitively)
+        public Builder unique(String column) {
+            unique.add(index(column));
+            return this;
+        }
+
+        public Builder check(String column, String ruleName, Predicate<String> test) {
+            rules.get(index(column)).checks.add(new Check(ruleName, test));
+            return this;
+        }
+
+        public Validator build() {
+            return new Validator(this);
+        }
+
+        private int index(String column) {
+            Integer index = indexOf.get(column);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+            return index;
+        }
+    }
+}